@@ -34,9 +34,13 @@
 #include <termios.h>
 #include <time.h>
 #include <errno.h>//-D_TS_ERRNO use for Solaris C++ compiler
+#include <pthread.h>
 
 #ifdef __linux__
     #include <linux/serial.h>
+    #include <sys/epoll.h>
+    #include <signal.h>
+    #include "termios2.h"
 #endif
 #ifdef __sun
     #include <sys/filio.h>//Needed for FIONREAD in Solaris
@@ -71,6 +75,84 @@ JNIEXPORT jstring JNICALL Java_jssc_SerialNativeInterface_getNativeLibraryVersio
     return env->NewStringUTF(JSSC_VERSION);
 }
 
+/*
+ * A value per port, indexed by the port handle, -1 if there is none.
+ */
+struct PortTable {
+    pthread_mutex_t lock;
+    int *values;
+    int length;
+};
+
+/**
+ * Remembers 'value' for the port 'fd', or forgets it if -1.
+ *
+ * Returns false if there is no memory for the entry.
+ */
+static bool setPortValue(PortTable *table, int fd, int value){
+    bool stored = true;
+    pthread_mutex_lock(&table->lock);
+    if( fd >= table->length && value != -1 ){
+        int length = fd < 64 ? 64 : fd * 2;
+        int *grown = (int*)realloc(table->values, length * sizeof *grown);
+        if( grown != NULL ){
+            for(int i = table->length; i < length; i++) grown[i] = -1;
+            table->values = grown;
+            table->length = length;
+        }
+    }
+    if( fd < table->length ){
+        table->values[fd] = value;
+    }
+    else {
+        stored = value == -1;
+    }
+    pthread_mutex_unlock(&table->lock);
+    return stored;
+}
+
+/**
+ * Returns the value of the port 'fd', or -1.
+ */
+static int getPortValue(PortTable *table, jlong fd){
+    int value = -1;
+    pthread_mutex_lock(&table->lock);
+    if( fd >= 0 && fd < table->length ){
+        value = table->values[fd];
+    }
+    pthread_mutex_unlock(&table->lock);
+    return value;
+}
+
+/*
+ * A second open file description of each port, in non-blocking mode and
+ * only used by writeUntil. The file status flags of the port handle are
+ * shared by all threads using the port, so they are never changed after
+ * openPort.
+ */
+static PortTable writeFds = {PTHREAD_MUTEX_INITIALIZER, NULL, 0};
+
+static bool setWriteFd(int fd, int writeFd){
+    return setPortValue(&writeFds, fd, writeFd);
+}
+
+/**
+ * Returns the non-blocking write descriptor of the port 'fd', or -1.
+ */
+static int getWriteFd(jlong fd){
+    return getPortValue(&writeFds, fd);
+}
+
+/*
+ * Latency timer of the USB serial adapter of each port before setLowLatency
+ * enabled it, restored when disabled or on closing.
+ */
+static PortTable savedLatencyTimers = {PTHREAD_MUTEX_INITIALIZER, NULL, 0};
+
+#ifdef __linux__
+static bool restoreLatencyTimer(jlong fd);
+#endif
+
 /* OK */
 /*
  * Port opening
@@ -84,6 +166,12 @@ JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_openPort(JNIEnv *env, jo
         //since 2.2.0 -> (check termios structure for separating real serial devices from others)
         termios *settings = new termios();
         if(tcgetattr(hComm, settings) == 0){
+            //since 2.11.0 -> (must happen before TIOCEXCL refuses further opens)
+            int writeFd = open(port, O_WRONLY | O_NOCTTY | O_NONBLOCK);
+            if(writeFd != -1 && !setWriteFd(hComm, writeFd)){
+                close(writeFd);
+            }
+            //<- since 2.11.0
         #if defined TIOCEXCL //&& !defined __SunOS
             if(useTIOCEXCL == JNI_TRUE){
                 ioctl(hComm, TIOCEXCL);
@@ -247,6 +335,7 @@ int getDataBitsByNum(jint byteSize) {
 const jint PARAMS_FLAG_IGNPAR = 1;
 const jint PARAMS_FLAG_PARMRK = 2;
 //<- since 2.6.0
+const jint PARAMS_FLAG_CUSTOM_DIVISOR = 4;//since 2.11.0
 
 /* OK */
 /*
@@ -268,34 +357,46 @@ JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setParams
             if(cfsetispeed(settings, baudRateValue) < 0 || cfsetospeed(settings, baudRateValue) < 0){
                 goto methodEnd;
             }
+        #ifdef CIBAUD
+            settings->c_cflag &= ~CIBAUD;//Input speed follows, instead of a BOTHER rate of termios2
+        #endif
         }
         else {
         #ifdef __SunOS
             goto methodEnd;//Solaris don't support non standart baudrates
         #elif defined __linux__
-            //Try to calculate a divisor for setting non standart baudrate
-            serial_struct *serial_info = new serial_struct();
-            if(ioctl(portHandle, TIOCGSERIAL, serial_info) < 0){ //Getting serial_info structure
-                delete serial_info;
-                goto methodEnd;
-            }
-            else {
-                serial_info->flags |= ASYNC_SPD_CUST;
-                serial_info->custom_divisor = (serial_info->baud_base/baudRate); //Calculate divisor
-                if(serial_info->custom_divisor == 0){ //If divisor == 0 go to method end to prevent "division by zero" error
-                    delete serial_info;
+            //since 2.11.0 -> exact rate with BOTHER, kept by the kernel while tcsetattr() leaves the speed alone
+            if((flags & PARAMS_FLAG_CUSTOM_DIVISOR) == 0 && setBaudRateTermios2(portHandle, baudRate)){
+                if(tcgetattr(portHandle, settings) != 0){
                     goto methodEnd;
                 }
-                settings->c_cflag |= B38400;
-                if(cfsetispeed(settings, B38400) < 0 || cfsetospeed(settings, B38400) < 0){
+            }
+            //<- since 2.11.0
+            else {
+                //Try to calculate a divisor for setting non standart baudrate
+                serial_struct *serial_info = new serial_struct();
+                if(ioctl(portHandle, TIOCGSERIAL, serial_info) < 0){ //Getting serial_info structure
                     delete serial_info;
                     goto methodEnd;
                 }
-                if(ioctl(portHandle, TIOCSSERIAL, serial_info) < 0){//Try to set new settings with non standart baudrate
+                else {
+                    serial_info->flags |= ASYNC_SPD_CUST;
+                    serial_info->custom_divisor = (serial_info->baud_base/baudRate); //Calculate divisor
+                    if(serial_info->custom_divisor == 0){ //If divisor == 0 go to method end to prevent "division by zero" error
+                        delete serial_info;
+                        goto methodEnd;
+                    }
+                    settings->c_cflag |= B38400;
+                    if(cfsetispeed(settings, B38400) < 0 || cfsetospeed(settings, B38400) < 0){
+                        delete serial_info;
+                        goto methodEnd;
+                    }
+                    if(ioctl(portHandle, TIOCSSERIAL, serial_info) < 0){//Try to set new settings with non standart baudrate
+                        delete serial_info;
+                        goto methodEnd;
+                    }
                     delete serial_info;
-                    goto methodEnd;
                 }
-                delete serial_info;
             }
         #endif
         }
@@ -463,6 +564,14 @@ JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_closePort
   (JNIEnv *, jobject, jlong portHandle){
 #if defined TIOCNXCL //&& !defined __SunOS
     ioctl(portHandle, TIOCNXCL);//since 2.1.0 Clear exclusive port access on closing
+#endif
+    int writeFd = getWriteFd(portHandle);
+    if(writeFd != -1){
+        setWriteFd(portHandle, -1);
+        close(writeFd);
+    }
+#ifdef __linux__
+    restoreLatencyTimer(portHandle);
 #endif
     return close(portHandle) == 0 ? JNI_TRUE : JNI_FALSE;
 }
@@ -554,17 +663,18 @@ JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_writeBytes
     }
     ret = (result == bufferSize) ? JNI_TRUE : JNI_FALSE;
 Finally:
-    env->ReleaseByteArrayElements(buffer, jBuffer, 0);
+    env->ReleaseByteArrayElements(buffer, jBuffer, JNI_ABORT);
     return ret;
 }
 
 /**
- * Waits until 'read()' has something to tell for the specified filedescriptor.
+ * Waits until 'read()' has something to tell for the specified filedescriptor,
+ * but at most 'timeoutMs' milliseconds (forever if negative).
  *
- * Returns zero on success. Returns negative values on error and may
- * sets up a java exception in 'env'.
+ * Returns a positive value on success and zero if the timeout elapsed.
+ * Returns negative values on error and may sets up a java exception in 'env'.
  */
-static int awaitReadReady(JNIEnv*env, jlong fd){
+static int awaitReadReady(JNIEnv*env, jlong fd, int timeoutMs){
     int err;
     int numUnknownErrors = 0;
 #if HAVE_POLL == 0
@@ -577,10 +687,14 @@ static int awaitReadReady(JNIEnv*env, jlong fd){
         return -EBADF;
     }
     fd_set readFds;
+    struct timeval timeout;
+    int result;
     while(true) {
         FD_ZERO(&readFds);
         FD_SET(fd, &readFds);
-        int result = select(fd + 1, &readFds, NULL, NULL, NULL);
+        timeout.tv_sec = timeoutMs / 1000;
+        timeout.tv_usec = (timeoutMs % 1000) * 1000;
+        result = select(fd + 1, &readFds, NULL, NULL, timeoutMs < 0 ? NULL : &timeout);
         if( result < 0 ){
             err = errno;
             jclass exClz = NULL;
@@ -616,10 +730,11 @@ static int awaitReadReady(JNIEnv*env, jlong fd){
     // SEGFAULT problems).
 
     struct pollfd fds[1];
+    int result;
     fds[0].fd = fd;
     fds[0].events = POLLIN;
     while(true){
-        int result = poll(fds, 1, -1);
+        result = poll(fds, 1, timeoutMs);
         if( result < 0 ){
             err = errno;
             jclass exClz = NULL;
@@ -645,64 +760,83 @@ static int awaitReadReady(JNIEnv*env, jlong fd){
     }
 
 #endif
-    return 0;
+    return result;
 }
 
-/* OK */
-/*
- * Reading data from the port
- *
- * Rewritten to use poll() instead of select() to handle fd>=1024
+/**
+ * Returns the count of bytes waiting in the input buffer of 'fd', or -1 with
+ * a pending java exception.
  */
-JNIEXPORT jbyteArray JNICALL Java_jssc_SerialNativeInterface_readBytes
-  (JNIEnv *env, jobject, jlong portHandle, jint byteCount){
-
-    int err;
-    jbyte *lpBuffer = NULL;
-    jbyteArray returnArray = NULL;
-    int byteRemains = byteCount;
-
-    if( byteCount < 0 ){
-        char emsg[64]; emsg[0] = '\0';
-        snprintf(emsg, sizeof emsg, "byteCount %d. Expected range: 0..2147483647", byteCount);
-        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
-        if( exClz ) env->ThrowNew(exClz, emsg);
-        returnArray = NULL; goto Finally;
-    }else if( byteCount == 0 ){
-        returnArray = env->NewByteArray(0);
-        goto Finally;
+static jint availableBytes(JNIEnv *env, jlong fd){
+    int available = 0;
+    if( ioctl(fd, FIONREAD, &available) == -1 ){
+        int err = errno;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return -1;
     }
+    return available;
+}
 
-    lpBuffer = (jbyte*)malloc(byteCount*sizeof*lpBuffer);
-    if( !lpBuffer ){
-        char emsg[32]; emsg[0] = '\0';
-        snprintf(emsg, sizeof emsg, "malloc(%d) failed", byteCount*sizeof*lpBuffer);
-        jclass exClz = env->FindClass("java/lang/RuntimeException");
-        if( exClz ) env->ThrowNew(exClz, emsg);
-        returnArray = NULL; goto Finally;
+/**
+ * Reads up to 'length' bytes which are already waiting in the input buffer.
+ * The read is sized by FIONREAD so it never blocks, even if the termios
+ * settings of the port still have VMIN > 0.
+ *
+ * Returns the count of bytes stored at 'dst' (zero if nothing is waiting),
+ * or -1 with a pending java exception.
+ */
+static jint readAvailableInto(JNIEnv *env, jlong fd, jbyte *dst, jint length){
+    jint available = availableBytes(env, fd);
+    if( available <= 0 || length == 0 ) return available < 0 ? -1 : 0;
+    if( available > length ) available = length;
+    ssize_t result = read(fd, dst, (size_t)available);
+    if( result < 0 ){
+        int err = errno;
+        if( err == EAGAIN || err == EINTR ) return 0;
+        jclass exClz = env->FindClass(err == EBADF ? "java/lang/IllegalArgumentException" : "java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, err == EBADF ? "EBADF" : strerror(err));
+        return -1;
     }
+    return (jint)result;
+}
+
+/**
+ * Reads from 'fd' until 'count' bytes are stored at 'dst'. Blocks until data
+ * arrives, the same way readBytes always did.
+ *
+ * Returns the number of bytes stored. Returns -1 with a pending java
+ * exception in 'env' if nothing could be read.
+ */
+static jint readFully(JNIEnv *env, jlong fd, jbyte *dst, jint count){
+    int err;
+    jint byteRemains = count;
 
     while(byteRemains > 0) {
         int result = 0;
 
-        err = awaitReadReady(env, portHandle);
+        err = awaitReadReady(env, fd, -1);
         if( err < 0 ){
             /* nothing we could read. */
-            if( byteRemains != byteCount ){
+            if( byteRemains != count ){
                 /* return what we already have so far. */
                 env->ExceptionClear();
                 break;
             }else{
                 /* nothing we could return. pass-through exception */
                 assert(env->ExceptionCheck());
-                returnArray = NULL; goto Finally;
+                return -1;
             }
         }
 
         errno = 0;
-        result = read(portHandle, lpBuffer + (byteCount - byteRemains), byteRemains);
+        result = read(fd, dst + (count - byteRemains), byteRemains);
         if (result < 0) {
             err = errno;
+            if( err == EINTR ){
+                // Interrupted by a signal before anything arrived. Just wait again.
+                continue;
+            }
             const char *exName = NULL, *emsg = NULL;
             switch( err ){
                 case EBADF: exName = "java/lang/IllegalArgumentException"; emsg = "EBADF"; break;
@@ -710,7 +844,7 @@ JNIEXPORT jbyteArray JNICALL Java_jssc_SerialNativeInterface_readBytes
             }
             jclass exClz = env->FindClass(exName);
             if( exClz != NULL ) env->ThrowNew(exClz, emsg);
-            returnArray = NULL; goto Finally;
+            return -1;
         }
         else if (result == 0) {
             // AFAIK this happens either on EOF or on EWOULDBLOCK (see 'man read').
@@ -721,10 +855,50 @@ JNIEXPORT jbyteArray JNICALL Java_jssc_SerialNativeInterface_readBytes
             byteRemains -= result;
         }
     }
+    return count - byteRemains;
+}
+
+/* OK */
+/*
+ * Reading data from the port
+ *
+ * Rewritten to use poll() instead of select() to handle fd>=1024
+ */
+JNIEXPORT jbyteArray JNICALL Java_jssc_SerialNativeInterface_readBytes
+  (JNIEnv *env, jobject, jlong portHandle, jint byteCount){
+
+    jbyte *lpBuffer = NULL;
+    jbyteArray returnArray = NULL;
+    jint byteRead;
+
+    if( byteCount < 0 ){
+        char emsg[64]; emsg[0] = '\0';
+        snprintf(emsg, sizeof emsg, "byteCount %d. Expected range: 0..2147483647", byteCount);
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz ) env->ThrowNew(exClz, emsg);
+        returnArray = NULL; goto Finally;
+    }else if( byteCount == 0 ){
+        returnArray = env->NewByteArray(0);
+        goto Finally;
+    }
+
+    lpBuffer = (jbyte*)malloc(byteCount*sizeof*lpBuffer);
+    if( !lpBuffer ){
+        char emsg[32]; emsg[0] = '\0';
+        snprintf(emsg, sizeof emsg, "malloc(%d) failed", byteCount*sizeof*lpBuffer);
+        jclass exClz = env->FindClass("java/lang/RuntimeException");
+        if( exClz ) env->ThrowNew(exClz, emsg);
+        returnArray = NULL; goto Finally;
+    }
+
+    byteRead = readFully(env, portHandle, lpBuffer, byteCount);
+    if( byteRead < 0 ){
+        returnArray = NULL; goto Finally;
+    }
 
-    returnArray = env->NewByteArray(byteCount - byteRemains);
+    returnArray = env->NewByteArray(byteRead);
     if( returnArray == NULL ) goto Finally;
-    env->SetByteArrayRegion(returnArray, 0, byteCount - byteRemains, lpBuffer);
+    env->SetByteArrayRegion(returnArray, 0, byteRead, lpBuffer);
     assert(env->ExceptionCheck() == JNI_FALSE);
 
 Finally:
@@ -732,127 +906,1186 @@ Finally:
     return returnArray;
 }
 
-/* OK */
-/*
- * Get bytes count in serial port buffers (Input and Output)
+/**
+ * Resolves the native address of 'buffer' and checks that the region
+ * [offset, offset+length) lies within its capacity.
+ *
+ * Returns NULL with a pending java exception if 'buffer' is null, not a
+ * direct buffer or the region is out of bounds.
  */
-JNIEXPORT jintArray JNICALL Java_jssc_SerialNativeInterface_getBuffersBytesCount
-  (JNIEnv *env, jobject, jlong portHandle){
-    int err;
-    jint returnValues[2];
-    returnValues[0] = -1; //Input buffer
-    returnValues[1] = -1; //Output buffer
-
-    err = ioctl(portHandle, FIONREAD, &returnValues[0]) == -1
-       || ioctl(portHandle, TIOCOUTQ, &returnValues[1]) == -1;
-    if( err ){
-        err = errno;
-        jclass exClz = env->FindClass("java/io/IOException");
-        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+static jbyte* getDirectBufferRegion(JNIEnv *env, jobject buffer, jint offset, jint length){
+    if( buffer == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "buffer");
         return NULL;
     }
-
-    jintArray returnArray = env->NewIntArray(2);
-    if( returnArray == NULL ) return NULL;
-    env->SetIntArrayRegion(returnArray, 0, 2, returnValues);
-    return returnArray;
+    jbyte *address = (jbyte*)env->GetDirectBufferAddress(buffer);
+    jlong capacity = env->GetDirectBufferCapacity(buffer);
+    if( address == NULL || capacity < 0 ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "buffer is not a direct buffer");
+        return NULL;
+    }
+    if( offset < 0 || length < 0 || (jlong)offset + length > capacity ){
+        char emsg[96]; emsg[0] = '\0';
+        snprintf(emsg, sizeof emsg, "offset %d, length %d, capacity %lld", offset, length, (long long)capacity);
+        jclass exClz = env->FindClass("java/lang/IndexOutOfBoundsException");
+        if( exClz != NULL ) env->ThrowNew(exClz, emsg);
+        return NULL;
+    }
+    return address + offset;
 }
 
-const jint FLOWCONTROL_NONE = 0;
-const jint FLOWCONTROL_RTSCTS_IN = 1;
-const jint FLOWCONTROL_RTSCTS_OUT = 2;
-const jint FLOWCONTROL_XONXOFF_IN = 4;
-const jint FLOWCONTROL_XONXOFF_OUT = 8;
+/**
+ * Size of the stack buffer used to move data between the driver and java
+ * arrays without a malloc per call.
+ */
+#define JSSC_ARRAY_CHUNK_SIZE 4096
 
-/* OK */
-/*
- * Setting flow control mode
+/**
+ * Checks that the region [offset, offset+length) lies within 'array'.
+ *
+ * Returns false with a pending java exception if 'array' is null or the
+ * region is out of bounds.
  */
-JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setFlowControlMode
-  (JNIEnv *, jobject, jlong portHandle, jint mask){
-    jboolean returnValue = JNI_FALSE;
-    termios *settings = new termios();
-    if(tcgetattr(portHandle, settings) == 0){
-        settings->c_cflag &= ~CRTSCTS;
-        settings->c_iflag &= ~(IXON | IXOFF);
-        if(mask != FLOWCONTROL_NONE){
-            if(((mask & FLOWCONTROL_RTSCTS_IN) == FLOWCONTROL_RTSCTS_IN) || ((mask & FLOWCONTROL_RTSCTS_OUT) == FLOWCONTROL_RTSCTS_OUT)){
-                settings->c_cflag |= CRTSCTS;
-            }
-            if((mask & FLOWCONTROL_XONXOFF_IN) == FLOWCONTROL_XONXOFF_IN){
-                settings->c_iflag |= IXOFF;
-            }
-            if((mask & FLOWCONTROL_XONXOFF_OUT) == FLOWCONTROL_XONXOFF_OUT){
-                settings->c_iflag |= IXON;
-            }
-        }
-        if(tcsetattr(portHandle, TCSANOW, settings) == 0){
-            returnValue = JNI_TRUE;
-        }
+static bool checkArrayRegion(JNIEnv *env, jbyteArray array, jint offset, jint length){
+    if( array == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "buffer");
+        return false;
     }
-    delete settings;
-    return returnValue;
+    jsize arrayLength = env->GetArrayLength(array);
+    if( offset < 0 || length < 0 || offset > arrayLength - length ){
+        char emsg[96]; emsg[0] = '\0';
+        snprintf(emsg, sizeof emsg, "offset %d, length %d, array length %d", offset, length, arrayLength);
+        jclass exClz = env->FindClass("java/lang/IndexOutOfBoundsException");
+        if( exClz != NULL ) env->ThrowNew(exClz, emsg);
+        return false;
+    }
+    return true;
 }
 
-/* OK */
 /*
- * Getting flow control mode
+ * Reading data from the port into a region of an existing array
+ *
+ * Blocks until 'length' bytes are read, like readBytes does. Data passes
+ * through a small stack buffer, so no memory gets allocated per call.
  */
-JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_getFlowControlMode
-  (JNIEnv *, jobject, jlong portHandle){
-    jint returnValue = 0;
-    termios *settings = new termios();
-    if(tcgetattr(portHandle, settings) == 0){
-        if(settings->c_cflag & CRTSCTS){
-            returnValue |= (FLOWCONTROL_RTSCTS_IN | FLOWCONTROL_RTSCTS_OUT);
-        }
-        if(settings->c_iflag & IXOFF){
-            returnValue |= FLOWCONTROL_XONXOFF_IN;
-        }
-        if(settings->c_iflag & IXON){
-            returnValue |= FLOWCONTROL_XONXOFF_OUT;
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArray
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteRead = 0;
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteRead < length ){
+        jint chunk = length - byteRead;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        jint result = readFully(env, portHandle, lpBuffer, chunk);
+        if( result < 0 ){
+            if( byteRead == 0 ) return -1;
+            /* return what we already have so far. */
+            env->ExceptionClear();
+            break;
         }
+        env->SetByteArrayRegion(buffer, offset + byteRead, result, lpBuffer);
+        byteRead += result;
+        if( result < chunk ) break;
     }
-    delete settings;
-    return returnValue;
+    return byteRead;
 }
 
-/* OK */
-/*
- * Send break for set duration
+/**
+ * Writes 'length' bytes from 'lpBuffer' with a single write().
+ *
+ * Returns the count of bytes accepted by the driver (zero if the driver
+ * would block). Returns -1 with a pending java exception on error.
  */
-JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_sendBreak
-  (JNIEnv *, jobject, jlong portHandle, jint duration){
-    jboolean returnValue = JNI_FALSE;
-    if(duration > 0){
-        if(ioctl(portHandle, TIOCSBRK, 0) >= 0){
-            int sec = (duration >= 1000 ? duration/1000 : 0);
-            int nanoSec = (sec > 0 ? duration - sec*1000 : duration)*1000000;
-            struct timespec *timeStruct = new timespec();
-            timeStruct->tv_sec = sec;
-            timeStruct->tv_nsec = nanoSec;
-            nanosleep(timeStruct, NULL);
-            delete(timeStruct);
-            if(ioctl(portHandle, TIOCCBRK, 0) >= 0){
-                returnValue = JNI_TRUE;
-            }
-        }
+static jint writeChunk(JNIEnv *env, jlong fd, const jbyte *lpBuffer, jint length){
+    jint result = write(fd, lpBuffer, (size_t)length);
+    if( result == -1 ){
+        int err = errno; /*bakup errno*/
+        if( err == EAGAIN || err == EINTR ) return 0;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return -1;
     }
-    return returnValue;
+    return result;
 }
 
-/* OK */
 /*
- * Return "statusLines" from ioctl(portHandle, TIOCMGET, &statusLines)
- * Need for "_waitEvents" and "_getLinesStatus"
+ * Writing a region of an array to the port
+ *
+ * Data passes through a small stack buffer instead of pinning or copying
+ * the whole array. Stops at the first short write and returns the count of
+ * bytes accepted by the driver.
  */
-int getLinesStatus(jlong portHandle) {
-    int statusLines;
-    ioctl(portHandle, TIOCMGET, &statusLines);
-    return statusLines;
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeArray
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteWritten = 0;
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteWritten < length ){
+        jint chunk = length - byteWritten;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        env->GetByteArrayRegion(buffer, offset + byteWritten, chunk, lpBuffer);
+        jint result = writeChunk(env, portHandle, lpBuffer, chunk);
+        if( result < 0 ){
+            if( byteWritten == 0 ) return -1;
+            /* report what already went out. */
+            env->ExceptionClear();
+            break;
+        }
+        byteWritten += result;
+        if( result < chunk ) break;
+    }
+    return byteWritten;
+}
+
+/**
+ * Returns a millisecond timestamp of a clock which is not affected by
+ * changes of the system time.
+ */
+static jlong monotonicMillis(){
+    struct timespec now;
+    clock_gettime(CLOCK_MONOTONIC, &now);
+    return (jlong)now.tv_sec * 1000 + now.tv_nsec / 1000000;
+}
+
+static jlong monotonicNanos(){
+    struct timespec now;
+    clock_gettime(CLOCK_MONOTONIC, &now);
+    return (jlong)now.tv_sec * 1000000000 + now.tv_nsec;
+}
+
+/**
+ * Waits up to 'timeoutMs' milliseconds (forever if negative) until 'write()'
+ * accepts more data for the specified filedescriptor.
+ *
+ * Returns zero on success or timeout. Returns negative values on error and
+ * sets up a java exception in 'env'.
+ */
+static int awaitWriteReady(JNIEnv *env, jlong fd, int timeoutMs){
+    int result;
+#if HAVE_POLL == 0
+    if( fd >= FD_SETSIZE ){
+        jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "Bad luck. 'select' cannot handle large fds.");
+        return -EBADF;
+    }
+    fd_set writeFds;
+    FD_ZERO(&writeFds);
+    FD_SET(fd, &writeFds);
+    struct timeval timeout;
+    timeout.tv_sec = timeoutMs / 1000;
+    timeout.tv_usec = (timeoutMs % 1000) * 1000;
+    result = select(fd + 1, NULL, &writeFds, NULL, timeoutMs < 0 ? NULL : &timeout);
+#else
+    struct pollfd fds[1];
+    fds[0].fd = fd;
+    fds[0].events = POLLOUT;
+    fds[0].revents = 0;
+    result = poll(fds, 1, timeoutMs);
+#endif
+    if( result < 0 ){
+        int err = errno;
+        if( err == EINTR ) return 0;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return -err;
+    }
+    return 0;
+}
+
+/**
+ * Writes 'length' bytes from 'lpBuffer', looping over short writes and
+ * waiting for the driver in between. Gives up once the monotonic clock
+ * reaches 'deadline' (never if negative).
+ *
+ * Writes through the non-blocking description opened next to the port (see
+ * setWriteFd), so a full driver never holds it past the deadline and the
+ * flags of the port handle stay untouched. Without one, the blocking port
+ * handle is written and the deadline only ends the loop.
+ *
+ * Returns the count of bytes written, which is less than 'length' only if
+ * the deadline passed. Returns -1 with a pending java exception on error.
+ */
+static jint writeUntil(JNIEnv *env, jlong portHandle, const jbyte *lpBuffer, jint length, jlong deadline){
+    jint byteWritten = 0;
+    jlong fd = getWriteFd(portHandle);
+    if( fd == -1 ) fd = portHandle;
+    while( byteWritten < length ){
+        ssize_t result = write(fd, lpBuffer + byteWritten, (size_t)(length - byteWritten));
+        if( result > 0 ){
+            byteWritten += (jint)result;
+            continue;
+        }
+        if( result < 0 && errno != EAGAIN && errno != EINTR ){
+            int err = errno; /*bakup errno*/
+            jclass exClz = env->FindClass("java/io/IOException");
+            if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+            return -1;
+        }
+        int timeoutMs = -1;
+        if( deadline >= 0 ){
+            jlong now = monotonicMillis();
+            if( now >= deadline ) break;
+            timeoutMs = (int)(deadline - now);
+        }
+        if( awaitWriteReady(env, fd, timeoutMs) < 0 ) return -1;
+    }
+    return byteWritten;
+}
+
+/*
+ * Writing a region of an array to the port completely
+ *
+ * Loops over short writes, waiting with poll(POLLOUT) in between, until all
+ * bytes are written or 'timeoutMs' elapsed (no deadline if negative).
+ * Returns the count of bytes written.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeArrayFully
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length, jint timeoutMs){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteWritten = 0;
+    jlong deadline = timeoutMs < 0 ? -1 : monotonicMillis() + timeoutMs;
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+    if( length == 0 ) return 0;
+
+    while( byteWritten < length ){
+        jint chunk = length - byteWritten;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        env->GetByteArrayRegion(buffer, offset + byteWritten, chunk, lpBuffer);
+        jint result = writeUntil(env, portHandle, lpBuffer, chunk, deadline);
+        if( result < 0 ){
+            byteWritten = -1;
+            break;
+        }
+        byteWritten += result;
+        if( result < chunk ) break;
+    }
+    return byteWritten;
+}
+
+/*
+ * Writing data from a direct buffer to the port completely
+ *
+ * Same as writeArrayFully, but without any copy.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeBufferFully
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length, jint timeoutMs){
+    jlong deadline = timeoutMs < 0 ? -1 : monotonicMillis() + timeoutMs;
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    if( length == 0 ) return 0;
+
+    return writeUntil(env, portHandle, lpBuffer, length, deadline);
+}
+
+/**
+ * Reads from 'fd' until 'count' bytes are stored at 'dst' or the monotonic
+ * clock reaches 'deadline'. Waits in poll()/select() for the remaining time
+ * instead of spinning.
+ *
+ * Returns the count of bytes stored, which is less than 'count' only if the
+ * deadline passed. Returns -1 with a pending java exception on error or when
+ * the port hung up.
+ */
+static jint readUntil(JNIEnv *env, jlong fd, jbyte *dst, jint count, jlong deadline){
+    jint byteRead = 0;
+    while( byteRead < count ){
+        jlong now = monotonicMillis();
+        int timeoutMs = now >= deadline ? 0 : (int)(deadline - now);
+        int ready = awaitReadReady(env, fd, timeoutMs);
+        if( ready < 0 ) return -1;
+        if( ready == 0 ) break;
+
+        // Sized by FIONREAD, so a VMIN above zero can't hold it past the deadline
+        jint result = readAvailableInto(env, fd, dst + byteRead, count - byteRead);
+        if( result < 0 ) return -1;
+        if( result == 0 ){
+            // Readable with nothing queued: the port hung up or failed. A
+            // read() tells which, instead of waiting for the deadline.
+            ssize_t probe = read(fd, dst + byteRead, 1);
+            if( probe > 0 ){
+                byteRead += (jint)probe;
+                continue;
+            }
+            int err = probe < 0 ? errno : 0;
+            if( err == EINTR || err == EAGAIN || err == EWOULDBLOCK ) continue;
+            jclass exClz = env->FindClass("java/io/IOException");
+            if( exClz != NULL ) env->ThrowNew(exClz, err == 0 ? "Port hung up" : strerror(err));
+            return -1;
+        }
+        byteRead += result;
+    }
+    return byteRead;
 }
 
-/* OK */
+/*
+ * Reading data from the port into a region of an existing array with a timeout
+ *
+ * Blocks in poll() for the remaining time and reads incrementally, until
+ * 'length' bytes are read or 'timeoutMs' elapsed. Returns the count of bytes
+ * read.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayWithTimeout
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length, jint timeoutMs){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteRead = 0;
+    jlong deadline = monotonicMillis() + (timeoutMs < 0 ? 0 : timeoutMs);
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteRead < length ){
+        jint chunk = length - byteRead;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        jint result = readUntil(env, portHandle, lpBuffer, chunk, deadline);
+        if( result < 0 ) return -1;
+        env->SetByteArrayRegion(buffer, offset + byteRead, result, lpBuffer);
+        byteRead += result;
+        if( result < chunk ) break;
+    }
+    return byteRead;
+}
+
+/*
+ * Reading all bytes waiting in the input buffer, but at most 'maxBytes'
+ *
+ * Returns an empty array if nothing is waiting.
+ */
+JNIEXPORT jbyteArray JNICALL Java_jssc_SerialNativeInterface_readAvailable
+  (JNIEnv *env, jobject, jlong portHandle, jint maxBytes){
+    jbyte lpStackBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jbyte *lpBuffer = lpStackBuffer;
+    jbyteArray returnArray = NULL;
+    jint byteRead;
+
+    if( maxBytes < 0 ){
+        char emsg[64]; emsg[0] = '\0';
+        snprintf(emsg, sizeof emsg, "maxBytes %d. Expected range: 0..2147483647", maxBytes);
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz ) env->ThrowNew(exClz, emsg);
+        return NULL;
+    }
+    jint available = availableBytes(env, portHandle);
+    if( available < 0 ) return NULL;
+    if( available > maxBytes ) available = maxBytes;
+    if( available > JSSC_ARRAY_CHUNK_SIZE ){
+        lpBuffer = (jbyte*)malloc(available);
+        if( !lpBuffer ){
+            char emsg[32]; emsg[0] = '\0';
+            snprintf(emsg, sizeof emsg, "malloc(%d) failed", available);
+            jclass exClz = env->FindClass("java/lang/RuntimeException");
+            if( exClz ) env->ThrowNew(exClz, emsg);
+            return NULL;
+        }
+    }
+
+    byteRead = readAvailableInto(env, portHandle, lpBuffer, available);
+    if( byteRead >= 0 ){
+        returnArray = env->NewByteArray(byteRead);
+        if( returnArray != NULL ) env->SetByteArrayRegion(returnArray, 0, byteRead, lpBuffer);
+    }
+    if( lpBuffer != lpStackBuffer ) free(lpBuffer);
+    return returnArray;
+}
+
+/*
+ * Reading bytes waiting in the input buffer into a region of an array
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readAvailableArray
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteRead = 0;
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteRead < length ){
+        jint chunk = length - byteRead;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        jint result = readAvailableInto(env, portHandle, lpBuffer, chunk);
+        if( result < 0 ){
+            if( byteRead == 0 ) return -1;
+            env->ExceptionClear();
+            break;
+        }
+        env->SetByteArrayRegion(buffer, offset + byteRead, result, lpBuffer);
+        byteRead += result;
+        if( result < chunk ) break;
+    }
+    return byteRead;
+}
+
+/*
+ * Reading bytes waiting in the input buffer straight into a direct buffer
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readAvailableBuffer
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length){
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    return readAvailableInto(env, portHandle, lpBuffer, length);
+}
+
+/**
+ * Waits up to 'timeoutMs' milliseconds (forever if negative) until bytes are
+ * waiting and reads up to 'length' of them. The CLOCK_MONOTONIC time taken as
+ * soon as poll()/select() returned is stored at 'timestamp'.
+ *
+ * Returns the count of bytes stored at 'dst' (zero if the timeout elapsed),
+ * or -1 with a pending java exception.
+ */
+static jint readTimestampedInto(JNIEnv *env, jlong fd, jbyte *dst, jint length, jint timeoutMs, jlong *timestamp){
+    int ready = awaitReadReady(env, fd, timeoutMs);
+    *timestamp = monotonicNanos();
+    if( ready < 0 ) return -1;
+    if( ready == 0 ) return 0;
+    return readAvailableInto(env, fd, dst, length);
+}
+
+static bool checkTimestampRecord(JNIEnv *env, jlongArray timestamp){
+    if( timestamp == NULL || env->GetArrayLength(timestamp) < 1 ){
+        jclass exClz = env->FindClass(timestamp == NULL ? "java/lang/NullPointerException" : "java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "timestamp");
+        return false;
+    }
+    return true;
+}
+
+/*
+ * Reading the bytes which arrive first into a region of an array, with the
+ * time they were noticed. Reads at most one chunk.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayTimestamped
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length, jint timeoutMs, jlongArray timestamp){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jlong time = 0;
+
+    if( !checkArrayRegion(env, buffer, offset, length) || !checkTimestampRecord(env, timestamp) ) return -1;
+    if( length > JSSC_ARRAY_CHUNK_SIZE ) length = JSSC_ARRAY_CHUNK_SIZE;
+    jint byteRead = readTimestampedInto(env, portHandle, lpBuffer, length, timeoutMs, &time);
+    if( byteRead > 0 ) env->SetByteArrayRegion(buffer, offset, byteRead, lpBuffer);
+    if( byteRead >= 0 ) env->SetLongArrayRegion(timestamp, 0, 1, &time);
+    return byteRead;
+}
+
+/*
+ * Reading the bytes which arrive first straight into a direct buffer, with
+ * the time they were noticed
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBufferTimestamped
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length, jint timeoutMs, jlongArray timestamp){
+    jlong time = 0;
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL || !checkTimestampRecord(env, timestamp) ) return -1;
+    jint byteRead = readTimestampedInto(env, portHandle, lpBuffer, length, timeoutMs, &time);
+    if( byteRead >= 0 ) env->SetLongArrayRegion(timestamp, 0, 1, &time);
+    return byteRead;
+}
+
+/**
+ * Does a single read() of up to 'length' bytes, which returns as VMIN and
+ * VTIME of the port decide.
+ *
+ * Returns the count of bytes stored at 'dst', or -1 with a pending java
+ * exception.
+ */
+static jint readByMode(JNIEnv *env, jlong fd, jbyte *dst, jint length){
+    if( length == 0 ) return 0;
+    for(;;){
+        ssize_t result = read(fd, dst, (size_t)length);
+        if( result >= 0 ) return (jint)result;
+        int err = errno;
+        if( err == EINTR ) continue;
+        if( err == EAGAIN ) return 0;
+        jclass exClz = env->FindClass(err == EBADF ? "java/lang/IllegalArgumentException" : "java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, err == EBADF ? "EBADF" : strerror(err));
+        return -1;
+    }
+}
+
+/*
+ * Reading data from the port into a region of an array as the read mode
+ * decides
+ *
+ * The kernel applies VMIN and VTIME set by setReadMode, so 'minBytes' and
+ * 'idleDeciseconds' are not needed here. Reads at most one chunk.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayByMode
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length, jint, jint){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+    if( length > JSSC_ARRAY_CHUNK_SIZE ) length = JSSC_ARRAY_CHUNK_SIZE;
+    jint byteRead = readByMode(env, portHandle, lpBuffer, length);
+    if( byteRead > 0 ) env->SetByteArrayRegion(buffer, offset, byteRead, lpBuffer);
+    return byteRead;
+}
+
+/*
+ * Reading data from the port straight into a direct buffer as the read mode
+ * decides
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBufferByMode
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length, jint, jint){
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    return readByMode(env, portHandle, lpBuffer, length);
+}
+
+/*
+ * Writing a single byte to the port
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_writeByte
+  (JNIEnv *env, jobject, jlong portHandle, jbyte value){
+    jint result = writeChunk(env, portHandle, &value, 1);
+    return (result == 1) ? JNI_TRUE : JNI_FALSE;
+}
+
+/*
+ * Reading data from the port straight into a direct buffer
+ *
+ * Blocks until 'length' bytes are read, like readBytes does.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBuffer
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length){
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    if( length == 0 ) return 0;
+    return readFully(env, portHandle, lpBuffer, length);
+}
+
+/*
+ * Writing data from a direct buffer to the port
+ *
+ * Does a single write() and returns the count of bytes accepted by the driver.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeBuffer
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length){
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    if( length == 0 ) return 0;
+    return writeChunk(env, portHandle, lpBuffer, length);
+}
+
+/*
+ * Wakeup handles: a pipe whose read end gets readable once signalled. Both
+ * fds are packed into the returned handle.
+ */
+#define WAKEUP_READ_FD(wakeup) ((int)((wakeup) >> 32))
+#define WAKEUP_WRITE_FD(wakeup) ((int)((wakeup) & 0xFFFFFFFF))
+
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_createWakeupHandle
+  (JNIEnv *env, jobject){
+    int fds[2];
+    if( pipe(fds) == -1 ){
+        int err = errno;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return -1;
+    }
+    for( int i = 0; i < 2; i++ ){
+        fcntl(fds[i], F_SETFL, fcntl(fds[i], F_GETFL, 0) | O_NONBLOCK);
+        fcntl(fds[i], F_SETFD, FD_CLOEXEC);
+    }
+    return ((jlong)fds[0] << 32) | (jlong)(unsigned int)fds[1];
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_signalWakeupHandle
+  (JNIEnv *, jobject, jlong wakeup){
+    char signal = 1;
+    ssize_t result = write(WAKEUP_WRITE_FD(wakeup), &signal, 1);
+    // A full pipe is signalled already
+    return (result == 1 || errno == EAGAIN) ? JNI_TRUE : JNI_FALSE;
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_closeWakeupHandle
+  (JNIEnv *, jobject, jlong wakeup){
+    int result = close(WAKEUP_READ_FD(wakeup));
+    result |= close(WAKEUP_WRITE_FD(wakeup));
+    return (result == 0) ? JNI_TRUE : JNI_FALSE;
+}
+
+/*
+ * Waits until the port is ready for the requested events, the wakeup handle
+ * is signalled or 'timeoutMs' elapsed (forever if negative).
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_awaitReady
+  (JNIEnv *env, jobject, jlong portHandle, jint events, jlong wakeup, jint timeoutMs){
+    jlong deadline = timeoutMs < 0 ? -1 : monotonicMillis() + timeoutMs;
+#if HAVE_POLL == 0
+    int wakeupFd = WAKEUP_READ_FD(wakeup);
+    if( portHandle >= FD_SETSIZE || wakeupFd >= FD_SETSIZE ){
+        jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "Bad luck. 'select' cannot handle large fds.");
+        return -1;
+    }
+    while(true){
+        fd_set readFds, writeFds;
+        FD_ZERO(&readFds);
+        FD_ZERO(&writeFds);
+        if( events & jssc_SerialNativeInterface_AWAIT_READ ) FD_SET(portHandle, &readFds);
+        if( events & jssc_SerialNativeInterface_AWAIT_WRITE ) FD_SET(portHandle, &writeFds);
+        FD_SET(wakeupFd, &readFds);
+        struct timeval timeout;
+        jlong remaining = deadline < 0 ? 0 : deadline - monotonicMillis();
+        if( remaining < 0 ) remaining = 0;
+        timeout.tv_sec = remaining / 1000;
+        timeout.tv_usec = (remaining % 1000) * 1000;
+        int maxFd = portHandle > wakeupFd ? portHandle : wakeupFd;
+        int result = select(maxFd + 1, &readFds, &writeFds, NULL, deadline < 0 ? NULL : &timeout);
+        if( result < 0 ){
+            int err = errno;
+            if( err == EINTR ) continue;
+            jclass exClz = env->FindClass(err == EBADF ? "java/lang/IllegalArgumentException" : "java/io/IOException");
+            if( exClz != NULL ) env->ThrowNew(exClz, err == EBADF ? "EBADF" : strerror(err));
+            return -1;
+        }
+        jint ready = 0;
+        if( FD_ISSET(portHandle, &readFds) ){
+            ready |= jssc_SerialNativeInterface_AWAIT_READ;
+            // select() has no hangup flag: readable without any byte queued
+            // means the next read would fail or return end of file
+            int available = 0;
+            if( ioctl(portHandle, FIONREAD, &available) == -1 || available == 0 ){
+                ready |= jssc_SerialNativeInterface_AWAIT_HANGUP;
+            }
+        }
+        if( FD_ISSET(portHandle, &writeFds) ) ready |= jssc_SerialNativeInterface_AWAIT_WRITE;
+        if( FD_ISSET(wakeupFd, &readFds) ) ready |= jssc_SerialNativeInterface_AWAIT_WAKEUP;
+        return ready;
+    }
+#else
+    struct pollfd fds[2];
+    fds[0].fd = portHandle;
+    fds[0].events = 0;
+    if( events & jssc_SerialNativeInterface_AWAIT_READ ) fds[0].events |= POLLIN;
+    if( events & jssc_SerialNativeInterface_AWAIT_WRITE ) fds[0].events |= POLLOUT;
+    fds[1].fd = WAKEUP_READ_FD(wakeup);
+    fds[1].events = POLLIN;
+    while(true){
+        fds[0].revents = 0;
+        fds[1].revents = 0;
+        int timeout = -1;
+        if( deadline >= 0 ){
+            jlong remaining = deadline - monotonicMillis();
+            timeout = remaining < 0 ? 0 : (int)remaining;
+        }
+        int result = poll(fds, 2, timeout);
+        if( result < 0 ){
+            int err = errno;
+            if( err == EINTR ) continue;
+            jclass exClz = env->FindClass("java/io/IOException");
+            if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+            return -1;
+        }
+        if( fds[0].revents & POLLNVAL ){
+            jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+            if( exClz != NULL ) env->ThrowNew(exClz, "EBADF");
+            return -1;
+        }
+        jint ready = 0;
+        // Errors and hangups are reported as readiness, the next read or
+        // write then tells what happened.
+        if( fds[0].revents & (POLLIN | POLLERR | POLLHUP) ) ready |= events & jssc_SerialNativeInterface_AWAIT_READ;
+        if( fds[0].revents & (POLLOUT | POLLERR | POLLHUP) ) ready |= events & jssc_SerialNativeInterface_AWAIT_WRITE;
+        if( fds[0].revents & POLLHUP ) ready |= jssc_SerialNativeInterface_AWAIT_HANGUP;
+        if( fds[1].revents ) ready |= jssc_SerialNativeInterface_AWAIT_WAKEUP;
+        return ready;
+    }
+#endif
+}
+
+/*
+ * Selectors wait for many ports in a single epoll_wait(). The wakeup handle
+ * is part of the epoll set, so signalling it aborts the wait. Each port
+ * carries the key given on registration plus one in its epoll data, zero
+ * stands for the wakeup handle.
+ */
+#define JSSC_SELECTOR_EVENTS 64
+
+#ifdef __linux__
+static uint32_t toEpollEvents(jint events) {
+    uint32_t epollEvents = 0;
+    if( events & jssc_SerialNativeInterface_AWAIT_READ ) epollEvents |= EPOLLIN;
+    if( events & jssc_SerialNativeInterface_AWAIT_WRITE ) epollEvents |= EPOLLOUT;
+    if( events & jssc_SerialNativeInterface_AWAIT_HANGUP ) epollEvents |= EPOLLRDHUP;
+    return epollEvents;
+}
+#endif
+
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_createSelector
+  (JNIEnv *env, jobject, jlong wakeup){
+#ifdef __linux__
+    int selector = epoll_create(1);
+    if( selector != -1 ){
+        fcntl(selector, F_SETFD, FD_CLOEXEC);
+        struct epoll_event event;
+        event.events = EPOLLIN;
+        event.data.u64 = 0;
+        if( epoll_ctl(selector, EPOLL_CTL_ADD, WAKEUP_READ_FD(wakeup), &event) == 0 ){
+            return selector;
+        }
+        int err = errno;
+        close(selector);
+        errno = err;
+    }
+    int err = errno;
+    jclass exClz = env->FindClass("java/io/IOException");
+    if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+    return -1;
+#else
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Selectors are only supported on Linux");
+    return -1;
+#endif
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_selectorRegister
+  (JNIEnv *env, jobject, jlong selector, jlong portHandle, jint events, jint key){
+#ifdef __linux__
+    if( key < 0 ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "Negative key");
+        return JNI_FALSE;
+    }
+    struct epoll_event event;
+    event.events = toEpollEvents(events);
+    event.data.u64 = (uint64_t)key + 1;
+    int result = epoll_ctl(selector, EPOLL_CTL_MOD, portHandle, &event);
+    if( result == -1 && errno == ENOENT ){
+        result = epoll_ctl(selector, EPOLL_CTL_ADD, portHandle, &event);
+    }
+    if( result == -1 ){
+        int err = errno;
+        jclass exClz = env->FindClass(err == EBADF ? "java/lang/IllegalArgumentException" : "java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, err == EBADF ? "EBADF" : strerror(err));
+        return JNI_FALSE;
+    }
+    return JNI_TRUE;
+#else
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Selectors are only supported on Linux");
+    return JNI_FALSE;
+#endif
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_selectorUnregister
+  (JNIEnv *, jobject, jlong selector, jlong portHandle){
+#ifdef __linux__
+    struct epoll_event event;
+    event.events = 0;
+    event.data.u64 = 0;
+    return epoll_ctl(selector, EPOLL_CTL_DEL, portHandle, &event) == 0 ? JNI_TRUE : JNI_FALSE;
+#else
+    return JNI_FALSE;
+#endif
+}
+
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_selectorWait
+  (JNIEnv *env, jobject, jlong selector, jlong wakeup, jintArray keys, jintArray events, jint timeoutMs){
+#ifdef __linux__
+    if( keys == NULL || events == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, NULL);
+        return -1;
+    }
+    jsize capacity = env->GetArrayLength(keys);
+    if( env->GetArrayLength(events) < capacity ) capacity = env->GetArrayLength(events);
+    if( capacity <= 0 ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "No room for ready ports");
+        return -1;
+    }
+    if( capacity > JSSC_SELECTOR_EVENTS ) capacity = JSSC_SELECTOR_EVENTS;
+    struct epoll_event epollEvents[JSSC_SELECTOR_EVENTS];
+    jlong deadline = timeoutMs < 0 ? -1 : monotonicMillis() + timeoutMs;
+    int count;
+    while(true){
+        int timeout = -1;
+        if( deadline >= 0 ){
+            jlong remaining = deadline - monotonicMillis();
+            timeout = remaining < 0 ? 0 : (int)remaining;
+        }
+        count = epoll_wait(selector, epollEvents, capacity, timeout);
+        if( count >= 0 || errno != EINTR ) break;
+    }
+    if( count < 0 ){
+        int err = errno;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return -1;
+    }
+    jint readyKeys[JSSC_SELECTOR_EVENTS];
+    jint readyEvents[JSSC_SELECTOR_EVENTS];
+    for( int i = 0; i < count; i++ ){
+        uint32_t revents = epollEvents[i].events;
+        if( epollEvents[i].data.u64 == 0 ){
+            int wakeupFd = WAKEUP_READ_FD(wakeup);
+            char drain[64];
+            while( read(wakeupFd, drain, sizeof(drain)) > 0 );
+            readyKeys[i] = -1;
+            readyEvents[i] = jssc_SerialNativeInterface_AWAIT_WAKEUP;
+            continue;
+        }
+        jint ready = 0;
+        if( revents & EPOLLIN ) ready |= jssc_SerialNativeInterface_AWAIT_READ;
+        if( revents & EPOLLOUT ) ready |= jssc_SerialNativeInterface_AWAIT_WRITE;
+        // Like in awaitReady(), the next read or write tells what happened
+        if( revents & (EPOLLERR | EPOLLHUP | EPOLLRDHUP) ){
+            ready |= jssc_SerialNativeInterface_AWAIT_READ | jssc_SerialNativeInterface_AWAIT_WRITE | jssc_SerialNativeInterface_AWAIT_HANGUP;
+        }
+        readyKeys[i] = (jint)(epollEvents[i].data.u64 - 1);
+        readyEvents[i] = ready;
+    }
+    env->SetIntArrayRegion(keys, 0, count, readyKeys);
+    env->SetIntArrayRegion(events, 0, count, readyEvents);
+    return count;
+#else
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Selectors are only supported on Linux");
+    return -1;
+#endif
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_closeSelector
+  (JNIEnv *, jobject, jlong selector){
+#ifdef __linux__
+    return close(selector) == 0 ? JNI_TRUE : JNI_FALSE;
+#else
+    return JNI_FALSE;
+#endif
+}
+
+/* OK */
+/*
+ * Get bytes count in serial port buffers (Input and Output)
+ */
+JNIEXPORT jintArray JNICALL Java_jssc_SerialNativeInterface_getBuffersBytesCount
+  (JNIEnv *env, jobject, jlong portHandle){
+    int err;
+    jint returnValues[2];
+    returnValues[0] = -1; //Input buffer
+    returnValues[1] = -1; //Output buffer
+
+    err = ioctl(portHandle, FIONREAD, &returnValues[0]) == -1
+       || ioctl(portHandle, TIOCOUTQ, &returnValues[1]) == -1;
+    if( err ){
+        err = errno;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return NULL;
+    }
+
+    jintArray returnArray = env->NewIntArray(2);
+    if( returnArray == NULL ) return NULL;
+    env->SetIntArrayRegion(returnArray, 0, 2, returnValues);
+    return returnArray;
+}
+
+const jint FLOWCONTROL_NONE = 0;
+const jint FLOWCONTROL_RTSCTS_IN = 1;
+const jint FLOWCONTROL_RTSCTS_OUT = 2;
+const jint FLOWCONTROL_XONXOFF_IN = 4;
+const jint FLOWCONTROL_XONXOFF_OUT = 8;
+
+/* OK */
+/*
+ * Setting flow control mode
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setFlowControlMode
+  (JNIEnv *, jobject, jlong portHandle, jint mask){
+    jboolean returnValue = JNI_FALSE;
+    termios *settings = new termios();
+    if(tcgetattr(portHandle, settings) == 0){
+        settings->c_cflag &= ~CRTSCTS;
+        settings->c_iflag &= ~(IXON | IXOFF);
+        if(mask != FLOWCONTROL_NONE){
+            if(((mask & FLOWCONTROL_RTSCTS_IN) == FLOWCONTROL_RTSCTS_IN) || ((mask & FLOWCONTROL_RTSCTS_OUT) == FLOWCONTROL_RTSCTS_OUT)){
+                settings->c_cflag |= CRTSCTS;
+            }
+            if((mask & FLOWCONTROL_XONXOFF_IN) == FLOWCONTROL_XONXOFF_IN){
+                settings->c_iflag |= IXOFF;
+            }
+            if((mask & FLOWCONTROL_XONXOFF_OUT) == FLOWCONTROL_XONXOFF_OUT){
+                settings->c_iflag |= IXON;
+            }
+        }
+        if(tcsetattr(portHandle, TCSANOW, settings) == 0){
+            returnValue = JNI_TRUE;
+        }
+    }
+    delete settings;
+    return returnValue;
+}
+
+/* OK */
+/*
+ * Getting flow control mode
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_getFlowControlMode
+  (JNIEnv *, jobject, jlong portHandle){
+    jint returnValue = 0;
+    termios *settings = new termios();
+    if(tcgetattr(portHandle, settings) == 0){
+        if(settings->c_cflag & CRTSCTS){
+            returnValue |= (FLOWCONTROL_RTSCTS_IN | FLOWCONTROL_RTSCTS_OUT);
+        }
+        if(settings->c_iflag & IXOFF){
+            returnValue |= FLOWCONTROL_XONXOFF_IN;
+        }
+        if(settings->c_iflag & IXON){
+            returnValue |= FLOWCONTROL_XONXOFF_OUT;
+        }
+    }
+    delete settings;
+    return returnValue;
+}
+
+/*
+ * Setting VMIN and VTIME, which decide when a read() of the port returns
+ *
+ * 'idleDeciseconds' is the inter-byte timer once a byte arrived if
+ * 'minBytes' is above zero (see termios(3)).
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setReadMode
+  (JNIEnv *, jobject, jlong portHandle, jint minBytes, jint idleDeciseconds){
+    jboolean returnValue = JNI_FALSE;
+    termios *settings = new termios();
+    if(tcgetattr(portHandle, settings) == 0){
+        settings->c_cc[VMIN] = (cc_t)minBytes;
+        settings->c_cc[VTIME] = (cc_t)idleDeciseconds;
+        if(tcsetattr(portHandle, TCSANOW, settings) == 0){
+            returnValue = JNI_TRUE;
+        }
+    }
+    delete settings;
+    return returnValue;
+}
+
+/**
+ * Finds the number of baud for a speed_t of "termios.h", or returns -1.
+ */
+static jint getNumByBaudRate(speed_t speed){
+    static const jint rates[] = {
+        0, 50, 75, 110, 134, 150, 200, 300, 600, 1200, 1800, 2400, 4800, 9600, 19200, 38400,
+        57600, 115200, 230400, 460800, 500000, 576000, 921600, 1000000, 1152000, 1500000,
+        2000000, 2500000, 3000000, 3500000, 4000000
+    };
+    for(size_t i = 0; i < sizeof rates / sizeof rates[0]; i++){
+        if(getBaudRateByNum(rates[i]) == speed){
+            return rates[i];
+        }
+    }
+    return -1;
+}
+
+/*
+ * Getting the output speed the driver applied
+ *
+ * On Linux termios2 reports exact rates set with BOTHER. Otherwise the speed
+ * code of termios is mapped back, and a custom divisor of TIOCSSERIAL, which
+ * hides behind B38400, is taken into account.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_getActualBaudRate
+  (JNIEnv *, jobject, jlong portHandle){
+#ifdef __linux__
+    jint actual = getBaudRateTermios2(portHandle);
+    if(actual >= 0){
+        return actual;
+    }
+#endif
+    termios settings;
+    if(tcgetattr(portHandle, &settings) != 0){
+        return -1;
+    }
+    speed_t speed = cfgetospeed(&settings);
+#ifdef __linux__
+    serial_struct serial_info;
+    if(speed == B38400 && ioctl(portHandle, TIOCGSERIAL, &serial_info) == 0
+            && (serial_info.flags & ASYNC_SPD_MASK) == ASYNC_SPD_CUST && serial_info.custom_divisor > 0){
+        return serial_info.baud_base / serial_info.custom_divisor;
+    }
+#endif
+    jint rate = getNumByBaudRate(speed);
+#if defined(__APPLE__) || defined(__FreeBSD__) || defined(__OpenBSD__) || defined(__NetBSD__)
+    if(rate < 0){
+        rate = (jint)speed;//speed_t is the number of baud there
+    }
+#endif
+    return rate;
+}
+
+/* OK */
+/*
+ * Send break for set duration
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_sendBreak
+  (JNIEnv *, jobject, jlong portHandle, jint duration){
+    jboolean returnValue = JNI_FALSE;
+    if(duration > 0){
+        if(ioctl(portHandle, TIOCSBRK, 0) >= 0){
+            int sec = (duration >= 1000 ? duration/1000 : 0);
+            int nanoSec = (sec > 0 ? duration - sec*1000 : duration)*1000000;
+            struct timespec *timeStruct = new timespec();
+            timeStruct->tv_sec = sec;
+            timeStruct->tv_nsec = nanoSec;
+            nanosleep(timeStruct, NULL);
+            delete(timeStruct);
+            if(ioctl(portHandle, TIOCCBRK, 0) >= 0){
+                returnValue = JNI_TRUE;
+            }
+        }
+    }
+    return returnValue;
+}
+
+/*
+ * There is no event character in termios, the receive ring looks for it
+ * (see receiveRingThread)
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setEventChar
+  (JNIEnv *, jobject, jlong, jbyte){
+    return JNI_TRUE;
+}
+
+#ifdef __linux__
+/**
+ * Opens the latency timer of the USB serial adapter behind 'fd', found
+ * through the name of its tty in sysfs. Returns -1 if there is none.
+ */
+static int openLatencyTimer(jlong fd, int flags){
+    char link[64];
+    char device[256];
+    snprintf(link, sizeof link, "/proc/self/fd/%d", (int)fd);
+    ssize_t length = readlink(link, device, sizeof device - 1);
+    if( length <= 0 ) return -1;
+    device[length] = '\0';
+    const char *tty = strrchr(device, '/');
+    tty = tty != NULL ? tty + 1 : device;
+
+    char path[320];
+    snprintf(path, sizeof path, "/sys/bus/usb-serial/devices/%s/latency_timer", tty);
+    return open(path, flags);
+}
+
+/**
+ * Returns the latency timer of the USB serial adapter behind 'fd' in
+ * milliseconds, or -1 if there is none.
+ */
+static int readLatencyTimer(jlong fd){
+    int timerFd = openLatencyTimer(fd, O_RDONLY);
+    if( timerFd < 0 ) return -1;
+    char text[16];
+    ssize_t length = read(timerFd, text, sizeof text - 1);
+    close(timerFd);
+    if( length <= 0 ) return -1;
+    text[length] = '\0';
+    char *end;
+    long value = strtol(text, &end, 10);
+    return end != text && value >= 0 && value <= 255 ? (int)value : -1;
+}
+
+/**
+ * Writes 'value' to the latency timer of the USB serial adapter behind 'fd'.
+ *
+ * Returns true if the adapter has a latency timer and accepted the value.
+ */
+static bool writeLatencyTimer(jlong fd, int value){
+    int timerFd = openLatencyTimer(fd, O_WRONLY);
+    if( timerFd < 0 ) return false;
+    char text[16];
+    int textLength = snprintf(text, sizeof text, "%d\n", value);
+    bool written = write(timerFd, text, (size_t)textLength) == textLength;
+    close(timerFd);
+    return written;
+}
+
+/*
+ * Puts back the latency timer setLowLatency found before enabling, if any
+ */
+static bool restoreLatencyTimer(jlong fd){
+    int saved = getPortValue(&savedLatencyTimers, fd);
+    if( saved == -1 ) return false;
+    setPortValue(&savedLatencyTimers, (int)fd, -1);
+    return writeLatencyTimer(fd, saved);
+}
+#endif
+
+/*
+ * Switches the low latency optimizations of the driver on or off and returns
+ * the LOW_LATENCY_* flags of those which took effect: ASYNC_LOW_LATENCY of
+ * serial drivers, set the same way as custom baud rates in setParams, and the
+ * latency timer of USB serial adapters (1 ms, or back to the value found
+ * before enabling when off).
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_setLowLatency
+  (JNIEnv *, jobject, jlong portHandle, jboolean enabled){
+    jint applied = 0;
+#ifdef __linux__
+    serial_struct serial_info;
+    if(ioctl(portHandle, TIOCGSERIAL, &serial_info) == 0){
+        if(enabled == JNI_TRUE){
+            serial_info.flags |= ASYNC_LOW_LATENCY;
+        }
+        else {
+            serial_info.flags &= ~ASYNC_LOW_LATENCY;
+        }
+        if(ioctl(portHandle, TIOCSSERIAL, &serial_info) == 0){
+            applied |= jssc_SerialNativeInterface_LOW_LATENCY_DRIVER;
+        }
+    }
+    if(enabled == JNI_TRUE){
+        //Only the first enabling finds the original value, later ones see 1 ms
+        if(getPortValue(&savedLatencyTimers, portHandle) == -1){
+            int current = readLatencyTimer(portHandle);
+            if(current != -1){
+                setPortValue(&savedLatencyTimers, (int)portHandle, current);
+            }
+        }
+        if(writeLatencyTimer(portHandle, 1)){
+            applied |= jssc_SerialNativeInterface_LOW_LATENCY_USB_TIMER;
+        }
+    }
+    else if(restoreLatencyTimer(portHandle)){
+        applied |= jssc_SerialNativeInterface_LOW_LATENCY_USB_TIMER;
+    }
+#else
+    (void)portHandle;
+    (void)enabled;
+#endif
+    return applied;
+}
+
+/*
+ * Waits until the output buffer is transmitted
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_drainOutput
+  (JNIEnv *env, jobject, jlong portHandle){
+    while( tcdrain(portHandle) == -1 ){
+        if( errno == EINTR ) continue;
+        int err = errno;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return;
+    }
+}
+
+/* OK */
+/*
+ * Return "statusLines" from ioctl(portHandle, TIOCMGET, &statusLines)
+ * Need for "_waitEvents" and "_getLinesStatus"
+ */
+int getLinesStatus(jlong portHandle) {
+    int statusLines;
+    ioctl(portHandle, TIOCMGET, &statusLines);
+    return statusLines;
+}
+
+/* OK */
 /*
  * Not supported in Solaris and Mac OS X
  * 
@@ -892,8 +2125,10 @@ const jint EV_DSR = 16;
 const jint EV_RING = 256;
 const jint EV_RLSD = 32;
 const jint EV_RXCHAR = 1;
-//const jint EV_RXFLAG = 2; //Not supported
+const jint EV_RXFLAG = 2; //Counted by the receive ring, not by waitEvents()
 const jint EV_TXEMPTY = 4;
+const jint EV_BREAK = 64;
+const jint EV_ERR = 128;
 const jint events[] = {INTERRUPT_BREAK,
                        INTERRUPT_TX,
                        INTERRUPT_FRAME,
@@ -904,17 +2139,16 @@ const jint events[] = {INTERRUPT_BREAK,
                        EV_RING,
                        EV_RLSD,
                        EV_RXCHAR,
-                       //EV_RXFLAG, //Not supported
+                       //EV_RXFLAG, //Counted by the receive ring
                        EV_TXEMPTY};
 
 
-/* OK */
 /*
- * Collecting data for EventListener class (Linux have no implementation of "WaitCommEvent" function from Windows)
- * 
+ * Waits up to 'waitEventsTimeoutMs' for input before the events get
+ * collected, see SerialPort.setWaitEventsTimeoutMs(int). Returns false with a
+ * java exception set up on errors.
  */
-JNIEXPORT jobjectArray JNICALL Java_jssc_SerialNativeInterface_waitEvents
-  ( JNIEnv*env, jobject, jlong portHandle, jint waitEventsTimeoutMs) {
+static bool awaitEventsTimeout(JNIEnv *env, jlong portHandle, jint waitEventsTimeoutMs) {
     int err;
 
     /* Code in `LinuxEventThread.run()` (in `SerialPort.java`) calls us
@@ -949,82 +2183,109 @@ JNIEXPORT jobjectArray JNICALL Java_jssc_SerialNativeInterface_waitEvents
             err = errno; /* bkup `errno` before calling into `FindClass()` */
             jclass exClz = env->FindClass("java/lang/RuntimeException");
             if( exClz ) env->ThrowNew(exClz, strerror(err));
-            return NULL;
+            return false;
         }
 #endif
     }
 
-    jclass intClass = env->FindClass("[I");
-    if( intClass == NULL ) return NULL;
-    jobjectArray returnArray = env->NewObjectArray(sizeof(events)/sizeof(jint), intClass, NULL);
-    if( returnArray == NULL ) return NULL;
+    return true;
+}
+
+/*
+ * Fills a flat events snapshot, see SerialNativeInterface.SNAPSHOT_*
+ */
+static void collectEventsSnapshot(jlong portHandle, jint *snapshot) {
+    /*Time, right after the wait*/
+    jlong timestamp = monotonicNanos();
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_TIMESTAMP_HIGH] = (jint)(timestamp >> 32);
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_TIMESTAMP_LOW] = (jint)timestamp;
 
     /*Input buffer*/
-    jint bytesCountIn = 0;
-    ioctl(portHandle, FIONREAD, &bytesCountIn);
-    
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_INPUT] = 0;
+    ioctl(portHandle, FIONREAD, &snapshot[jssc_SerialNativeInterface_SNAPSHOT_INPUT]);
+
     /*Output buffer*/
-    jint bytesCountOut = 0;
-    ioctl(portHandle, TIOCOUTQ, &bytesCountOut);
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_OUTPUT] = 0;
+    ioctl(portHandle, TIOCOUTQ, &snapshot[jssc_SerialNativeInterface_SNAPSHOT_OUTPUT]);
 
     /*Lines status*/
     int statusLines = getLinesStatus(portHandle);
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_CTS] = !!(statusLines & TIOCM_CTS);
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_DSR] = !!(statusLines & TIOCM_DSR);
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_RING] = !!(statusLines & TIOCM_RNG);
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_RLSD] = !!(statusLines & TIOCM_CAR);
+
+    /*Interrupts*/
+    int interrupts[] = {-1, -1, -1, -1, -1};
+    getInterruptsCount(portHandle, interrupts);
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_BREAK] = interrupts[0];
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_TX] = interrupts[1];
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_FRAME] = interrupts[2];
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_OVERRUN] = interrupts[3];
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_PARITY] = interrupts[4];
+
+    /*Events follow from the values above*/
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_EVENTS] = 0;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_ERRORS] = 0;
+}
 
-    jint statusCTS = !!(statusLines & TIOCM_CTS);
-    jint statusDSR = !!(statusLines & TIOCM_DSR);
-    jint statusRING = !!(statusLines & TIOCM_RNG);
-    jint statusRLSD = !!(statusLines & TIOCM_CAR);
+/* OK */
+/*
+ * Collecting data for EventListener class (Linux have no implementation of "WaitCommEvent" function from Windows)
+ * 
+ */
+JNIEXPORT jobjectArray JNICALL Java_jssc_SerialNativeInterface_waitEvents
+  ( JNIEnv*env, jobject, jlong portHandle, jint waitEventsTimeoutMs) {
+    if( !awaitEventsTimeout(env, portHandle, waitEventsTimeoutMs) ) return NULL;
 
-    /*Interrupts*/
-    int interrupts[] = {-1, -1, -1, -1, -1};
-    getInterruptsCount(portHandle, interrupts);
+    jclass intClass = env->FindClass("[I");
+    if( intClass == NULL ) return NULL;
+    jobjectArray returnArray = env->NewObjectArray(sizeof(events)/sizeof(jint), intClass, NULL);
+    if( returnArray == NULL ) return NULL;
 
-    jint interruptBreak = interrupts[0];
-    jint interruptTX = interrupts[1];
-    jint interruptFrame = interrupts[2];
-    jint interruptOverrun = interrupts[3];
-    jint interruptParity = interrupts[4];
+    jint snapshot[jssc_SerialNativeInterface_SNAPSHOT_SIZE];
+    collectEventsSnapshot(portHandle, snapshot);
 
     for(unsigned int i = 0; i < sizeof(events)/sizeof(jint); i++){
         jint returnValues[2];
         switch(events[i]) {
             
             case INTERRUPT_BREAK: //Interrupt Break - for BREAK event
-                returnValues[1] = interruptBreak;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_BREAK];
                 goto forEnd;
             case INTERRUPT_TX: //Interrupt TX - for TXEMPTY event
-                returnValues[1] = interruptTX;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_TX];
                 goto forEnd;
             case INTERRUPT_FRAME: //Interrupt Frame - for ERR event
-                returnValues[1] = interruptFrame;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_FRAME];
                 goto forEnd;
             case INTERRUPT_OVERRUN: //Interrupt Overrun - for ERR event
-                returnValues[1] = interruptOverrun;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_OVERRUN];
                 goto forEnd;
             case INTERRUPT_PARITY: //Interrupt Parity - for ERR event
-                returnValues[1] = interruptParity;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_PARITY];
                 goto forEnd;
             case EV_CTS:
-                returnValues[1] = statusCTS;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_CTS];
                 goto forEnd;
             case EV_DSR:
-                returnValues[1] = statusDSR;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_DSR];
                 goto forEnd;
             case EV_RING:
-                returnValues[1] = statusRING;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_RING];
                 goto forEnd;
             case EV_RLSD: /*DCD*/
-                returnValues[1] = statusRLSD;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_RLSD];
                 goto forEnd;
             case EV_RXCHAR:
-                returnValues[1] = bytesCountIn;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_INPUT];
                 goto forEnd;
-            /*case EV_RXFLAG: // Event RXFLAG - Not supported
+            /*case EV_RXFLAG: // Event RXFLAG - Counted by the receive ring, see SerialPort
                 returnValues[0] = EV_RXFLAG;
                 returnValues[1] = 0;
                 goto forEnd;*/
             case EV_TXEMPTY:
-                returnValues[1] = bytesCountOut;
+                returnValues[1] = snapshot[jssc_SerialNativeInterface_SNAPSHOT_OUTPUT];
                 goto forEnd;
         }
         forEnd: {
@@ -1040,6 +2301,837 @@ JNIEXPORT jobjectArray JNICALL Java_jssc_SerialNativeInterface_waitEvents
     return returnArray;
 }
 
+/*
+ * Same as waitEvents, but writes a flat snapshot into the caller's array,
+ * so nothing gets allocated
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_waitEventsArray
+  (JNIEnv *env, jobject, jlong portHandle, jint waitEventsTimeoutMs, jintArray snapshot){
+    if( snapshot == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, NULL);
+        return JNI_FALSE;
+    }
+    if( env->GetArrayLength(snapshot) < jssc_SerialNativeInterface_SNAPSHOT_SIZE ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "Snapshot array too short");
+        return JNI_FALSE;
+    }
+    if( !awaitEventsTimeout(env, portHandle, waitEventsTimeoutMs) ) return JNI_FALSE;
+    jint values[jssc_SerialNativeInterface_SNAPSHOT_SIZE];
+    collectEventsSnapshot(portHandle, values);
+    env->SetIntArrayRegion(snapshot, 0, jssc_SerialNativeInterface_SNAPSHOT_SIZE, values);
+    return JNI_TRUE;
+}
+
+/*
+ * Same as waitEventsArray, but writes into a direct IntBuffer of native byte order
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_waitEventsBuffer
+  (JNIEnv *env, jobject, jlong portHandle, jint waitEventsTimeoutMs, jobject snapshot){
+    if( snapshot == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, NULL);
+        return JNI_FALSE;
+    }
+    jint *values = (jint*)env->GetDirectBufferAddress(snapshot);
+    if( values == NULL ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "buffer is not a direct buffer");
+        return JNI_FALSE;
+    }
+    if( env->GetDirectBufferCapacity(snapshot) < jssc_SerialNativeInterface_SNAPSHOT_SIZE ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "Snapshot buffer too short");
+        return JNI_FALSE;
+    }
+    if( !awaitEventsTimeout(env, portHandle, waitEventsTimeoutMs) ) return JNI_FALSE;
+    collectEventsSnapshot(portHandle, values);
+    return JNI_TRUE;
+}
+
+/*
+ * Blocking wait for events
+ *
+ * Incoming bytes are waited for with poll()/select(), modem lines with
+ * TIOCMIWAIT in a helper thread. Event characters counted by the receive ring
+ * signal the wakeup handle. Break, errors and the empty output buffer have no
+ * notification of their own, so they are sampled every JSSC_EVENTS_SAMPLING_MS
+ * (breaks and errors mostly come with bytes anyway).
+ * Drivers without TIOCMIWAIT (like pseudo terminals) get their lines
+ * sampled as well.
+ */
+#define JSSC_EVENTS_SAMPLING_MS 10
+
+/*
+ * Waits until one of 'count' fds is readable. Negative fds are skipped.
+ * Returns the count of ready fds (flagged in 'ready'), 0 on timeout or -1
+ * with errno set.
+ */
+static int awaitReadable(const int *fds, bool *ready, int count, int timeoutMs) {
+#if HAVE_POLL == 0
+    fd_set readFds;
+    FD_ZERO(&readFds);
+    int maxFd = -1;
+    for( int i = 0; i < count; i++ ){
+        if( fds[i] < 0 ) continue;
+        if( fds[i] >= FD_SETSIZE ){
+            errno = EINVAL;
+            return -1;
+        }
+        FD_SET(fds[i], &readFds);
+        if( fds[i] > maxFd ) maxFd = fds[i];
+    }
+    struct timeval timeout;
+    timeout.tv_sec = timeoutMs / 1000;
+    timeout.tv_usec = (timeoutMs % 1000) * 1000;
+    int result = select(maxFd + 1, &readFds, NULL, NULL, timeoutMs < 0 ? NULL : &timeout);
+    for( int i = 0; i < count; i++ ){
+        ready[i] = result > 0 && fds[i] >= 0 && FD_ISSET(fds[i], &readFds);
+    }
+    return result;
+#else
+    struct pollfd pfds[4];
+    for( int i = 0; i < count; i++ ){
+        pfds[i].fd = fds[i];
+        pfds[i].events = POLLIN | POLLPRI;
+        pfds[i].revents = 0;
+    }
+    int result = poll(pfds, count, timeoutMs);
+    for( int i = 0; i < count; i++ ){
+        ready[i] = result > 0 && pfds[i].revents != 0;
+    }
+    return result;
+#endif
+}
+
+#if defined(__linux__) && defined(TIOCMIWAIT)
+#define JSSC_LINES_WAIT 1
+
+/*
+ * TIOCMIWAIT can't be aborted other than by a signal. The handler does
+ * nothing, it just makes the ioctl fail with EINTR (no SA_RESTART). It is
+ * only installed if nobody else handles the signal, otherwise modem lines
+ * are sampled.
+ */
+#define JSSC_LINES_WAIT_SIGNAL (SIGRTMAX - 2)
+
+static pthread_once_t linesWaitSignalOnce = PTHREAD_ONCE_INIT;
+static bool linesWaitSignalInstalled = false;
+
+static void onLinesWaitSignal(int) {
+}
+
+static void installLinesWaitSignal() {
+    struct sigaction old;
+    if( sigaction(JSSC_LINES_WAIT_SIGNAL, NULL, &old) != 0 ) return;
+    if( (old.sa_flags & SA_SIGINFO) != 0 || old.sa_handler != SIG_DFL ){
+        // Someone else's signal, leave it alone
+        return;
+    }
+    struct sigaction action;
+    memset(&action, 0, sizeof(action));
+    action.sa_handler = onLinesWaitSignal;
+    sigemptyset(&action.sa_mask);
+    linesWaitSignalInstalled = sigaction(JSSC_LINES_WAIT_SIGNAL, &action, NULL) == 0;
+}
+
+static bool canInterruptLinesWait() {
+    pthread_once(&linesWaitSignalOnce, installLinesWaitSignal);
+    return linesWaitSignalInstalled;
+}
+#endif
+
+/*
+ * Modem line monitor
+ *
+ * A helper thread waits in TIOCMIWAIT for changes of any modem line, as long
+ * as an event listener (or the port, for awaitModemLineChange) lives, and
+ * reports each one through a pipe (for awaitEvents) and a condition variable. If the driver doesn't support
+ * TIOCMIWAIT, the thread ends at once and the lines are sampled by the
+ * waiters instead, without any thread.
+ */
+struct LinesMonitor {
+    int portFd;
+    // Non-blocking, a full pipe is signalled already
+    int notifyFds[2];
+    bool threadStarted;
+#ifdef JSSC_LINES_WAIT
+    pthread_t thread;
+    pthread_mutex_t lock;
+    pthread_cond_t changed;
+    unsigned int changes;
+    jlong timestamp;
+    bool stopping;
+    bool ended;
+#endif
+    bool unsupported;
+};
+
+#ifdef JSSC_LINES_WAIT
+static void *linesMonitorThread(void *arg) {
+    LinesMonitor *monitor = (LinesMonitor*)arg;
+    const int lines = TIOCM_CTS | TIOCM_DSR | TIOCM_RNG | TIOCM_CAR;
+    while( !__atomic_load_n(&monitor->stopping, __ATOMIC_ACQUIRE) ){
+        bool changed = ioctl(monitor->portFd, TIOCMIWAIT, lines) == 0;
+        if( !changed && errno == EINTR ) continue;
+        jlong now = monotonicNanos();
+        pthread_mutex_lock(&monitor->lock);
+        if( changed ){
+            monitor->timestamp = now;
+            monitor->changes++;
+        }
+        else {
+            // EINVAL, ENOTTY or EIO: no waiting for this port
+            __atomic_store_n(&monitor->unsupported, true, __ATOMIC_RELEASE);
+        }
+        pthread_cond_broadcast(&monitor->changed);
+        pthread_mutex_unlock(&monitor->lock);
+        char signal = 1;
+        while( write(monitor->notifyFds[1], &signal, 1) == -1 && errno == EINTR );
+        if( !changed ) break;
+    }
+    __atomic_store_n(&monitor->ended, true, __ATOMIC_RELEASE);
+    return NULL;
+}
+#endif
+
+static bool isLinesMonitorUnsupported(LinesMonitor *monitor) {
+    return monitor == NULL || __atomic_load_n(&monitor->unsupported, __ATOMIC_ACQUIRE);
+}
+
+/*
+ * Creates the line monitor of a port. Where TIOCMIWAIT or its signal isn't
+ * available, the monitor reports itself unsupported right away.
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_openLinesMonitor
+  (JNIEnv *env, jobject, jlong portHandle){
+    LinesMonitor *monitor = new LinesMonitor();
+    monitor->portFd = (int)portHandle;
+    monitor->threadStarted = false;
+    monitor->unsupported = true;
+    if( pipe(monitor->notifyFds) == -1 ){
+        int err = errno;
+        delete monitor;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return 0;
+    }
+    for( int i = 0; i < 2; i++ ){
+        fcntl(monitor->notifyFds[i], F_SETFL, fcntl(monitor->notifyFds[i], F_GETFL, 0) | O_NONBLOCK);
+    }
+#ifdef JSSC_LINES_WAIT
+    monitor->changes = 0;
+    monitor->timestamp = 0;
+    monitor->stopping = false;
+    monitor->ended = false;
+    pthread_mutex_init(&monitor->lock, NULL);
+    pthread_condattr_t attr;
+    pthread_condattr_init(&attr);
+    pthread_condattr_setclock(&attr, CLOCK_MONOTONIC);
+    pthread_cond_init(&monitor->changed, &attr);
+    pthread_condattr_destroy(&attr);
+    if( canInterruptLinesWait() ){
+        monitor->unsupported = false;
+        monitor->threadStarted = pthread_create(&monitor->thread, NULL, linesMonitorThread, monitor) == 0;
+        monitor->unsupported = !monitor->threadStarted;
+    }
+#endif
+    return (jlong)(intptr_t)monitor;
+}
+
+/*
+ * Stops the thread of a line monitor and releases it. The signal may arrive
+ * before the thread entered the ioctl, so it's repeated until the thread ended.
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_closeLinesMonitor
+  (JNIEnv *, jobject, jlong linesMonitor){
+    LinesMonitor *monitor = (LinesMonitor*)(intptr_t)linesMonitor;
+    if( monitor == NULL ) return;
+#ifdef JSSC_LINES_WAIT
+    if( monitor->threadStarted ){
+        __atomic_store_n(&monitor->stopping, true, __ATOMIC_RELEASE);
+        while( !__atomic_load_n(&monitor->ended, __ATOMIC_ACQUIRE) ){
+            pthread_kill(monitor->thread, JSSC_LINES_WAIT_SIGNAL);
+            struct timespec interval = {0, 1000000};
+            nanosleep(&interval, NULL);
+        }
+        pthread_join(monitor->thread, NULL);
+    }
+    pthread_cond_destroy(&monitor->changed);
+    pthread_mutex_destroy(&monitor->lock);
+#endif
+    close(monitor->notifyFds[0]);
+    close(monitor->notifyFds[1]);
+    delete monitor;
+}
+
+/*
+ * Line changes
+ *
+ * Transitions are counted by the driver (TIOCGICOUNT), so pulses shorter than
+ * the wakeup latency are not lost. Without counters a changed line counts as
+ * one transition.
+ */
+static const int LINE_BITS[] = {TIOCM_CTS, TIOCM_DSR, TIOCM_RNG, TIOCM_CAR};
+static const jint LINE_MASKS[] = {EV_CTS, EV_DSR, EV_RING, EV_RLSD};
+
+struct LineCounters {
+    bool valid;
+    int counts[4];
+};
+
+static void getLineCounters(jlong portHandle, LineCounters *counters) {
+    counters->valid = false;
+#ifdef TIOCGICOUNT
+    struct serial_icounter_struct icount;
+    memset(&icount, 0, sizeof(icount));
+    if( ioctl(portHandle, TIOCGICOUNT, &icount) >= 0 ){
+        counters->valid = true;
+        counters->counts[0] = icount.cts;
+        counters->counts[1] = icount.dsr;
+        counters->counts[2] = icount.rng;
+        counters->counts[3] = icount.dcd;
+    }
+#else
+    (void)portHandle;
+#endif
+}
+
+static int toLineBits(jint mask) {
+    int lines = 0;
+    for( int i = 0; i < 4; i++ ){
+        if( mask & LINE_MASKS[i] ) lines |= LINE_BITS[i];
+    }
+    return lines;
+}
+
+/*
+ * Fills a line change record (see SerialNativeInterface.LINE_CHANGE_*) with
+ * the changes since 'initialLines' and 'before'. Returns the changed lines.
+ */
+static jint describeLineChange(jlong portHandle, int lines, int initialLines, const LineCounters *before, jlong timestamp, jlong *record) {
+    int state = getLinesStatus(portHandle);
+    LineCounters after;
+    getLineCounters(portHandle, &after);
+    jint changed = 0;
+    jint stateMask = 0;
+    for( int i = 0; i < 4; i++ ){
+        jlong transitions = 0;
+        if( lines & LINE_BITS[i] ){
+            if( before->valid && after.valid ){
+                transitions = (jlong)(unsigned int)(after.counts[i] - before->counts[i]);
+            }
+            if( transitions == 0 && ((state ^ initialLines) & LINE_BITS[i]) ){
+                transitions = 1;
+            }
+        }
+        if( transitions != 0 ) changed |= LINE_MASKS[i];
+        if( state & LINE_BITS[i] ) stateMask |= LINE_MASKS[i];
+        record[jssc_SerialNativeInterface_LINE_CHANGE_CTS + i] = transitions;
+    }
+    record[jssc_SerialNativeInterface_LINE_CHANGE_LINES] = changed;
+    record[jssc_SerialNativeInterface_LINE_CHANGE_STATE] = stateMask;
+    record[jssc_SerialNativeInterface_LINE_CHANGE_TIMESTAMP] = timestamp;
+    record[jssc_SerialNativeInterface_LINE_CHANGE_READY_TIMESTAMP] = timestamp;
+    return changed;
+}
+
+static bool checkLineChangeRecord(JNIEnv *env, jlongArray lineChange) {
+    if( lineChange != NULL && env->GetArrayLength(lineChange) < jssc_SerialNativeInterface_LINE_CHANGE_SIZE ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "Line change record too short");
+        return false;
+    }
+    return true;
+}
+
+/*
+ * Tells whether one of 'lines' changed since 'initialLines' and 'before'
+ */
+static bool hasLineChanged(jlong portHandle, int lines, int initialLines, const LineCounters *before) {
+    if( (getLinesStatus(portHandle) & lines) != initialLines ) return true;
+    LineCounters after;
+    getLineCounters(portHandle, &after);
+    if( !before->valid || !after.valid ) return false;
+    for( int i = 0; i < 4; i++ ){
+        if( (lines & LINE_BITS[i]) && after.counts[i] != before->counts[i] ) return true;
+    }
+    return false;
+}
+
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_awaitEvents
+  (JNIEnv *env, jobject, jlong portHandle, jint mask, jlong wakeup, jlong linesMonitor, jint timeoutMs, jlongArray lineChange){
+    if( !checkLineChangeRecord(env, lineChange) ) return -1;
+    jlong deadline = timeoutMs < 0 ? -1 : monotonicMillis() + timeoutMs;
+    // RXFLAG is counted by the receive ring, which signals the wakeup handle
+    bool sampled = (mask & (EV_BREAK | EV_ERR | EV_TXEMPTY)) != 0;
+    int lines = toLineBits(mask);
+    int initialLines = lines != 0 ? (getLinesStatus(portHandle) & lines) : 0;
+    LineCounters initialCounters;
+    getLineCounters(portHandle, &initialCounters);
+    bool sampleLines = lines != 0;
+    jlong linesTimestamp = 0;
+
+    int fds[3];
+    fds[0] = (mask & (EV_RXCHAR | EV_BREAK | EV_ERR)) ? (int)portHandle : -1;
+    fds[1] = WAKEUP_READ_FD(wakeup);
+    fds[2] = -1;
+    LinesMonitor *monitor = (LinesMonitor*)(intptr_t)linesMonitor;
+    if( lines != 0 && !isLinesMonitorUnsupported(monitor) ){
+        fds[2] = monitor->notifyFds[0];
+        sampleLines = false;
+    }
+
+    jint ready = 0;
+    int err = 0;
+    jlong readyTimestamp = 0;
+    while( ready == 0 ){
+        int timeout = -1;
+        if( deadline >= 0 ){
+            jlong remaining = deadline - monotonicMillis();
+            timeout = remaining < 0 ? 0 : (int)remaining;
+        }
+        if( (sampled || sampleLines) && (timeout < 0 || timeout > JSSC_EVENTS_SAMPLING_MS) ){
+            timeout = JSSC_EVENTS_SAMPLING_MS;
+        }
+        bool readyFds[3];
+        int result = awaitReadable(fds, readyFds, 3, timeout);
+        // Taken before anything else, it is the time the bytes were noticed
+        readyTimestamp = monotonicNanos();
+        if( result < 0 ){
+            if( errno == EINTR ) continue;
+            err = errno;
+            break;
+        }
+        if( readyFds[0] ){
+            ready |= jssc_SerialNativeInterface_AWAIT_READ;
+            // A hung up port stays readable without any byte queued, so the
+            // caller has to stop waiting for it or it spins
+            int available = 0;
+            if( ioctl(portHandle, FIONREAD, &available) == -1 || available == 0 ){
+                ready |= jssc_SerialNativeInterface_AWAIT_HANGUP;
+            }
+        }
+        if( readyFds[1] ){
+            // Signalled again by every ring notification, so not sticky here
+            char drain[64];
+            while( read(fds[1], drain, sizeof(drain)) > 0 );
+            ready |= jssc_SerialNativeInterface_AWAIT_WAKEUP;
+        }
+#ifdef JSSC_LINES_WAIT
+        if( readyFds[2] ){
+            char drain[16];
+            while( read(fds[2], drain, sizeof(drain)) > 0 );
+            if( isLinesMonitorUnsupported(monitor) ){
+                // Not supported by the driver
+                fds[2] = -1;
+                sampleLines = true;
+            }
+            else if( hasLineChanged(portHandle, lines, initialLines, &initialCounters) ){
+                // Lines outside of the mask changed otherwise
+                ready |= jssc_SerialNativeInterface_AWAIT_LINES;
+                pthread_mutex_lock(&monitor->lock);
+                linesTimestamp = monitor->timestamp;
+                pthread_mutex_unlock(&monitor->lock);
+            }
+        }
+#endif
+        if( sampleLines && (getLinesStatus(portHandle) & lines) != initialLines ){
+            ready |= jssc_SerialNativeInterface_AWAIT_LINES;
+            linesTimestamp = readyTimestamp;
+        }
+        if( result == 0 && (sampled || (deadline >= 0 && readyTimestamp / 1000000 >= deadline)) ){
+            // Sampling tick or timeout, the caller checks for changes
+            break;
+        }
+    }
+    if( err != 0 ){
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return -1;
+    }
+    if( (ready & jssc_SerialNativeInterface_AWAIT_LINES) && lineChange != NULL ){
+        jlong record[jssc_SerialNativeInterface_LINE_CHANGE_SIZE];
+        describeLineChange(portHandle, lines, initialLines, &initialCounters, linesTimestamp, record);
+        record[jssc_SerialNativeInterface_LINE_CHANGE_READY_TIMESTAMP] = readyTimestamp;
+        env->SetLongArrayRegion(lineChange, 0, jssc_SerialNativeInterface_LINE_CHANGE_SIZE, record);
+    }
+    else if( lineChange != NULL ){
+        env->SetLongArrayRegion(lineChange, jssc_SerialNativeInterface_LINE_CHANGE_READY_TIMESTAMP, 1, &readyTimestamp);
+    }
+    return ready;
+}
+
+/*
+ * Waits for a change of the modem lines in 'mask' and describes it in
+ * 'lineChange'. The timestamp is taken right after TIOCMIWAIT returned in the
+ * monitor thread, or when sampling noticed the change. Sampling starts every
+ * millisecond and backs off to JSSC_EVENTS_SAMPLING_MS.
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_awaitModemLineChange
+  (JNIEnv *env, jobject, jlong portHandle, jint mask, jlong linesMonitor, jint timeoutMs, jlongArray lineChange){
+    if( lineChange == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, NULL);
+        return JNI_FALSE;
+    }
+    if( !checkLineChangeRecord(env, lineChange) ) return JNI_FALSE;
+    int lines = toLineBits(mask);
+    if( lines == 0 ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "No modem line in mask");
+        return JNI_FALSE;
+    }
+    jlong deadline = timeoutMs < 0 ? -1 : monotonicMillis() + timeoutMs;
+    LinesMonitor *monitor = (LinesMonitor*)(intptr_t)linesMonitor;
+#ifdef JSSC_LINES_WAIT
+    // Taken before the initial state, so no change gets in between
+    unsigned int seenChanges = 0;
+    if( !isLinesMonitorUnsupported(monitor) ){
+        pthread_mutex_lock(&monitor->lock);
+        seenChanges = monitor->changes;
+        pthread_mutex_unlock(&monitor->lock);
+    }
+#endif
+    int initialLines = getLinesStatus(portHandle) & lines;
+    LineCounters initialCounters;
+    getLineCounters(portHandle, &initialCounters);
+    jlong record[jssc_SerialNativeInterface_LINE_CHANGE_SIZE];
+    jlong samplingNanos = 1000000;
+    bool changed = false;
+    while( !changed ){
+        jlong remaining = -1;
+        if( deadline >= 0 ){
+            remaining = deadline - monotonicMillis();
+            if( remaining <= 0 ) break;
+        }
+        if( isLinesMonitorUnsupported(monitor) ){
+            jlong sleepNanos = samplingNanos;
+            if( remaining >= 0 && remaining * 1000000 < sleepNanos ){
+                sleepNanos = remaining * 1000000;
+            }
+            struct timespec interval = {(time_t)(sleepNanos / 1000000000), (long)(sleepNanos % 1000000000)};
+            nanosleep(&interval, NULL);
+            if( (getLinesStatus(portHandle) & lines) != initialLines ){
+                changed = describeLineChange(portHandle, lines, initialLines, &initialCounters, monotonicNanos(), record) != 0;
+            }
+            if( samplingNanos < (jlong)JSSC_EVENTS_SAMPLING_MS * 1000000 ){
+                samplingNanos *= 2;
+            }
+            continue;
+        }
+#ifdef JSSC_LINES_WAIT
+        struct timespec until;
+        if( deadline >= 0 ){
+            until.tv_sec = (time_t)(deadline / 1000);
+            until.tv_nsec = (long)(deadline % 1000) * 1000000;
+        }
+        pthread_mutex_lock(&monitor->lock);
+        while( monitor->changes == seenChanges && !monitor->unsupported ){
+            if( deadline < 0 ){
+                pthread_cond_wait(&monitor->changed, &monitor->lock);
+            }
+            else if( pthread_cond_timedwait(&monitor->changed, &monitor->lock, &until) == ETIMEDOUT ){
+                break;
+            }
+        }
+        bool noticed = monitor->changes != seenChanges;
+        seenChanges = monitor->changes;
+        jlong timestamp = monitor->timestamp;
+        pthread_mutex_unlock(&monitor->lock);
+        if( noticed ){
+            // Lines outside of the mask changed otherwise
+            changed = describeLineChange(portHandle, lines, initialLines, &initialCounters, timestamp, record) != 0;
+        }
+#endif
+    }
+    if( changed ){
+        env->SetLongArrayRegion(lineChange, 0, jssc_SerialNativeInterface_LINE_CHANGE_SIZE, record);
+    }
+    return changed ? JNI_TRUE : JNI_FALSE;
+}
+
+/*
+ * Continuous receive: a thread drains the port into a ring, which lives in a
+ * direct ByteBuffer shared with Java. The thread is the only writer of the
+ * head, Java the only writer of the tail, so neither side needs a lock.
+ */
+struct ReceiveRing {
+    pthread_t thread;
+    int portFd;
+    int stopFds[2];
+    // The thread closes the write end when it ends, so waiters see EOF
+    int notifyFds[2];
+    // Signalled by Java after reading, while the thread waits in a full ring
+    int spaceFds[2];
+    jbyte *base;
+    jint capacity;
+    // Wakeup handle signalled when event characters arrive, 0 if none
+    pthread_mutex_t wakeupLock;
+    jlong eventWakeup;
+};
+
+#define RING_FIELD(ring, type, offset) ((type*)((ring)->base + (offset)))
+
+static void notifyReceiveRing(ReceiveRing *ring) {
+    char signal = 1;
+    // A full pipe is signalled already
+    while( write(ring->notifyFds[1], &signal, 1) == -1 && errno == EINTR );
+}
+
+/*
+ * Counts the event characters (MASK_RXFLAG) in 'count' new bytes at 'position',
+ * and remembers the position after the last one. Returns the count found.
+ */
+static jint countEventChars(ReceiveRing *ring, const jbyte *bytes, jint count, jint position, jbyte eventChar) {
+    const jbyte *end = bytes + count;
+    const jbyte *last = NULL;
+    jint found = 0;
+    for( const jbyte *next = bytes; next < end; next++ ){
+        next = (const jbyte*)memchr(next, eventChar, end - next);
+        if( next == NULL ) break;
+        last = next;
+        found++;
+    }
+    if( found > 0 ){
+        jint *eventCount = RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_EVENT_COUNT);
+        __atomic_store_n(RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_EVENT_POSITION),
+                (jint)((uint32_t)position + (uint32_t)(last - bytes) + 1), __ATOMIC_RELAXED);
+        __atomic_store_n(eventCount, (jint)((uint32_t)*eventCount + (uint32_t)found), __ATOMIC_RELEASE);
+    }
+    return found;
+}
+
+/*
+ * Wakes up the event thread waiting in awaitEvents(), if any
+ */
+static void notifyEventWakeup(ReceiveRing *ring) {
+    pthread_mutex_lock(&ring->wakeupLock);
+    if( ring->eventWakeup != 0 ){
+        char signal = 1;
+        // Non-blocking, a full pipe is signalled already
+        while( write(WAKEUP_WRITE_FD(ring->eventWakeup), &signal, 1) == -1 && errno == EINTR );
+    }
+    pthread_mutex_unlock(&ring->wakeupLock);
+}
+
+static void *receiveRingThread(void *arg) {
+    ReceiveRing *ring = (ReceiveRing*)arg;
+    jint *head = RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_HEAD);
+    jint *tail = RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_TAIL);
+    jlong *overflows = RING_FIELD(ring, jlong, jssc_SerialNativeInterface_RING_OVERFLOWS);
+    jint *highWater = RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_HIGH_WATER);
+    jint *waiting = RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_WAITING);
+    jbyte *data = ring->base + jssc_SerialNativeInterface_RING_DATA;
+    int fds[2] = {ring->stopFds[0], ring->portFd};
+    int fullFds[2] = {ring->stopFds[0], ring->spaceFds[0]};
+    bool ready[2];
+    bool full = false;
+    int err = 0;
+    jint position = *head;
+    for(;;){
+        // Unsigned, as the positions wrap around
+        jint used = (jint)((uint32_t)position - (uint32_t)__atomic_load_n(tail, __ATOMIC_ACQUIRE));
+        if( used == ring->capacity ){
+            // Leave the data to the driver (and flow control) until Java reads
+            if( !full ){
+                __atomic_store_n(overflows, *overflows + 1, __ATOMIC_RELAXED);
+                full = true;
+            }
+            // Sequentially consistent, pairs with the fence of Java between
+            // storing the tail and checking RING_WAITING, so no read is missed
+            __atomic_store_n(waiting, 1, __ATOMIC_SEQ_CST);
+            int result = 0;
+            if( (jint)((uint32_t)position - (uint32_t)__atomic_load_n(tail, __ATOMIC_SEQ_CST)) == ring->capacity ){
+                result = awaitReadable(fullFds, ready, 2, -1);
+            }
+            __atomic_store_n(waiting, 0, __ATOMIC_RELAXED);
+            if( result < 0 ){
+                if( errno == EINTR ) continue;
+                err = errno;
+                break;
+            }
+            if( result > 0 ){
+                if( ready[0] ) break;
+                char drain[64];
+                while( read(ring->spaceFds[0], drain, sizeof(drain)) > 0 );
+            }
+            continue;
+        }
+        full = false;
+        int result = awaitReadable(fds, ready, 2, -1);
+        if( result < 0 ){
+            if( errno == EINTR ) continue;
+            err = errno;
+            break;
+        }
+        if( ready[0] ) break;
+        jint offset = position & (ring->capacity - 1);
+        jint length = ring->capacity - used;
+        if( length > ring->capacity - offset ) length = ring->capacity - offset;
+        // Never wait in read() for a VMIN above zero, stopReceiveRing couldn't wake it
+        int available = 0;
+        if( ioctl(ring->portFd, FIONREAD, &available) == 0 && available > 0 && available < length ) length = available;
+        ssize_t count = read(ring->portFd, data + offset, length);
+        if( count < 0 ){
+            if( errno == EINTR || errno == EAGAIN ) continue;
+            err = errno;
+            break;
+        }
+        if( count == 0 ) break;// Hangup
+        jint eventChar = __atomic_load_n(RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_EVENT_CHAR), __ATOMIC_RELAXED);
+        jint found = 0;
+        if( eventChar >= 0 ){
+            found = countEventChars(ring, data + offset, (jint)count, position, (jbyte)eventChar);
+        }
+        position = (jint)((uint32_t)position + (uint32_t)count);
+        __atomic_store_n(head, position, __ATOMIC_RELEASE);
+        if( found > 0 ){
+            // After the head, so the event thread finds the bytes
+            notifyEventWakeup(ring);
+        }
+        if( used + count > *highWater ){
+            __atomic_store_n(highWater, (jint)(used + count), __ATOMIC_RELAXED);
+        }
+        notifyReceiveRing(ring);
+    }
+    *RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_ERROR) = err;
+    __atomic_store_n(RING_FIELD(ring, jint, jssc_SerialNativeInterface_RING_STATE), jssc_SerialNativeInterface_RING_ENDED, __ATOMIC_RELEASE);
+    close(ring->notifyFds[1]);
+    return NULL;
+}
+
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_startReceiveRing
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer){
+    jbyte *base = (jbyte*)env->GetDirectBufferAddress(buffer);
+    jlong size = env->GetDirectBufferCapacity(buffer);
+    jlong capacity = size - jssc_SerialNativeInterface_RING_DATA;
+    if( base == NULL || ((intptr_t)base & 7) != 0 || capacity <= 0 || capacity > (1 << 30) || (capacity & (capacity - 1)) != 0 ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "ring must be an aligned direct buffer with a power of two data size");
+        return -1;
+    }
+    ReceiveRing *ring = new ReceiveRing();
+    ring->portFd = (int)portHandle;
+    ring->base = base;
+    ring->capacity = (jint)capacity;
+    ring->eventWakeup = 0;
+    pthread_mutex_init(&ring->wakeupLock, NULL);
+    int err = 0;
+    if( pipe(ring->stopFds) == -1 ){
+        err = errno;
+    }
+    else if( pipe(ring->notifyFds) == -1 ){
+        err = errno;
+        close(ring->stopFds[0]);
+        close(ring->stopFds[1]);
+    }
+    else if( pipe(ring->spaceFds) == -1 ){
+        err = errno;
+        close(ring->stopFds[0]);
+        close(ring->stopFds[1]);
+        close(ring->notifyFds[0]);
+        close(ring->notifyFds[1]);
+    }
+    else {
+        for( int i = 0; i < 2; i++ ){
+            fcntl(ring->notifyFds[i], F_SETFL, fcntl(ring->notifyFds[i], F_GETFL, 0) | O_NONBLOCK);
+            fcntl(ring->notifyFds[i], F_SETFD, FD_CLOEXEC);
+            fcntl(ring->spaceFds[i], F_SETFL, fcntl(ring->spaceFds[i], F_GETFL, 0) | O_NONBLOCK);
+            fcntl(ring->spaceFds[i], F_SETFD, FD_CLOEXEC);
+            fcntl(ring->stopFds[i], F_SETFD, FD_CLOEXEC);
+        }
+        err = pthread_create(&ring->thread, NULL, receiveRingThread, ring);
+        if( err != 0 ){
+            close(ring->stopFds[0]);
+            close(ring->stopFds[1]);
+            close(ring->notifyFds[0]);
+            close(ring->notifyFds[1]);
+            close(ring->spaceFds[0]);
+            close(ring->spaceFds[1]);
+        }
+    }
+    if( err != 0 ){
+        pthread_mutex_destroy(&ring->wakeupLock);
+        delete ring;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return -1;
+    }
+    return (jlong)(intptr_t)ring;
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_awaitReceiveRing
+  (JNIEnv *env, jobject, jlong ringHandle, jint timeoutMs){
+    ReceiveRing *ring = (ReceiveRing*)(intptr_t)ringHandle;
+    bool ready;
+    int result = awaitReadable(&ring->notifyFds[0], &ready, 1, timeoutMs);
+    if( result < 0 ){
+        if( errno == EINTR ) return JNI_TRUE;// Spurious, the caller checks again
+        int err = errno;
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, strerror(err));
+        return JNI_FALSE;
+    }
+    if( result == 0 ) return JNI_FALSE;
+    char drain[64];
+    while( read(ring->notifyFds[0], drain, sizeof(drain)) > 0 );
+    return JNI_TRUE;
+}
+
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_stopReceiveRing
+  (JNIEnv *, jobject, jlong ringHandle){
+    ReceiveRing *ring = (ReceiveRing*)(intptr_t)ringHandle;
+    char signal = 1;
+    while( write(ring->stopFds[1], &signal, 1) == -1 && errno == EINTR );
+    pthread_join(ring->thread, NULL);
+    close(ring->stopFds[0]);
+    close(ring->stopFds[1]);
+    close(ring->spaceFds[0]);
+    close(ring->spaceFds[1]);
+}
+
+/*
+ * Sets the wakeup handle signalled when event characters arrive. Once this
+ * returns, the previous handle is no longer used by the receiving thread.
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_setReceiveRingWakeup
+  (JNIEnv *, jobject, jlong ringHandle, jlong wakeup){
+    ReceiveRing *ring = (ReceiveRing*)(intptr_t)ringHandle;
+    pthread_mutex_lock(&ring->wakeupLock);
+    ring->eventWakeup = wakeup;
+    pthread_mutex_unlock(&ring->wakeupLock);
+}
+
+/*
+ * Wakes up the receiving thread waiting for space in a full ring. Java calls
+ * this only until stopReceiveRing, which closes the pipe.
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_signalReceiveRingSpace
+  (JNIEnv *, jobject, jlong ringHandle){
+    ReceiveRing *ring = (ReceiveRing*)(intptr_t)ringHandle;
+    char signal = 1;
+    // Non-blocking, a full pipe is signalled already
+    while( write(ring->spaceFds[1], &signal, 1) == -1 && errno == EINTR );
+}
+
+/*
+ * Orders the accesses of a receive ring in Java before Java 9, see RingFences
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_memoryFence
+  (JNIEnv *, jobject){
+    __atomic_thread_fence(__ATOMIC_SEQ_CST);
+}
+
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_closeReceiveRing
+  (JNIEnv *, jobject, jlong ringHandle){
+    ReceiveRing *ring = (ReceiveRing*)(intptr_t)ringHandle;
+    close(ring->notifyFds[0]);
+    pthread_mutex_destroy(&ring->wakeupLock);
+    delete ring;
+}
+
 /* OK */
 /*
  * Getting serial ports names like an a String array (String[])
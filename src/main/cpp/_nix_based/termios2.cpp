@@ -0,0 +1,56 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+#include "termios2.h"
+
+#ifdef __linux__
+    #include <sys/ioctl.h>
+    #include <asm/termbits.h>
+#endif
+
+#if defined(__linux__) && defined(TCGETS2) && defined(BOTHER)
+
+bool setBaudRateTermios2(int fd, int baudRate){
+    struct termios2 settings;
+    if( baudRate <= 0 || ioctl(fd, TCGETS2, &settings) < 0 ) return false;
+    settings.c_cflag &= ~(CBAUD | (CBAUD << IBSHIFT));
+    settings.c_cflag |= BOTHER | (BOTHER << IBSHIFT);
+    settings.c_ispeed = (speed_t)baudRate;
+    settings.c_ospeed = (speed_t)baudRate;
+    return ioctl(fd, TCSETS2, &settings) == 0;
+}
+
+int getBaudRateTermios2(int fd){
+    struct termios2 settings;
+    if( ioctl(fd, TCGETS2, &settings) < 0 ) return -1;
+    //A speed code like B38400 may stand for a custom divisor of TIOCSSERIAL
+    if( (settings.c_cflag & CBAUD) != BOTHER ) return -1;
+    return (int)settings.c_ospeed;
+}
+
+#else
+
+bool setBaudRateTermios2(int, int){
+    return false;
+}
+
+int getBaudRateTermios2(int){
+    return -1;
+}
+
+#endif
@@ -0,0 +1,44 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+#ifndef JSSC_TERMIOS2_H
+#define JSSC_TERMIOS2_H
+
+/*
+ * Arbitrary baud rates through termios2 and BOTHER on Linux.
+ *
+ * They live in their own translation unit, because the kernel headers which
+ * declare termios2 clash with <termios.h> of the C library.
+ */
+
+/**
+ * Sets the input and output speed of 'fd' to exactly 'baudRate' with
+ * TCGETS2/TCSETS2. The other settings of the port are kept.
+ *
+ * Returns false if termios2 is not available or the driver rejected it.
+ */
+bool setBaudRateTermios2(int fd, int baudRate);
+
+/**
+ * Returns the output speed of 'fd' as reported by TCGETS2, which is the
+ * speed the driver actually applied, or -1 if termios2 is not available or
+ * the speed is one of the codes of termios (BOTHER is not set).
+ */
+int getBaudRateTermios2(int fd);
+
+#endif
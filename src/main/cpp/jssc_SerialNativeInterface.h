@@ -23,6 +23,90 @@ extern "C" {
 #define jssc_SerialNativeInterface_ERR_PERMISSION_DENIED -3LL
 #undef jssc_SerialNativeInterface_ERR_INCORRECT_SERIAL_PORT
 #define jssc_SerialNativeInterface_ERR_INCORRECT_SERIAL_PORT -4LL
+#undef jssc_SerialNativeInterface_AWAIT_READ
+#define jssc_SerialNativeInterface_AWAIT_READ 1L
+#undef jssc_SerialNativeInterface_AWAIT_WRITE
+#define jssc_SerialNativeInterface_AWAIT_WRITE 2L
+#undef jssc_SerialNativeInterface_AWAIT_WAKEUP
+#define jssc_SerialNativeInterface_AWAIT_WAKEUP 4L
+#undef jssc_SerialNativeInterface_AWAIT_HANGUP
+#define jssc_SerialNativeInterface_AWAIT_HANGUP 8L
+#undef jssc_SerialNativeInterface_AWAIT_LINES
+#define jssc_SerialNativeInterface_AWAIT_LINES 16L
+#undef jssc_SerialNativeInterface_LINE_CHANGE_LINES
+#define jssc_SerialNativeInterface_LINE_CHANGE_LINES 0L
+#undef jssc_SerialNativeInterface_LINE_CHANGE_CTS
+#define jssc_SerialNativeInterface_LINE_CHANGE_CTS 1L
+#undef jssc_SerialNativeInterface_LINE_CHANGE_STATE
+#define jssc_SerialNativeInterface_LINE_CHANGE_STATE 5L
+#undef jssc_SerialNativeInterface_LINE_CHANGE_TIMESTAMP
+#define jssc_SerialNativeInterface_LINE_CHANGE_TIMESTAMP 6L
+#undef jssc_SerialNativeInterface_LINE_CHANGE_READY_TIMESTAMP
+#define jssc_SerialNativeInterface_LINE_CHANGE_READY_TIMESTAMP 7L
+#undef jssc_SerialNativeInterface_LINE_CHANGE_SIZE
+#define jssc_SerialNativeInterface_LINE_CHANGE_SIZE 8L
+#undef jssc_SerialNativeInterface_SNAPSHOT_INPUT
+#define jssc_SerialNativeInterface_SNAPSHOT_INPUT 0L
+#undef jssc_SerialNativeInterface_SNAPSHOT_OUTPUT
+#define jssc_SerialNativeInterface_SNAPSHOT_OUTPUT 1L
+#undef jssc_SerialNativeInterface_SNAPSHOT_CTS
+#define jssc_SerialNativeInterface_SNAPSHOT_CTS 2L
+#undef jssc_SerialNativeInterface_SNAPSHOT_DSR
+#define jssc_SerialNativeInterface_SNAPSHOT_DSR 3L
+#undef jssc_SerialNativeInterface_SNAPSHOT_RING
+#define jssc_SerialNativeInterface_SNAPSHOT_RING 4L
+#undef jssc_SerialNativeInterface_SNAPSHOT_RLSD
+#define jssc_SerialNativeInterface_SNAPSHOT_RLSD 5L
+#undef jssc_SerialNativeInterface_SNAPSHOT_BREAK
+#define jssc_SerialNativeInterface_SNAPSHOT_BREAK 6L
+#undef jssc_SerialNativeInterface_SNAPSHOT_TX
+#define jssc_SerialNativeInterface_SNAPSHOT_TX 7L
+#undef jssc_SerialNativeInterface_SNAPSHOT_FRAME
+#define jssc_SerialNativeInterface_SNAPSHOT_FRAME 8L
+#undef jssc_SerialNativeInterface_SNAPSHOT_OVERRUN
+#define jssc_SerialNativeInterface_SNAPSHOT_OVERRUN 9L
+#undef jssc_SerialNativeInterface_SNAPSHOT_PARITY
+#define jssc_SerialNativeInterface_SNAPSHOT_PARITY 10L
+#undef jssc_SerialNativeInterface_SNAPSHOT_TIMESTAMP_HIGH
+#define jssc_SerialNativeInterface_SNAPSHOT_TIMESTAMP_HIGH 11L
+#undef jssc_SerialNativeInterface_SNAPSHOT_TIMESTAMP_LOW
+#define jssc_SerialNativeInterface_SNAPSHOT_TIMESTAMP_LOW 12L
+#undef jssc_SerialNativeInterface_SNAPSHOT_EVENTS
+#define jssc_SerialNativeInterface_SNAPSHOT_EVENTS 13L
+#undef jssc_SerialNativeInterface_SNAPSHOT_ERRORS
+#define jssc_SerialNativeInterface_SNAPSHOT_ERRORS 14L
+#undef jssc_SerialNativeInterface_SNAPSHOT_SIZE
+#define jssc_SerialNativeInterface_SNAPSHOT_SIZE 15L
+#undef jssc_SerialNativeInterface_RING_HEAD
+#define jssc_SerialNativeInterface_RING_HEAD 0L
+#undef jssc_SerialNativeInterface_RING_TAIL
+#define jssc_SerialNativeInterface_RING_TAIL 64L
+#undef jssc_SerialNativeInterface_RING_OVERFLOWS
+#define jssc_SerialNativeInterface_RING_OVERFLOWS 128L
+#undef jssc_SerialNativeInterface_RING_HIGH_WATER
+#define jssc_SerialNativeInterface_RING_HIGH_WATER 136L
+#undef jssc_SerialNativeInterface_RING_STATE
+#define jssc_SerialNativeInterface_RING_STATE 140L
+#undef jssc_SerialNativeInterface_RING_ERROR
+#define jssc_SerialNativeInterface_RING_ERROR 144L
+#undef jssc_SerialNativeInterface_RING_DATA
+#define jssc_SerialNativeInterface_RING_DATA 192L
+#undef jssc_SerialNativeInterface_RING_EVENT_CHAR
+#define jssc_SerialNativeInterface_RING_EVENT_CHAR 148L
+#undef jssc_SerialNativeInterface_RING_EVENT_COUNT
+#define jssc_SerialNativeInterface_RING_EVENT_COUNT 152L
+#undef jssc_SerialNativeInterface_RING_EVENT_POSITION
+#define jssc_SerialNativeInterface_RING_EVENT_POSITION 156L
+#undef jssc_SerialNativeInterface_RING_WAITING
+#define jssc_SerialNativeInterface_RING_WAITING 160L
+#undef jssc_SerialNativeInterface_RING_RECEIVING
+#define jssc_SerialNativeInterface_RING_RECEIVING 0L
+#undef jssc_SerialNativeInterface_RING_ENDED
+#define jssc_SerialNativeInterface_RING_ENDED 1L
+#undef jssc_SerialNativeInterface_LOW_LATENCY_DRIVER
+#define jssc_SerialNativeInterface_LOW_LATENCY_DRIVER 1L
+#undef jssc_SerialNativeInterface_LOW_LATENCY_USB_TIMER
+#define jssc_SerialNativeInterface_LOW_LATENCY_USB_TIMER 2L
 /*
  * Class:     jssc_SerialNativeInterface
  * Method:    getNativeLibraryVersion
@@ -47,6 +131,14 @@ JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_openPort
 JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setParams
   (JNIEnv *, jobject, jlong, jint, jint, jint, jint, jboolean, jboolean, jint);
 
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    getActualBaudRate
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_getActualBaudRate
+  (JNIEnv *, jobject, jlong);
+
 /*
  * Class:     jssc_SerialNativeInterface
  * Method:    purgePort
@@ -87,6 +179,54 @@ JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_getEventsMask
 JNIEXPORT jobjectArray JNICALL Java_jssc_SerialNativeInterface_waitEvents
   (JNIEnv *, jobject, jlong, jint);
 
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    waitEventsArray
+ * Signature: (JI[I)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_waitEventsArray
+  (JNIEnv *, jobject, jlong, jint, jintArray);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    waitEventsBuffer
+ * Signature: (JILjava/nio/IntBuffer;)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_waitEventsBuffer
+  (JNIEnv *, jobject, jlong, jint, jobject);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    awaitEvents
+ * Signature: (JIJJI[J)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_awaitEvents
+  (JNIEnv *, jobject, jlong, jint, jlong, jlong, jint, jlongArray);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    openLinesMonitor
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_openLinesMonitor
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    closeLinesMonitor
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_closeLinesMonitor
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    awaitModemLineChange
+ * Signature: (JIJI[J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_awaitModemLineChange
+  (JNIEnv *, jobject, jlong, jint, jlong, jint, jlongArray);
+
 /*
  * Class:     jssc_SerialNativeInterface
  * Method:    setRTS
@@ -119,6 +259,254 @@ JNIEXPORT jbyteArray JNICALL Java_jssc_SerialNativeInterface_readBytes
 JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_writeBytes
   (JNIEnv *, jobject, jlong, jbyteArray);
 
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    writeArray
+ * Signature: (J[BII)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeArray
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    writeArrayFully
+ * Signature: (J[BIII)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeArrayFully
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    writeBufferFully
+ * Signature: (JLjava/nio/ByteBuffer;III)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeBufferFully
+  (JNIEnv *, jobject, jlong, jobject, jint, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    writeByte
+ * Signature: (JB)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_writeByte
+  (JNIEnv *, jobject, jlong, jbyte);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readArray
+ * Signature: (J[BII)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArray
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readArrayWithTimeout
+ * Signature: (J[BIII)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayWithTimeout
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readArrayTimestamped
+ * Signature: (J[BIII[J)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayTimestamped
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint, jint, jlongArray);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readBufferTimestamped
+ * Signature: (JLjava/nio/ByteBuffer;III[J)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBufferTimestamped
+  (JNIEnv *, jobject, jlong, jobject, jint, jint, jint, jlongArray);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readArrayByMode
+ * Signature: (J[BIIII)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayByMode
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readBufferByMode
+ * Signature: (JLjava/nio/ByteBuffer;IIII)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBufferByMode
+  (JNIEnv *, jobject, jlong, jobject, jint, jint, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readAvailable
+ * Signature: (JI)[B
+ */
+JNIEXPORT jbyteArray JNICALL Java_jssc_SerialNativeInterface_readAvailable
+  (JNIEnv *, jobject, jlong, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readAvailableArray
+ * Signature: (J[BII)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readAvailableArray
+  (JNIEnv *, jobject, jlong, jbyteArray, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readAvailableBuffer
+ * Signature: (JLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readAvailableBuffer
+  (JNIEnv *, jobject, jlong, jobject, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    readBuffer
+ * Signature: (JLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBuffer
+  (JNIEnv *, jobject, jlong, jobject, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    writeBuffer
+ * Signature: (JLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeBuffer
+  (JNIEnv *, jobject, jlong, jobject, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    createWakeupHandle
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_createWakeupHandle
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    signalWakeupHandle
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_signalWakeupHandle
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    closeWakeupHandle
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_closeWakeupHandle
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    awaitReady
+ * Signature: (JIJI)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_awaitReady
+  (JNIEnv *, jobject, jlong, jint, jlong, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    startReceiveRing
+ * Signature: (JLjava/nio/ByteBuffer;)J
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_startReceiveRing
+  (JNIEnv *, jobject, jlong, jobject);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    awaitReceiveRing
+ * Signature: (JI)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_awaitReceiveRing
+  (JNIEnv *, jobject, jlong, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    stopReceiveRing
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_stopReceiveRing
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    setReceiveRingWakeup
+ * Signature: (JJ)V
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_setReceiveRingWakeup
+  (JNIEnv *, jobject, jlong, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    signalReceiveRingSpace
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_signalReceiveRingSpace
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    memoryFence
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_memoryFence
+  (JNIEnv *, jobject);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    closeReceiveRing
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_closeReceiveRing
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    createSelector
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_createSelector
+  (JNIEnv *, jobject, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    selectorRegister
+ * Signature: (JJII)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_selectorRegister
+  (JNIEnv *, jobject, jlong, jlong, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    selectorUnregister
+ * Signature: (JJ)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_selectorUnregister
+  (JNIEnv *, jobject, jlong, jlong);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    selectorWait
+ * Signature: (JJ[I[II)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_selectorWait
+  (JNIEnv *, jobject, jlong, jlong, jintArray, jintArray, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    closeSelector
+ * Signature: (J)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_closeSelector
+  (JNIEnv *, jobject, jlong);
+
 /*
  * Class:     jssc_SerialNativeInterface
  * Method:    getBuffersBytesCount
@@ -143,6 +531,30 @@ JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setFlowControlMode
 JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_getFlowControlMode
   (JNIEnv *, jobject, jlong);
 
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    setReadMode
+ * Signature: (JII)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setReadMode
+  (JNIEnv *, jobject, jlong, jint, jint);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    setEventChar
+ * Signature: (JB)Z
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setEventChar
+  (JNIEnv *, jobject, jlong, jbyte);
+
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    setLowLatency
+ * Signature: (JZ)I
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_setLowLatency
+  (JNIEnv *, jobject, jlong, jboolean);
+
 /*
  * Class:     jssc_SerialNativeInterface
  * Method:    getSerialPortNames
@@ -167,6 +579,14 @@ JNIEXPORT jintArray JNICALL Java_jssc_SerialNativeInterface_getLinesStatus
 JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_sendBreak
   (JNIEnv *, jobject, jlong, jint);
 
+/*
+ * Class:     jssc_SerialNativeInterface
+ * Method:    drainOutput
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_drainOutput
+  (JNIEnv *, jobject, jlong);
+
 #ifdef __cplusplus
 }
 #endif
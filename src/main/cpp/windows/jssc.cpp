@@ -278,7 +278,7 @@ JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_writeBytes
             }
         }
     }
-    env->ReleaseByteArrayElements(buffer, jBuffer, 0);
+    env->ReleaseByteArrayElements(buffer, jBuffer, JNI_ABORT);
     CloseHandle(overlapped->hEvent);
     delete overlapped;
     return returnValue;
@@ -346,6 +346,902 @@ Finally:
     return returnArray;
 }
 
+/*
+ * Resolves the native address of 'buffer' and checks that the region
+ * [offset, offset+length) lies within its capacity.
+ *
+ * Returns NULL with a pending java exception if 'buffer' is null, not a
+ * direct buffer or the region is out of bounds.
+ */
+static jbyte* getDirectBufferRegion(JNIEnv *env, jobject buffer, jint offset, jint length){
+    if( buffer == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "buffer");
+        return NULL;
+    }
+    jbyte *address = (jbyte*)env->GetDirectBufferAddress(buffer);
+    jlong capacity = env->GetDirectBufferCapacity(buffer);
+    if( address == NULL || capacity < 0 ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "buffer is not a direct buffer");
+        return NULL;
+    }
+    if( offset < 0 || length < 0 || (jlong)offset + length > capacity ){
+        char emsg[96]; emsg[0] = '\0';
+        snprintf(emsg, sizeof emsg, "offset %d, length %d, capacity %lld", offset, length, (long long)capacity);
+        jclass exClz = env->FindClass("java/lang/IndexOutOfBoundsException");
+        if( exClz != NULL ) env->ThrowNew(exClz, emsg);
+        return NULL;
+    }
+    return address + offset;
+}
+
+/*
+ * Reads up to 'length' bytes into 'lpBuffer' using overlapped I/O.
+ *
+ * Returns the count of bytes read. Returns -1 with a pending java
+ * exception if the handle is invalid.
+ */
+static jint overlappedRead(JNIEnv *env, HANDLE hComm, jbyte *lpBuffer, jint length){
+    DWORD lpNumberOfBytesRead = 0;
+    jint returnValue;
+    OVERLAPPED *overlapped = new OVERLAPPED();
+    overlapped->hEvent = CreateEventA(NULL, true, false, NULL);
+    if(ReadFile(hComm, lpBuffer, (DWORD)length, &lpNumberOfBytesRead, overlapped)){
+        returnValue = (jint)lpNumberOfBytesRead;
+    }
+    else if(GetLastError() == ERROR_IO_PENDING){
+        returnValue = 0;
+        if(WaitForSingleObject(overlapped->hEvent, INFINITE) == WAIT_OBJECT_0){
+            if(GetOverlappedResult(hComm, overlapped, &lpNumberOfBytesRead, false)){
+                returnValue = (jint)lpNumberOfBytesRead;
+            }
+        }
+    }
+    else if(GetLastError() == ERROR_INVALID_HANDLE){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "EBADF");
+        returnValue = -1;
+    }
+    else {
+        returnValue = 0;
+    }
+    CloseHandle(overlapped->hEvent);
+    delete overlapped;
+    return returnValue;
+}
+
+/*
+ * Reading data from the port straight into a direct buffer
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBuffer
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length){
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    if( length == 0 ) return 0;
+    return overlappedRead(env, (HANDLE)portHandle, lpBuffer, length);
+}
+
+/*
+ * Size of the stack buffer used to move data between the driver and java
+ * arrays without a malloc per call.
+ */
+#define JSSC_ARRAY_CHUNK_SIZE 4096
+
+/*
+ * Checks that the region [offset, offset+length) lies within 'array'.
+ *
+ * Returns false with a pending java exception if 'array' is null or the
+ * region is out of bounds.
+ */
+static bool checkArrayRegion(JNIEnv *env, jbyteArray array, jint offset, jint length){
+    if( array == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "buffer");
+        return false;
+    }
+    jsize arrayLength = env->GetArrayLength(array);
+    if( offset < 0 || length < 0 || offset > arrayLength - length ){
+        char emsg[96]; emsg[0] = '\0';
+        snprintf(emsg, sizeof emsg, "offset %d, length %d, array length %d", offset, length, arrayLength);
+        jclass exClz = env->FindClass("java/lang/IndexOutOfBoundsException");
+        if( exClz != NULL ) env->ThrowNew(exClz, emsg);
+        return false;
+    }
+    return true;
+}
+
+/*
+ * Reading data from the port into a region of an existing array
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArray
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteRead = 0;
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteRead < length ){
+        jint chunk = length - byteRead;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        jint result = overlappedRead(env, (HANDLE)portHandle, lpBuffer, chunk);
+        if( result < 0 ){
+            if( byteRead == 0 ) return -1;
+            /* return what we already have so far. */
+            env->ExceptionClear();
+            break;
+        }
+        env->SetByteArrayRegion(buffer, offset + byteRead, result, lpBuffer);
+        byteRead += result;
+        if( result < chunk ) break;
+    }
+    return byteRead;
+}
+
+/*
+ * Writes up to 'length' bytes from 'lpBuffer' using overlapped I/O.
+ *
+ * Returns the count of bytes written. Returns -1 with a pending java
+ * exception if the handle is invalid.
+ */
+static jint overlappedWrite(JNIEnv *env, HANDLE hComm, const jbyte *lpBuffer, jint length){
+    DWORD lpNumberOfBytesWritten = 0;
+    jint returnValue;
+    OVERLAPPED *overlapped = new OVERLAPPED();
+    overlapped->hEvent = CreateEventA(NULL, true, false, NULL);
+    if(WriteFile(hComm, lpBuffer, (DWORD)length, &lpNumberOfBytesWritten, overlapped)){
+        returnValue = (jint)lpNumberOfBytesWritten;
+    }
+    else if(GetLastError() == ERROR_IO_PENDING){
+        returnValue = 0;
+        if(WaitForSingleObject(overlapped->hEvent, INFINITE) == WAIT_OBJECT_0){
+            if(GetOverlappedResult(hComm, overlapped, &lpNumberOfBytesWritten, false)){
+                returnValue = (jint)lpNumberOfBytesWritten;
+            }
+        }
+    }
+    else if(GetLastError() == ERROR_INVALID_HANDLE){
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "EBADF");
+        returnValue = -1;
+    }
+    else {
+        returnValue = 0;
+    }
+    CloseHandle(overlapped->hEvent);
+    delete overlapped;
+    return returnValue;
+}
+
+/*
+ * Writing data from a direct buffer to the port
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeBuffer
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length){
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    if( length == 0 ) return 0;
+    return overlappedWrite(env, (HANDLE)portHandle, lpBuffer, length);
+}
+
+/*
+ * Writing a region of an array to the port
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeArray
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteWritten = 0;
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteWritten < length ){
+        jint chunk = length - byteWritten;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        env->GetByteArrayRegion(buffer, offset + byteWritten, chunk, lpBuffer);
+        jint result = overlappedWrite(env, (HANDLE)portHandle, lpBuffer, chunk);
+        if( result < 0 ){
+            if( byteWritten == 0 ) return -1;
+            /* report what already went out. */
+            env->ExceptionClear();
+            break;
+        }
+        byteWritten += result;
+        if( result < chunk ) break;
+    }
+    return byteWritten;
+}
+
+/*
+ * Writes up to 'length' bytes from 'lpBuffer' using overlapped I/O, waiting
+ * at most 'timeoutMs' milliseconds. On timeout the pending write is
+ * cancelled and the count of bytes which already went out is returned.
+ *
+ * Returns -1 with a pending java exception if the handle is invalid.
+ */
+static jint overlappedWriteTimed(JNIEnv *env, HANDLE hComm, const jbyte *lpBuffer, jint length, DWORD timeoutMs){
+    DWORD lpNumberOfBytesWritten = 0;
+    jint returnValue;
+    OVERLAPPED *overlapped = new OVERLAPPED();
+    overlapped->hEvent = CreateEventA(NULL, true, false, NULL);
+    if(WriteFile(hComm, lpBuffer, (DWORD)length, &lpNumberOfBytesWritten, overlapped)){
+        returnValue = (jint)lpNumberOfBytesWritten;
+    }
+    else if(GetLastError() == ERROR_IO_PENDING){
+        if(WaitForSingleObject(overlapped->hEvent, timeoutMs) != WAIT_OBJECT_0){
+            CancelIo(hComm);
+        }
+        returnValue = 0;
+        if(GetOverlappedResult(hComm, overlapped, &lpNumberOfBytesWritten, true)
+                || GetLastError() == ERROR_OPERATION_ABORTED){
+            returnValue = (jint)lpNumberOfBytesWritten;
+        }
+    }
+    else {
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, GetLastError() == ERROR_INVALID_HANDLE ? "EBADF" : "WriteFile() failed");
+        returnValue = -1;
+    }
+    CloseHandle(overlapped->hEvent);
+    delete overlapped;
+    return returnValue;
+}
+
+/*
+ * Writes 'length' bytes from 'lpBuffer', looping over short writes until
+ * all bytes are written or 'timeoutMs' elapsed since 'startTicks' (no
+ * deadline if negative).
+ *
+ * Returns the count of bytes written, or -1 with a pending java exception.
+ */
+static jint writeUntil(JNIEnv *env, HANDLE hComm, const jbyte *lpBuffer, jint length, DWORD startTicks, jint timeoutMs){
+    jint byteWritten = 0;
+    while( byteWritten < length ){
+        DWORD remaining = INFINITE;
+        if( timeoutMs >= 0 ){
+            DWORD elapsed = GetTickCount() - startTicks;
+            remaining = elapsed >= (DWORD)timeoutMs ? 0 : (DWORD)timeoutMs - elapsed;
+        }
+        jint result = overlappedWriteTimed(env, hComm, lpBuffer + byteWritten, length - byteWritten, remaining);
+        if( result < 0 ) return -1;
+        byteWritten += result;
+        if( remaining == 0 ) break;
+    }
+    return byteWritten;
+}
+
+/*
+ * Writing a region of an array to the port completely
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeArrayFully
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length, jint timeoutMs){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteWritten = 0;
+    DWORD startTicks = GetTickCount();
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteWritten < length ){
+        jint chunk = length - byteWritten;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        env->GetByteArrayRegion(buffer, offset + byteWritten, chunk, lpBuffer);
+        jint result = writeUntil(env, (HANDLE)portHandle, lpBuffer, chunk, startTicks, timeoutMs);
+        if( result < 0 ) return -1;
+        byteWritten += result;
+        if( result < chunk ) break;
+    }
+    return byteWritten;
+}
+
+/*
+ * Writing data from a direct buffer to the port completely
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_writeBufferFully
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length, jint timeoutMs){
+    DWORD startTicks = GetTickCount();
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    return writeUntil(env, (HANDLE)portHandle, lpBuffer, length, startTicks, timeoutMs);
+}
+
+/*
+ * Reads up to 'length' bytes into 'lpBuffer' using overlapped I/O, waiting
+ * at most 'timeoutMs' milliseconds. On timeout the pending read is
+ * cancelled and the count of bytes which already arrived is returned.
+ *
+ * Returns -1 with a pending java exception if the handle is invalid.
+ */
+static jint overlappedReadTimed(JNIEnv *env, HANDLE hComm, jbyte *lpBuffer, jint length, DWORD timeoutMs){
+    DWORD lpNumberOfBytesRead = 0;
+    jint returnValue;
+    OVERLAPPED *overlapped = new OVERLAPPED();
+    overlapped->hEvent = CreateEventA(NULL, true, false, NULL);
+    if(ReadFile(hComm, lpBuffer, (DWORD)length, &lpNumberOfBytesRead, overlapped)){
+        returnValue = (jint)lpNumberOfBytesRead;
+    }
+    else if(GetLastError() == ERROR_IO_PENDING){
+        if(WaitForSingleObject(overlapped->hEvent, timeoutMs) != WAIT_OBJECT_0){
+            CancelIo(hComm);
+        }
+        returnValue = 0;
+        if(GetOverlappedResult(hComm, overlapped, &lpNumberOfBytesRead, true)
+                || GetLastError() == ERROR_OPERATION_ABORTED){
+            returnValue = (jint)lpNumberOfBytesRead;
+        }
+    }
+    else {
+        jclass exClz = env->FindClass(GetLastError() == ERROR_INVALID_HANDLE ? "java/lang/IllegalArgumentException" : "java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, GetLastError() == ERROR_INVALID_HANDLE ? "EBADF" : "ReadFile() failed");
+        returnValue = -1;
+    }
+    CloseHandle(overlapped->hEvent);
+    delete overlapped;
+    return returnValue;
+}
+
+/*
+ * Reading data from the port into a region of an existing array with a timeout
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayWithTimeout
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length, jint timeoutMs){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteRead = 0;
+    DWORD startTicks = GetTickCount();
+    DWORD timeout = timeoutMs < 0 ? 0 : (DWORD)timeoutMs;
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteRead < length ){
+        jint chunk = length - byteRead;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        DWORD elapsed = GetTickCount() - startTicks;
+        DWORD remaining = elapsed >= timeout ? 0 : timeout - elapsed;
+        jint result = overlappedReadTimed(env, (HANDLE)portHandle, lpBuffer, chunk, remaining);
+        if( result < 0 ) return -1;
+        env->SetByteArrayRegion(buffer, offset + byteRead, result, lpBuffer);
+        byteRead += result;
+        if( result < chunk ) break;
+    }
+    return byteRead;
+}
+
+/*
+ * Reads up to 'length' bytes which are already waiting in the input buffer.
+ *
+ * Returns the count of bytes stored at 'lpBuffer' (zero if nothing is
+ * waiting), or -1 with a pending java exception.
+ */
+static jint readAvailableInto(JNIEnv *env, HANDLE hComm, jbyte *lpBuffer, jint length){
+    DWORD lpErrors;
+    COMSTAT comstat;
+    if(!ClearCommError(hComm, &lpErrors, &comstat)){
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "ClearCommError() failed");
+        return -1;
+    }
+    jint available = comstat.cbInQue > (DWORD)length ? length : (jint)comstat.cbInQue;
+    if( available == 0 ) return 0;
+    return overlappedRead(env, hComm, lpBuffer, available);
+}
+
+/*
+ * Reading all bytes waiting in the input buffer, but at most 'maxBytes'
+ */
+JNIEXPORT jbyteArray JNICALL Java_jssc_SerialNativeInterface_readAvailable
+  (JNIEnv *env, jobject, jlong portHandle, jint maxBytes){
+    jbyte lpStackBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jbyte *lpBuffer = lpStackBuffer;
+    jbyteArray returnArray = NULL;
+    DWORD lpErrors;
+    COMSTAT comstat;
+
+    if( maxBytes < 0 ){
+        char emsg[64]; emsg[0] = '\0';
+        snprintf(emsg, sizeof emsg, "maxBytes %d. Expected range: 0..2147483647", maxBytes);
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz ) env->ThrowNew(exClz, emsg);
+        return NULL;
+    }
+    if(!ClearCommError((HANDLE)portHandle, &lpErrors, &comstat)){
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "ClearCommError() failed");
+        return NULL;
+    }
+    jint available = comstat.cbInQue > (DWORD)maxBytes ? maxBytes : (jint)comstat.cbInQue;
+    if( available > JSSC_ARRAY_CHUNK_SIZE ){
+        lpBuffer = (jbyte*)malloc(available);
+        if( !lpBuffer ){
+            char emsg[32]; emsg[0] = '\0';
+            snprintf(emsg, sizeof emsg, "malloc(%d) failed", available);
+            jclass exClz = env->FindClass("java/lang/RuntimeException");
+            if( exClz ) env->ThrowNew(exClz, emsg);
+            return NULL;
+        }
+    }
+    jint byteRead = available == 0 ? 0 : overlappedRead(env, (HANDLE)portHandle, lpBuffer, available);
+    if( byteRead >= 0 ){
+        returnArray = env->NewByteArray(byteRead);
+        if( returnArray != NULL ) env->SetByteArrayRegion(returnArray, 0, byteRead, lpBuffer);
+    }
+    if( lpBuffer != lpStackBuffer ) free(lpBuffer);
+    return returnArray;
+}
+
+/*
+ * Reading bytes waiting in the input buffer into a region of an array
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readAvailableArray
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jint byteRead = 0;
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+
+    while( byteRead < length ){
+        jint chunk = length - byteRead;
+        if( chunk > JSSC_ARRAY_CHUNK_SIZE ) chunk = JSSC_ARRAY_CHUNK_SIZE;
+        jint result = readAvailableInto(env, (HANDLE)portHandle, lpBuffer, chunk);
+        if( result < 0 ){
+            if( byteRead == 0 ) return -1;
+            env->ExceptionClear();
+            break;
+        }
+        env->SetByteArrayRegion(buffer, offset + byteRead, result, lpBuffer);
+        byteRead += result;
+        if( result < chunk ) break;
+    }
+    return byteRead;
+}
+
+/*
+ * Reading bytes waiting in the input buffer straight into a direct buffer
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readAvailableBuffer
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length){
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    return readAvailableInto(env, (HANDLE)portHandle, lpBuffer, length);
+}
+
+/**
+ * Returns a nanosecond timestamp of the performance counter, the clock of
+ * System.nanoTime() on Windows.
+ */
+static jlong monotonicNanos(){
+    LARGE_INTEGER counter;
+    LARGE_INTEGER frequency;
+    QueryPerformanceCounter(&counter);
+    QueryPerformanceFrequency(&frequency);
+    return (counter.QuadPart / frequency.QuadPart) * 1000000000
+            + (counter.QuadPart % frequency.QuadPart) * 1000000000 / frequency.QuadPart;
+}
+
+/**
+ * Waits up to 'timeoutMs' milliseconds (forever if negative) until bytes are
+ * waiting and reads up to 'length' of them. The input queue is sampled every
+ * millisecond, as in awaitReady, so 'timestamp' is accurate to about 1 ms.
+ *
+ * Returns the count of bytes stored at 'lpBuffer' (zero if the timeout
+ * elapsed), or -1 with a pending java exception.
+ */
+static jint readTimestampedInto(JNIEnv *env, HANDLE hComm, jbyte *lpBuffer, jint length, jint timeoutMs, jlong *timestamp){
+    DWORD startTicks = GetTickCount();
+    while(true){
+        DWORD lpErrors;
+        COMSTAT comstat;
+        if(!ClearCommError(hComm, &lpErrors, &comstat)){
+            jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+            if( exClz != NULL ) env->ThrowNew(exClz, "EBADF");
+            return -1;
+        }
+        *timestamp = monotonicNanos();
+        if( comstat.cbInQue > 0 ) return readAvailableInto(env, hComm, lpBuffer, length);
+        if( timeoutMs >= 0 && GetTickCount() - startTicks >= (DWORD)timeoutMs ) return 0;
+        Sleep(1);
+    }
+}
+
+static bool checkTimestampRecord(JNIEnv *env, jlongArray timestamp){
+    if( timestamp == NULL || env->GetArrayLength(timestamp) < 1 ){
+        jclass exClz = env->FindClass(timestamp == NULL ? "java/lang/NullPointerException" : "java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "timestamp");
+        return false;
+    }
+    return true;
+}
+
+/*
+ * Reading the bytes which arrive first into a region of an array, with the
+ * time they were noticed. Reads at most one chunk.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayTimestamped
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length, jint timeoutMs, jlongArray timestamp){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+    jlong time = 0;
+
+    if( !checkArrayRegion(env, buffer, offset, length) || !checkTimestampRecord(env, timestamp) ) return -1;
+    if( length > JSSC_ARRAY_CHUNK_SIZE ) length = JSSC_ARRAY_CHUNK_SIZE;
+    jint byteRead = readTimestampedInto(env, (HANDLE)portHandle, lpBuffer, length, timeoutMs, &time);
+    if( byteRead > 0 ) env->SetByteArrayRegion(buffer, offset, byteRead, lpBuffer);
+    if( byteRead >= 0 ) env->SetLongArrayRegion(timestamp, 0, 1, &time);
+    return byteRead;
+}
+
+/*
+ * Reading the bytes which arrive first straight into a direct buffer, with
+ * the time they were noticed
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBufferTimestamped
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length, jint timeoutMs, jlongArray timestamp){
+    jlong time = 0;
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL || !checkTimestampRecord(env, timestamp) ) return -1;
+    jint byteRead = readTimestampedInto(env, (HANDLE)portHandle, lpBuffer, length, timeoutMs, &time);
+    if( byteRead >= 0 ) env->SetLongArrayRegion(timestamp, 0, 1, &time);
+    return byteRead;
+}
+
+/**
+ * Sets the interval timeout of ReadFile(), the other timeouts stay zero as
+ * setParams leaves them.
+ */
+static bool setReadIntervalTimeout(HANDLE hComm, DWORD intervalMs){
+    COMMTIMEOUTS timeouts;
+    if(!GetCommTimeouts(hComm, &timeouts)) return false;
+    timeouts.ReadIntervalTimeout = intervalMs;
+    timeouts.ReadTotalTimeoutConstant = 0;
+    timeouts.ReadTotalTimeoutMultiplier = 0;
+    return SetCommTimeouts(hComm, &timeouts) != 0;
+}
+
+/**
+ * Reads up to 'length' bytes the way VMIN ('minBytes') and VTIME
+ * ('idleDeciseconds') decide on termios: waits for 'minBytes' bytes, or
+ * after the first byte until the line stays idle that long, and then adds
+ * the bytes which are waiting. The read timeouts of the port are only
+ * changed during the call, the other reads rely on them being zero.
+ *
+ * Returns the count of bytes stored at 'lpBuffer', or -1 with a pending
+ * java exception.
+ */
+static jint readByModeInto(JNIEnv *env, HANDLE hComm, jbyte *lpBuffer, jint length, jint minBytes, jint idleDeciseconds){
+    if( length == 0 ) return 0;
+    if( minBytes <= 0 ) return readAvailableInto(env, hComm, lpBuffer, length);
+    jint first = minBytes < length ? minBytes : length;
+    if( idleDeciseconds > 0 && !setReadIntervalTimeout(hComm, (DWORD)idleDeciseconds * 100) ){
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "SetCommTimeouts() failed");
+        return -1;
+    }
+    jint byteRead = overlappedRead(env, hComm, lpBuffer, first);
+    if( idleDeciseconds > 0 ) setReadIntervalTimeout(hComm, 0);
+    if( byteRead == first && first < length ){
+        jint rest = readAvailableInto(env, hComm, lpBuffer + first, length - first);
+        if( rest < 0 ){
+            /* return what we already have so far. */
+            env->ExceptionClear();
+        }
+        else {
+            byteRead += rest;
+        }
+    }
+    return byteRead;
+}
+
+/*
+ * Reading data from the port into a region of an array as the read mode
+ * decides. Reads at most one chunk.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readArrayByMode
+  (JNIEnv *env, jobject, jlong portHandle, jbyteArray buffer, jint offset, jint length, jint minBytes, jint idleDeciseconds){
+    jbyte lpBuffer[JSSC_ARRAY_CHUNK_SIZE];
+
+    if( !checkArrayRegion(env, buffer, offset, length) ) return -1;
+    if( length > JSSC_ARRAY_CHUNK_SIZE ) length = JSSC_ARRAY_CHUNK_SIZE;
+    jint byteRead = readByModeInto(env, (HANDLE)portHandle, lpBuffer, length, minBytes, idleDeciseconds);
+    if( byteRead > 0 ) env->SetByteArrayRegion(buffer, offset, byteRead, lpBuffer);
+    return byteRead;
+}
+
+/*
+ * Reading data from the port straight into a direct buffer as the read mode
+ * decides
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_readBufferByMode
+  (JNIEnv *env, jobject, jlong portHandle, jobject buffer, jint offset, jint length, jint minBytes, jint idleDeciseconds){
+    jbyte *lpBuffer = getDirectBufferRegion(env, buffer, offset, length);
+    if( lpBuffer == NULL ) return -1;
+    return readByModeInto(env, (HANDLE)portHandle, lpBuffer, length, minBytes, idleDeciseconds);
+}
+
+/*
+ * Writing a single byte to the port
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_writeByte
+  (JNIEnv *env, jobject, jlong portHandle, jbyte value){
+    return (overlappedWrite(env, (HANDLE)portHandle, &value, 1) == 1) ? JNI_TRUE : JNI_FALSE;
+}
+
+/*
+ * Wakeup handles: a manual-reset event, which stays signalled once set.
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_createWakeupHandle
+  (JNIEnv *env, jobject){
+    HANDLE hEvent = CreateEventA(NULL, true, false, NULL);
+    if( hEvent == NULL ){
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "CreateEventA() failed");
+        return -1;
+    }
+    return (jlong)hEvent;
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_signalWakeupHandle
+  (JNIEnv *, jobject, jlong wakeup){
+    return SetEvent((HANDLE)wakeup) ? JNI_TRUE : JNI_FALSE;
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_closeWakeupHandle
+  (JNIEnv *, jobject, jlong wakeup){
+    return CloseHandle((HANDLE)wakeup) ? JNI_TRUE : JNI_FALSE;
+}
+
+/*
+ * Waits until the port is ready for the requested events, the wakeup handle
+ * is signalled or 'timeoutMs' elapsed (forever if negative).
+ *
+ * Waiting on the comm events would change the event mask the event listener
+ * relies on, so the input queue is sampled instead. Writes are overlapped and
+ * never refused, so a port is always ready for writing.
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_awaitReady
+  (JNIEnv *env, jobject, jlong portHandle, jint events, jlong wakeup, jint timeoutMs){
+    HANDLE hComm = (HANDLE)portHandle;
+    DWORD startTicks = GetTickCount();
+    while(true){
+        DWORD lpErrors;
+        COMSTAT comstat;
+        jint ready = 0;
+        if(!ClearCommError(hComm, &lpErrors, &comstat)){
+            jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+            if( exClz != NULL ) env->ThrowNew(exClz, "EBADF");
+            return -1;
+        }
+        if( (events & jssc_SerialNativeInterface_AWAIT_READ) && comstat.cbInQue > 0 ) ready |= jssc_SerialNativeInterface_AWAIT_READ;
+        if( events & jssc_SerialNativeInterface_AWAIT_WRITE ) ready |= jssc_SerialNativeInterface_AWAIT_WRITE;
+        if( ready != 0 ) return ready;
+
+        DWORD wait = 10;
+        if( timeoutMs >= 0 ){
+            DWORD elapsed = GetTickCount() - startTicks;
+            if( elapsed >= (DWORD)timeoutMs ) return 0;
+            if( (DWORD)timeoutMs - elapsed < wait ) wait = (DWORD)timeoutMs - elapsed;
+        }
+        if( WaitForSingleObject((HANDLE)wakeup, wait) == WAIT_OBJECT_0 ){
+            return jssc_SerialNativeInterface_AWAIT_WAKEUP;
+        }
+    }
+}
+
+/*
+ * Waits for one of the comm events of the port mask, shared by waitEvents()
+ * and the flat snapshots. On failure GetLastError() tells why.
+ */
+static bool waitCommEvent(HANDLE hComm, DWORD *lpEvtMask){
+    DWORD lpNumberOfBytesTransferred = 0;
+    OVERLAPPED overlapped = OVERLAPPED();
+    bool functionSuccessful = false;
+    overlapped.hEvent = CreateEventA(NULL, true, false, NULL);
+    if( overlapped.hEvent == NULL ) return false;
+    *lpEvtMask = 0;
+    if(WaitCommEvent(hComm, lpEvtMask, &overlapped)){
+        functionSuccessful = true;
+    }
+    else if(GetLastError() == ERROR_IO_PENDING){
+        if(WaitForSingleObject(overlapped.hEvent, INFINITE) == WAIT_OBJECT_0){
+            if(GetOverlappedResult(hComm, &overlapped, &lpNumberOfBytesTransferred, false)){
+                functionSuccessful = true;
+            }
+        }
+    }
+    DWORD lastError = GetLastError();
+    CloseHandle(overlapped.hEvent);
+    SetLastError(lastError);
+    return functionSuccessful;
+}
+
+/*
+ * Waits for a comm event like waitEvents() and fills a flat events snapshot,
+ * see SerialNativeInterface.SNAPSHOT_*. Windows keeps no interrupt counters,
+ * so those are -1; the events which fired and the errors are in the snapshot
+ * instead.
+ */
+static bool waitEventsSnapshot(HANDLE hComm, jint *snapshot){
+    DWORD lpEvtMask;
+    if( !waitCommEvent(hComm, &lpEvtMask) ) return false;
+
+    /*Time, right after the wait*/
+    jlong timestamp = monotonicNanos();
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_TIMESTAMP_HIGH] = (jint)(timestamp >> 32);
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_TIMESTAMP_LOW] = (jint)timestamp;
+
+    /*Input and output buffers*/
+    DWORD lpErrors;
+    COMSTAT comstat;
+    if( !ClearCommError(hComm, &lpErrors, &comstat) ) return false;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_EVENTS] = (jint)lpEvtMask;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_ERRORS] = (jint)lpErrors;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_INPUT] = (jint)comstat.cbInQue;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_OUTPUT] = (jint)comstat.cbOutQue;
+
+    /*Lines status*/
+    DWORD lpModemStat;
+    if( !GetCommModemStatus(hComm, &lpModemStat) ) return false;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_CTS] = (lpModemStat & MS_CTS_ON) ? 1 : 0;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_DSR] = (lpModemStat & MS_DSR_ON) ? 1 : 0;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_RING] = (lpModemStat & MS_RING_ON) ? 1 : 0;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_RLSD] = (lpModemStat & MS_RLSD_ON) ? 1 : 0;
+
+    /*Interrupts*/
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_BREAK] = -1;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_TX] = -1;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_FRAME] = -1;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_OVERRUN] = -1;
+    snapshot[jssc_SerialNativeInterface_SNAPSHOT_PARITY] = -1;
+    return true;
+}
+
+/*
+ * Same as waitEvents, but writes a flat snapshot into the caller's array,
+ * so nothing gets allocated
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_waitEventsArray
+  (JNIEnv *env, jobject, jlong portHandle, jint/*unused on windows*/, jintArray snapshot){
+    if( snapshot == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, NULL);
+        return JNI_FALSE;
+    }
+    if( env->GetArrayLength(snapshot) < jssc_SerialNativeInterface_SNAPSHOT_SIZE ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "Snapshot array too short");
+        return JNI_FALSE;
+    }
+    jint values[jssc_SerialNativeInterface_SNAPSHOT_SIZE];
+    if( !waitEventsSnapshot((HANDLE)portHandle, values) ) return JNI_FALSE;
+    env->SetIntArrayRegion(snapshot, 0, jssc_SerialNativeInterface_SNAPSHOT_SIZE, values);
+    return JNI_TRUE;
+}
+
+/*
+ * Same as waitEventsArray, but writes into a direct IntBuffer of native byte order
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_waitEventsBuffer
+  (JNIEnv *env, jobject, jlong portHandle, jint/*unused on windows*/, jobject snapshot){
+    if( snapshot == NULL ){
+        jclass exClz = env->FindClass("java/lang/NullPointerException");
+        if( exClz != NULL ) env->ThrowNew(exClz, NULL);
+        return JNI_FALSE;
+    }
+    jint *values = (jint*)env->GetDirectBufferAddress(snapshot);
+    if( values == NULL ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "buffer is not a direct buffer");
+        return JNI_FALSE;
+    }
+    if( env->GetDirectBufferCapacity(snapshot) < jssc_SerialNativeInterface_SNAPSHOT_SIZE ){
+        jclass exClz = env->FindClass("java/lang/IllegalArgumentException");
+        if( exClz != NULL ) env->ThrowNew(exClz, "Snapshot buffer too short");
+        return JNI_FALSE;
+    }
+    return waitEventsSnapshot((HANDLE)portHandle, values) ? JNI_TRUE : JNI_FALSE;
+}
+
+/*
+ * Not needed on Windows, WaitCommEvent() in waitEvents() blocks already
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_awaitEvents
+  (JNIEnv *env, jobject, jlong, jint, jlong, jlong, jint, jlongArray){
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "waitEvents() blocks on Windows");
+    return -1;
+}
+
+/*
+ * Not supported on Windows, line changes are reported by waitEvents()
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_openLinesMonitor
+  (JNIEnv *env, jobject, jlong){
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Modem line waits are not supported on Windows");
+    return 0;
+}
+
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_closeLinesMonitor
+  (JNIEnv *, jobject, jlong){
+}
+
+/*
+ * Not supported on Windows, line changes are reported by waitEvents()
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_awaitModemLineChange
+  (JNIEnv *env, jobject, jlong, jint, jlong, jint, jlongArray){
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Modem line waits are not supported on Windows");
+    return JNI_FALSE;
+}
+
+/*
+ * Selectors are not supported on Windows: comm handles can't be waited for
+ * together with other handles for input.
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_createSelector
+  (JNIEnv *env, jobject, jlong){
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Selectors are only supported on Linux");
+    return -1;
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_selectorRegister
+  (JNIEnv *env, jobject, jlong, jlong, jint, jint){
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Selectors are only supported on Linux");
+    return JNI_FALSE;
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_selectorUnregister
+  (JNIEnv *, jobject, jlong, jlong){
+    return JNI_FALSE;
+}
+
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_selectorWait
+  (JNIEnv *env, jobject, jlong, jlong, jintArray, jintArray, jint){
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Selectors are only supported on Linux");
+    return -1;
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_closeSelector
+  (JNIEnv *, jobject, jlong){
+    return JNI_FALSE;
+}
+
+/*
+ * Continuous receive is not supported on Windows yet, the driver buffer
+ * size can be raised with SetupComm() instead.
+ */
+JNIEXPORT jlong JNICALL Java_jssc_SerialNativeInterface_startReceiveRing
+  (JNIEnv *env, jobject, jlong, jobject){
+    jclass exClz = env->FindClass("java/lang/UnsupportedOperationException");
+    if( exClz != NULL ) env->ThrowNew(exClz, "Continuous receive is not supported on Windows");
+    return -1;
+}
+
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_awaitReceiveRing
+  (JNIEnv *, jobject, jlong, jint){
+    return JNI_FALSE;
+}
+
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_memoryFence
+  (JNIEnv *, jobject){
+    MemoryBarrier();
+}
+
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_stopReceiveRing
+  (JNIEnv *, jobject, jlong){
+}
+
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_setReceiveRingWakeup
+  (JNIEnv *, jobject, jlong, jlong){
+}
+
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_signalReceiveRingSpace
+  (JNIEnv *, jobject, jlong){
+}
+
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_closeReceiveRing
+  (JNIEnv *, jobject, jlong){
+}
+
 /*
  * Get bytes count in serial port buffers (Input and Output)
  */
@@ -444,6 +1340,48 @@ JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_getFlowControlMode
 	return returnValue;
 }
 
+/*
+ * Setting the character which raises EV_RXFLAG
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setEventChar
+  (JNIEnv *, jobject, jlong portHandle, jbyte eventChar){
+	HANDLE hComm = (HANDLE)portHandle;
+	jboolean returnValue = JNI_FALSE;
+	DCB *dcb = new DCB();
+	if(GetCommState(hComm, dcb)){
+		dcb->EvtChar = (char)eventChar;
+		if(SetCommState(hComm, dcb)){
+			returnValue = JNI_TRUE;
+		}
+	}
+	delete dcb;
+	return returnValue;
+}
+
+/*
+ * There is no read mode to keep on Windows, readByModeInto applies it with
+ * the read timeouts of each call
+ */
+JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_setReadMode
+  (JNIEnv *, jobject, jlong, jint, jint){
+    return JNI_TRUE;
+}
+
+/*
+ * Getting the baud rate the driver applied
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_getActualBaudRate
+  (JNIEnv *, jobject, jlong portHandle){
+	HANDLE hComm = (HANDLE)portHandle;
+	jint returnValue = -1;
+	DCB *dcb = new DCB();
+	if(GetCommState(hComm, dcb)){
+		returnValue = (jint)dcb->BaudRate;
+	}
+	delete dcb;
+	return returnValue;
+}
+
 /*
  * Send break for set duration
  *
@@ -464,6 +1402,28 @@ JNIEXPORT jboolean JNICALL Java_jssc_SerialNativeInterface_sendBreak
 	return returnValue;
 }
 
+/*
+ * Not supported on Windows, the latency timer of USB adapters is a setting
+ * of their driver
+ */
+JNIEXPORT jint JNICALL Java_jssc_SerialNativeInterface_setLowLatency
+  (JNIEnv *, jobject, jlong, jboolean){
+    return 0;
+}
+
+/*
+ * Waits until the output buffer is transmitted
+ */
+JNIEXPORT void JNICALL Java_jssc_SerialNativeInterface_drainOutput
+  (JNIEnv *env, jobject, jlong portHandle){
+    if(!FlushFileBuffers((HANDLE)portHandle)){
+        char message[64];
+        snprintf(message, sizeof(message), "FlushFileBuffers failed: %lu", GetLastError());
+        jclass exClz = env->FindClass("java/io/IOException");
+        if( exClz != NULL ) env->ThrowNew(exClz, message);
+    }
+}
+
 
 /*
  * Wait event
@@ -473,23 +1433,9 @@ JNIEXPORT jobjectArray JNICALL Java_jssc_SerialNativeInterface_waitEvents
   ( JNIEnv*env, jobject, jlong portHandle, jint/*unused on windows*/ ){
     HANDLE hComm = (HANDLE)portHandle;
     DWORD lpEvtMask = 0;
-    DWORD lpNumberOfBytesTransferred = 0;
-    OVERLAPPED *overlapped = new OVERLAPPED();
     jclass intClass = env->FindClass("[I");
     jobjectArray returnArray;
-    boolean functionSuccessful = false;
-    overlapped->hEvent = CreateEventA(NULL, true, false, NULL);
-    if(WaitCommEvent(hComm, &lpEvtMask, overlapped)){
-        functionSuccessful = true;
-    }
-    else if(GetLastError() == ERROR_IO_PENDING){
-        if(WaitForSingleObject(overlapped->hEvent, INFINITE) == WAIT_OBJECT_0){
-            if(GetOverlappedResult(hComm, overlapped, &lpNumberOfBytesTransferred, false)){
-                functionSuccessful = true;
-            }
-        }
-    }
-    if(functionSuccessful){
+    if(waitCommEvent(hComm, &lpEvtMask)){
         boolean executeGetCommModemStatus = false;
         boolean executeClearCommError = false;
         DWORD events[9];//fixed since 0.8 (old value is 8)
@@ -672,8 +1618,6 @@ JNIEXPORT jobjectArray JNICALL Java_jssc_SerialNativeInterface_waitEvents
         env->SetIntArrayRegion(singleResultArray, 0, 2, returnValues);
         env->SetObjectArrayElement(returnArray, 0, singleResultArray);
     };
-    CloseHandle(overlapped->hEvent);
-    delete overlapped;
     return returnArray;
 }
 
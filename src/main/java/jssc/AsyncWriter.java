@@ -0,0 +1,148 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writer thread of {@link SerialPort#writeAsync(ByteBuffer, boolean)}.
+ * Producers only append to a lock-free queue, and wake the thread if it
+ * found the queue empty.
+ *
+ * @since 2.11.0
+ */
+final class AsyncWriter implements Runnable {
+
+    //Longest write without checking for close
+    private static final int WRITE_SLICE_MS = 100;
+
+    private final SerialPort port;
+    private final ConcurrentLinkedQueue<Write> queue = new ConcurrentLinkedQueue<Write>();
+    //Queued writes, including the one being written
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private static final class Write {
+        final ByteBuffer buffer;
+        final boolean drain;
+        final Future<Integer> future = WriteFutures.newFuture();
+
+        Write(ByteBuffer buffer, boolean drain) {
+            this.buffer = buffer;
+            this.drain = drain;
+        }
+    }
+
+    AsyncWriter(SerialPort port) {
+        this.port = port;
+        thread = new Thread(this, "WriteThread " + port.getPortName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    Future<Integer> write(ByteBuffer buffer, boolean drain) {
+        Write write = new Write(buffer, drain);
+        queue.offer(write);
+        if(pending.getAndIncrement() == 0){
+            LockSupport.unpark(thread);
+        }
+        if(closed){
+            //Raced with close(), the thread may not see this write any more
+            failQueued();
+        }
+        return write.future;
+    }
+
+    @Override
+    public void run() {
+        while(!closed){
+            Write write = queue.poll();
+            if(write == null){
+                LockSupport.park(this);
+                continue;
+            }
+            if(!write.future.isDone()){
+                perform(write);
+            }
+            pending.decrementAndGet();
+        }
+        failQueued();
+    }
+
+    private void perform(Write write) {
+        int length = write.buffer.remaining();
+        try {
+            while(write.buffer.hasRemaining()){
+                if(closed){
+                    throw new SerialPortException(port, "writeAsync()", SerialPortException.TYPE_PORT_NOT_OPENED);
+                }
+                try {
+                    port.writeFully(write.buffer, WRITE_SLICE_MS);
+                } catch(SerialPortTimeoutException ex) {
+                    //Line is slow, keep writing unless closed
+                }
+            }
+            if(write.drain){
+                port.drainOutput();
+            }
+            WriteFutures.complete(write.future, length);
+        } catch(IOException ex) {
+            WriteFutures.fail(write.future, ex);
+        } catch(RuntimeException ex) {
+            WriteFutures.fail(write.future, ex);
+        }
+    }
+
+    private void failQueued() {
+        Write write;
+        while((write = queue.poll()) != null){
+            WriteFutures.fail(write.future, new SerialPortException(port, "writeAsync()", SerialPortException.TYPE_PORT_NOT_OPENED));
+        }
+    }
+
+    /**
+     * Stops the thread after the current slice of writing, failing the
+     * writes which are not complete
+     */
+    void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        //Futures may be completed on the writer thread itself
+        if(Thread.currentThread() != thread){
+            boolean interrupted = false;
+            while(thread.isAlive()){
+                try {
+                    thread.join();
+                } catch(InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if(interrupted){
+                Thread.currentThread().interrupt();
+            }
+        }
+        failQueued();
+    }
+}
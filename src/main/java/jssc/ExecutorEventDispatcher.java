@@ -0,0 +1,148 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Hands the events of a port over to an <code>Executor</code>, so a slow
+ * listener doesn't delay the detection of further events. Batches are
+ * delivered in order and one at a time, through a bounded queue which
+ * blocks the event thread while it is full. <code>MASK_RXCHAR</code> is
+ * merged into a batch still waiting for delivery instead of being queued
+ * again, with the latest count of bytes.
+ *
+ * @since 2.11.0
+ */
+final class ExecutorEventDispatcher implements SerialPortBatchEventListener, Runnable {
+
+    static final int QUEUE_CAPACITY = 64;
+
+    private final SerialPortBatchEventListener listener;
+    private final Executor executor;
+    //Preallocated ring of batches, the one at head is being delivered
+    private final SerialPortEventBatch[] queue = new SerialPortEventBatch[QUEUE_CAPACITY];
+    private SerialPort port;
+    private int head;
+    private int count;
+    private boolean scheduled;
+
+    ExecutorEventDispatcher(SerialPortBatchEventListener listener, Executor executor) {
+        this.listener = listener;
+        this.executor = executor;
+        for(int i = 0; i < queue.length; i++){
+            queue[i] = new SerialPortEventBatch();
+        }
+    }
+
+    @Override
+    public void serialEvents(SerialPort port, SerialPortEventBatch batch) {
+        synchronized(this){
+            this.port = port;
+            //RXCHAR fires again on every wait while bytes are left, so a slow
+            //listener would see the queue fill up with the same event
+            boolean merged = false;
+            SerialPortEventBatch pending = pending();
+            if(pending != null && pending.contains(SerialPort.MASK_RXCHAR) && batch.contains(SerialPort.MASK_RXCHAR)){
+                pending.add(SerialPort.MASK_RXCHAR, batch.getEventValue(SerialPort.MASK_RXCHAR));
+                if(batch.getEventTypes() == SerialPort.MASK_RXCHAR){
+                    return;
+                }
+                merged = true;
+            }
+            while(count == queue.length){
+                try {
+                    wait();
+                } catch(InterruptedException ex) {
+                    //Fold the batch into the last one instead of dropping it
+                    pending().merge(batch);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            SerialPortEventBatch queued = queue[(head + count) % queue.length];
+            queued.set(batch);
+            if(merged){
+                queued.remove(SerialPort.MASK_RXCHAR);
+            }
+            count++;
+            if(scheduled){
+                return;
+            }
+            scheduled = true;
+        }
+        schedule();
+    }
+
+    @Override
+    public void run() {
+        SerialPortEventBatch batch;
+        SerialPort port;
+        synchronized(this){
+            batch = queue[head];
+            port = this.port;
+        }
+        while(batch != null){
+            try {
+                listener.serialEvents(port, batch);
+            } catch(RuntimeException ex) {
+                if(release() != null){
+                    schedule();
+                }
+                throw ex;
+            }
+            batch = release();
+        }
+    }
+
+    /**
+     * Gets the last batch in the queue, unless it is being delivered already
+     *
+     * @return the batch, or null if no batch waits for delivery
+     */
+    private SerialPortEventBatch pending() {
+        return count > 1 ? queue[(head + count - 1) % queue.length] : null;
+    }
+
+    /**
+     * Frees the batch which has been delivered
+     *
+     * @return the next batch to deliver, or null if the queue is empty
+     */
+    private synchronized SerialPortEventBatch release() {
+        head = (head + 1) % queue.length;
+        count--;
+        notifyAll();
+        if(count == 0){
+            scheduled = false;
+            return null;
+        }
+        return queue[head];
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this);
+        } catch(RejectedExecutionException ex) {
+            //Executor is shut down, deliver on the calling thread instead of stalling it
+            run();
+        }
+    }
+}
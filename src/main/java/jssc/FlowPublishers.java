@@ -0,0 +1,36 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+/**
+ * Adapters of {@link SerialPortPublisher#asFlowPublisher()}. From Java 9
+ * on, the multi-release jar replaces this class by the one from
+ * <code>src/main/java9</code>, which adapts to <code>Flow.Publisher</code>.
+ *
+ * @since 2.11.0
+ */
+final class FlowPublishers {
+
+    private FlowPublishers() {
+    }
+
+    static Object adapt(SerialPortPublisher publisher) {
+        throw new UnsupportedOperationException("java.util.concurrent.Flow needs Java 9 or later");
+    }
+}
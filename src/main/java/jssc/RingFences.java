@@ -0,0 +1,56 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+/**
+ * Memory fences of {@link SerialPortReceiveRing}, whose indices
+ * and data are plain accesses of a buffer shared with the receiving thread.
+ * Java 6 has neither fences nor acquire/release accessors for buffers, and a
+ * volatile store only orders everything on x86, so a native fence is used.
+ * From Java 9 on, the multi-release jar replaces this class by the one from
+ * <code>src/main/java9</code>, which uses <code>VarHandle</code> fences.
+ *
+ * @since 2.11.0
+ */
+final class RingFences {
+
+    private RingFences() {
+    }
+
+    /**
+     * Keeps the accesses after it from moving before the preceding loads
+     */
+    static void acquire(SerialNativeInterface serialInterface) {
+        serialInterface.memoryFence();
+    }
+
+    /**
+     * Keeps the accesses before it from moving after the following stores
+     */
+    static void release(SerialNativeInterface serialInterface) {
+        serialInterface.memoryFence();
+    }
+
+    /**
+     * Keeps the preceding stores from moving after the following loads
+     */
+    static void full(SerialNativeInterface serialInterface) {
+        serialInterface.memoryFence();
+    }
+}
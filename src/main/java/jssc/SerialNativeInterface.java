@@ -27,6 +27,8 @@ package jssc;
 import org.scijava.nativelib.NativeLoader;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
 /**
  *
@@ -72,6 +74,275 @@ public class SerialNativeInterface {
      */
     public static final long ERR_INCORRECT_SERIAL_PORT = -4;
 
+    /**
+     * Ready flag of {@link #awaitReady(long, int, long, int)}: port has bytes to read
+     *
+     * @since 2.11.0
+     */
+    public static final int AWAIT_READ = 1;
+    /**
+     * Ready flag of {@link #awaitReady(long, int, long, int)}: port accepts bytes to write
+     *
+     * @since 2.11.0
+     */
+    public static final int AWAIT_WRITE = 2;
+    /**
+     * Ready flag of {@link #awaitReady(long, int, long, int)}: wakeup handle was signalled
+     *
+     * @since 2.11.0
+     */
+    public static final int AWAIT_WAKEUP = 4;
+    /**
+     * Ready flag of {@link #selectorWait(long, long, int[], int[], int)},
+     * {@link #awaitReady(long, int, long, int)} and
+     * {@link #awaitEvents(long, int, long, long, int, long[])}: port was hung up or failed
+     *
+     * @since 2.11.0
+     */
+    public static final int AWAIT_HANGUP = 8;
+    /**
+     * Ready flag of {@link #awaitEvents(long, int, long, long, int, long[])}: a modem line changed
+     *
+     * @since 2.11.0
+     */
+    public static final int AWAIT_LINES = 16;
+
+    /**
+     * Index in a line change record: changed lines as <code>SerialPort.MASK_*</code> flags
+     *
+     * @since 2.11.0
+     */
+    public static final int LINE_CHANGE_LINES = 0;
+    /**
+     * Index in a line change record: transitions of CTS, followed by DSR, RING and RLSD
+     *
+     * @since 2.11.0
+     */
+    public static final int LINE_CHANGE_CTS = 1;
+    /**
+     * Index in a line change record: lines being on as <code>SerialPort.MASK_*</code> flags
+     *
+     * @since 2.11.0
+     */
+    public static final int LINE_CHANGE_STATE = 5;
+    /**
+     * Index in a line change record: <code>CLOCK_MONOTONIC</code> time of the change in nanoseconds
+     *
+     * @since 2.11.0
+     */
+    public static final int LINE_CHANGE_TIMESTAMP = 6;
+    /**
+     * Index in a line change record: <code>CLOCK_MONOTONIC</code> time in nanoseconds
+     * at which {@link #awaitEvents(long, int, long, long, int, long[])} woke up, set
+     * even without a line change
+     *
+     * @since 2.11.0
+     */
+    public static final int LINE_CHANGE_READY_TIMESTAMP = 7;
+    /**
+     * Length of a line change record
+     *
+     * @since 2.11.0
+     */
+    public static final int LINE_CHANGE_SIZE = 8;
+
+    /**
+     * Index in an events snapshot: count of bytes in the input buffer
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_INPUT = 0;
+    /**
+     * Index in an events snapshot: count of bytes in the output buffer
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_OUTPUT = 1;
+    /**
+     * Index in an events snapshot: CTS line state
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_CTS = 2;
+    /**
+     * Index in an events snapshot: DSR line state
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_DSR = 3;
+    /**
+     * Index in an events snapshot: RING line state
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_RING = 4;
+    /**
+     * Index in an events snapshot: RLSD line state
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_RLSD = 5;
+    /**
+     * Index in an events snapshot: count of breaks
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_BREAK = 6;
+    /**
+     * Index in an events snapshot: count of transmit interrupts
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_TX = 7;
+    /**
+     * Index in an events snapshot: count of framing errors
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_FRAME = 8;
+    /**
+     * Index in an events snapshot: count of overrun errors
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_OVERRUN = 9;
+    /**
+     * Index in an events snapshot: count of parity errors
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_PARITY = 10;
+    /**
+     * Index in an events snapshot: high 32 bits of the <code>CLOCK_MONOTONIC</code>
+     * time in nanoseconds at which the snapshot was taken, right after the wait
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_TIMESTAMP_HIGH = 11;
+    /**
+     * Index in an events snapshot: low 32 bits of the snapshot time
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_TIMESTAMP_LOW = 12;
+    /**
+     * Index in an events snapshot: mask of the events which ended the wait,
+     * see <code>SerialPort.MASK_*</code>. Only Windows reports them, elsewhere
+     * it is <code>0</code> and the events follow from the counters and states.
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_EVENTS = 13;
+    /**
+     * Index in an events snapshot: communication errors of the port
+     * (<code>CE_*</code> flags of <code>ClearCommError()</code>), Windows only
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_ERRORS = 14;
+    /**
+     * Length of an events snapshot
+     *
+     * @since 2.11.0
+     */
+    public static final int SNAPSHOT_SIZE = 15;
+
+    /**
+     * Offset in a receive ring: write position (int), advanced by the receiving thread
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_HEAD = 0;
+    /**
+     * Offset in a receive ring: read position (int), advanced by the consumer
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_TAIL = 64;
+    /**
+     * Offset in a receive ring: count of times the ring ran full (long)
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_OVERFLOWS = 128;
+    /**
+     * Offset in a receive ring: highest count of bytes held (int)
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_HIGH_WATER = 136;
+    /**
+     * Offset in a receive ring: {@link #RING_RECEIVING} or {@link #RING_ENDED} (int)
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_STATE = 140;
+    /**
+     * Offset in a receive ring: errno which ended the receiving thread, or 0 (int)
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_ERROR = 144;
+    /**
+     * Offset in a receive ring: start of the data
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_DATA = 192;
+    /**
+     * Offset in a receive ring: event character to count (int), or <code>-1</code>
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_EVENT_CHAR = 148;
+    /**
+     * Offset in a receive ring: count of received event characters (int)
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_EVENT_COUNT = 152;
+    /**
+     * Offset in a receive ring: position after the last received event character (int)
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_EVENT_POSITION = 156;
+    /**
+     * Offset in a receive ring: non-zero while the receiving thread waits
+     * for space in the full ring (int), see {@link #signalReceiveRingSpace(long)}
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_WAITING = 160;
+    /**
+     * State of a receive ring: the thread is receiving
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_RECEIVING = 0;
+    /**
+     * State of a receive ring: the thread ended, due to hangup, error or
+     * {@link #stopReceiveRing(long)}
+     *
+     * @since 2.11.0
+     */
+    public static final int RING_ENDED = 1;
+
+    /**
+     * Flag of {@link #setLowLatency(long, boolean)}: <code>ASYNC_LOW_LATENCY</code>
+     * of the serial driver was changed
+     *
+     * @since 2.11.0
+     */
+    public static final int LOW_LATENCY_DRIVER = 1;
+    /**
+     * Flag of {@link #setLowLatency(long, boolean)}: the latency timer of the
+     * USB serial adapter was changed
+     *
+     * @since 2.11.0
+     */
+    public static final int LOW_LATENCY_USB_TIMER = 2;
+
     /**
      * Disable exclusive lock for serial port
      *
@@ -99,6 +370,17 @@ public class SerialNativeInterface {
      * @since 2.6.0
      */
     public static final String PROPERTY_JSSC_PARMRK = "JSSC_PARMRK";
+    /**
+     * Set baud rates without a constant in <code>termios.h</code> with the
+     * custom divisor of <code>TIOCSSERIAL</code> instead of termios2, for
+     * drivers which ignore <code>BOTHER</code>. Linux only.
+     *
+     * Usage:
+     * <code>System.setProperty("jssc_custom_divisor", "true");</code>
+     *
+     * @since 2.11.0
+     */
+    public static final String PROPERTY_JSSC_CUSTOM_DIVISOR = "JSSC_CUSTOM_DIVISOR";
 
     private static int osType;
     static {
@@ -191,6 +473,19 @@ public class SerialNativeInterface {
      */
     public native boolean setParams(long handle, int baudRate, int dataBits, int stopBits, int parity, boolean setRTS, boolean setDTR, int flags);
 
+    /**
+     * Get the baud rate the driver applied, which can differ from the one
+     * requested if the hardware can only approximate it. On Linux termios2
+     * reports exact rates.
+     *
+     * @param handle handle of opened port
+     *
+     * @return baud rate, or -1 if it couldn't be read
+     *
+     * @since 2.11.0
+     */
+    public native int getActualBaudRate(long handle);
+
     /**
      * Purge of input and output buffer
      * 
@@ -241,6 +536,110 @@ public class SerialNativeInterface {
      */
     public native int[][] waitEvents(long handle, int waitEventsTimeoutMs);
 
+    /**
+     * Wait events, without allocating. Same as {@link #waitEvents(long, int)},
+     * but the values are written into a flat snapshot. Interrupt counters are
+     * <code>-1</code> where not supported, always on Windows, where
+     * {@link #waitEvents(long, int)} reports breaks and errors instead.
+     *
+     * @param handle handle of opened port
+     * @param waitEventsTimeoutMs See {@link SerialPort#setWaitEventsTimeoutMs(int)}.
+     * @param snapshot array of at least {@link #SNAPSHOT_SIZE} elements, receiving
+     * the values at the <code>SNAPSHOT_*</code> indexes
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean waitEventsArray(long handle, int waitEventsTimeoutMs, int[] snapshot);
+
+    /**
+     * Same as {@link #waitEventsArray(long, int, int[])}, writing into a direct
+     * buffer. The buffer must use the native byte order.
+     *
+     * @param handle handle of opened port
+     * @param waitEventsTimeoutMs See {@link SerialPort#setWaitEventsTimeoutMs(int)}.
+     * @param snapshot direct buffer of at least {@link #SNAPSHOT_SIZE} elements
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean waitEventsBuffer(long handle, int waitEventsTimeoutMs, IntBuffer snapshot);
+
+    /**
+     * Block until an event of <code>mask</code> may have occurred, the wakeup
+     * handle is signalled or the timeout elapsed. Events are then collected by
+     * {@link #waitEvents(long, int)}. Input and modem lines are waited for,
+     * break, errors and the empty output buffer are sampled. Event characters
+     * of a receive ring signal the wakeup handle, see
+     * {@link #setReceiveRingWakeup(long, long)}. A signalled wakeup handle is
+     * reset. Not supported on Windows.
+     *
+     * @param handle handle of opened port
+     * @param mask <code>SerialPort.MASK_*</code> events to wait for
+     * @param wakeup wakeup handle, see {@link #createWakeupHandle()}
+     * @param linesMonitor line monitor of the port, see {@link #openLinesMonitor(long)},
+     * or <code>0</code> to sample the modem lines
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     * @param lineChange line change record receiving the changes if {@link #AWAIT_LINES}
+     * is returned, see {@link #awaitModemLineChange(long, int, long, int, long[])}, and the wakeup
+     * time at {@link #LINE_CHANGE_READY_TIMESTAMP} in any case; may be <code>null</code>
+     *
+     * @return Method returns the ready flags ({@link #AWAIT_READ}, {@link #AWAIT_LINES},
+     * {@link #AWAIT_WAKEUP}), or <code>0</code> if the timeout elapsed or a sampling
+     * interval passed. A port which stays readable without input, as after a
+     * hangup, is flagged with {@link #AWAIT_READ} plus {@link #AWAIT_HANGUP}.
+     *
+     * @since 2.11.0
+     */
+    public native int awaitEvents(long handle, int mask, long wakeup, long linesMonitor, int timeoutMs, long[] lineChange) throws IOException;
+
+    /**
+     * Start monitoring the modem lines of a port, with a thread waiting in
+     * <code>TIOCMIWAIT</code> until {@link #closeLinesMonitor(long)}. Where the
+     * driver doesn't support it, the lines are sampled by the waiters instead.
+     * Not supported on Windows.
+     *
+     * @param handle handle of opened port
+     *
+     * @return Method returns the line monitor
+     *
+     * @since 2.11.0
+     */
+    public native long openLinesMonitor(long handle) throws IOException;
+
+    /**
+     * Stop and release a line monitor. No thread may wait on it any more.
+     *
+     * @param linesMonitor line monitor, see {@link #openLinesMonitor(long)}
+     *
+     * @since 2.11.0
+     */
+    public native void closeLinesMonitor(long linesMonitor);
+
+    /**
+     * Block until one of the modem lines in <code>mask</code> changes, as
+     * reported by the line monitor where the driver supports <code>TIOCMIWAIT</code>,
+     * and sampling otherwise (every millisecond, backing off to every 10 milliseconds).
+     * Not supported on Windows.
+     *
+     * @param handle handle of opened port
+     * @param mask <code>SerialPort.MASK_CTS</code>, <code>MASK_DSR</code>,
+     * <code>MASK_RING</code> and/or <code>MASK_RLSD</code>
+     * @param linesMonitor line monitor of the port, see {@link #openLinesMonitor(long)},
+     * or <code>0</code> to sample the modem lines
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     * @param lineChange line change record of at least {@link #LINE_CHANGE_SIZE} elements,
+     * receiving the changed lines, their transition counts, the lines state and a
+     * <code>CLOCK_MONOTONIC</code> timestamp (see <code>LINE_CHANGE_*</code>)
+     *
+     * @return Method returns <code>true</code> if a line changed, <code>false</code> if the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public native boolean awaitModemLineChange(long handle, int mask, long linesMonitor, int timeoutMs, long[] lineChange) throws IOException;
+
     /**
      * Change RTS line state
      * 
@@ -281,6 +680,459 @@ public class SerialNativeInterface {
      */
     public native boolean writeBytes(long handle, byte[] buffer) throws IOException;
 
+    /**
+     * Write a region of an array to port without copying the whole array.
+     *
+     * @param handle handle of opened port
+     * @param buffer array to write from
+     * @param offset index in <code>buffer</code> of the first byte to write
+     * @param length count of bytes to write
+     *
+     * @return Method returns the count of bytes accepted by the driver, which
+     * may be less than <code>length</code>
+     *
+     * @since 2.11.0
+     */
+    public native int writeArray(long handle, byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Write a region of an array to port completely. Loops over short writes
+     * and waits for the driver to accept more data in between, until all bytes
+     * are written or the timeout elapsed.
+     *
+     * @param handle handle of opened port
+     * @param buffer array to write from
+     * @param offset index in <code>buffer</code> of the first byte to write
+     * @param length count of bytes to write
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @return Method returns the count of bytes written, which is less than
+     * <code>length</code> only if the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public native int writeArrayFully(long handle, byte[] buffer, int offset, int length, int timeoutMs) throws IOException;
+
+    /**
+     * Write data from the memory of a direct buffer to port completely. See
+     * {@link #writeArrayFully(long, byte[], int, int, int)}.
+     *
+     * @param handle handle of opened port
+     * @param buffer direct buffer to write from
+     * @param offset absolute index in <code>buffer</code> of the first byte to write
+     * @param length count of bytes to write
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @return Method returns the count of bytes written, which is less than
+     * <code>length</code> only if the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public native int writeBufferFully(long handle, ByteBuffer buffer, int offset, int length, int timeoutMs) throws IOException;
+
+    /**
+     * Write single byte to port
+     *
+     * @param handle handle of opened port
+     * @param value byte to write
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean writeByte(long handle, byte value) throws IOException;
+
+    /**
+     * Read data from port into a region of an existing array. Blocks until
+     * <code>length</code> bytes are read, like {@link #readBytes(long, int)},
+     * but without allocating a new array.
+     *
+     * @param handle handle of opened port
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length count of bytes required to read
+     *
+     * @return Method returns the count of bytes stored in the array
+     *
+     * @since 2.11.0
+     */
+    public native int readArray(long handle, byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Read data from port into a region of an existing array, waiting at most
+     * <code>timeoutMs</code> milliseconds. The native side blocks in
+     * <code>poll()</code> for the remaining time and reads incrementally.
+     *
+     * @param handle handle of opened port
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length count of bytes required to read
+     * @param timeoutMs timeout in milliseconds
+     *
+     * @return Method returns the count of bytes stored in the array, which is
+     * less than <code>length</code> only if the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public native int readArrayWithTimeout(long handle, byte[] buffer, int offset, int length, int timeoutMs) throws IOException;
+
+    /**
+     * Wait at most <code>timeoutMs</code> milliseconds for bytes to arrive and
+     * read those waiting into a region of an existing array, but at most 4096.
+     * The <code>CLOCK_MONOTONIC</code> time at which the wait returned is
+     * stored in <code>timestamp[0]</code>; on Windows the input queue is
+     * sampled every millisecond and the clock is the performance counter.
+     *
+     * @param handle handle of opened port
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length maximum count of bytes to read
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     * @param timestamp receives the time in nanoseconds
+     *
+     * @return Method returns the count of bytes stored in the array, zero if the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public native int readArrayTimestamped(long handle, byte[] buffer, int offset, int length, int timeoutMs, long[] timestamp) throws IOException;
+
+    /**
+     * Same as {@link #readArrayTimestamped(long, byte[], int, int, int, long[])},
+     * but reads straight into the memory of a direct buffer. The position and
+     * limit of the buffer are not touched.
+     *
+     * @param handle handle of opened port
+     * @param buffer direct buffer to read into
+     * @param offset absolute index in <code>buffer</code> of the first byte to store
+     * @param length maximum count of bytes to read
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     * @param timestamp receives the time in nanoseconds
+     *
+     * @return Method returns the count of bytes stored in the buffer, zero if the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public native int readBufferTimestamped(long handle, ByteBuffer buffer, int offset, int length, int timeoutMs, long[] timestamp) throws IOException;
+
+    /**
+     * Read with a single call into a region of an existing array, but at most
+     * 4096 bytes, returning as the read mode of
+     * {@link #setReadMode(long, int, int)} decides. The kernel applies the
+     * read mode on termios; on Windows <code>minBytes</code> and
+     * <code>idleDeciseconds</code> are applied to the read timeouts of this
+     * call.
+     *
+     * @param handle handle of opened port
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length maximum count of bytes to read
+     * @param minBytes <code>VMIN</code> of the read mode
+     * @param idleDeciseconds <code>VTIME</code> of the read mode
+     *
+     * @return Method returns the count of bytes stored in the array
+     *
+     * @since 2.11.0
+     */
+    public native int readArrayByMode(long handle, byte[] buffer, int offset, int length, int minBytes, int idleDeciseconds) throws IOException;
+
+    /**
+     * Same as {@link #readArrayByMode(long, byte[], int, int, int, int)},
+     * but reads straight into the memory of a direct buffer. The position and
+     * limit of the buffer are not touched.
+     *
+     * @param handle handle of opened port
+     * @param buffer direct buffer to read into
+     * @param offset absolute index in <code>buffer</code> of the first byte to store
+     * @param length maximum count of bytes to read
+     * @param minBytes <code>VMIN</code> of the read mode
+     * @param idleDeciseconds <code>VTIME</code> of the read mode
+     *
+     * @return Method returns the count of bytes stored in the buffer
+     *
+     * @since 2.11.0
+     */
+    public native int readBufferByMode(long handle, ByteBuffer buffer, int offset, int length, int minBytes, int idleDeciseconds) throws IOException;
+
+    /**
+     * Read the bytes waiting in the input buffer of the port, but at most
+     * <code>maxBytes</code>. Never blocks.
+     *
+     * @param handle handle of opened port
+     * @param maxBytes maximum count of bytes to read
+     *
+     * @return Method returns the array of read bytes, which is empty if no
+     * bytes are waiting
+     *
+     * @since 2.11.0
+     */
+    public native byte[] readAvailable(long handle, int maxBytes) throws IOException;
+
+    /**
+     * Read the bytes waiting in the input buffer of the port into a region of
+     * an existing array. Never blocks.
+     *
+     * @param handle handle of opened port
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length maximum count of bytes to read
+     *
+     * @return Method returns the count of bytes stored in the array
+     *
+     * @since 2.11.0
+     */
+    public native int readAvailableArray(long handle, byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Read the bytes waiting in the input buffer of the port straight into
+     * the memory of a direct buffer. Never blocks. The position and limit of
+     * the buffer are not touched.
+     *
+     * @param handle handle of opened port
+     * @param buffer direct buffer to read into
+     * @param offset absolute index in <code>buffer</code> of the first byte to store
+     * @param length maximum count of bytes to read
+     *
+     * @return Method returns the count of bytes stored in the buffer
+     *
+     * @since 2.11.0
+     */
+    public native int readAvailableBuffer(long handle, ByteBuffer buffer, int offset, int length) throws IOException;
+
+    /**
+     * Read data from port straight into the memory of a direct buffer. Blocks
+     * until <code>length</code> bytes are read, like {@link #readBytes(long, int)}.
+     * The position and limit of the buffer are not touched.
+     *
+     * @param handle handle of opened port
+     * @param buffer direct buffer to read into
+     * @param offset absolute index in <code>buffer</code> of the first byte to store
+     * @param length count of bytes required to read
+     *
+     * @return Method returns the count of bytes stored in the buffer
+     *
+     * @since 2.11.0
+     */
+    public native int readBuffer(long handle, ByteBuffer buffer, int offset, int length) throws IOException;
+
+    /**
+     * Write data to port straight from the memory of a direct buffer. The
+     * position and limit of the buffer are not touched.
+     *
+     * @param handle handle of opened port
+     * @param buffer direct buffer to write from
+     * @param offset absolute index in <code>buffer</code> of the first byte to write
+     * @param length count of bytes to write
+     *
+     * @return Method returns the count of bytes accepted by the driver, which
+     * may be less than <code>length</code>
+     *
+     * @since 2.11.0
+     */
+    public native int writeBuffer(long handle, ByteBuffer buffer, int offset, int length) throws IOException;
+
+    /**
+     * Create a wakeup handle, which allows other threads to abort
+     * {@link #awaitReady(long, int, long, int)}. A pipe on *nix based systems, an event on Windows.
+     *
+     * @return Method returns the wakeup handle
+     *
+     * @since 2.11.0
+     */
+    public native long createWakeupHandle() throws IOException;
+
+    /**
+     * Signal a wakeup handle. Every current and future
+     * {@link #awaitReady(long, int, long, int)} on this handle returns immediately.
+     *
+     * @param wakeup wakeup handle
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean signalWakeupHandle(long wakeup);
+
+    /**
+     * Release a wakeup handle. No thread may wait on it any more.
+     *
+     * @param wakeup wakeup handle
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean closeWakeupHandle(long wakeup);
+
+    /**
+     * Wait until the port is ready for reading and/or writing, the wakeup
+     * handle is signalled or the timeout elapsed.
+     *
+     * @param handle handle of opened port
+     * @param events {@link #AWAIT_READ} and/or {@link #AWAIT_WRITE}
+     * @param wakeup wakeup handle, see {@link #createWakeupHandle()}
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @return Method returns the ready flags ({@link #AWAIT_READ}, {@link #AWAIT_WRITE},
+     * {@link #AWAIT_WAKEUP}), or <code>0</code> if the timeout elapsed. A hangup,
+     * where the system reports it, is flagged as ready plus {@link #AWAIT_HANGUP}.
+     *
+     * @since 2.11.0
+     */
+    public native int awaitReady(long handle, int events, long wakeup, int timeoutMs) throws IOException;
+
+    /**
+     * Start a thread which receives everything from the port into a ring.
+     * The ring is a direct buffer in native byte order: a header described
+     * by the <code>RING_*</code> offsets, followed by the data, whose size
+     * must be a power of two. The positions are free running and wrap
+     * around at 32 bits. The header must be zeroed, except for
+     * <code>RING_EVENT_CHAR</code>.
+     *
+     * @param handle handle of opened port
+     * @param ring direct buffer of <code>RING_DATA</code> plus data size bytes
+     *
+     * @return Method returns the ring handle
+     *
+     * @since 2.11.0
+     */
+    public native long startReceiveRing(long handle, ByteBuffer ring) throws IOException;
+
+    /**
+     * Wait until the receiving thread added data or ended, or the timeout elapsed
+     *
+     * @param ring ring handle
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @return Method returns false if the timeout elapsed, otherwise true
+     *
+     * @since 2.11.0
+     */
+    public native boolean awaitReceiveRing(long ring, int timeoutMs) throws IOException;
+
+    /**
+     * Stop the receiving thread and wait for it to end. The ring stays valid
+     * until {@link #closeReceiveRing(long)}.
+     *
+     * @param ring ring handle
+     *
+     * @since 2.11.0
+     */
+    public native void stopReceiveRing(long ring);
+
+    /**
+     * Set the wakeup handle the receiving thread signals whenever event
+     * characters (see <code>RING_EVENT_CHAR</code>) arrive, so waiters in
+     * {@link #awaitEvents(long, int, long, long, int, long[])} learn about
+     * them without sampling. Once this returns, the previous handle is no
+     * longer used.
+     *
+     * @param ring ring handle
+     * @param wakeup wakeup handle, or <code>0</code> for none
+     *
+     * @since 2.11.0
+     */
+    public native void setReceiveRingWakeup(long ring, long wakeup);
+
+    /**
+     * Wake up the receiving thread, which waits while the ring is full, after
+     * the consumer advanced <code>RING_TAIL</code>. Only needed while
+     * <code>RING_WAITING</code> is set.
+     *
+     * @param ring ring handle
+     *
+     * @since 2.11.0
+     */
+    public native void signalReceiveRingSpace(long ring);
+
+    /**
+     * Full memory fence, which orders the accesses of a receive ring against
+     * those of the receiving thread on Java versions without
+     * <code>VarHandle</code> fences.
+     *
+     * @since 2.11.0
+     */
+    public native void memoryFence();
+
+    /**
+     * Release a stopped ring. No thread may wait on it any more.
+     *
+     * @param ring ring handle
+     *
+     * @since 2.11.0
+     */
+    public native void closeReceiveRing(long ring);
+
+    /**
+     * Create a selector, which waits for many ports at once. Only supported on Linux (epoll).
+     *
+     * @param wakeup wakeup handle aborting {@link #selectorWait(long, long, int[], int[], int)},
+     * see {@link #createWakeupHandle()}
+     *
+     * @return Method returns the selector handle
+     *
+     * @throws UnsupportedOperationException on platforms without selector support
+     *
+     * @since 2.11.0
+     */
+    public native long createSelector(long wakeup) throws IOException;
+
+    /**
+     * Register a port with a selector or change the events of a registered port.
+     *
+     * @param selector selector handle
+     * @param handle handle of opened port
+     * @param events {@link #AWAIT_READ}, {@link #AWAIT_WRITE} and/or {@link #AWAIT_HANGUP}
+     * @param key non-negative number reported by {@link #selectorWait(long, long, int[], int[], int)}
+     * for this port
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean selectorRegister(long selector, long handle, int events, int key) throws IOException;
+
+    /**
+     * Remove a port from a selector.
+     *
+     * @param selector selector handle
+     * @param handle handle of registered port
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean selectorUnregister(long selector, long handle);
+
+    /**
+     * Wait until at least one registered port is ready, the wakeup handle is
+     * signalled or the timeout elapsed. A signalled wakeup handle is reset.
+     * At most 64 entries are filled, further ready ports are reported by the next wait.
+     *
+     * @param selector selector handle
+     * @param wakeup wakeup handle the selector was created with
+     * @param keys receives the keys of ready ports given on registration, or <code>-1</code>
+     * for the wakeup handle
+     * @param events receives the ready flags ({@link #AWAIT_READ}, {@link #AWAIT_WRITE},
+     * {@link #AWAIT_HANGUP}, {@link #AWAIT_WAKEUP}) of each entry in <code>keys</code>
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @return Method returns the count of filled entries, or <code>0</code> if the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public native int selectorWait(long selector, long wakeup, int[] keys, int[] events, int timeoutMs) throws IOException;
+
+    /**
+     * Release a selector. No thread may wait on it any more.
+     *
+     * @param selector selector handle
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean closeSelector(long selector);
+
     /**
      * Get bytes count in buffers of port
      *
@@ -317,6 +1169,47 @@ public class SerialNativeInterface {
      */
     public native int getFlowControlMode(long handle);
 
+    /**
+     * Set <code>VMIN</code> and <code>VTIME</code> of termios, which decide
+     * when {@link #readArrayByMode(long, byte[], int, int, int, int)} returns.
+     * Nothing is kept on Windows, the read timeouts are set per call there.
+     *
+     * @param handle handle of opened port
+     * @param minBytes count of bytes to wait for, 0 to 255
+     * @param idleDeciseconds inter-byte timeout in tenths of a second, 0 to 255
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean setReadMode(long handle, int minBytes, int idleDeciseconds);
+
+    /**
+     * Set the event character of {@link SerialPort#MASK_RXFLAG}. On Windows
+     * the driver detects it, otherwise the receive ring does.
+     *
+     * @param handle handle of opened port
+     * @param eventChar event character
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public native boolean setEventChar(long handle, byte eventChar);
+
+    /**
+     * Switch the low latency optimizations of the driver on or off. Linux only.
+     *
+     * @param handle handle of opened port
+     * @param enabled true to switch them on
+     *
+     * @return the optimizations which took effect, {@link #LOW_LATENCY_DRIVER}
+     * and/or {@link #LOW_LATENCY_USB_TIMER}
+     *
+     * @since 2.11.0
+     */
+    public native int setLowLatency(long handle, boolean enabled);
+
     /**
      * Get serial port names like an array of String
      *
@@ -347,4 +1240,13 @@ public class SerialNativeInterface {
      * @since 0.8
      */
     public native boolean sendBreak(long handle, int duration);
+
+    /**
+     * Wait until all bytes written to the port are transmitted
+     *
+     * @param handle handle of opened port
+     *
+     * @since 2.11.0
+     */
+    public native void drainOutput(long handle) throws IOException;
 }
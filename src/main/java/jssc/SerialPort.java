@@ -25,8 +25,17 @@
 package jssc;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
 
 /**
  *
@@ -36,7 +45,7 @@ import java.lang.reflect.Method;
 public class SerialPort {
 
     private final SerialNativeInterface serialInterface;
-    private SerialPortEventListener eventListener;
+    private SerialPortBatchEventListener eventListener;
     private volatile long portHandle;
     private final String portName;
     private volatile boolean portOpened = false;
@@ -75,6 +84,32 @@ public class SerialPort {
     public static final int BAUDRATE_128000 = 128000;
     /** Baud rate 256000 symbols/second **/
     public static final int BAUDRATE_256000 = 256000;
+    //since 2.11.0 ->
+    /** Baud rate 460800 symbols/second **/
+    public static final int BAUDRATE_460800 = 460800;
+    /** Baud rate 500000 symbols/second **/
+    public static final int BAUDRATE_500000 = 500000;
+    /** Baud rate 576000 symbols/second **/
+    public static final int BAUDRATE_576000 = 576000;
+    /** Baud rate 921600 symbols/second **/
+    public static final int BAUDRATE_921600 = 921600;
+    /** Baud rate 1000000 symbols/second **/
+    public static final int BAUDRATE_1000000 = 1000000;
+    /** Baud rate 1152000 symbols/second **/
+    public static final int BAUDRATE_1152000 = 1152000;
+    /** Baud rate 1500000 symbols/second **/
+    public static final int BAUDRATE_1500000 = 1500000;
+    /** Baud rate 2000000 symbols/second **/
+    public static final int BAUDRATE_2000000 = 2000000;
+    /** Baud rate 2500000 symbols/second **/
+    public static final int BAUDRATE_2500000 = 2500000;
+    /** Baud rate 3000000 symbols/second **/
+    public static final int BAUDRATE_3000000 = 3000000;
+    /** Baud rate 3500000 symbols/second **/
+    public static final int BAUDRATE_3500000 = 3500000;
+    /** Baud rate 4000000 symbols/second **/
+    public static final int BAUDRATE_4000000 = 4000000;
+    //<- since 2.11.0
 
     /** Five (5) data bits per byte **/
     public static final int DATABITS_5 = 5;
@@ -156,12 +191,32 @@ public class SerialPort {
     public static final int ERROR_PARITY = 0x0004;
     //<- since 0.8
 
+    //since 2.11.0 ->
+    /** Low latency: the serial driver pushes received bytes without delay (<code>ASYNC_LOW_LATENCY</code>) **/
+    public static final int LOW_LATENCY_DRIVER = SerialNativeInterface.LOW_LATENCY_DRIVER;
+    /** Low latency: the latency timer of the USB serial adapter is 1 ms **/
+    public static final int LOW_LATENCY_USB_TIMER = SerialNativeInterface.LOW_LATENCY_USB_TIMER;
+    /** Read mode: return the bytes waiting at once (<code>VMIN</code> 0, <code>VTIME</code> 0) **/
+    public static final int READ_MODE_NON_BLOCKING = 0;
+    /** Read mode: wait for at least one byte (<code>VMIN</code> 1, <code>VTIME</code> 0) **/
+    public static final int READ_MODE_BLOCKING = 1;
+    /** Read mode: wait for a count of bytes (<code>VMIN</code> n, <code>VTIME</code> 0) **/
+    public static final int READ_MODE_MIN_COUNT = 2;
+    /** Read mode: wait for a count of bytes, or for the line to go idle after a byte (<code>VMIN</code> n, <code>VTIME</code> t) **/
+    public static final int READ_MODE_IDLE = 3;
+    //<- since 2.11.0
+
     //since 2.6.0 ->
     /** Ignore bytes with framing error or parity error **/
     private static final int PARAMS_FLAG_IGNPAR = 1;
     /** Mark bytes with parity error or framing error **/
     private static final int PARAMS_FLAG_PARMRK = 2;
     //<- since 2.6.0
+    /** Set non standard baud rates with a custom divisor instead of termios2 **/
+    private static final int PARAMS_FLAG_CUSTOM_DIVISOR = 4;//since 2.11.0
+
+    /** Buffer size of the streams returned by getInputStream() and getOutputStream() **/
+    private static final int DEFAULT_STREAM_BUFFER_SIZE = 4096;
 
     /**
      * Construct a serial port object with the specified <code>portName</code>
@@ -225,6 +280,9 @@ public class SerialPort {
             throw new SerialPortException(this, "openPort()", SerialPortException.TYPE_INCORRECT_SERIAL_PORT);
         }
         portOpened = true;
+        readMode = READ_MODE_NON_BLOCKING;
+        readMinBytes = 0;
+        readIdleDeciseconds = 0;
         return true;
     }
 
@@ -275,7 +333,47 @@ public class SerialPort {
         if(System.getProperty(SerialNativeInterface.PROPERTY_JSSC_PARMRK) != null || System.getProperty(SerialNativeInterface.PROPERTY_JSSC_PARMRK.toLowerCase()) != null){
             flags |= PARAMS_FLAG_PARMRK;
         }
-        return serialInterface.setParams(portHandle, baudRate, dataBits, stopBits, parity, setRTS, setDTR, flags);
+        if(System.getProperty(SerialNativeInterface.PROPERTY_JSSC_CUSTOM_DIVISOR) != null || System.getProperty(SerialNativeInterface.PROPERTY_JSSC_CUSTOM_DIVISOR.toLowerCase()) != null){
+            flags |= PARAMS_FLAG_CUSTOM_DIVISOR;
+        }
+        boolean result = serialInterface.setParams(portHandle, baudRate, dataBits, stopBits, parity, setRTS, setDTR, flags);
+        if(result){
+            this.baudRate = baudRate;
+        }
+        if(readMode != READ_MODE_NON_BLOCKING){
+            //setParams resets VMIN and VTIME
+            serialInterface.setReadMode(portHandle, readMinBytes, readIdleDeciseconds);
+        }
+        return result;
+    }
+
+    /**
+     * Getting the baud rate of the last successful {@link #setParams(int, int, int, int)}
+     *
+     * @return baud rate, or <code>0</code> if the parameters were never set
+     *
+     * @since 2.11.0
+     */
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    /**
+     * Getting the baud rate the driver actually applied. It can differ from
+     * {@link #getBaudRate()} if the hardware only approximates the requested
+     * rate. On Linux, rates without a constant of <code>termios.h</code> are
+     * set exactly through termios2 (<code>BOTHER</code>), falling back to the
+     * custom divisor of <code>TIOCSSERIAL</code>.
+     *
+     * @return baud rate, or <code>-1</code> if the driver doesn't tell
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int getActualBaudRate() throws SerialPortException {
+        checkPortOpened("getActualBaudRate()");
+        return serialInterface.getActualBaudRate(portHandle);
     }
 
     /**
@@ -415,6 +513,30 @@ public class SerialPort {
         }
     }
 
+    /**
+     * Write a region of an array to port. Unlike {@link #writeBytes(byte[])}
+     * the frame does not have to be copied out of a larger buffer first.
+     *
+     * @param buffer array to write from
+     * @param offset index in <code>buffer</code> of the first byte to write
+     * @param length count of bytes to write
+     *
+     * @return Method returns the count of bytes written, which may be less
+     * than <code>length</code>
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int write(byte[] buffer, int offset, int length) throws SerialPortException {
+        checkPortOpened("write()");
+        try {
+            return serialInterface.writeArray(portHandle, buffer, offset, length);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "write");
+        }
+    }
+
     /**
      * Write single byte to port
      *
@@ -428,7 +550,11 @@ public class SerialPort {
      */
     public boolean writeByte(byte singleByte) throws SerialPortException {
         checkPortOpened("writeByte()");
-        return writeBytes(new byte[]{singleByte});
+        try {
+            return serialInterface.writeByte(portHandle, singleByte);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "writeByte");
+        }
     }
 
     /**
@@ -477,7 +603,11 @@ public class SerialPort {
      */
     public boolean writeInt(int singleInt) throws SerialPortException {
         checkPortOpened("writeInt()");
-        return writeBytes(new byte[]{(byte)singleInt});
+        try {
+            return serialInterface.writeByte(portHandle, (byte)singleInt);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "writeInt");
+        }
     }
 
     /**
@@ -500,6 +630,192 @@ public class SerialPort {
         return writeBytes(byteArray);
     }
 
+    /**
+     * Write the remaining bytes of a buffer to port. A direct buffer is handed
+     * to the driver without any intermediate copy. The buffer position is
+     * advanced by the count of bytes written.
+     *
+     * @param buffer <code>ByteBuffer</code> to write
+     *
+     * @return Method returns the count of bytes written, which may be less
+     * than <code>buffer.remaining()</code>
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int write(ByteBuffer buffer) throws SerialPortException {
+        checkPortOpened("write()");
+        int length = buffer.remaining();
+        int written;
+        try {
+            if(buffer.isDirect()){
+                written = serialInterface.writeBuffer(portHandle, buffer, buffer.position(), length);
+            }
+            else if(buffer.hasArray()){
+                written = serialInterface.writeArray(portHandle, buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+            }
+            else {
+                byte[] byteArray = new byte[length];
+                buffer.duplicate().get(byteArray);
+                written = serialInterface.writeArray(portHandle, byteArray, 0, length);
+            }
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "write");
+        }
+        buffer.position(buffer.position() + written);
+        return written;
+    }
+
+    /**
+     * Write byte array to port completely. Short writes are retried, waiting
+     * for the driver to accept more data in between, until all bytes are
+     * written or the timeout elapsed.
+     *
+     * @param buffer <code>byte[]</code> array to write
+     * @param timeout timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @throws SerialPortException if exception occurred
+     * @throws SerialPortTimeoutException if the timeout elapsed before all bytes were
+     * written. {@link SerialPortTimeoutException#getBytesTransferred()} tells how many
+     * bytes already went out
+     *
+     * @since 2.11.0
+     */
+    public void writeFully(byte[] buffer, int timeout) throws SerialPortException, SerialPortTimeoutException {
+        writeFully(buffer, 0, buffer.length, timeout);
+    }
+
+    /**
+     * Write a region of an array to port completely. See {@link #writeFully(byte[], int)}.
+     *
+     * @param buffer array to write from
+     * @param offset index in <code>buffer</code> of the first byte to write
+     * @param length count of bytes to write
+     * @param timeout timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @throws SerialPortException if exception occurred
+     * @throws SerialPortTimeoutException if the timeout elapsed before all bytes were written
+     *
+     * @since 2.11.0
+     */
+    public void writeFully(byte[] buffer, int offset, int length, int timeout) throws SerialPortException, SerialPortTimeoutException {
+        checkPortOpened("writeFully()");
+        int written;
+        try {
+            written = serialInterface.writeArrayFully(portHandle, buffer, offset, length, timeout);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "writeFully");
+        }
+        if(written < length){
+            throw new SerialPortTimeoutException(this, "writeFully()", timeout, written);
+        }
+    }
+
+    /**
+     * Write the remaining bytes of a buffer to port completely. See
+     * {@link #writeFully(byte[], int)}. The buffer position is advanced by the
+     * count of bytes written, also if the timeout elapsed.
+     *
+     * @param buffer <code>ByteBuffer</code> to write
+     * @param timeout timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @throws SerialPortException if exception occurred
+     * @throws SerialPortTimeoutException if the timeout elapsed before all bytes were written
+     *
+     * @since 2.11.0
+     */
+    public void writeFully(ByteBuffer buffer, int timeout) throws SerialPortException, SerialPortTimeoutException {
+        checkPortOpened("writeFully()");
+        int length = buffer.remaining();
+        int written;
+        try {
+            if(buffer.isDirect()){
+                written = serialInterface.writeBufferFully(portHandle, buffer, buffer.position(), length, timeout);
+            }
+            else if(buffer.hasArray()){
+                written = serialInterface.writeArrayFully(portHandle, buffer.array(), buffer.arrayOffset() + buffer.position(), length, timeout);
+            }
+            else {
+                byte[] byteArray = new byte[length];
+                buffer.duplicate().get(byteArray);
+                written = serialInterface.writeArrayFully(portHandle, byteArray, 0, length, timeout);
+            }
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "writeFully");
+        }
+        buffer.position(buffer.position() + written);
+        if(written < length){
+            throw new SerialPortTimeoutException(this, "writeFully()", timeout, written);
+        }
+    }
+
+    /**
+     * Write the remaining bytes of a buffer without waiting for the line.
+     * See {@link #writeAsync(ByteBuffer, boolean)}.
+     *
+     * @param buffer <code>ByteBuffer</code> to write
+     *
+     * @return <code>Future</code> of the count of bytes written
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public Future<Integer> writeAsync(ByteBuffer buffer) throws SerialPortException {
+        return writeAsync(buffer, false);
+    }
+
+    /**
+     * Write the remaining bytes of a buffer without waiting for the line.
+     * The buffers are queued and written in order by a thread of this port.
+     * A buffer must not be changed until its future is done, its position
+     * is advanced while it's written. Cancelling a future skips a buffer
+     * which wasn't started yet. On Java 9 and later, the futures are
+     * <code>CompletableFuture</code>s.
+     *
+     * @param buffer <code>ByteBuffer</code> to write
+     * @param drain if true, the future completes once the bytes are
+     * transmitted, otherwise once the system took them over
+     *
+     * @return <code>Future</code> of the count of bytes written
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @see #drainOutput()
+     *
+     * @since 2.11.0
+     */
+    public Future<Integer> writeAsync(ByteBuffer buffer, boolean drain) throws SerialPortException {
+        AsyncWriter writer = asyncWriter;
+        if(writer == null){
+            synchronized(this){
+                checkPortOpened("writeAsync()");
+                if(asyncWriter == null){
+                    asyncWriter = new AsyncWriter(this);
+                }
+                writer = asyncWriter;
+            }
+        }
+        return writer.write(buffer, drain);
+    }
+
+    /**
+     * Wait until all bytes written to the port are transmitted
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public void drainOutput() throws SerialPortException {
+        checkPortOpened("drainOutput()");
+        try {
+            serialInterface.drainOutput(portHandle);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "drainOutput");
+        }
+    }
+
     /**
      * Read byte array from port
      *
@@ -518,6 +834,70 @@ public class SerialPort {
         }
     }
 
+    /**
+     * Read bytes from port into a region of an existing array. Unlike
+     * {@link #readBytes(int)} no new array gets allocated, so a receive loop
+     * can reuse the same buffer on every call.
+     *
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length count of bytes for reading
+     *
+     * @return Method returns the count of bytes read
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int readBytes(byte[] buffer, int offset, int length) throws SerialPortException {
+        checkPortOpened("readBytes()");
+        try{
+            return serialInterface.readArray(portHandle, buffer, offset, length);
+        }catch( IOException ex ){
+            throw SerialPortException.wrapNativeException(ex, this, "readBytes");
+        }
+    }
+
+    /**
+     * Read bytes from port until the buffer has no remaining space. A direct
+     * buffer is filled by the driver without any intermediate copy. The buffer
+     * position is advanced by the count of bytes read.
+     *
+     * @param buffer <code>ByteBuffer</code> to read into
+     *
+     * @return Method returns the count of bytes read
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int read(ByteBuffer buffer) throws SerialPortException {
+        checkPortOpened("read()");
+        if(buffer.isReadOnly()){
+            throw new ReadOnlyBufferException();
+        }
+        int length = buffer.remaining();
+        int read;
+        try {
+            if(buffer.isDirect()){
+                read = serialInterface.readBuffer(portHandle, buffer, buffer.position(), length);
+                buffer.position(buffer.position() + read);
+            }
+            else if(buffer.hasArray()){
+                read = serialInterface.readArray(portHandle, buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+                buffer.position(buffer.position() + read);
+            }
+            else {
+                byte[] byteArray = serialInterface.readBytes(portHandle, length);
+                read = byteArray.length;
+                buffer.put(byteArray);
+            }
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "read");
+        }
+        return read;
+    }
+
     /**
      * Read string from port
      *
@@ -564,17 +944,7 @@ public class SerialPort {
      */
     public String readHexString(int byteCount, String separator) throws SerialPortException {
         checkPortOpened("readHexString()");
-        String[] strBuffer = readHexStringArray(byteCount);
-        StringBuilder returnString = new StringBuilder();
-        boolean insertSeparator = false;
-        for(String value : strBuffer){
-            if(insertSeparator){
-                returnString.append(separator);
-            }
-            returnString.append(value);
-            insertSeparator = true;
-        }
-        return returnString.toString();
+        return toHexString(readBytes(byteCount), separator);
     }
 
     /**
@@ -590,16 +960,7 @@ public class SerialPort {
      */
     public String[] readHexStringArray(int byteCount) throws SerialPortException {
         checkPortOpened("readHexStringArray()");
-        int[] intBuffer = readIntArray(byteCount);
-        String[] strBuffer = new String[intBuffer.length];
-        for(int i = 0; i < intBuffer.length; i++){
-            String value = Integer.toHexString(intBuffer[i]).toUpperCase();
-            if(value.length() == 1) {
-                value = "0" + value;
-            }
-            strBuffer[i] = value;
-        }
-        return strBuffer;
+        return toHexStringArray(readBytes(byteCount));
     }
 
     /**
@@ -615,7 +976,10 @@ public class SerialPort {
      */
     public int[] readIntArray(int byteCount) throws SerialPortException {
         checkPortOpened("readIntArray()");
-        byte[] buffer = readBytes(byteCount);
+        return toIntArray(readBytes(byteCount));
+    }
+
+    private static int[] toIntArray(byte[] buffer) {
         int[] intBuffer = new int[buffer.length];
         for(int i = 0; i < buffer.length; i++){
             if(buffer[i] < 0){
@@ -628,19 +992,84 @@ public class SerialPort {
         return intBuffer;
     }
 
-    private void waitBytesWithTimeout(String methodName, int byteCount, int timeout) throws SerialPortException, SerialPortTimeoutException {
-        checkPortOpened("waitBytesWithTimeout()");
-        boolean timeIsOut = true;
-        long startTime = System.currentTimeMillis();
-        while((System.currentTimeMillis() - startTime) < timeout){
-            if(getInputBufferBytesCount() >= byteCount){
-                timeIsOut = false;
-                break;
+    private static String[] toHexStringArray(byte[] buffer) {
+        int[] intBuffer = toIntArray(buffer);
+        String[] strBuffer = new String[intBuffer.length];
+        for(int i = 0; i < intBuffer.length; i++){
+            String value = Integer.toHexString(intBuffer[i]).toUpperCase();
+            if(value.length() == 1) {
+                value = "0" + value;
+            }
+            strBuffer[i] = value;
+        }
+        return strBuffer;
+    }
+
+    private static String toHexString(byte[] buffer, String separator) {
+        String[] strBuffer = toHexStringArray(buffer);
+        StringBuilder returnString = new StringBuilder();
+        boolean insertSeparator = false;
+        for(String value : strBuffer){
+            if(insertSeparator){
+                returnString.append(separator);
             }
+            returnString.append(value);
+            insertSeparator = true;
+        }
+        return returnString.toString();
+    }
+
+    /**
+     * Reads "byteCount" bytes, blocking natively in poll() for at most "timeout"
+     * milliseconds. Bytes which arrived before the timeout elapsed are handed
+     * over with the exception, so they don't get lost.
+     */
+    private byte[] readBytesWithTimeout(String methodName, int byteCount, int timeout) throws SerialPortException, SerialPortTimeoutException {
+        checkPortOpened(methodName);
+        byte[] buffer = new byte[byteCount];
+        int read;
+        try {
+            read = serialInterface.readArrayWithTimeout(portHandle, buffer, 0, byteCount, timeout);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, methodName);
+        }
+        if(read < byteCount){
+            throw new SerialPortTimeoutException(this, methodName, timeout, Arrays.copyOf(buffer, read));
+        }
+        return buffer;
+    }
+
+    /**
+     * Read bytes from port into a region of an existing array, waiting at most
+     * <code>timeout</code> milliseconds. The calling thread blocks in the
+     * operating system while waiting instead of spinning.
+     *
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length count of bytes for reading
+     * @param timeout timeout in milliseconds
+     *
+     * @return Method returns the count of bytes read, always <code>length</code>
+     *
+     * @throws SerialPortException if exception occurred
+     * @throws SerialPortTimeoutException if the timeout elapsed before <code>length</code>
+     * bytes arrived. The bytes received so far are stored in <code>buffer</code>, their
+     * count is available from {@link SerialPortTimeoutException#getBytesTransferred()}
+     *
+     * @since 2.11.0
+     */
+    public int readBytes(byte[] buffer, int offset, int length, int timeout) throws SerialPortException, SerialPortTimeoutException {
+        checkPortOpened("readBytes()");
+        int read;
+        try {
+            read = serialInterface.readArrayWithTimeout(portHandle, buffer, offset, length, timeout);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "readBytes");
         }
-        if(timeIsOut){
-            throw new SerialPortTimeoutException(this, methodName, timeout);
+        if(read < length){
+            throw new SerialPortTimeoutException(this, "readBytes()", timeout, read);
         }
+        return read;
     }
 
     /**
@@ -652,14 +1081,13 @@ public class SerialPort {
      * @return byte array with "byteCount" length
      *
      * @throws SerialPortException if exception occurred
-     * @throws SerialPortTimeoutException if timeout exception occurred
+     * @throws SerialPortTimeoutException if timeout exception occurred. Bytes received
+     * until then are available from {@link SerialPortTimeoutException#getReceivedBytes()}
      *
      * @since 2.0
      */
     public byte[] readBytes(int byteCount, int timeout) throws SerialPortException, SerialPortTimeoutException {
-        checkPortOpened("readBytes()");
-        waitBytesWithTimeout("readBytes()", byteCount, timeout);
-        return readBytes(byteCount);
+        return readBytesWithTimeout("readBytes()", byteCount, timeout);
     }
 
     /**
@@ -671,14 +1099,13 @@ public class SerialPort {
      * @return byte array with "byteCount" length converted to String
      *
      * @throws SerialPortException if exception occurred
-     * @throws SerialPortTimeoutException if timeout exception occurred
+     * @throws SerialPortTimeoutException if timeout exception occurred. Bytes received
+     * until then are available from {@link SerialPortTimeoutException#getReceivedBytes()}
      *
      * @since 2.0
      */
     public String readString(int byteCount, int timeout) throws SerialPortException, SerialPortTimeoutException {
-        checkPortOpened("readString()");
-        waitBytesWithTimeout("readString()", byteCount, timeout);
-        return readString(byteCount);
+        return new String(readBytesWithTimeout("readString()", byteCount, timeout));
     }
 
     /**
@@ -690,14 +1117,13 @@ public class SerialPort {
      * @return byte array with "byteCount" length converted to Hexadecimal String
      *
      * @throws SerialPortException if exception occurred
-     * @throws SerialPortTimeoutException if timeout exception occurred
+     * @throws SerialPortTimeoutException if timeout exception occurred. Bytes received
+     * until then are available from {@link SerialPortTimeoutException#getReceivedBytes()}
      *
      * @since 2.0
      */
     public String readHexString(int byteCount, int timeout) throws SerialPortException, SerialPortTimeoutException {
-        checkPortOpened("readHexString()");
-        waitBytesWithTimeout("readHexString()", byteCount, timeout);
-        return readHexString(byteCount);
+        return toHexString(readBytesWithTimeout("readHexString()", byteCount, timeout), " ");
     }
 
     /**
@@ -710,14 +1136,13 @@ public class SerialPort {
      * @return byte array with "byteCount" length converted to Hexadecimal String
      *
      * @throws SerialPortException if exception occurred
-     * @throws SerialPortTimeoutException if timeout exception occurred
+     * @throws SerialPortTimeoutException if timeout exception occurred. Bytes received
+     * until then are available from {@link SerialPortTimeoutException#getReceivedBytes()}
      *
      * @since 2.0
      */
     public String readHexString(int byteCount, String separator, int timeout) throws SerialPortException, SerialPortTimeoutException {
-        checkPortOpened("readHexString()");
-        waitBytesWithTimeout("readHexString()", byteCount, timeout);
-        return readHexString(byteCount, separator);
+        return toHexString(readBytesWithTimeout("readHexString()", byteCount, timeout), separator);
     }
 
     /**
@@ -729,14 +1154,13 @@ public class SerialPort {
      * @return String array with "byteCount" length and Hexadecimal String values
      *
      * @throws SerialPortException if exception occurred
-     * @throws SerialPortTimeoutException if timeout exception occurred
+     * @throws SerialPortTimeoutException if timeout exception occurred. Bytes received
+     * until then are available from {@link SerialPortTimeoutException#getReceivedBytes()}
      *
      * @since 2.0
      */
     public String[] readHexStringArray(int byteCount, int timeout) throws SerialPortException, SerialPortTimeoutException {
-        checkPortOpened("readHexStringArray()");
-        waitBytesWithTimeout("readHexStringArray()", byteCount, timeout);
-        return readHexStringArray(byteCount);
+        return toHexStringArray(readBytesWithTimeout("readHexStringArray()", byteCount, timeout));
     }
 
     /**
@@ -748,14 +1172,13 @@ public class SerialPort {
      * @return int array with values in range from 0 to 255
      *
      * @throws SerialPortException if exception occurred
-     * @throws SerialPortTimeoutException if timeout exception occurred
+     * @throws SerialPortTimeoutException if timeout exception occurred. Bytes received
+     * until then are available from {@link SerialPortTimeoutException#getReceivedBytes()}
      *
      * @since 2.0
      */
     public int[] readIntArray(int byteCount, int timeout) throws SerialPortException, SerialPortTimeoutException {
-        checkPortOpened("readIntArray()");
-        waitBytesWithTimeout("readIntArray()", byteCount, timeout);
-        return readIntArray(byteCount);
+        return toIntArray(readBytesWithTimeout("readIntArray()", byteCount, timeout));
     }
 
     /**
@@ -768,12 +1191,7 @@ public class SerialPort {
      * @since 0.8
      */
     public byte[] readBytes() throws SerialPortException {
-        checkPortOpened("readBytes()");
-        int byteCount = getInputBufferBytesCount();
-        if(byteCount <= 0){
-            return null;
-        }
-        return readBytes(byteCount);
+        return readAllAvailable("readBytes()");
     }
 
     /**
@@ -786,12 +1204,8 @@ public class SerialPort {
      * @since 0.8
      */
     public String readString() throws SerialPortException {
-        checkPortOpened("readString()");
-        int byteCount = getInputBufferBytesCount();
-        if(byteCount <= 0){
-            return null;
-        }
-        return readString(byteCount);
+        byte[] buffer = readAllAvailable("readString()");
+        return buffer != null ? new String(buffer) : null;
     }
 
     /**
@@ -804,12 +1218,8 @@ public class SerialPort {
      * @since 0.8
      */
     public String readHexString() throws SerialPortException {
-        checkPortOpened("readHexString()");
-        int byteCount = getInputBufferBytesCount();
-        if(byteCount <= 0){
-            return null;
-        }
-        return readHexString(byteCount);
+        byte[] buffer = readAllAvailable("readHexString()");
+        return buffer != null ? toHexString(buffer, " ") : null;
     }
 
     /**
@@ -824,12 +1234,8 @@ public class SerialPort {
      * @since 0.8
      */
     public String readHexString(String separator) throws SerialPortException {
-        checkPortOpened("readHexString()");
-        int byteCount = getInputBufferBytesCount();
-        if(byteCount <= 0){
-            return null;
-        }
-        return readHexString(byteCount, separator);
+        byte[] buffer = readAllAvailable("readHexString()");
+        return buffer != null ? toHexString(buffer, separator) : null;
     }
 
     /**
@@ -842,12 +1248,8 @@ public class SerialPort {
      * @since 0.8
      */
     public String[] readHexStringArray() throws SerialPortException {
-        checkPortOpened("readHexStringArray()");
-        int byteCount = getInputBufferBytesCount();
-        if(byteCount <= 0){
-            return null;
-        }
-        return readHexStringArray(byteCount);
+        byte[] buffer = readAllAvailable("readHexStringArray()");
+        return buffer != null ? toHexStringArray(buffer) : null;
     }
 
     /**
@@ -860,40 +1262,462 @@ public class SerialPort {
      * @since 0.8
      */
     public int[] readIntArray() throws SerialPortException {
-        checkPortOpened("readIntArray()");
-        int byteCount = getInputBufferBytesCount();
-        if(byteCount <= 0){
-            return null;
+        byte[] buffer = readAllAvailable("readIntArray()");
+        return buffer != null ? toIntArray(buffer) : null;
+    }
+
+    /**
+     * Reads everything waiting in the input buffer with a single native call.
+     * Returns null if the input buffer is empty.
+     */
+    private byte[] readAllAvailable(String methodName) throws SerialPortException {
+        checkPortOpened(methodName);
+        byte[] buffer;
+        try {
+            buffer = serialInterface.readAvailable(portHandle, Integer.MAX_VALUE);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, methodName);
         }
-        return readIntArray(byteCount);
+        return buffer.length > 0 ? buffer : null;
     }
 
     /**
-     * Get count of bytes in input buffer
+     * Read the bytes waiting in the input buffer, but at most <code>maxBytes</code>.
+     * Unlike {@link #readBytes()} this needs a single call into the native
+     * library, so no other reader can take the counted bytes in between.
      *
-     * @return Count of bytes in input buffer or -1 if error occured
+     * @param maxBytes maximum count of bytes to read
+     *
+     * @return byte array with the read bytes, empty if the input buffer is empty
      *
      * @throws SerialPortException if exception occurred
      *
-     * @since 0.8
+     * @since 2.11.0
      */
-    public int getInputBufferBytesCount() throws SerialPortException {
-        checkPortOpened("getInputBufferBytesCount()");
-        try{
-            return serialInterface.getBuffersBytesCount(portHandle)[0];
-        }catch( IOException ex ){
-            throw SerialPortException.wrapNativeException(ex, this, "getInputBufferBytesCount");
+    public byte[] readAvailable(int maxBytes) throws SerialPortException {
+        checkPortOpened("readAvailable()");
+        try {
+            return serialInterface.readAvailable(portHandle, maxBytes);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "readAvailable");
         }
     }
 
     /**
-     * Get count of bytes in output buffer
+     * Read the bytes waiting in the input buffer into a region of an existing
+     * array. Never blocks.
      *
-     * @return Count of bytes in output buffer or -1 if error occured
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length maximum count of bytes to read
+     *
+     * @return Method returns the count of bytes read, zero if the input buffer is empty
      *
      * @throws SerialPortException if exception occurred
      *
-     * @since 0.8
+     * @since 2.11.0
+     */
+    public int readAvailable(byte[] buffer, int offset, int length) throws SerialPortException {
+        checkPortOpened("readAvailable()");
+        try {
+            return serialInterface.readAvailableArray(portHandle, buffer, offset, length);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "readAvailable");
+        }
+    }
+
+    /**
+     * Read the bytes waiting in the input buffer into the remaining space of a
+     * buffer. Never blocks. A direct buffer is filled by the driver without any
+     * intermediate copy. The buffer position is advanced by the count of bytes read.
+     *
+     * @param buffer <code>ByteBuffer</code> to read into
+     *
+     * @return Method returns the count of bytes read, zero if the input buffer is empty
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int readAvailable(ByteBuffer buffer) throws SerialPortException {
+        checkPortOpened("readAvailable()");
+        if(buffer.isReadOnly()){
+            throw new ReadOnlyBufferException();
+        }
+        int length = buffer.remaining();
+        int read;
+        try {
+            if(buffer.isDirect()){
+                read = serialInterface.readAvailableBuffer(portHandle, buffer, buffer.position(), length);
+                buffer.position(buffer.position() + read);
+            }
+            else if(buffer.hasArray()){
+                read = serialInterface.readAvailableArray(portHandle, buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+                buffer.position(buffer.position() + read);
+            }
+            else {
+                byte[] byteArray = serialInterface.readAvailable(portHandle, length);
+                read = byteArray.length;
+                buffer.put(byteArray);
+            }
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "readAvailable");
+        }
+        return read;
+    }
+
+    /**
+     * Read into a region of an existing array with a single call to the
+     * driver, which returns as the read mode of {@link #setReadMode(int, int, int)}
+     * decides. At most 4096 bytes are read per call.
+     *
+     * @param buffer array to read into
+     * @param offset index in <code>buffer</code> of the first byte to store
+     * @param length maximum count of bytes to read
+     *
+     * @return Method returns the count of bytes read, zero if the read mode let
+     * the driver return without data
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int readByMode(byte[] buffer, int offset, int length) throws SerialPortException {
+        checkPortOpened("readByMode()");
+        try {
+            return serialInterface.readArrayByMode(portHandle, buffer, offset, length, readMinBytes, readIdleDeciseconds);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "readByMode");
+        }
+    }
+
+    /**
+     * Read into the remaining space of a buffer with a single call to the
+     * driver, which returns as the read mode of {@link #setReadMode(int, int, int)}
+     * decides. A direct buffer is filled by the driver without any
+     * intermediate copy. The buffer position is advanced by the count of bytes read.
+     *
+     * @param buffer <code>ByteBuffer</code> to read into
+     *
+     * @return Method returns the count of bytes read, zero if the read mode let
+     * the driver return without data
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int readByMode(ByteBuffer buffer) throws SerialPortException {
+        checkPortOpened("readByMode()");
+        if(buffer.isReadOnly()){
+            throw new ReadOnlyBufferException();
+        }
+        int minBytes = readMinBytes;
+        int idleDeciseconds = readIdleDeciseconds;
+        int length = buffer.remaining();
+        int read;
+        try {
+            if(buffer.isDirect()){
+                read = serialInterface.readBufferByMode(portHandle, buffer, buffer.position(), length, minBytes, idleDeciseconds);
+                buffer.position(buffer.position() + read);
+            }
+            else if(buffer.hasArray()){
+                read = serialInterface.readArrayByMode(portHandle, buffer.array(), buffer.arrayOffset() + buffer.position(), length, minBytes, idleDeciseconds);
+                buffer.position(buffer.position() + read);
+            }
+            else {
+                byte[] byteArray = new byte[Math.min(length, DEFAULT_STREAM_BUFFER_SIZE)];
+                read = serialInterface.readArrayByMode(portHandle, byteArray, 0, byteArray.length, minBytes, idleDeciseconds);
+                buffer.put(byteArray, 0, read);
+            }
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "readByMode");
+        }
+        return read;
+    }
+
+    /**
+     * Wait at most <code>timeout</code> milliseconds for bytes to arrive, and
+     * read the bytes waiting into the remaining space of a buffer, with the
+     * time they were noticed. The time is taken natively as soon as the wait
+     * returns, so it doesn't include the delay until the thread runs again.
+     * On Windows the input buffer is sampled every millisecond. The buffer
+     * position is advanced by the count of bytes read.
+     *
+     * @param buffer <code>ByteBuffer</code> to read into
+     * @param timeout timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @return Method returns the count of bytes read, zero if the timeout elapsed,
+     * and the time of their arrival
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public SerialPortReadResult readTimestamped(ByteBuffer buffer, int timeout) throws SerialPortException {
+        checkPortOpened("readTimestamped()");
+        if(buffer.isReadOnly()){
+            throw new ReadOnlyBufferException();
+        }
+        long[] timestamp = new long[1];
+        int length = buffer.remaining();
+        int read;
+        try {
+            if(buffer.isDirect()){
+                read = serialInterface.readBufferTimestamped(portHandle, buffer, buffer.position(), length, timeout, timestamp);
+                buffer.position(buffer.position() + read);
+            }
+            else if(buffer.hasArray()){
+                read = serialInterface.readArrayTimestamped(portHandle, buffer.array(), buffer.arrayOffset() + buffer.position(), length, timeout, timestamp);
+                buffer.position(buffer.position() + read);
+            }
+            else {
+                byte[] byteArray = new byte[Math.min(length, DEFAULT_STREAM_BUFFER_SIZE)];
+                read = serialInterface.readArrayTimestamped(portHandle, byteArray, 0, byteArray.length, timeout, timestamp);
+                buffer.put(byteArray, 0, read);
+            }
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "readTimestamped");
+        }
+        return new SerialPortReadResult(read, timestamp[0]);
+    }
+
+    /**
+     * Returns a buffered <code>InputStream</code> reading from this port, with
+     * a buffer of 4096 bytes and no read timeout. See {@link #getInputStream(int, int)}.
+     *
+     * @return <code>InputStream</code> reading from this port
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public InputStream getInputStream() throws SerialPortException {
+        return getInputStream(DEFAULT_STREAM_BUFFER_SIZE, 0);
+    }
+
+    /**
+     * Returns a buffered <code>InputStream</code> reading from this port. Each
+     * refill of the buffer takes all bytes waiting in the driver with a single
+     * native call. <code>available()</code> reports the buffered bytes plus the
+     * bytes waiting in the driver. Closing the stream closes the port.
+     * <p>
+     * Every call returns a new stream with its own read-ahead buffer, so only
+     * one of them should be used at a time.
+     *
+     * @param bufferSize size of the read-ahead buffer in bytes
+     * @param readTimeout timeout in milliseconds a read waits for the first byte,
+     * <code>0</code> to wait forever. An elapsed timeout throws a
+     * {@link SerialPortTimeoutException}, and the bytes not written yet stay
+     * buffered for the next flush
+     *
+     * @return <code>InputStream</code> reading from this port
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public InputStream getInputStream(int bufferSize, int readTimeout) throws SerialPortException {
+        checkPortOpened("getInputStream()");
+        return new SerialPortInputStream(this, bufferSize, readTimeout);
+    }
+
+    /**
+     * Returns a buffered <code>OutputStream</code> writing to this port, with
+     * a buffer of 4096 bytes and no write timeout. See {@link #getOutputStream(int, int)}.
+     *
+     * @return <code>OutputStream</code> writing to this port
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public OutputStream getOutputStream() throws SerialPortException {
+        return getOutputStream(DEFAULT_STREAM_BUFFER_SIZE, 0);
+    }
+
+    /**
+     * Returns a buffered <code>OutputStream</code> writing to this port. Small
+     * writes are collected and handed to the port with a single native call on
+     * <code>flush()</code> or when the buffer is full. Closing the stream
+     * flushes it and closes the port.
+     *
+     * @param bufferSize size of the write buffer in bytes
+     * @param writeTimeout timeout in milliseconds for writing out the buffer,
+     * <code>0</code> to wait forever. An elapsed timeout throws a
+     * {@link SerialPortTimeoutException}, and the bytes not written yet stay
+     * buffered for the next flush
+     *
+     * @return <code>OutputStream</code> writing to this port
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public OutputStream getOutputStream(int bufferSize, int writeTimeout) throws SerialPortException {
+        checkPortOpened("getOutputStream()");
+        return new SerialPortOutputStream(this, bufferSize, writeTimeout);
+    }
+
+    /**
+     * Opens a <code>java.nio</code> channel reading from and writing to this
+     * port. Closing the channel closes the port. See {@link SerialPortChannel}.
+     *
+     * @return <code>SerialPortChannel</code> of this port
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public SerialPortChannel openChannel() throws SerialPortException {
+        checkPortOpened("openChannel()");
+        try {
+            return new SerialPortChannel(this, serialInterface, portHandle);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "openChannel");
+        }
+    }
+
+    /**
+     * Starts receiving continuously into an off-heap ring, drained by a
+     * native thread. Nothing else may read from the port until
+     * {@link #stopContinuousReceive()}. See {@link SerialPortReceiveRing}.
+     *
+     * @param capacity size of the ring in bytes, rounded up to a power of two
+     *
+     * @return the ring to read the received bytes from
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public synchronized SerialPortReceiveRing startContinuousReceive(int capacity) throws SerialPortException {
+        checkPortOpened("startContinuousReceive()");
+        if(capacity <= 0 || capacity > (1 << 30)){
+            throw new IllegalArgumentException("capacity: " + capacity);
+        }
+        if(receiveRing != null || (publisher != null && publisher.isActive())){
+            throw new SerialPortException(this, "startContinuousReceive()", SerialPortException.TYPE_RECEIVE_ALREADY_STARTED);
+        }
+        int ringCapacity = Integer.highestOneBit(capacity);
+        if(ringCapacity < capacity){
+            ringCapacity <<= 1;
+        }
+        try {
+            receiveRing = new SerialPortReceiveRing(this, serialInterface, portHandle, ringCapacity, eventChar);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "startContinuousReceive");
+        }
+        synchronized(eventWakeupLock){
+            if(eventWakeupHandle != 0){
+                receiveRing.setEventWakeup(eventWakeupHandle);
+            }
+        }
+        return receiveRing;
+    }
+
+    /**
+     * Opens a publisher of the received data, which reads the port as far as
+     * its subscriber requested. Nothing else may read from the port while
+     * the subscription lasts. See {@link SerialPortPublisher}.
+     *
+     * @param chunkSize maximum count of bytes per published buffer
+     *
+     * @return publisher of the received data
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public synchronized SerialPortPublisher openPublisher(int chunkSize) throws SerialPortException {
+        checkPortOpened("openPublisher()");
+        if(chunkSize <= 0){
+            throw new IllegalArgumentException("chunkSize: " + chunkSize);
+        }
+        if(receiveRing != null || (publisher != null && publisher.isActive())){
+            throw new SerialPortException(this, "openPublisher()", SerialPortException.TYPE_RECEIVE_ALREADY_STARTED);
+        }
+        publisher = new SerialPortPublisher(this, serialInterface, portHandle, chunkSize);
+        return publisher;
+    }
+
+    /**
+     * Stops receiving into the ring. The bytes already in the ring can still
+     * be read from it.
+     *
+     * @return If continuous receive was started, the method returns true, otherwise false
+     *
+     * @since 2.11.0
+     */
+    public synchronized boolean stopContinuousReceive() {
+        if(receiveRing == null){
+            return false;
+        }
+        receiveRing.stop();
+        receiveRing = null;
+        return true;
+    }
+
+    /**
+     * Registers this port with a selector, which then reports when the port
+     * gets ready for the operations in <code>ops</code>. Registering again
+     * updates the interest set and attachment of the existing key. Closing
+     * the port cancels its keys.
+     *
+     * @param selector selector to register with
+     * @param ops interest set, a combination of {@link SerialPortSelector#OP_READ},
+     * {@link SerialPortSelector#OP_WRITE}, {@link SerialPortSelector#OP_LINES} and
+     * {@link SerialPortSelector#OP_HANGUP}
+     * @param attachment object to attach to the key, may be <code>null</code>
+     *
+     * @return key of this port in the selector
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public SerialPortSelector.Key register(SerialPortSelector selector, int ops, Object attachment) throws SerialPortException {
+        checkPortOpened("register()");
+        try {
+            return selector.register(this, portHandle, ops, attachment);
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "register");
+        }
+    }
+
+    void rememberSelectorKey(SerialPortSelector.Key key) {
+        selectorKeys.add(key);
+    }
+
+    void forgetSelectorKey(SerialPortSelector.Key key) {
+        selectorKeys.remove(key);
+    }
+
+    /**
+     * Get count of bytes in input buffer
+     *
+     * @return Count of bytes in input buffer or -1 if error occured
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 0.8
+     */
+    public int getInputBufferBytesCount() throws SerialPortException {
+        checkPortOpened("getInputBufferBytesCount()");
+        try{
+            return serialInterface.getBuffersBytesCount(portHandle)[0];
+        }catch( IOException ex ){
+            throw SerialPortException.wrapNativeException(ex, this, "getInputBufferBytesCount");
+        }
+    }
+
+    /**
+     * Get count of bytes in output buffer
+     *
+     * @return Count of bytes in output buffer or -1 if error occured
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 0.8
      */
     public int getOutputBufferBytesCount() throws SerialPortException {
         checkPortOpened("getOutputBufferBytesCount()");
@@ -921,6 +1745,136 @@ public class SerialPort {
         return serialInterface.setFlowControlMode(portHandle, mask);
     }
 
+    /**
+     * Set the read mode, which decides when {@link #readByMode(ByteBuffer)}
+     * returns. On termios the kernel keeps it as <code>VMIN</code> and
+     * <code>VTIME</code>, so a thread reading a frame is woken once, when the
+     * frame is complete or the line went idle after it, instead of for every
+     * few bytes. On Windows the read timeouts are set for each read. The other
+     * read methods keep their own semantics in every mode.
+     * <ul>
+     * <li><code>READ_MODE_NON_BLOCKING</code> returns the bytes waiting at once</li>
+     * <li><code>READ_MODE_BLOCKING</code> waits for at least one byte</li>
+     * <li><code>READ_MODE_MIN_COUNT</code> waits for <code>minBytes</code> bytes</li>
+     * <li><code>READ_MODE_IDLE</code> waits for <code>minBytes</code> bytes, or
+     * after the first byte until no byte arrived for <code>idleDeciseconds</code></li>
+     * </ul>
+     * The blocking modes have no deadline; only data, or closing the port on
+     * some systems, ends the wait. The mode is kept until the port is closed,
+     * also over {@link #setParams(int, int, int, int)}.
+     *
+     * @param mode one of the <b>"READ_MODE_"</b> variables
+     * @param minBytes count of bytes to wait for, 1 to 255; ignored by the
+     * non-blocking and blocking modes
+     * @param idleDeciseconds inter-byte timeout in tenths of a second, 1 to 255;
+     * only used by <code>READ_MODE_IDLE</code>
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @throws SerialPortException if exception occurred
+     * @throws IllegalArgumentException if the mode is unknown or a value is out of range
+     *
+     * @since 2.11.0
+     */
+    public boolean setReadMode(int mode, int minBytes, int idleDeciseconds) throws SerialPortException {
+        int vmin;
+        int vtime = 0;
+        switch(mode){
+            case READ_MODE_NON_BLOCKING:
+                vmin = 0;
+                break;
+            case READ_MODE_BLOCKING:
+                vmin = 1;
+                break;
+            case READ_MODE_MIN_COUNT:
+                vmin = checkReadMinBytes(minBytes);
+                break;
+            case READ_MODE_IDLE:
+                if(idleDeciseconds < 1 || idleDeciseconds > 255){
+                    throw new IllegalArgumentException("idleDeciseconds: " + idleDeciseconds);
+                }
+                vmin = checkReadMinBytes(minBytes);
+                vtime = idleDeciseconds;
+                break;
+            default:
+                throw new IllegalArgumentException("mode: " + mode);
+        }
+        checkPortOpened("setReadMode()");
+        boolean result = serialInterface.setReadMode(portHandle, vmin, vtime);
+        if(result){
+            readMinBytes = vmin;
+            readIdleDeciseconds = vtime;
+            readMode = mode;
+        }
+        return result;
+    }
+
+    private static int checkReadMinBytes(int minBytes) {
+        if(minBytes < 1 || minBytes > 255){
+            throw new IllegalArgumentException("minBytes: " + minBytes);
+        }
+        return minBytes;
+    }
+
+    /**
+     * Getting the read mode of the last successful {@link #setReadMode(int, int, int)}
+     *
+     * @return one of the <b>"READ_MODE_"</b> variables
+     *
+     * @since 2.11.0
+     */
+    public int getReadMode() {
+        return readMode;
+    }
+
+    /**
+     * Switch the low latency optimizations of the driver on or off. Received
+     * bytes are otherwise held back for up to 16 ms by USB serial adapters, and
+     * by some UART drivers. On Linux this sets <code>ASYNC_LOW_LATENCY</code>
+     * of the serial driver, and the latency timer of USB serial adapters in
+     * sysfs (1 ms when on, back to the value found before when off or on
+     * closing), which usually needs write permission on
+     * <code>/sys/bus/usb-serial/devices/&lt;tty&gt;/latency_timer</code>.
+     * Other systems support none of these.
+     *
+     * @param enabled true to switch the optimizations on
+     *
+     * @return the optimizations which took effect, <code>LOW_LATENCY_DRIVER</code>
+     * and/or <code>LOW_LATENCY_USB_TIMER</code>, or <code>0</code> if none did
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public int setLowLatency(boolean enabled) throws SerialPortException {
+        checkPortOpened("setLowLatency()");
+        return serialInterface.setLowLatency(portHandle, enabled);
+    }
+
+    /**
+     * Set the event character, whose arrival raises a <code>MASK_RXFLAG</code>
+     * event. On Windows the driver detects it. Elsewhere the ring of
+     * {@link #startContinuousReceive(int)} does, so the event needs continuous
+     * receive and its value is {@link SerialPortReceiveRing#availableToEventChar()}.
+     *
+     * @param eventChar event character
+     *
+     * @return If the operation is successfully completed, the method returns true, otherwise false
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public boolean setEventChar(byte eventChar) throws SerialPortException {
+        checkPortOpened("setEventChar()");
+        this.eventChar = eventChar & 0xFF;
+        SerialPortReceiveRing ring = receiveRing;
+        if(ring != null){
+            ring.setEventChar(this.eventChar);
+        }
+        return serialInterface.setEventChar(portHandle, eventChar);
+    }
+
     /**
      * Reduce busy-waiting CPU load in {@link #waitEvents()}.
      *
@@ -950,6 +1904,11 @@ public class SerialPort {
      * serial-events (like 'DCD line changed' or 'RI line changed') by
      * the amount of time specified. So you have to decide yourself if
      * you can/will afford this trade.
+     *
+     * Since 2.11.0 the event listener thread no longer spins: it blocks in
+     * {@link SerialNativeInterface#awaitEvents(long, int, long, long, int, long[])} until
+     * input arrives or a line changes, so this setting only limits the
+     * time of a single wait.
      */
     public void setWaitEventsTimeoutMs(int waitEventsTimeoutMs) {
         if (waitEventsTimeoutMs <= 0 && waitEventsTimeoutMs != -1) {
@@ -988,10 +1947,6 @@ public class SerialPort {
         return serialInterface.sendBreak(portHandle, duration);
     }
 
-    private int[][] waitEvents() {
-        return serialInterface.waitEvents(portHandle, waitEventsTimeoutMs);
-    }
-
     /**
      * Check port opened (since jSSC-0.8 String "EMPTY" was replaced with "portName" variable)
      *
@@ -1021,6 +1976,78 @@ public class SerialPort {
         return serialInterface.getLinesStatus(portHandle);
     }
 
+    /**
+     * Wait until one of the modem lines in <code>mask</code> changes. The
+     * calling thread sleeps without using any CPU, while a helper thread
+     * started by the first call waits in the driver (<code>TIOCMIWAIT</code>)
+     * until the port is closed. Drivers without that support are sampled,
+     * first every millisecond, backing off to every 10 milliseconds.
+     * Not supported on Windows.
+     *
+     * @param mask <code>MASK_CTS</code>, <code>MASK_DSR</code>, <code>MASK_RING</code>
+     * and/or <code>MASK_RLSD</code>
+     * @param timeout timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @return Method returns the change, or <code>null</code> if the timeout elapsed
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public SerialPortLineChange awaitModemLineChange(int mask, int timeout) throws SerialPortException {
+        checkPortOpened("awaitModemLineChange()");
+        long[] lineChange = new long[SerialNativeInterface.LINE_CHANGE_SIZE];
+        LinesMonitor monitor = null;
+        try {
+            monitor = acquireLinesMonitor();
+            if(!serialInterface.awaitModemLineChange(portHandle, mask, monitor.handle, timeout, lineChange)){
+                return null;
+            }
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, this, "awaitModemLineChange");
+        } finally {
+            if(monitor != null){
+                releaseLinesMonitor(monitor);
+            }
+        }
+        return new SerialPortLineChange(lineChange);
+    }
+
+    private LinesMonitor acquireLinesMonitor() throws IOException {
+        synchronized(linesMonitorLock){
+            if(linesMonitor == null){
+                linesMonitor = new LinesMonitor(serialInterface.openLinesMonitor(portHandle));
+            }
+            linesMonitor.users++;
+            return linesMonitor;
+        }
+    }
+
+    private void releaseLinesMonitor(LinesMonitor monitor) {
+        synchronized(linesMonitorLock){
+            monitor.users--;
+            if(monitor.users == 0 && monitor.closed){
+                serialInterface.closeLinesMonitor(monitor.handle);
+            }
+        }
+    }
+
+    /**
+     * Releases the line monitor of the port, or leaves that to the last
+     * thread still waiting on it
+     */
+    private void closeLinesMonitor() {
+        synchronized(linesMonitorLock){
+            if(linesMonitor != null){
+                linesMonitor.closed = true;
+                if(linesMonitor.users == 0){
+                    serialInterface.closeLinesMonitor(linesMonitor.handle);
+                }
+                linesMonitor = null;
+            }
+        }
+    }
+
     /**
      * Get state of CTS line
      *
@@ -1120,6 +2147,62 @@ public class SerialPort {
         addEventListener(listener, mask, true);
     }
 
+    /**
+     * Add batch event listener. It receives all events of one wakeup of the
+     * event thread in a single call, instead of a <code>SerialPortEvent</code>
+     * per event. Otherwise the same as
+     * {@link #addEventListener(SerialPortEventListener, int)}.
+     *
+     * @param listener Event Listener of type <code>SerialPortBatchEventListener</code>
+     * @param mask <code>SerialPort.MASK_*</code> representing the event mask to listen upon
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @since 2.11.0
+     */
+    public void addEventListener(SerialPortBatchEventListener listener, int mask) throws SerialPortException {
+        addEventListener(listener, listener, mask, true);
+    }
+
+    /**
+     * Add event listener, which is called by an <code>Executor</code> instead
+     * of the event thread, so a slow listener doesn't delay the detection of
+     * further events. The events are delivered in order, one at a time. While
+     * 64 calls are pending, the
+     * event thread waits for the listener.
+     *
+     * @param listener Event Listener of type <code>SerialPortListener</code>
+     * @param mask <code>SerialPort.MASK_*</code> representing the event mask to listen upon
+     * @param executor executor calling the listener
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @see SerialPortExecutors
+     *
+     * @since 2.11.0
+     */
+    public void addEventListener(SerialPortEventListener listener, int mask, Executor executor) throws SerialPortException {
+        addEventListener(new ExecutorEventDispatcher(new EventListenerAdapter(listener), executor), listener, mask, true);
+    }
+
+    /**
+     * Add batch event listener, which is called by an <code>Executor</code>
+     * instead of the event thread
+     *
+     * @param listener Event Listener of type <code>SerialPortBatchEventListener</code>
+     * @param mask <code>SerialPort.MASK_*</code> representing the event mask to listen upon
+     * @param executor executor calling the listener
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @see #addEventListener(SerialPortEventListener, int, Executor)
+     *
+     * @since 2.11.0
+     */
+    public void addEventListener(SerialPortBatchEventListener listener, int mask, Executor executor) throws SerialPortException {
+        addEventListener(new ExecutorEventDispatcher(listener, executor), listener, mask, true);
+    }
+
     /**
      * Internal method. Add event listener. Object of <b>"SerialPortEventListener"</b> type shall be sent
      * to the method. This object shall be properly described, as it will be in
@@ -1138,9 +2221,13 @@ public class SerialPort {
      *
      * @throws SerialPortException if exception occurred
      */
-    private synchronized void addEventListener(SerialPortEventListener listener, int mask, boolean overwriteMask) throws SerialPortException {
+    private void addEventListener(SerialPortEventListener listener, int mask, boolean overwriteMask) throws SerialPortException {
+        addEventListener(new EventListenerAdapter(listener), listener, mask, overwriteMask);
+    }
+
+    private synchronized void addEventListener(SerialPortBatchEventListener listener, Object errorListener, int mask, boolean overwriteMask) throws SerialPortException {
         checkPortOpened("addEventListener()");
-        if(eventThread == null || !eventThread.isAlive()){
+        if((eventThread == null || !eventThread.isAlive()) && eventReactor == null){
             if((maskAssigned && overwriteMask) || !maskAssigned) {
                 setEventsMask(mask);
             }
@@ -1149,7 +2236,7 @@ public class SerialPort {
             eventThread.setName("EventThread " + portName);
             //since 2.2.0 ->
             try {
-                Method method = eventListener.getClass().getMethod("errorOccurred", new Class<?>[]{SerialPortException.class});
+                Method method = errorListener.getClass().getMethod("errorOccurred", new Class<?>[]{SerialPortException.class});
                 method.setAccessible(true);
                 methodErrorOccurred = method;
             }
@@ -1167,16 +2254,81 @@ public class SerialPort {
         }
     }
 
+    /**
+     * Add event listener, whose events are dispatched by a shared reactor
+     * instead of a dedicated thread of this port. The events are the same as
+     * with {@link #addEventListener(SerialPortEventListener, int)}.
+     *
+     * @param listener Event Listener of type <code>SerialPortListener</code>
+     * @param mask <code>SerialPort.MASK_*</code> representing the event mask to listen upon
+     * @param reactor reactor dispatching the events
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @see SerialPortEventReactor
+     *
+     * @since 2.11.0
+     */
+    public void addEventListener(SerialPortEventListener listener, int mask, SerialPortEventReactor reactor) throws SerialPortException {
+        addEventListener(new EventListenerAdapter(listener), mask, reactor);
+    }
+
+    /**
+     * Add batch event listener, whose events are dispatched by a shared reactor
+     * instead of a dedicated thread of this port.
+     *
+     * @param listener Event Listener of type <code>SerialPortBatchEventListener</code>
+     * @param mask <code>SerialPort.MASK_*</code> representing the event mask to listen upon
+     * @param reactor reactor dispatching the events
+     *
+     * @throws SerialPortException if exception occurred
+     *
+     * @see #addEventListener(SerialPortBatchEventListener, int)
+     *
+     * @since 2.11.0
+     */
+    public synchronized void addEventListener(SerialPortBatchEventListener listener, int mask, SerialPortEventReactor reactor) throws SerialPortException {
+        checkPortOpened("addEventListener()");
+        if((eventThread != null && eventThread.isAlive()) || eventReactor != null){
+            throw new SerialPortException(this, "addEventListener()", SerialPortException.TYPE_LISTENER_ALREADY_ADDED);
+        }
+        setEventsMask(mask);
+        eventListener = listener;
+        reactorEventState = new LinuxEventState();
+        try {
+            reactor.register(this, (mask & MASK_RXCHAR) != 0, (mask & ~MASK_RXCHAR) != 0);
+        } catch(IOException ex) {
+            reactorEventState = null;
+            throw SerialPortException.wrapNativeException(ex, this, "addEventListener");
+        }
+        eventReactor = reactor;
+    }
+
+    /**
+     * Dispatch the events occurred since the last call, for
+     * {@link SerialPortEventReactor} threads
+     */
+    void dispatchReactorEvents() {
+        LinuxEventState eventState = reactorEventState;
+        if(eventState != null && portOpened){
+            eventState.dispatch();
+        }
+    }
+
     /**
      * Create new EventListener Thread depending on the type of operating system
      *
      * @since 0.8
      */
-    private EventThread getNewEventThread() {
+    private EventThread getNewEventThread() throws SerialPortException {
         if(SerialNativeInterface.getOsType() == SerialNativeInterface.OS_LINUX ||
            SerialNativeInterface.getOsType() == SerialNativeInterface.OS_SOLARIS ||
            SerialNativeInterface.getOsType() == SerialNativeInterface.OS_MAC_OS_X){//since 0.9.0
-            return new LinuxEventThread();
+            try {
+                return new LinuxEventThread(serialInterface.createWakeupHandle());
+            } catch(IOException ex) {
+                throw SerialPortException.wrapNativeException(ex, this, "addEventListener");
+            }
         }
         return new EventThread();
     }
@@ -1190,6 +2342,16 @@ public class SerialPort {
      * @throws SerialPortException if exception occurred
      */
     public synchronized boolean removeEventListener() throws SerialPortException {
+        if(eventReactor != null){
+            reactorEventState.terminated = true;
+            reactorEventState = null;
+            eventReactor.unregister(this);
+            eventReactor = null;
+            if (portOpened) {
+                setEventsMask(0);
+            }
+            return true;
+        }
         if(eventThread == null || !eventThread.isAlive()){
             return false;
         }
@@ -1224,9 +2386,24 @@ public class SerialPort {
         boolean returnValue;
         //removeEventListener calls setEventsMask, and must occur before calling closePort
         try {
+            //The receiving and writing threads must be gone before their fd is closed
+            stopContinuousReceive();
+            if(publisher != null){
+                publisher.close();
+                publisher = null;
+            }
+            if(asyncWriter != null){
+                asyncWriter.close();
+                asyncWriter = null;
+            }
             removeEventListener();
         }
         finally {
+            //Selectors must forget the handle before it can be reused
+            for(SerialPortSelector.Key key : selectorKeys){
+                key.cancel();
+            }
+            closeLinesMonitor();
             if (portOpened) {
                 returnValue = serialInterface.closePort(portHandle);
                 if (returnValue) {
@@ -1241,33 +2418,123 @@ public class SerialPort {
     }
 
     private EventThread eventThread;
+    private SerialPortEventReactor eventReactor;
+    private volatile SerialPortReceiveRing receiveRing;
+    //Wakeup handle of the event thread, signalled by the receive ring on event characters.
+    //Not guarded by this, as removeEventListener() joins the event thread
+    private final Object eventWakeupLock = new Object();
+    private long eventWakeupHandle;
+    private volatile int eventChar = -1;
+    private volatile int baudRate;
+    private volatile int readMode = READ_MODE_NON_BLOCKING;
+    private volatile int readMinBytes;
+    private volatile int readIdleDeciseconds;
+    private SerialPortPublisher publisher;
+    private volatile AsyncWriter asyncWriter;
+    private volatile LinuxEventState reactorEventState;
+    private final List<SerialPortSelector.Key> selectorKeys = new CopyOnWriteArrayList<SerialPortSelector.Key>();
+    //Shared by the threads in awaitModemLineChange()
+    private final Object linesMonitorLock = new Object();
+    private LinesMonitor linesMonitor;
+
+    /**
+     * Native line monitor with the number of threads waiting on it
+     *
+     * @since 2.11.0
+     */
+    private static class LinesMonitor {
+
+        final long handle;
+        int users;
+        boolean closed;
+
+        LinesMonitor(long handle){
+            this.handle = handle;
+        }
+    }
+
+    /**
+     * Delivers the events of a batch one by one to a
+     * <code>SerialPortEventListener</code>
+     *
+     * @since 2.11.0
+     */
+    private static class EventListenerAdapter implements SerialPortBatchEventListener {
+
+        private final SerialPortEventListener listener;
+
+        EventListenerAdapter(SerialPortEventListener listener){
+            this.listener = listener;
+        }
+
+        @Override
+        public void serialEvents(SerialPort port, SerialPortEventBatch batch) {
+            for(int eventType : SerialPortEventBatch.EVENT_TYPES){
+                if(batch.contains(eventType)){
+                    listener.serialEvent(new SerialPortEvent(port, eventType, batch.getEventValue(eventType), batch.getTimestampNanos()));
+                }
+            }
+        }
+    }
 
     private class EventThread extends Thread {
 
-        private boolean threadTerminated = false;
+        private volatile boolean threadTerminated = false;
+        private final SerialPortEventBatch batch = new SerialPortEventBatch();
+        //Reused for every wait, so waiting for events doesn't allocate
+        private final int[] snapshot = new int[SerialNativeInterface.SNAPSHOT_SIZE];
         
         @Override
         public void run() {
             while(!threadTerminated){
-                int[][] eventArray = waitEvents();
-                for(int[] event : eventArray){
-                    if(event[0] > 0 && !threadTerminated){
-                        eventListener.serialEvent(new SerialPortEvent(SerialPort.this, event[0], event[1]));
-                        //FIXME
-                        /*if(methodErrorOccurred != null){
-                            try {
-                                methodErrorOccurred.invoke(eventListener, new Object[]{new SerialPortException(SerialPort.this, "method", "exception")});
-                            }
-                            catch (Exception ex) {
-                                System.out.println(ex);
-                            }
-                        }*/
-                    }
+                batch.clear();
+                if(serialInterface.waitEventsArray(portHandle, waitEventsTimeoutMs, snapshot)){
+                    addFiredEvents();
+                }
+                if(!batch.isEmpty() && !threadTerminated){
+                    eventListener.serialEvents(SerialPort.this, batch);
+                    //FIXME
+                    /*if(methodErrorOccurred != null){
+                        try {
+                            methodErrorOccurred.invoke(eventListener, new Object[]{new SerialPortException(SerialPort.this, "method", "exception")});
+                        }
+                        catch (Exception ex) {
+                            System.out.println(ex);
+                        }
+                    }*/
+                }
+            }
+        }
+
+        /**
+         * Rebuild the events which ended the wait, with the values
+         * <code>waitEvents()</code> reports for them
+         */
+        private void addFiredEvents() {
+            int fired = snapshot[SerialNativeInterface.SNAPSHOT_EVENTS];
+            batch.setTimestampNanos((long)snapshot[SerialNativeInterface.SNAPSHOT_TIMESTAMP_HIGH] << 32
+                    | snapshot[SerialNativeInterface.SNAPSHOT_TIMESTAMP_LOW] & 0xFFFFFFFFL);
+            for(int eventType : SerialPortEventBatch.EVENT_TYPES){
+                if((fired & eventType) == 0){
+                    continue;
+                }
+                int value;
+                switch(eventType){
+                    case MASK_CTS: value = snapshot[SerialNativeInterface.SNAPSHOT_CTS]; break;
+                    case MASK_DSR: value = snapshot[SerialNativeInterface.SNAPSHOT_DSR]; break;
+                    case MASK_RING: value = snapshot[SerialNativeInterface.SNAPSHOT_RING]; break;
+                    case MASK_RLSD: value = snapshot[SerialNativeInterface.SNAPSHOT_RLSD]; break;
+                    case MASK_ERR: value = snapshot[SerialNativeInterface.SNAPSHOT_ERRORS]; break;
+                    case MASK_RXCHAR:
+                    case MASK_RXFLAG: value = snapshot[SerialNativeInterface.SNAPSHOT_INPUT]; break;
+                    case MASK_TXEMPTY: value = snapshot[SerialNativeInterface.SNAPSHOT_OUTPUT]; break;
+                    default: value = 0;
                 }
+                batch.add(eventType, value);
             }
         }
 
-        private void terminateThread(){
+        void terminateThread(){
             threadTerminated = true;
         }
     }
@@ -1279,12 +2546,120 @@ public class SerialPort {
      */
     private class LinuxEventThread extends EventThread {
 
-        //Essential interruptions for events: BREAK, ERR, TXEMPTY
-        private final int INTERRUPT_BREAK = 512;
-        private final int INTERRUPT_TX = 1024;
-        private final int INTERRUPT_FRAME = 2048;
-        private final int INTERRUPT_OVERRUN = 4096;
-        private final int INTERRUPT_PARITY = 8192;
+        private final LinuxEventState eventState = new LinuxEventState();
+        private final long[] lineChange = new long[SerialNativeInterface.LINE_CHANGE_SIZE];
+        //Wakes up awaitEvents() on termination, released by the thread itself
+        private final long wakeupHandle;
+        private final Object wakeupLock = new Object();
+        private boolean wakeupClosed;
+        //Waits for modem line changes while the listener lives, opened once lines are in the mask
+        private long linesMonitor;
+        //A hung up port stays readable, so it is sampled instead of waited for
+        private boolean hungUp;
+
+        LinuxEventThread(long wakeupHandle){
+            this.wakeupHandle = wakeupHandle;
+        }
+
+        @Override
+        public void run() {
+            attachEventWakeup(wakeupHandle);
+            try {
+                long readyNanos = 0;
+                while(!super.threadTerminated){
+                    eventState.dispatch(readyNanos);
+                    if(super.threadTerminated){
+                        break;
+                    }
+                    int mask = getLinuxMask();
+                    if(linesMonitor == 0 && (mask & (MASK_CTS | MASK_DSR | MASK_RING | MASK_RLSD)) != 0){
+                        linesMonitor = serialInterface.openLinesMonitor(portHandle);
+                    }
+                    //Block until something may have changed, instead of spinning
+                    int ready;
+                    if(hungUp){
+                        ready = serialInterface.awaitEvents(portHandle, 0, wakeupHandle, 0, SerialPortEventReactor.SAMPLING_INTERVAL, lineChange);
+                    }
+                    else {
+                        ready = serialInterface.awaitEvents(portHandle, mask, wakeupHandle, linesMonitor, waitEventsTimeoutMs, lineChange);
+                        hungUp = (ready & SerialNativeInterface.AWAIT_HANGUP) != 0;
+                    }
+                    if((ready & SerialNativeInterface.AWAIT_LINES) != 0){
+                        eventState.dispatchPulses(lineChange);
+                    }
+                    //Bytes arriving after a sampling tick are timed by the snapshot
+                    readyNanos = (ready & SerialNativeInterface.AWAIT_READ) != 0 ? lineChange[SerialNativeInterface.LINE_CHANGE_READY_TIMESTAMP] : 0;
+                }
+            }
+            catch (IOException ex) {
+                //Port is gone, no more events
+            }
+            finally {
+                if(linesMonitor != 0){
+                    serialInterface.closeLinesMonitor(linesMonitor);
+                }
+                detachEventWakeup();
+                synchronized(wakeupLock){
+                    wakeupClosed = true;
+                    serialInterface.closeWakeupHandle(wakeupHandle);
+                }
+            }
+        }
+
+        @Override
+        void terminateThread(){
+            super.terminateThread();
+            eventState.terminated = true;
+            synchronized(wakeupLock){
+                if(!wakeupClosed){
+                    serialInterface.signalWakeupHandle(wakeupHandle);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lets the receive ring, current or started later, signal the wakeup
+     * handle of the event thread on event characters
+     */
+    private void attachEventWakeup(long wakeupHandle) {
+        synchronized(eventWakeupLock){
+            eventWakeupHandle = wakeupHandle;
+            SerialPortReceiveRing ring = receiveRing;
+            if(ring != null){
+                ring.setEventWakeup(wakeupHandle);
+            }
+        }
+    }
+
+    /**
+     * Makes sure the receive ring no longer uses the wakeup handle of the
+     * event thread, before it is closed
+     */
+    private void detachEventWakeup() {
+        synchronized(eventWakeupLock){
+            eventWakeupHandle = 0;
+            SerialPortReceiveRing ring = receiveRing;
+            if(ring != null){
+                ring.setEventWakeup(0);
+            }
+        }
+    }
+
+    //Lines in the order of the transition counts of a line change record
+    private static final int[] PULSE_LINES = {MASK_CTS, MASK_DSR, MASK_RING, MASK_RLSD};
+
+    /**
+     * Events of Linux OS are derived from the changes of interrupt counters
+     * and line states between two snapshots (<code>waitEventsArray()</code>)
+     *
+     * @since 2.11.0
+     */
+    private class LinuxEventState {
+
+        //Reused for every snapshot, so dispatching doesn't allocate
+        private final int[] snapshot = new int[SerialNativeInterface.SNAPSHOT_SIZE];
+        private final SerialPortEventBatch batch = new SerialPortEventBatch();
 
         //Count of interruptions
         private int interruptBreak;
@@ -1298,159 +2673,155 @@ public class SerialPort {
         private int preDSR;
         private int preRLSD;
         private int preRING;
+        //Previous states in the order of PULSE_LINES, reused by dispatchPulses()
+        private final int[] preLineValues = new int[PULSE_LINES.length];
+
+        //Event characters are counted by the receive ring, if any
+        private SerialPortReceiveRing eventRing;
+        private int preEventChars;
+
+        private volatile boolean terminated;
 
         //Need to get initial states
-        public LinuxEventThread(){
-            int[][] eventArray = serialInterface.waitEvents(portHandle, -1);
-            for(int[] event : eventArray){
-                int eventType = event[0];
-                int eventValue = event[1];
-                switch(eventType){
-                    case INTERRUPT_BREAK:
-                        interruptBreak = eventValue;
-                        break;
-                    case INTERRUPT_TX:
-                        interruptTX = eventValue;
-                        break;
-                    case INTERRUPT_FRAME:
-                        interruptFrame = eventValue;
-                        break;
-                    case INTERRUPT_OVERRUN:
-                        interruptOverrun = eventValue;
-                        break;
-                    case INTERRUPT_PARITY:
-                        interruptParity = eventValue;
-                        break;
-                    case MASK_CTS:
-                        preCTS = eventValue;
-                        break;
-                    case MASK_DSR:
-                        preDSR = eventValue;
-                        break;
-                    case MASK_RING:
-                        preRING = eventValue;
-                        break;
-                    case MASK_RLSD:
-                        preRLSD = eventValue;
-                        break;
+        LinuxEventState(){
+            eventRing = receiveRing;
+            preEventChars = eventRing != null ? eventRing.getEventCharCount() : 0;
+            serialInterface.waitEventsArray(portHandle, -1, snapshot);
+            interruptBreak = snapshot[SerialNativeInterface.SNAPSHOT_BREAK];
+            interruptTX = snapshot[SerialNativeInterface.SNAPSHOT_TX];
+            interruptFrame = snapshot[SerialNativeInterface.SNAPSHOT_FRAME];
+            interruptOverrun = snapshot[SerialNativeInterface.SNAPSHOT_OVERRUN];
+            interruptParity = snapshot[SerialNativeInterface.SNAPSHOT_PARITY];
+            preCTS = snapshot[SerialNativeInterface.SNAPSHOT_CTS];
+            preDSR = snapshot[SerialNativeInterface.SNAPSHOT_DSR];
+            preRING = snapshot[SerialNativeInterface.SNAPSHOT_RING];
+            preRLSD = snapshot[SerialNativeInterface.SNAPSHOT_RLSD];
+        }
+
+        /**
+         * A pulse shorter than the wakeup latency leaves its line as it was,
+         * so the next snapshot doesn't see it. Both edges are reported here.
+         */
+        void dispatchPulses(long[] lineChange) {
+            batch.setTimestampNanos(lineChange[SerialNativeInterface.LINE_CHANGE_TIMESTAMP]);
+            int mask = getLinuxMask();
+            int state = (int)lineChange[SerialNativeInterface.LINE_CHANGE_STATE];
+            preLineValues[0] = preCTS;
+            preLineValues[1] = preDSR;
+            preLineValues[2] = preRING;
+            preLineValues[3] = preRLSD;
+            for(int i = 0; i < PULSE_LINES.length; i++){
+                int line = PULSE_LINES[i];
+                int value = (state & line) != 0 ? 1 : 0;
+                if((mask & line) == line && lineChange[SerialNativeInterface.LINE_CHANGE_CTS + i] > 0 && value == preLineValues[i]){
+                    //A batch holds one value per type, so each edge gets its own
+                    sendEvent(line, 1 - value);
+                    flush();
+                    sendEvent(line, value);
+                    flush();
                 }
             }
         }
 
-        @Override
-        public void run() {
-            while(!super.threadTerminated){
-                int[][] eventArray = waitEvents();
-                int mask = getLinuxMask();
-                boolean interruptTxChanged = false;
-                int errorMask = 0;
-                for(int[] event : eventArray){
-                    boolean sendEvent = false;
-                    int eventType = event[0];
-                    int eventValue = event[1];
-                    if(eventType > 0 && !super.threadTerminated){
-                        switch(eventType){
-                            case INTERRUPT_BREAK:
-                                if(eventValue != interruptBreak){
-                                    interruptBreak = eventValue;
-                                    if((mask & MASK_BREAK) == MASK_BREAK){
-                                        eventType = MASK_BREAK;
-                                        eventValue = 0;
-                                        sendEvent = true;
-                                    }
-                                }
-                                break;
-                            case INTERRUPT_TX:
-                                if(eventValue != interruptTX){
-                                    interruptTX = eventValue;
-                                    interruptTxChanged = true;
-                                }
-                                break;
-                            case INTERRUPT_FRAME:
-                                if(eventValue != interruptFrame){
-                                    interruptFrame = eventValue;
-                                    errorMask |= ERROR_FRAME;
-                                }
-                                break;
-                            case INTERRUPT_OVERRUN:
-                                if(eventValue != interruptOverrun){
-                                    interruptOverrun = eventValue;
-                                    errorMask |= ERROR_OVERRUN;
-                                }
-                                break;
-                            case INTERRUPT_PARITY:
-                                if(eventValue != interruptParity){
-                                    interruptParity = eventValue;
-                                    errorMask |= ERROR_PARITY;
-                                }
-                                if((mask & MASK_ERR) == MASK_ERR && errorMask != 0){
-                                    eventType = MASK_ERR;
-                                    eventValue = errorMask;
-                                    sendEvent = true;
-                                }
-                                break;
-                            case MASK_CTS:
-                                if(eventValue != preCTS){
-                                    preCTS = eventValue;
-                                    if((mask & MASK_CTS) == MASK_CTS){
-                                        sendEvent = true;
-                                    }
-                                }
-                                break;
-                            case MASK_DSR:
-                                if(eventValue != preDSR){
-                                    preDSR = eventValue;
-                                    if((mask & MASK_DSR) == MASK_DSR){
-                                        sendEvent = true;
-                                    }
-                                }
-                                break;
-                            case MASK_RING:
-                                if(eventValue != preRING){
-                                    preRING = eventValue;
-                                    if((mask & MASK_RING) == MASK_RING){
-                                        sendEvent = true;
-                                    }
-                                }
-                                break;
-                            case MASK_RLSD: /*DCD*/
-                                if(eventValue != preRLSD){
-                                    preRLSD = eventValue;
-                                    if((mask & MASK_RLSD) == MASK_RLSD){
-                                        sendEvent = true;
-                                    }
-                                }
-                                break;
-                            case MASK_RXCHAR:
-                                if(((mask & MASK_RXCHAR) == MASK_RXCHAR) && (eventValue > 0)){
-                                    sendEvent = true;
-                                }
-                                break;
-                            /*case MASK_RXFLAG:
-                                //Do nothing at this moment
-                                if(((mask & MASK_RXFLAG) == MASK_RXFLAG) && (eventValue > 0)){
-                                    sendEvent = true;
-                                }
-                                break;*/
-                            case MASK_TXEMPTY:
-                                if(((mask & MASK_TXEMPTY) == MASK_TXEMPTY) && (eventValue == 0) && interruptTxChanged){
-                                    sendEvent = true;
-                                }
-                                break;
-                        }
-                        if(sendEvent){
-                            eventListener.serialEvent(new SerialPortEvent(SerialPort.this, eventType, eventValue));
-                        }
-                    }
-                }
-                //Need to sleep some time
-                try {
-                    Thread.sleep(0, 100);
+        /**
+         * Take a snapshot and send the events of the changes since the previous one
+         */
+        void dispatch() {
+            dispatch(0);
+        }
+
+        /**
+         * @param readyNanos time the wait for the events returned, or 0 to use the snapshot time
+         */
+        void dispatch(long readyNanos) {
+            if(!serialInterface.waitEventsArray(portHandle, -1, snapshot)){
+                return;
+            }
+            batch.setTimestampNanos(readyNanos != 0 ? readyNanos
+                    : (long)snapshot[SerialNativeInterface.SNAPSHOT_TIMESTAMP_HIGH] << 32
+                    | snapshot[SerialNativeInterface.SNAPSHOT_TIMESTAMP_LOW] & 0xFFFFFFFFL);
+            int mask = getLinuxMask();
+            boolean interruptTxChanged = false;
+            int errorMask = 0;
+
+            int value = snapshot[SerialNativeInterface.SNAPSHOT_BREAK];
+            if(value != interruptBreak){
+                interruptBreak = value;
+                if((mask & MASK_BREAK) == MASK_BREAK){
+                    sendEvent(MASK_BREAK, 0);
                 }
-                catch (Exception ex) {
-                    //Do nothing
+            }
+            value = snapshot[SerialNativeInterface.SNAPSHOT_TX];
+            if(value != interruptTX){
+                interruptTX = value;
+                interruptTxChanged = true;
+            }
+            value = snapshot[SerialNativeInterface.SNAPSHOT_FRAME];
+            if(value != interruptFrame){
+                interruptFrame = value;
+                errorMask |= ERROR_FRAME;
+            }
+            value = snapshot[SerialNativeInterface.SNAPSHOT_OVERRUN];
+            if(value != interruptOverrun){
+                interruptOverrun = value;
+                errorMask |= ERROR_OVERRUN;
+            }
+            value = snapshot[SerialNativeInterface.SNAPSHOT_PARITY];
+            if(value != interruptParity){
+                interruptParity = value;
+                errorMask |= ERROR_PARITY;
+            }
+            if((mask & MASK_ERR) == MASK_ERR && errorMask != 0){
+                sendEvent(MASK_ERR, errorMask);
+            }
+
+            preCTS = lineEvent(mask, MASK_CTS, preCTS, snapshot[SerialNativeInterface.SNAPSHOT_CTS]);
+            preDSR = lineEvent(mask, MASK_DSR, preDSR, snapshot[SerialNativeInterface.SNAPSHOT_DSR]);
+            preRING = lineEvent(mask, MASK_RING, preRING, snapshot[SerialNativeInterface.SNAPSHOT_RING]);
+            preRLSD = lineEvent(mask, MASK_RLSD, preRLSD, snapshot[SerialNativeInterface.SNAPSHOT_RLSD]);
+
+            value = snapshot[SerialNativeInterface.SNAPSHOT_INPUT];
+            if(((mask & MASK_RXCHAR) == MASK_RXCHAR) && (value > 0)){
+                sendEvent(MASK_RXCHAR, value);
+            }
+            SerialPortReceiveRing ring = receiveRing;
+            if(ring != eventRing){
+                //A new ring starts counting at 0
+                eventRing = ring;
+                preEventChars = 0;
+            }
+            if(ring != null){
+                value = ring.getEventCharCount();
+                if(value != preEventChars){
+                    preEventChars = value;
+                    if((mask & MASK_RXFLAG) == MASK_RXFLAG){
+                        sendEvent(MASK_RXFLAG, ring.availableToEventChar());
+                    }
                 }
             }
+            value = snapshot[SerialNativeInterface.SNAPSHOT_OUTPUT];
+            if(((mask & MASK_TXEMPTY) == MASK_TXEMPTY) && (value == 0) && interruptTxChanged){
+                sendEvent(MASK_TXEMPTY, value);
+            }
+            flush();
+        }
+
+        private int lineEvent(int mask, int line, int preValue, int value) {
+            if(value != preValue && (mask & line) == line){
+                sendEvent(line, value);
+            }
+            return value;
+        }
+
+        private void sendEvent(int eventType, int eventValue) {
+            batch.add(eventType, eventValue);
+        }
+
+        private void flush() {
+            if(!batch.isEmpty() && !terminated){
+                eventListener.serialEvents(SerialPort.this, batch);
+            }
+            batch.clear();
         }
     }
 }
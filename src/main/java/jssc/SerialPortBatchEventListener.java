@@ -0,0 +1,40 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+/**
+ * Listener receiving all events of one wakeup of the event thread in a single
+ * call, instead of a {@link SerialPortEvent} object per event.
+ * <p>
+ * The batch is owned by the port and reused for the next call, so it must
+ * not be kept or used after this method returned.
+ *
+ * @see SerialPort#addEventListener(SerialPortBatchEventListener, int)
+ *
+ * @since 2.11.0
+ */
+public interface SerialPortBatchEventListener {
+    /**
+     * Called when one or more events fire
+     *
+     * @param port port which the events occurred on
+     * @param batch types and values of the fired events
+     */
+    void serialEvents(SerialPort port, SerialPortEventBatch batch);
+}
@@ -0,0 +1,305 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.ScatteringByteChannel;
+import java.nio.channels.spi.AbstractInterruptibleChannel;
+
+/**
+ * Blocking <code>java.nio</code> channel on top of an opened {@link SerialPort}.
+ * <p>
+ * Direct buffers are handed to the driver without any intermediate copy, so
+ * the channel plugs into NIO pipelines like <code>Channels.newInputStream()</code>
+ * or <code>FileChannel.transferTo()</code>. A read returns as soon as at least one
+ * byte arrived, a write returns once all bytes were written. Once the port was
+ * hung up (like an unplugged USB adapter), reads return <code>-1</code> after
+ * the remaining bytes and writes fail.
+ * <p>
+ * The channel is interruptible: interrupting a thread blocked in a read or write,
+ * or closing the channel from another thread, wakes it up promptly. As required by
+ * <code>InterruptibleChannel</code>, this closes the channel and the port.
+ *
+ * @see SerialPort#openChannel()
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortChannel extends AbstractInterruptibleChannel
+        implements ByteChannel, ScatteringByteChannel, GatheringByteChannel {
+
+    /**
+     * Time slice of a single write attempt. Windows can't tell whether the
+     * driver accepts more bytes, so writes there wait a little before
+     * checking the wakeup handle again.
+     */
+    private static final int WRITE_TIMEOUT_MS = SerialNativeInterface.getOsType() == SerialNativeInterface.OS_WINDOWS ? 50 : 0;
+
+    private final SerialPort port;
+    private final SerialNativeInterface serialInterface;
+    private final long portHandle;
+    private final long wakeupHandle;
+    private final Object readLock = new Object();
+    private final Object writeLock = new Object();
+    private final Object stateLock = new Object();
+    private int pendingOperations;
+    private boolean released;
+
+    SerialPortChannel(SerialPort port, SerialNativeInterface serialInterface, long portHandle) throws IOException {
+        this.port = port;
+        this.serialInterface = serialInterface;
+        this.portHandle = portHandle;
+        this.wakeupHandle = serialInterface.createWakeupHandle();
+    }
+
+    /**
+     * Gets the port this channel reads from and writes to
+     *
+     * @return <code>SerialPort</code> object
+     */
+    public SerialPort getPort() {
+        return port;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        return (int)read(new ByteBuffer[]{dst}, 0, 1);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts) throws IOException {
+        return read(dsts, 0, dsts.length);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+        checkBounds(dsts.length, offset, length);
+        synchronized(readLock){
+            enterOperation();
+            long total = 0;
+            boolean completed = false;
+            boolean hungUp = false;
+            try {
+                begin();
+                while(true){
+                    boolean hasRemaining = false;
+                    for(int i = offset; i < offset + length; i++){
+                        ByteBuffer dst = dsts[i];
+                        if(dst.isReadOnly()){
+                            throw new IllegalArgumentException("Read-only buffer");
+                        }
+                        if(!dst.hasRemaining()){
+                            continue;
+                        }
+                        hasRemaining = true;
+                        try {
+                            total += readAvailable(dst);
+                        } catch(IOException ex) {
+                            //A hung up tty may fail to tell its input size
+                            if(!hungUp){
+                                throw ex;
+                            }
+                            break;
+                        }
+                        if(dst.hasRemaining()){
+                            break;
+                        }
+                    }
+                    if(total > 0 || !hasRemaining){
+                        completed = true;
+                        break;
+                    }
+                    if(hungUp){
+                        //Nothing left after the hangup, the port is at its end
+                        completed = true;
+                        total = -1;
+                        break;
+                    }
+                    int ready = serialInterface.awaitReady(portHandle, SerialNativeInterface.AWAIT_READ, wakeupHandle, -1);
+                    if((ready & SerialNativeInterface.AWAIT_WAKEUP) != 0){
+                        break;
+                    }
+                    //After a hangup, read what is left once more before reporting the end
+                    hungUp = (ready & SerialNativeInterface.AWAIT_HANGUP) != 0;
+                }
+            }
+            finally {
+                try {
+                    end(completed);
+                }
+                finally {
+                    leaveOperation();
+                }
+            }
+            return total;
+        }
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        return (int)write(new ByteBuffer[]{src}, 0, 1);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs) throws IOException {
+        return write(srcs, 0, srcs.length);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        checkBounds(srcs.length, offset, length);
+        synchronized(writeLock){
+            enterOperation();
+            long total = 0;
+            boolean completed = false;
+            try {
+                begin();
+                for(int i = offset; i < offset + length; i++){
+                    ByteBuffer src = srcs[i];
+                    while(src.hasRemaining()){
+                        int written = writeAvailable(src);
+                        total += written;
+                        if(written == 0){
+                            int ready = serialInterface.awaitReady(portHandle, SerialNativeInterface.AWAIT_WRITE, wakeupHandle, -1);
+                            if((ready & SerialNativeInterface.AWAIT_WAKEUP) != 0){
+                                return total;
+                            }
+                            if((ready & SerialNativeInterface.AWAIT_HANGUP) != 0){
+                                throw new IOException("Port hung up");
+                            }
+                        }
+                    }
+                }
+                completed = true;
+            }
+            finally {
+                try {
+                    end(completed);
+                }
+                finally {
+                    leaveOperation();
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Wakes up pending reads and writes. This may run on an interrupting thread
+     * which must not block, so the last pending operation releases the handles.
+     */
+    @Override
+    protected void implCloseChannel() throws IOException {
+        synchronized(stateLock){
+            if(released){
+                return;
+            }
+            serialInterface.signalWakeupHandle(wakeupHandle);
+            if(pendingOperations == 0){
+                release();
+            }
+        }
+    }
+
+    private void enterOperation() throws IOException {
+        if(isOpen() && !port.isOpened()){
+            // Port was closed directly, the channel can't be used any more
+            close();
+        }
+        synchronized(stateLock){
+            if(!isOpen()){
+                throw new ClosedChannelException();
+            }
+            pendingOperations++;
+        }
+    }
+
+    private void leaveOperation() throws IOException {
+        synchronized(stateLock){
+            pendingOperations--;
+            if(!isOpen() && pendingOperations == 0){
+                release();
+            }
+        }
+    }
+
+    private void release() throws IOException {
+        if(!released){
+            released = true;
+            serialInterface.closeWakeupHandle(wakeupHandle);
+            if(port.isOpened()){
+                port.closePort();
+            }
+        }
+    }
+
+    private static void checkBounds(int arrayLength, int offset, int length) {
+        if(offset < 0 || length < 0 || offset > arrayLength - length){
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Reads the bytes waiting in the driver without blocking and advances the
+     * buffer position.
+     */
+    private int readAvailable(ByteBuffer dst) throws IOException {
+        int length = dst.remaining();
+        int read;
+        if(dst.isDirect()){
+            read = serialInterface.readAvailableBuffer(portHandle, dst, dst.position(), length);
+            dst.position(dst.position() + read);
+        }
+        else if(dst.hasArray()){
+            read = serialInterface.readAvailableArray(portHandle, dst.array(), dst.arrayOffset() + dst.position(), length);
+            dst.position(dst.position() + read);
+        }
+        else {
+            byte[] byteArray = serialInterface.readAvailable(portHandle, length);
+            read = byteArray.length;
+            dst.put(byteArray);
+        }
+        return read;
+    }
+
+    /**
+     * Writes as many bytes as the driver accepts right now and advances the
+     * buffer position.
+     */
+    private int writeAvailable(ByteBuffer src) throws IOException {
+        int length = src.remaining();
+        int written;
+        if(src.isDirect()){
+            written = serialInterface.writeBufferFully(portHandle, src, src.position(), length, WRITE_TIMEOUT_MS);
+        }
+        else if(src.hasArray()){
+            written = serialInterface.writeArrayFully(portHandle, src.array(), src.arrayOffset() + src.position(), length, WRITE_TIMEOUT_MS);
+        }
+        else {
+            byte[] byteArray = new byte[length];
+            src.duplicate().get(byteArray);
+            written = serialInterface.writeArrayFully(portHandle, byteArray, 0, length, WRITE_TIMEOUT_MS);
+        }
+        src.position(src.position() + written);
+        return written;
+    }
+}
@@ -34,6 +34,7 @@ public class SerialPortEvent {
     private SerialPort port;
     private int eventType;
     private int eventValue;
+    private long timestampNanos;
 
     @Deprecated
     private String portName;
@@ -84,9 +85,25 @@ public class SerialPortEvent {
      * @see #getEventType()
      */
     public SerialPortEvent(SerialPort port, int eventType, int eventValue){
+        this(port, eventType, eventValue, System.nanoTime());
+    }
+
+    /**
+     * Constructs a SerialPortEvent representing a port, event type, event value
+     * and the time the event was noticed.
+     *
+     * @param port <code>SerialPort</code> object which the event occurred
+     * @param eventType Can be any value from <code>SerialPort.MASK_*</code>
+     * @param eventValue Event value which changes context depending on <code>getEventType()</code>
+     * @param timestampNanos time of the event, see {@link #getTimestampNanos()}
+     *
+     * @since 2.11.0
+     */
+    public SerialPortEvent(SerialPort port, int eventType, int eventValue, long timestampNanos){
         this.port = port;
         this.eventType = eventType;
         this.eventValue = eventValue;
+        this.timestampNanos = timestampNanos;
     }
 
     /**
@@ -104,6 +121,7 @@ public class SerialPortEvent {
         this.portName = portName;
         this.eventType = eventType;
         this.eventValue = eventValue;
+        this.timestampNanos = System.nanoTime();
     }
 
     /**
@@ -125,6 +143,20 @@ public class SerialPortEvent {
         return port.getPortName();
     }
 
+    /**
+     * Getting the time the event was noticed. On Linux it is taken natively as
+     * soon as the wait for events returns, from <code>CLOCK_MONOTONIC</code>,
+     * which is the clock of <code>System.nanoTime()</code>. Elsewhere it is
+     * <code>System.nanoTime()</code> when the driver reported the event.
+     *
+     * @return timestamp in nanoseconds
+     *
+     * @since 2.11.0
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
     /**
      * Getting event type
      *
@@ -140,7 +172,8 @@ public class SerialPortEvent {
      * <br>
      * <br><u><b>Event values depending on their types:</b></u>
      * <br><b>RXCHAR</b> - bytes count in input buffer
-     * <br><b>RXFLAG</b> - bytes count in input buffer (Not supported in Linux)
+     * <br><b>RXFLAG</b> - bytes count in input buffer (Linux and others: bytes
+     * count in the receive ring up to the last event character, see <code>SerialPort.setEventChar(byte)</code>)
      * <br><b>TXEMPTY</b> - bytes count in output buffer
      * <br><b>CTS</b> - state of CTS line (0 - OFF, 1 - ON)
      * <br><b>DSR</b> - state of DSR line (0 - OFF, 1 - ON)
@@ -0,0 +1,136 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+/**
+ * Events fired together, as passed to {@link SerialPortBatchEventListener}.
+ * Each <code>SerialPort.MASK_*</code> type is present at most once, with the
+ * same value as {@link SerialPortEvent#getEventValue()} would have.
+ * <p>
+ * Instances are reused by the port for the next batch.
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortEventBatch {
+
+    //Order in which the events are delivered to SerialPortEventListener
+    static final int[] EVENT_TYPES = {
+            SerialPort.MASK_BREAK, SerialPort.MASK_ERR, SerialPort.MASK_CTS,
+            SerialPort.MASK_DSR, SerialPort.MASK_RING, SerialPort.MASK_RLSD,
+            SerialPort.MASK_RXCHAR, SerialPort.MASK_RXFLAG, SerialPort.MASK_TXEMPTY};
+
+    private int eventTypes;
+    //Indexed by the bit number of the event type
+    private final int[] values = new int[32];
+    private long timestampNanos;
+
+    SerialPortEventBatch() {
+    }
+
+    void add(int eventType, int eventValue) {
+        eventTypes |= eventType;
+        values[Integer.numberOfTrailingZeros(eventType)] = eventValue;
+    }
+
+    void remove(int eventType) {
+        eventTypes &= ~eventType;
+    }
+
+    void clear() {
+        eventTypes = 0;
+    }
+
+    /**
+     * Adds the events of a later batch. The later values win, as they are
+     * levels, except for the error flags of <code>MASK_ERR</code>, which add up.
+     */
+    void merge(SerialPortEventBatch batch) {
+        int errors = contains(SerialPort.MASK_ERR) ? getEventValue(SerialPort.MASK_ERR) : 0;
+        for(int types = batch.eventTypes; types != 0; types &= types - 1){
+            int eventType = Integer.lowestOneBit(types);
+            add(eventType, batch.values[Integer.numberOfTrailingZeros(eventType)]);
+        }
+        if(batch.contains(SerialPort.MASK_ERR)){
+            values[Integer.numberOfTrailingZeros(SerialPort.MASK_ERR)] |= errors;
+        }
+    }
+
+    void setTimestampNanos(long timestampNanos) {
+        this.timestampNanos = timestampNanos;
+    }
+
+    void set(SerialPortEventBatch batch) {
+        eventTypes = batch.eventTypes;
+        timestampNanos = batch.timestampNanos;
+        System.arraycopy(batch.values, 0, values, 0, values.length);
+    }
+
+    /**
+     * Gets the types of the fired events
+     *
+     * @return combination of <code>SerialPort.MASK_*</code> values
+     */
+    public int getEventTypes() {
+        return eventTypes;
+    }
+
+    /**
+     * Checks whether an event of a type fired
+     *
+     * @param eventType one <code>SerialPort.MASK_*</code> value
+     * @return true or false
+     */
+    public boolean contains(int eventType) {
+        return eventType != 0 && (eventTypes & eventType) == eventType;
+    }
+
+    /**
+     * Gets the value of an event, see {@link SerialPortEvent#getEventValue()}
+     *
+     * @param eventType one <code>SerialPort.MASK_*</code> value
+     * @return value of the event
+     *
+     * @throws IllegalArgumentException if no such event fired
+     */
+    public int getEventValue(int eventType) {
+        if(Integer.bitCount(eventType) != 1 || !contains(eventType)){
+            throw new IllegalArgumentException("Event did not fire: " + eventType);
+        }
+        return values[Integer.numberOfTrailingZeros(eventType)];
+    }
+
+    /**
+     * Gets the time at which the events were noticed, see
+     * {@link SerialPortEvent#getTimestampNanos()}
+     *
+     * @return timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+
+    /**
+     * Checks whether no event fired
+     *
+     * @return true or false
+     */
+    public boolean isEmpty() {
+        return eventTypes == 0;
+    }
+}
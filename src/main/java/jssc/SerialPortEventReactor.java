@@ -0,0 +1,207 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches the events of many serial ports with a fixed count of threads.
+ * <p>
+ * By default every port with an event listener gets its own event thread.
+ * Ports added with
+ * {@link SerialPort#addEventListener(SerialPortEventListener, int, SerialPortEventReactor)}
+ * instead share the threads of a reactor. Each thread owns a shard of the
+ * ports and waits for incoming bytes of all of them in a single
+ * {@link SerialPortSelector}. Events without readiness notification (line
+ * changes, errors, break and empty output buffer) are sampled every
+ * {@value #SAMPLING_INTERVAL} milliseconds for the ports listening to them.
+ * <p>
+ * Listeners are called on the reactor threads, so they should not block for
+ * long: they delay the events of all ports of the shard.
+ * <p>
+ * Reactors are only supported on Linux.
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortEventReactor implements Closeable {
+
+    /**
+     * Sampling interval of events without readiness notification in milliseconds
+     */
+    public static final int SAMPLING_INTERVAL = 10;
+
+    private final Shard[] shards;
+    private final Map<SerialPort, Shard> shardOfPort = new HashMap<SerialPort, Shard>();
+    private boolean closed;
+
+    /**
+     * Starts a reactor
+     *
+     * @param threadCount count of dispatching threads
+     *
+     * @throws IOException if the selectors can't be created
+     * @throws UnsupportedOperationException if the platform doesn't support selectors
+     */
+    public SerialPortEventReactor(int threadCount) throws IOException {
+        if(threadCount < 1){
+            throw new IllegalArgumentException("threadCount must be positive: " + threadCount);
+        }
+        shards = new Shard[threadCount];
+        boolean started = false;
+        try {
+            for(int i = 0; i < threadCount; i++){
+                shards[i] = new Shard(new SerialPortSelector());
+                shards[i].setName("SerialPortEventReactor " + i);
+                shards[i].setDaemon(true);
+                shards[i].start();
+            }
+            started = true;
+        }
+        finally {
+            if(!started){
+                close();
+            }
+        }
+    }
+
+    /**
+     * Stops the reactor threads. Listeners of registered ports aren't called
+     * any more, the ports stay opened.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for(Shard shard : shards){
+            if(shard != null){
+                shard.terminate();
+            }
+        }
+        shardOfPort.clear();
+    }
+
+    synchronized void register(SerialPort port, boolean readable, boolean sampled) throws IOException {
+        if(closed){
+            throw new IllegalStateException("Reactor is closed");
+        }
+        Shard shard = shards[0];
+        for(Shard candidate : shards){
+            if(candidate.portCount < shard.portCount){
+                shard = candidate;
+            }
+        }
+        if(readable){
+            port.register(shard.selector, SerialPortSelector.OP_READ, null);
+        }
+        if(sampled){
+            shard.sampledPorts.add(port);
+        }
+        shard.portCount++;
+        shardOfPort.put(port, shard);
+        shard.selector.wakeup();
+    }
+
+    synchronized void unregister(SerialPort port) {
+        Shard shard = shardOfPort.remove(port);
+        if(shard != null){
+            shard.portCount--;
+            shard.sampledPorts.remove(port);
+            for(SerialPortSelector.Key key : shard.selector.keys()){
+                if(key.port() == port){
+                    key.cancel();
+                }
+            }
+        }
+    }
+
+    private synchronized void sampleInstead(Shard shard, SerialPort port) {
+        if(shardOfPort.get(port) == shard && !shard.sampledPorts.contains(port)){
+            shard.sampledPorts.add(port);
+        }
+    }
+
+    private final class Shard extends Thread {
+
+        private final SerialPortSelector selector;
+        private final List<SerialPort> sampledPorts = new CopyOnWriteArrayList<SerialPort>();
+        private int portCount;
+        private volatile boolean terminated;
+
+        private Shard(SerialPortSelector selector) {
+            this.selector = selector;
+        }
+
+        @Override
+        public void run() {
+            long nextSampling = System.nanoTime();
+            while(!terminated){
+                try {
+                    int timeout = -1;
+                    if(!sampledPorts.isEmpty()){
+                        timeout = (int)Math.max(0, TimeUnit.NANOSECONDS.toMillis(nextSampling - System.nanoTime()));
+                    }
+                    selector.select(timeout);
+                    for(SerialPortSelector.Key key : selector.selectedKeys()){
+                        if(key.isHangup()){
+                            // Hung up ports stay readable, sample them instead of spinning
+                            key.cancel();
+                            sampleInstead(this, key.port());
+                        }
+                        dispatch(key.port());
+                    }
+                    if(!sampledPorts.isEmpty() && System.nanoTime() - nextSampling >= 0){
+                        for(SerialPort port : sampledPorts){
+                            dispatch(port);
+                        }
+                        nextSampling = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SAMPLING_INTERVAL);
+                    }
+                }
+                catch (IOException ex) {
+                    if(!terminated){
+                        getUncaughtExceptionHandler().uncaughtException(this, ex);
+                    }
+                    break;
+                }
+                catch (IllegalStateException ex) {
+                    //Selector closed by terminate()
+                }
+            }
+        }
+
+        private void dispatch(SerialPort port) {
+            try {
+                port.dispatchReactorEvents();
+            }
+            catch (RuntimeException ex) {
+                // A failing listener must not stop the events of the other ports
+                getUncaughtExceptionHandler().uncaughtException(this, ex);
+            }
+        }
+
+        private void terminate() {
+            terminated = true;
+            selector.close();
+        }
+    }
+}
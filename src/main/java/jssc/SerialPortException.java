@@ -60,6 +60,10 @@ public class SerialPortException extends IOException {
      * @since 2.3.0
      */
     final public static String TYPE_INCORRECT_SERIAL_PORT = "Incorrect serial port";
+    /**
+     * @since 2.11.0
+     */
+    final public static String TYPE_RECEIVE_ALREADY_STARTED = "Continuous receive already started";
 
     /** Exception occurred in native code */
     final public static String TYPE_NATIVE_EXCEPTION = "Native exception occurred: %s";
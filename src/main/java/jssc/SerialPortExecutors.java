@@ -0,0 +1,69 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for delivering events with
+ * {@link SerialPort#addEventListener(SerialPortEventListener, int, java.util.concurrent.Executor)}
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortExecutors {
+
+    private SerialPortExecutors() {
+    }
+
+    /**
+     * Creates an executor running each listener call in a virtual thread on
+     * JDK 21 and later, and in a pool of daemon threads otherwise
+     *
+     * @return new executor, to be shut down by the caller
+     */
+    public static ExecutorService newEventExecutor() {
+        ExecutorService executor = VirtualThreads.newExecutor();
+        if(executor != null){
+            return executor;
+        }
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return newEventExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "EventDispatchThread " + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Creates an executor running listener calls in a pool of threads,
+     * which are created on demand and end after a minute of idling
+     *
+     * @param threadFactory factory of the threads
+     * @return new executor, to be shut down by the caller
+     */
+    public static ExecutorService newEventExecutor(ThreadFactory threadFactory) {
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Buffered <code>InputStream</code> reading from a {@link SerialPort}. Every
+ * refill fetches all bytes waiting in the driver with a single native call, so
+ * byte-wise consumers like <code>DataInputStream</code> don't cross JNI per byte.
+ *
+ * @see SerialPort#getInputStream(int, int)
+ *
+ * @since 2.11.0
+ */
+class SerialPortInputStream extends InputStream {
+
+    private final SerialPort port;
+    private final byte[] buffer;
+    private final int readTimeout;
+    private int position;
+    private int limit;
+
+    SerialPortInputStream(SerialPort port, int bufferSize, int readTimeout) {
+        if(bufferSize <= 0){
+            throw new IllegalArgumentException("bufferSize " + bufferSize + " must be positive");
+        }
+        if(readTimeout < 0){
+            throw new IllegalArgumentException("readTimeout " + readTimeout + " must not be negative");
+        }
+        this.port = port;
+        this.buffer = new byte[bufferSize];
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if(position == limit){
+            limit = receive(buffer, 0, buffer.length);
+            position = 0;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if(off < 0 || len < 0 || len > b.length - off){
+            throw new IndexOutOfBoundsException();
+        }
+        if(len == 0){
+            return 0;
+        }
+        if(position == limit){
+            if(len >= buffer.length){
+                // Large reads bypass the buffer
+                return receive(b, off, len);
+            }
+            limit = receive(buffer, 0, buffer.length);
+            position = 0;
+        }
+        int count = Math.min(len, limit - position);
+        System.arraycopy(buffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (limit - position) + port.getInputBufferBytesCount();
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if(n <= 0){
+            return 0;
+        }
+        if(position == limit){
+            limit = receive(buffer, 0, buffer.length);
+            position = 0;
+        }
+        int count = (int)Math.min(n, limit - position);
+        position += count;
+        return count;
+    }
+
+    /**
+     * Closes the stream together with the port, like the streams of a
+     * <code>java.net.Socket</code> do.
+     */
+    @Override
+    public void close() throws IOException {
+        if(port.isOpened()){
+            port.closePort();
+        }
+    }
+
+    /**
+     * Blocks until at least one byte arrived (or the read timeout elapsed),
+     * then takes everything else which is already waiting.
+     */
+    private int receive(byte[] b, int off, int len) throws IOException {
+        int count = port.readAvailable(b, off, len);
+        if(count > 0){
+            return count;
+        }
+        if(readTimeout == 0){
+            port.readBytes(b, off, 1);
+        }
+        else {
+            port.readBytes(b, off, 1, readTimeout);
+        }
+        return 1 + port.readAvailable(b, off + 1, len - 1);
+    }
+}
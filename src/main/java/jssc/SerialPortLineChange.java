@@ -0,0 +1,105 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+/**
+ * Change of modem lines, as reported by
+ * {@link SerialPort#awaitModemLineChange(int, int)}.
+ * <p>
+ * Transitions are counted by the driver where it supports it, so pulses
+ * which are over before the waiting thread wakes up are still reported.
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortLineChange {
+
+    private static final int[] LINES = {SerialPort.MASK_CTS, SerialPort.MASK_DSR, SerialPort.MASK_RING, SerialPort.MASK_RLSD};
+
+    private final int changedLines;
+    private final int linesState;
+    private final long[] transitions = new long[LINES.length];
+    private final long timestampNanos;
+
+    SerialPortLineChange(long[] lineChange) {
+        changedLines = (int)lineChange[SerialNativeInterface.LINE_CHANGE_LINES];
+        linesState = (int)lineChange[SerialNativeInterface.LINE_CHANGE_STATE];
+        timestampNanos = lineChange[SerialNativeInterface.LINE_CHANGE_TIMESTAMP];
+        System.arraycopy(lineChange, SerialNativeInterface.LINE_CHANGE_CTS, transitions, 0, LINES.length);
+    }
+
+    /**
+     * Gets the lines which changed
+     *
+     * @return combination of <code>SerialPort.MASK_CTS</code>, <code>MASK_DSR</code>,
+     * <code>MASK_RING</code> and <code>MASK_RLSD</code>
+     */
+    public int getChangedLines() {
+        return changedLines;
+    }
+
+    /**
+     * Checks whether a line changed
+     *
+     * @param line one of <code>SerialPort.MASK_CTS</code>, <code>MASK_DSR</code>,
+     * <code>MASK_RING</code> or <code>MASK_RLSD</code>
+     *
+     * @return <code>true</code> if the line had at least one transition
+     */
+    public boolean isChanged(int line) {
+        return (changedLines & line) != 0;
+    }
+
+    /**
+     * Gets how often a line changed. An even count means that the line is
+     * back in its previous state.
+     *
+     * @param line one of <code>SerialPort.MASK_CTS</code>, <code>MASK_DSR</code>,
+     * <code>MASK_RING</code> or <code>MASK_RLSD</code>
+     *
+     * @return count of transitions
+     */
+    public long getTransitionCount(int line) {
+        for(int i = 0; i < LINES.length; i++){
+            if(LINES[i] == line){
+                return transitions[i];
+            }
+        }
+        throw new IllegalArgumentException("Not a modem line: " + line);
+    }
+
+    /**
+     * Gets the state of the lines after the change
+     *
+     * @return combination of the <code>SerialPort.MASK_*</code> flags of the lines being on
+     */
+    public int getLinesState() {
+        return linesState;
+    }
+
+    /**
+     * Gets the time of the change, taken as soon as the waiting thread woke up.
+     * The clock is <code>CLOCK_MONOTONIC</code>, which is the clock of
+     * <code>System.nanoTime()</code> on Linux.
+     *
+     * @return timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Buffered <code>OutputStream</code> writing to a {@link SerialPort}. Small
+ * writes are coalesced and handed to the port in one native call on
+ * {@link #flush()} or when the buffer is full. When the write timeout
+ * elapses, the bytes not written yet stay buffered for the next flush.
+ *
+ * @see SerialPort#getOutputStream(int, int)
+ *
+ * @since 2.11.0
+ */
+class SerialPortOutputStream extends OutputStream {
+
+    private final SerialPort port;
+    private final byte[] buffer;
+    private final int writeTimeout;
+    private int count;
+
+    SerialPortOutputStream(SerialPort port, int bufferSize, int writeTimeout) {
+        if(bufferSize <= 0){
+            throw new IllegalArgumentException("bufferSize " + bufferSize + " must be positive");
+        }
+        if(writeTimeout < 0){
+            throw new IllegalArgumentException("writeTimeout " + writeTimeout + " must not be negative");
+        }
+        this.port = port;
+        this.buffer = new byte[bufferSize];
+        this.writeTimeout = writeTimeout;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if(count == buffer.length){
+            flushBuffer();
+        }
+        buffer[count++] = (byte)b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if(off < 0 || len < 0 || len > b.length - off){
+            throw new IndexOutOfBoundsException();
+        }
+        if(len >= buffer.length){
+            // Large writes bypass the buffer
+            flushBuffer();
+            port.writeFully(b, off, len, writeTimeout == 0 ? -1 : writeTimeout);
+            return;
+        }
+        if(len > buffer.length - count){
+            flushBuffer();
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+    }
+
+    /**
+     * Flushes pending bytes and closes the port, like the streams of a
+     * <code>java.net.Socket</code> do.
+     */
+    @Override
+    public void close() throws IOException {
+        if(port.isOpened()){
+            try {
+                flushBuffer();
+            }
+            finally {
+                port.closePort();
+            }
+        }
+    }
+
+    /**
+     * Writes the buffered bytes. If the timeout elapses, the bytes not
+     * written yet stay buffered, so the next flush continues with them.
+     */
+    private void flushBuffer() throws IOException {
+        if(count > 0){
+            try {
+                port.writeFully(buffer, 0, count, writeTimeout == 0 ? -1 : writeTimeout);
+            }
+            catch(SerialPortTimeoutException ex) {
+                int written = ex.getBytesTransferred();
+                System.arraycopy(buffer, written, buffer, 0, count - written);
+                count -= written;
+                throw ex;
+            }
+            count = 0;
+        }
+    }
+}
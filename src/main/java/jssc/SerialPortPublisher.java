@@ -0,0 +1,295 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes the data received by a port to a subscriber, following the
+ * Reactive Streams rules. The interfaces below have the same shape as the
+ * ones of Reactive Streams and <code>java.util.concurrent.Flow</code>, so
+ * adapting them takes one line per method; on Java 9 and later
+ * {@link #asFlowPublisher()} does it for <code>Flow</code>.
+ * <p>
+ * The port is only read while the subscriber requested more buffers. Once
+ * the demand is used up, the received bytes stay with the driver, so with
+ * <code>FLOWCONTROL_RTSCTS_IN</code> the sender gets throttled instead of
+ * data being buffered without bound.
+ * <p>
+ * There is one subscriber per publisher, called by a thread of its own.
+ * Every buffer passed to {@link Subscriber#onNext(ByteBuffer)} is new and
+ * holds at most the chunk size given to {@link SerialPort#openPublisher(int)}.
+ * Closing the port completes the subscriber.
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortPublisher {
+
+    /**
+     * Receiver of the data, see <code>org.reactivestreams.Subscriber</code>
+     */
+    public interface Subscriber {
+        /**
+         * Called once, before any other method
+         *
+         * @param subscription subscription to request data with
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Called for received data, at most as often as requested
+         *
+         * @param buffer received bytes, between position and limit
+         */
+        void onNext(ByteBuffer buffer);
+
+        /**
+         * Called once if receiving failed, no method is called afterwards
+         *
+         * @param failure cause of the failure
+         */
+        void onError(Throwable failure);
+
+        /**
+         * Called once if the port was closed or hung up, no method is called afterwards
+         */
+        void onComplete();
+    }
+
+    /**
+     * Demand of a subscriber, see <code>org.reactivestreams.Subscription</code>
+     */
+    public interface Subscription {
+        /**
+         * Allows <code>count</code> more calls of {@link Subscriber#onNext(ByteBuffer)}
+         *
+         * @param count positive count of buffers
+         */
+        void request(long count);
+
+        /**
+         * Stops receiving, eventually
+         */
+        void cancel();
+    }
+
+    private static final int RUNNING = 0;
+    private static final int CANCELLED = 1;
+    private static final int CLOSED = 2;
+
+    private final SerialPort port;
+    private final SerialNativeInterface serialInterface;
+    private final long portHandle;
+    private final int chunkSize;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+    private final AtomicLong demand = new AtomicLong();
+    private volatile int state = RUNNING;
+    private volatile Throwable requestFailure;
+    private volatile Thread thread;
+    //Aborts awaitReady() on cancel and close, released by the thread itself
+    private long wakeupHandle;
+    private final Object wakeupLock = new Object();
+    private boolean wakeupClosed;
+
+    SerialPortPublisher(SerialPort port, SerialNativeInterface serialInterface, long portHandle, int chunkSize) {
+        this.port = port;
+        this.serialInterface = serialInterface;
+        this.portHandle = portHandle;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Adapts this publisher to <code>java.util.concurrent.Flow</code>. The
+     * result is a <code>Flow.Publisher&lt;ByteBuffer&gt;</code>, typed as
+     * <code>Object</code> as this API also runs on Java versions without
+     * <code>Flow</code>.
+     *
+     * @return this publisher as a <code>Flow.Publisher&lt;ByteBuffer&gt;</code>
+     *
+     * @throws UnsupportedOperationException before Java 9
+     */
+    public Object asFlowPublisher() {
+        return FlowPublishers.adapt(this);
+    }
+
+    /**
+     * Subscribes to the received data. A second subscriber gets an
+     * <code>IllegalStateException</code> via {@link Subscriber#onError(Throwable)}.
+     *
+     * @param subscriber receiver of the data
+     */
+    public void subscribe(final Subscriber subscriber) {
+        if(subscriber == null){
+            throw new NullPointerException("subscriber");
+        }
+        if(!subscribed.compareAndSet(false, true)){
+            subscriber.onSubscribe(new SubscriptionImpl());
+            subscriber.onError(new IllegalStateException("Publisher supports only one subscriber"));
+            return;
+        }
+        if(state != RUNNING){
+            subscriber.onSubscribe(new SubscriptionImpl());
+            subscriber.onComplete();
+            return;
+        }
+        try {
+            wakeupHandle = serialInterface.createWakeupHandle();
+        } catch(IOException ex) {
+            state = CANCELLED;
+            subscriber.onSubscribe(new SubscriptionImpl());
+            subscriber.onError(SerialPortException.wrapNativeException(ex, port, "subscribe"));
+            return;
+        }
+        Thread receiver = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                receive(subscriber);
+            }
+        }, "ReceiveThread " + port.getPortName());
+        receiver.setDaemon(true);
+        thread = receiver;
+        subscriber.onSubscribe(new SubscriptionImpl());
+        receiver.start();
+    }
+
+    private void receive(Subscriber subscriber) {
+        try {
+            while(state == RUNNING){
+                Throwable failure = requestFailure;
+                if(failure != null){
+                    state = CANCELLED;
+                    subscriber.onError(failure);
+                    return;
+                }
+                if(demand.get() == 0){
+                    //Leave the data to the driver and flow control
+                    LockSupport.park(this);
+                    continue;
+                }
+                int ready = serialInterface.awaitReady(portHandle, SerialNativeInterface.AWAIT_READ, wakeupHandle, -1);
+                if((ready & SerialNativeInterface.AWAIT_WAKEUP) != 0){
+                    continue;
+                }
+                byte[] chunk = new byte[chunkSize];
+                int read = serialInterface.readAvailableArray(portHandle, chunk, 0, chunkSize);
+                if(read > 0){
+                    if(demand.get() != Long.MAX_VALUE){
+                        demand.decrementAndGet();
+                    }
+                    subscriber.onNext(ByteBuffer.wrap(chunk, 0, read));
+                }
+                else if((ready & SerialNativeInterface.AWAIT_HANGUP) != 0){
+                    state = CLOSED;
+                    break;
+                }
+            }
+            if(state == CLOSED){
+                subscriber.onComplete();
+            }
+        } catch(IOException ex) {
+            if(state == RUNNING){
+                state = CANCELLED;
+                subscriber.onError(SerialPortException.wrapNativeException(ex, port, "receive"));
+            }
+            else if(state == CLOSED){
+                subscriber.onComplete();
+            }
+        } finally {
+            synchronized(wakeupLock){
+                wakeupClosed = true;
+                serialInterface.closeWakeupHandle(wakeupHandle);
+            }
+        }
+    }
+
+    private void stop(int newState) {
+        synchronized(wakeupLock){
+            if(state != RUNNING){
+                return;
+            }
+            state = newState;
+            if(thread != null && !wakeupClosed){
+                serialInterface.signalWakeupHandle(wakeupHandle);
+            }
+        }
+        Thread receiver = thread;
+        if(receiver != null){
+            LockSupport.unpark(receiver);
+        }
+    }
+
+    boolean isActive() {
+        return state == RUNNING;
+    }
+
+    /**
+     * Stops receiving and completes the subscriber, before the port is closed
+     */
+    void close() {
+        stop(CLOSED);
+        Thread receiver = thread;
+        //The subscriber may close the port from onNext()
+        if(receiver != null && receiver != Thread.currentThread()){
+            boolean interrupted = false;
+            while(receiver.isAlive()){
+                try {
+                    receiver.join();
+                } catch(InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if(interrupted){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class SubscriptionImpl implements Subscription {
+        @Override
+        public void request(long count) {
+            if(count <= 0){
+                requestFailure = new IllegalArgumentException("Non-positive request: " + count);
+            }
+            else {
+                long current;
+                long next;
+                do {
+                    current = demand.get();
+                    next = current + count;
+                    if(next < 0){
+                        next = Long.MAX_VALUE;
+                    }
+                } while(!demand.compareAndSet(current, next));
+            }
+            Thread receiver = thread;
+            if(receiver != null){
+                LockSupport.unpark(receiver);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            stop(CANCELLED);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+/**
+ * Outcome of {@link SerialPort#readTimestamped(java.nio.ByteBuffer, int)}:
+ * the count of bytes read and when they were noticed
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortReadResult {
+
+    private final int byteCount;
+    private final long timestampNanos;
+
+    SerialPortReadResult(int byteCount, long timestampNanos) {
+        this.byteCount = byteCount;
+        this.timestampNanos = timestampNanos;
+    }
+
+    /**
+     * Gets the count of bytes read
+     *
+     * @return count of bytes, zero if the timeout elapsed
+     */
+    public int getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Gets the time at which the waiting thread noticed the bytes, taken
+     * natively as soon as the wait returned. Bytes which were waiting already
+     * get the time of the call. The clock is <code>CLOCK_MONOTONIC</code>,
+     * which is the clock of <code>System.nanoTime()</code> on Linux.
+     *
+     * @return timestamp in nanoseconds
+     */
+    public long getTimestampNanos() {
+        return timestampNanos;
+    }
+}
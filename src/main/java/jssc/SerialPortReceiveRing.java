@@ -0,0 +1,307 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Continuous receive mode of a port, started by
+ * {@link SerialPort#startContinuousReceive(int)}. A native thread reads
+ * everything the port receives into a ring in off-heap memory, so the
+ * driver buffer is drained even while Java threads are paused, e.g. by the
+ * garbage collector. Reading from the ring needs no native call.
+ * <p>
+ * The ring has a single consumer: reads are synchronized, but interleaving
+ * them with other reads of the port loses data.
+ * <p>
+ * While the ring is full, the thread stops reading the port, and the driver
+ * buffer and flow control take over, until reads make space again. {@link #getOverflowCount()} and
+ * {@link #getHighWaterMark()} tell whether the ring is large enough.
+ * <p>
+ * The thread also looks for the event character of the port (see
+ * {@link SerialPort#setEventChar(byte)}), which raises
+ * <code>SerialPort.MASK_RXFLAG</code> events on systems without driver support.
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortReceiveRing {
+
+    private final SerialPort port;
+    private final SerialNativeInterface serialInterface;
+    private final ByteBuffer ring;
+    private final ByteBuffer data;
+    private final int capacity;
+    private final long ringHandle;
+    private int tail;
+
+    private final Object stateLock = new Object();
+    private int waiters;
+    private boolean stopped;
+    private boolean released;
+
+    SerialPortReceiveRing(SerialPort port, SerialNativeInterface serialInterface, long portHandle, int capacity, int eventChar) throws IOException {
+        this.port = port;
+        this.serialInterface = serialInterface;
+        this.capacity = capacity;
+        ring = ByteBuffer.allocateDirect(SerialNativeInterface.RING_DATA + capacity).order(ByteOrder.nativeOrder());
+        ring.position(SerialNativeInterface.RING_DATA);
+        data = ring.slice();
+        ring.clear();
+        ring.putInt(SerialNativeInterface.RING_EVENT_CHAR, eventChar);
+        ringHandle = serialInterface.startReceiveRing(portHandle, ring);
+    }
+
+    /**
+     * Gets the size of the ring
+     *
+     * @return size in bytes
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the count of bytes which can be read without waiting
+     *
+     * @return count of bytes in the ring
+     */
+    public synchronized int available() {
+        return head() - tail;
+    }
+
+    /**
+     * Gets the count of bytes up to and including the last event character
+     * in the ring, e.g. to read complete frames only
+     *
+     * @return count of bytes, or <code>0</code> if the ring holds no event character
+     *
+     * @see SerialPort#setEventChar(byte)
+     */
+    public synchronized int availableToEventChar() {
+        int available = head() - tail;
+        if(getEventCharCount() == 0){
+            return 0;
+        }
+        int count = ring.getInt(SerialNativeInterface.RING_EVENT_POSITION) - tail;
+        return count > 0 ? Math.min(count, available) : 0;
+    }
+
+    /**
+     * Reads the bytes in the ring, without waiting
+     *
+     * @param buffer destination
+     * @param offset offset in <code>buffer</code>
+     * @param length maximum count of bytes
+     *
+     * @return count of bytes read, or <code>-1</code> if the ring is empty
+     * and the receiving thread ended due to hangup, error or stop
+     */
+    public synchronized int read(byte[] buffer, int offset, int length) {
+        if(offset < 0 || length < 0 || length > buffer.length - offset){
+            throw new IndexOutOfBoundsException();
+        }
+        boolean ended = isEnded();
+        int count = Math.min(head() - tail, length);
+        if(count == 0){
+            return ended && length > 0 ? -1 : 0;
+        }
+        int position = tail & (capacity - 1);
+        int first = Math.min(count, capacity - position);
+        data.position(position);
+        data.get(buffer, offset, first);
+        if(first < count){
+            data.position(0);
+            data.get(buffer, offset + first, count - first);
+        }
+        publishTail(count);
+        return count;
+    }
+
+    /**
+     * Reads the bytes in the ring, without waiting
+     *
+     * @param buffer destination, filled up to its limit at most
+     *
+     * @return count of bytes read, or <code>-1</code> if the ring is empty
+     * and the receiving thread ended due to hangup, error or stop
+     */
+    public synchronized int read(ByteBuffer buffer) {
+        boolean ended = isEnded();
+        int count = Math.min(head() - tail, buffer.remaining());
+        if(count == 0){
+            return ended && buffer.hasRemaining() ? -1 : 0;
+        }
+        int position = tail & (capacity - 1);
+        int first = Math.min(count, capacity - position);
+        data.limit(position + first).position(position);
+        buffer.put(data);
+        if(first < count){
+            data.limit(count - first).position(0);
+            buffer.put(data);
+        }
+        data.clear();
+        publishTail(count);
+        return count;
+    }
+
+    /**
+     * Waits until the ring has data or the receiving thread ended
+     *
+     * @param timeoutMs timeout in milliseconds, or a negative value to wait without deadline
+     *
+     * @return false if the timeout elapsed, otherwise true
+     *
+     * @throws SerialPortException if exception occurred
+     */
+    public boolean awaitData(int timeoutMs) throws SerialPortException {
+        long deadline = System.nanoTime() + timeoutMs * 1000000L;
+        synchronized(stateLock){
+            if(released){
+                return true;
+            }
+            waiters++;
+        }
+        try {
+            while(available() == 0 && !isEnded()){
+                int remaining = timeoutMs;
+                if(timeoutMs >= 0){
+                    remaining = (int)((deadline - System.nanoTime()) / 1000000L);
+                    if(remaining <= 0){
+                        return false;
+                    }
+                }
+                serialInterface.awaitReceiveRing(ringHandle, remaining);
+            }
+            return true;
+        } catch(IOException ex) {
+            throw SerialPortException.wrapNativeException(ex, port, "awaitData");
+        } finally {
+            synchronized(stateLock){
+                waiters--;
+                releaseIfUnused();
+            }
+        }
+    }
+
+    /**
+     * Checks whether the thread is still receiving
+     *
+     * @return false after hangup, error or stop
+     */
+    public boolean isReceiving() {
+        return !isEnded();
+    }
+
+    /**
+     * Gets how many times the ring ran full, so the thread had to stop
+     * reading from the port
+     *
+     * @return count of overflows
+     */
+    public long getOverflowCount() {
+        return ring.getLong(SerialNativeInterface.RING_OVERFLOWS);
+    }
+
+    /**
+     * Gets the highest count of bytes the ring held at once
+     *
+     * @return count of bytes
+     */
+    public int getHighWaterMark() {
+        return ring.getInt(SerialNativeInterface.RING_HIGH_WATER);
+    }
+
+    void setEventChar(int eventChar) {
+        RingFences.release(serialInterface);
+        ring.putInt(SerialNativeInterface.RING_EVENT_CHAR, eventChar);
+    }
+
+    /**
+     * @return count of event characters received, wrapping around at 32 bits
+     */
+    int getEventCharCount() {
+        int count = ring.getInt(SerialNativeInterface.RING_EVENT_COUNT);
+        RingFences.acquire(serialInterface);
+        return count;
+    }
+
+    /**
+     * Sets the wakeup handle the receiving thread signals on event characters.
+     * Ignored once stopped, as the receiving thread is gone then.
+     *
+     * @param wakeup wakeup handle, or <code>0</code> for none
+     */
+    void setEventWakeup(long wakeup) {
+        synchronized(stateLock){
+            if(!stopped){
+                serialInterface.setReceiveRingWakeup(ringHandle, wakeup);
+            }
+        }
+    }
+
+    /**
+     * Stops the receiving thread. The bytes in the ring can still be read.
+     */
+    void stop() {
+        synchronized(stateLock){
+            if(stopped){
+                return;
+            }
+            stopped = true;
+            serialInterface.stopReceiveRing(ringHandle);
+            releaseIfUnused();
+        }
+    }
+
+    private void releaseIfUnused() {
+        if(stopped && waiters == 0 && !released){
+            released = true;
+            serialInterface.closeReceiveRing(ringHandle);
+        }
+    }
+
+    private boolean isEnded() {
+        boolean ended = ring.getInt(SerialNativeInterface.RING_STATE) == SerialNativeInterface.RING_ENDED;
+        RingFences.acquire(serialInterface);
+        return ended;
+    }
+
+    private int head() {
+        int head = ring.getInt(SerialNativeInterface.RING_HEAD);
+        RingFences.acquire(serialInterface);
+        return head;
+    }
+
+    private void publishTail(int count) {
+        tail += count;
+        RingFences.release(serialInterface);
+        ring.putInt(SerialNativeInterface.RING_TAIL, tail);
+        // Pairs with the thread setting RING_WAITING before it checks the tail again
+        RingFences.full(serialInterface);
+        if(ring.getInt(SerialNativeInterface.RING_WAITING) != 0){
+            synchronized(stateLock){
+                if(!stopped){
+                    serialInterface.signalReceiveRingSpace(ringHandle);
+                }
+            }
+        }
+    }
+}
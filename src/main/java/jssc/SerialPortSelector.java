@@ -0,0 +1,531 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for many serial ports in a single thread.
+ * <p>
+ * Ports are registered with an interest set through
+ * {@link SerialPort#register(SerialPortSelector, int, Object)}. Each
+ * {@link #select(int)} blocks in one native wait for all of them and
+ * collects the ports which became ready in {@link #selectedKeys()}, so the
+ * cost of a wakeup depends on the count of ready ports, not on the count of
+ * registered ones. Closing a port cancels its keys.
+ * <p>
+ * Selectors are only supported on Linux, where the native wait is
+ * <code>epoll_wait()</code>. Modem lines have no readiness notification,
+ * therefore {@link #OP_LINES} interest makes the selector sample the lines of
+ * interested ports, and only those, every {@value #LINES_SAMPLING_INTERVAL} milliseconds.
+ *
+ * @since 2.11.0
+ */
+public final class SerialPortSelector implements Closeable {
+
+    /**
+     * Port has bytes to read
+     */
+    public static final int OP_READ = SerialNativeInterface.AWAIT_READ;
+    /**
+     * Port accepts bytes to write
+     */
+    public static final int OP_WRITE = SerialNativeInterface.AWAIT_WRITE;
+    /**
+     * Port was hung up or failed. Reported whether requested or not, as the
+     * system can't mask it.
+     */
+    public static final int OP_HANGUP = SerialNativeInterface.AWAIT_HANGUP;
+    /**
+     * CTS, DSR, RING or RLSD line changed
+     */
+    public static final int OP_LINES = SerialNativeInterface.AWAIT_LINES;
+
+    /**
+     * Sampling interval of modem lines in milliseconds
+     */
+    public static final int LINES_SAMPLING_INTERVAL = 10;
+
+    private static final int ALL_OPS = OP_READ | OP_WRITE | OP_HANGUP | OP_LINES;
+
+    /**
+     * Most ports reported by one native wait, more are reported by the next
+     */
+    private static final int MAX_READY = 64;
+
+    private static final Key[] NO_KEYS = new Key[0];
+
+    private final SerialNativeInterface serialInterface = new SerialNativeInterface();
+    private final long wakeupHandle;
+    private final long selectorHandle;
+    //Indexed by the slot the native wait reports, replaced on every change
+    private volatile Key[] slots = NO_KEYS;
+    //Keys with OP_LINES interest, replaced on every change
+    private volatile Key[] linesKeys = NO_KEYS;
+    private final Set<Key> selectedKeys = new HashSet<Key>();
+    private final Object selectLock = new Object();
+    private final int[] readySlots = new int[MAX_READY];
+    private final int[] readyEvents = new int[MAX_READY];
+    private volatile boolean closed;
+
+    /**
+     * Opens a new selector
+     *
+     * @throws IOException if the selector can't be created
+     * @throws UnsupportedOperationException if the platform doesn't support selectors
+     */
+    public SerialPortSelector() throws IOException {
+        wakeupHandle = serialInterface.createWakeupHandle();
+        boolean created = false;
+        try {
+            selectorHandle = serialInterface.createSelector(wakeupHandle);
+            created = true;
+        }
+        finally {
+            if(!created){
+                serialInterface.closeWakeupHandle(wakeupHandle);
+            }
+        }
+    }
+
+    /**
+     * Waits until at least one registered port is ready, {@link #wakeup()} is
+     * called or the timeout elapsed.
+     *
+     * @param timeout timeout in milliseconds, <code>0</code> to return
+     * immediately, or a negative value to wait without deadline
+     *
+     * @return Method returns the count of ready ports, which are available
+     * through {@link #selectedKeys()}
+     *
+     * @throws IOException if the native wait failed
+     * @throws IllegalStateException if the selector is closed
+     */
+    public int select(int timeout) throws IOException {
+        synchronized(selectLock){
+            ensureOpen();
+            for(Key key : selectedKeys){
+                key.readyOps = 0;
+            }
+            selectedKeys.clear();
+            long deadline = timeout < 0 ? 0 : System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            while(true){
+                Key[] sampled = linesKeys;
+                int waitTimeout = timeout < 0 ? -1 : remainingMillis(deadline);
+                if(sampled.length > 0 && (waitTimeout < 0 || waitTimeout > LINES_SAMPLING_INTERVAL)){
+                    waitTimeout = LINES_SAMPLING_INTERVAL;
+                }
+                int count = serialInterface.selectorWait(selectorHandle, wakeupHandle, readySlots, readyEvents, waitTimeout);
+                boolean wokenUp = false;
+                Key[] current = slots;
+                for(int i = 0; i < count; i++){
+                    int slot = readySlots[i];
+                    if(slot < 0){
+                        wokenUp = true;
+                    }
+                    else if(slot < current.length && current[slot] != null){
+                        Key key = current[slot];
+                        key.ready(readyEvents[i] & (key.interestOps | OP_HANGUP));
+                    }
+                }
+                for(Key key : sampled){
+                    if(key.valid){
+                        int lines = key.sampleLines();
+                        if(lines != key.lines){
+                            key.lines = lines;
+                            key.ready(OP_LINES);
+                        }
+                    }
+                }
+                if(!selectedKeys.isEmpty() || wokenUp || closed || timeout == 0
+                        || (timeout > 0 && remainingMillis(deadline) == 0)){
+                    return selectedKeys.size();
+                }
+            }
+        }
+    }
+
+    private static int remainingMillis(long deadline) {
+        long remaining = deadline - System.nanoTime();
+        return remaining <= 0 ? 0 : (int)TimeUnit.NANOSECONDS.toMillis(remaining + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+    }
+
+    /**
+     * Same as {@link #select(int)} with a timeout of <code>0</code>
+     *
+     * @return Method returns the count of ready ports
+     *
+     * @throws IOException if the native wait failed
+     */
+    public int selectNow() throws IOException {
+        return select(0);
+    }
+
+    /**
+     * Gets the keys of ports found ready by the last {@link #select(int)}.
+     * The set is replaced by the next select and must only be used by the
+     * selecting thread.
+     *
+     * @return set of ready keys
+     */
+    public Set<Key> selectedKeys() {
+        return selectedKeys;
+    }
+
+    /**
+     * Gets the keys of all registered ports
+     *
+     * @return set of registered keys
+     */
+    public Set<Key> keys() {
+        Set<Key> keys = new HashSet<Key>();
+        for(Key key : slots){
+            if(key != null){
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Makes a pending or the next {@link #select(int)} return immediately
+     */
+    public synchronized void wakeup() {
+        if(!closed){
+            serialInterface.signalWakeupHandle(wakeupHandle);
+        }
+    }
+
+    /**
+     * Checks whether the selector is open
+     *
+     * @return <code>true</code> until {@link #close()} is called
+     */
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * Closes the selector and cancels all keys. A pending {@link #select(int)}
+     * returns. Registered ports stay opened.
+     */
+    @Override
+    public void close() {
+        synchronized(this){
+            if(closed){
+                return;
+            }
+            closed = true;
+            serialInterface.signalWakeupHandle(wakeupHandle);
+        }
+        synchronized(selectLock){
+            Key[] keys;
+            synchronized(this){
+                keys = slots;
+                slots = NO_KEYS;
+                linesKeys = NO_KEYS;
+            }
+            for(Key key : keys){
+                if(key != null){
+                    key.valid = false;
+                    key.port.forgetSelectorKey(key);
+                }
+            }
+            selectedKeys.clear();
+            serialInterface.closeSelector(selectorHandle);
+            serialInterface.closeWakeupHandle(wakeupHandle);
+        }
+    }
+
+    synchronized Key register(SerialPort port, long portHandle, int ops, Object attachment) throws IOException {
+        ensureOpen();
+        checkOps(ops);
+        Key key = null;
+        for(Key registered : slots){
+            if(registered != null && registered.port == port){
+                key = registered;
+                break;
+            }
+        }
+        boolean created = key == null;
+        if(created){
+            key = new Key(this, port, portHandle, freeSlot());
+        }
+        key.attachment = attachment;
+        key.setInterestOps(ops);
+        if(created){
+            Key[] current = slots;
+            Key[] changed = key.slot < current.length ? current.clone() : copyOf(current, Math.max(key.slot + 1, current.length * 2));
+            changed[key.slot] = key;
+            slots = changed;
+            port.rememberSelectorKey(key);
+        }
+        return key;
+    }
+
+    private int freeSlot() {
+        Key[] current = slots;
+        for(int i = 0; i < current.length; i++){
+            if(current[i] == null){
+                return i;
+            }
+        }
+        return current.length;
+    }
+
+    private synchronized void cancel(Key key) {
+        if(key.valid){
+            key.valid = false;
+            Key[] changed = slots.clone();
+            changed[key.slot] = null;
+            slots = changed;
+            updateLinesKeys(key, false);
+            key.port.forgetSelectorKey(key);
+            if(!closed){
+                serialInterface.selectorUnregister(selectorHandle, key.portHandle);
+            }
+        }
+    }
+
+    /**
+     * Adds a key to or removes it from the keys whose lines are sampled
+     */
+    private void updateLinesKeys(Key key, boolean sampled) {
+        Key[] current = linesKeys;
+        int index = -1;
+        for(int i = 0; i < current.length; i++){
+            if(current[i] == key){
+                index = i;
+                break;
+            }
+        }
+        if(sampled && index < 0){
+            Key[] changed = copyOf(current, current.length + 1);
+            changed[current.length] = key;
+            linesKeys = changed;
+        }
+        else if(!sampled && index >= 0){
+            Key[] changed = new Key[current.length - 1];
+            System.arraycopy(current, 0, changed, 0, index);
+            System.arraycopy(current, index + 1, changed, index, current.length - index - 1);
+            linesKeys = changed;
+        }
+    }
+
+    private static Key[] copyOf(Key[] keys, int length) {
+        Key[] copy = new Key[length];
+        System.arraycopy(keys, 0, copy, 0, Math.min(keys.length, length));
+        return copy;
+    }
+
+    private void ensureOpen() {
+        if(closed){
+            throw new IllegalStateException("Selector is closed");
+        }
+    }
+
+    private static void checkOps(int ops) {
+        if((ops & ~ALL_OPS) != 0){
+            throw new IllegalArgumentException("Unknown ops: " + ops);
+        }
+    }
+
+    /**
+     * Registration of a port with a selector
+     */
+    public static final class Key {
+
+        private final SerialPortSelector selector;
+        private final SerialPort port;
+        private final long portHandle;
+        //Index in the slots of the selector, passed to the native registration
+        private final int slot;
+        private volatile int interestOps;
+        private volatile Object attachment;
+        private volatile boolean valid = true;
+        private int readyOps;
+        private volatile int lines = -1;
+
+        private Key(SerialPortSelector selector, SerialPort port, long portHandle, int slot) {
+            this.selector = selector;
+            this.port = port;
+            this.portHandle = portHandle;
+            this.slot = slot;
+        }
+
+        /**
+         * Gets the registered port
+         *
+         * @return <code>SerialPort</code> object
+         */
+        public SerialPort port() {
+            return port;
+        }
+
+        /**
+         * Gets the selector of this key
+         *
+         * @return <code>SerialPortSelector</code> object
+         */
+        public SerialPortSelector selector() {
+            return selector;
+        }
+
+        /**
+         * Gets the interest set
+         *
+         * @return combination of <code>OP_*</code> flags
+         */
+        public int interestOps() {
+            return interestOps;
+        }
+
+        /**
+         * Changes the interest set. Takes effect for a pending select.
+         *
+         * @param ops combination of <code>OP_*</code> flags
+         *
+         * @return this key
+         *
+         * @throws IOException if the native registration failed
+         */
+        public Key interestOps(int ops) throws IOException {
+            checkOps(ops);
+            synchronized(selector){
+                selector.ensureOpen();
+                if(!valid){
+                    throw new IllegalStateException("Key is cancelled");
+                }
+                setInterestOps(ops);
+            }
+            return this;
+        }
+
+        /**
+         * Gets the ready set found by the last select
+         *
+         * @return combination of <code>OP_*</code> flags
+         */
+        public int readyOps() {
+            return readyOps;
+        }
+
+        /**
+         * @return <code>true</code> if the port has bytes to read
+         */
+        public boolean isReadable() {
+            return (readyOps & OP_READ) != 0;
+        }
+
+        /**
+         * @return <code>true</code> if the port accepts bytes to write
+         */
+        public boolean isWritable() {
+            return (readyOps & OP_WRITE) != 0;
+        }
+
+        /**
+         * @return <code>true</code> if the port was hung up or failed
+         */
+        public boolean isHangup() {
+            return (readyOps & OP_HANGUP) != 0;
+        }
+
+        /**
+         * @return <code>true</code> if a modem line changed
+         */
+        public boolean isLinesChanged() {
+            return (readyOps & OP_LINES) != 0;
+        }
+
+        /**
+         * Gets the attached object
+         *
+         * @return object passed on registration, or <code>null</code>
+         */
+        public Object attachment() {
+            return attachment;
+        }
+
+        /**
+         * Attaches an object to this key
+         *
+         * @param attachment object to attach, may be <code>null</code>
+         *
+         * @return previously attached object
+         */
+        public Object attach(Object attachment) {
+            Object previous = this.attachment;
+            this.attachment = attachment;
+            return previous;
+        }
+
+        /**
+         * Checks whether the key is still registered
+         *
+         * @return <code>false</code> once cancelled, the selector closed or the port closed
+         */
+        public boolean isValid() {
+            return valid && !selector.closed && port.isOpened();
+        }
+
+        /**
+         * Removes the port from the selector
+         */
+        public void cancel() {
+            selector.cancel(this);
+        }
+
+        private void setInterestOps(int ops) throws IOException {
+            if((ops & OP_LINES) != 0 && (interestOps & OP_LINES) == 0){
+                lines = sampleLines();
+            }
+            selector.serialInterface.selectorRegister(selector.selectorHandle, portHandle, ops & ~OP_LINES, slot);
+            interestOps = ops;
+            selector.updateLinesKeys(this, (ops & OP_LINES) != 0);
+        }
+
+        private void ready(int ops) {
+            if(ops == 0){
+                return;
+            }
+            if(selector.selectedKeys.add(this)){
+                readyOps = ops;
+            }
+            else {
+                readyOps |= ops;
+            }
+        }
+
+        private int sampleLines() {
+            int[] status = selector.serialInterface.getLinesStatus(portHandle);
+            int packed = 0;
+            for(int i = 0; i < status.length; i++){
+                if(status[i] != 0){
+                    packed |= 1 << i;
+                }
+            }
+            return packed;
+        }
+    }
+}
@@ -39,6 +39,10 @@ public class SerialPortTimeoutException extends IOException {
     private String methodName;
     /** Timeout value **/
     private int timeoutValue;
+    /** Bytes transferred before the timeout **/
+    private int bytesTransferred;
+    /** Bytes received before the timeout **/
+    private byte[] receivedBytes;
 
     /** Port name **/
     @Deprecated
@@ -58,6 +62,42 @@ public class SerialPortTimeoutException extends IOException {
         this.timeoutValue = timeoutValue;
     }
 
+    /**
+     * Constructs a new <code>SerialPortTimeoutException</code> for an
+     * operation which was partially done when the timeout elapsed
+     *
+     * @param port Port which the exception occurred on
+     * @param methodName Method name which the exception occurred on
+     * @param timeoutValue Timeout value which the exception occurred on
+     * @param bytesTransferred Count of bytes transferred before the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public SerialPortTimeoutException(SerialPort port, String methodName, int timeoutValue, int bytesTransferred) {
+        super("Port name - " + port.getPortName() + "; Method name - " + methodName + "; Serial port operation timeout (" + timeoutValue + " ms)"
+                + "; Bytes transferred - " + bytesTransferred + ".");
+        this.port = port;
+        this.methodName = methodName;
+        this.timeoutValue = timeoutValue;
+        this.bytesTransferred = bytesTransferred;
+    }
+
+    /**
+     * Constructs a new <code>SerialPortTimeoutException</code> for a read
+     * which received some, but not all of the requested bytes
+     *
+     * @param port Port which the exception occurred on
+     * @param methodName Method name which the exception occurred on
+     * @param timeoutValue Timeout value which the exception occurred on
+     * @param receivedBytes Bytes received before the timeout elapsed
+     *
+     * @since 2.11.0
+     */
+    public SerialPortTimeoutException(SerialPort port, String methodName, int timeoutValue, byte[] receivedBytes) {
+        this(port, methodName, timeoutValue, receivedBytes.length);
+        this.receivedBytes = receivedBytes;
+    }
+
     /**
      * Constructs a new <code>SerialPortTimeoutException</code>
      * Deprecated: Use <code>SerialPortTimeoutException(SerialPort, String, int)</code> instead.
@@ -116,4 +156,30 @@ public class SerialPortTimeoutException extends IOException {
     public int getTimeoutValue() {
         return timeoutValue;
     }
+
+    /**
+     * Gets the count of bytes transferred before the timeout elapsed
+     *
+     * @return Count of bytes transferred
+     *
+     * @since 2.11.0
+     */
+    @SuppressWarnings("unused")
+    public int getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    /**
+     * Gets the bytes a read operation received before the timeout elapsed.
+     * These bytes are already consumed from the port.
+     *
+     * @return Received bytes, or <code>null</code> if the operation was no read
+     * returning a new array
+     *
+     * @since 2.11.0
+     */
+    @SuppressWarnings("unused")
+    public byte[] getReceivedBytes() {
+        return receivedBytes;
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Futures of {@link SerialPort#writeAsync(java.nio.ByteBuffer)}. From Java 9
+ * on, the multi-release jar replaces this class by the one from
+ * <code>src/main/java9</code>, which creates <code>CompletableFuture</code>s.
+ *
+ * @since 2.11.0
+ */
+final class WriteFutures {
+
+    private WriteFutures() {
+    }
+
+    static Future<Integer> newFuture() {
+        return new WriteFuture();
+    }
+
+    static void complete(Future<Integer> future, int written) {
+        ((WriteFuture)future).set(written);
+    }
+
+    static void fail(Future<Integer> future, Throwable failure) {
+        ((WriteFuture)future).setException(failure);
+    }
+
+    /**
+     * Completed by the writer thread instead of running a task
+     */
+    private static final class WriteFuture extends FutureTask<Integer> {
+
+        private static final Callable<Integer> NO_TASK = new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        WriteFuture() {
+            super(NO_TASK);
+        }
+
+        @Override
+        protected void set(Integer written) {
+            super.set(written);
+        }
+
+        @Override
+        protected void setException(Throwable failure) {
+            super.setException(failure);
+        }
+    }
+}
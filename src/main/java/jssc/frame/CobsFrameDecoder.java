@@ -0,0 +1,89 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes frames encoded with Consistent Overhead Byte Stuffing, each frame
+ * ended by a <code>0x00</code> byte. Empty frames are ignored.
+ *
+ * @since 2.11.0
+ */
+public class CobsFrameDecoder extends FrameDecoder {
+
+    private final int maxFrameLength;
+    //Count of pending bytes known not to be 0
+    private int searched;
+
+    /**
+     * @param maxFrameLength length of the largest decoded frame. Longer frames are dropped.
+     * @param handler handler of the frames
+     */
+    public CobsFrameDecoder(int maxFrameLength, FrameHandler handler) {
+        //One code byte per 254 bytes, plus the first one and the delimiter
+        super(DelimiterFrameDecoder.checkLength(maxFrameLength) + maxFrameLength / 254 + 2, handler);
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    int nextFrame(ByteBuffer buffer, int start, int end) {
+        for(int i = start + searched; i < end; i++){
+            if(buffer.get(i) == 0){
+                searched = 0;
+                if(!skipFrame() && i > start){
+                    unstuff(buffer, start, i);
+                }
+                return i - start + 1;
+            }
+        }
+        searched = end - start;
+        return 0;
+    }
+
+    private void unstuff(ByteBuffer buffer, int start, int end) {
+        //Decoded bytes are never ahead of encoded ones
+        int in = start;
+        int out = start;
+        while(in < end){
+            int code = buffer.get(in++) & 0xFF;
+            if(in + code - 1 > end){
+                discard();
+                return;
+            }
+            for(int i = 1; i < code; i++){
+                buffer.put(out++, buffer.get(in++));
+            }
+            if(code < 0xFF && in < end){
+                buffer.put(out++, (byte)0);
+            }
+        }
+        if(out - start > maxFrameLength){
+            discard();
+        }
+        else {
+            deliver(start, out - start);
+        }
+    }
+
+    @Override
+    void resetFrame() {
+        searched = 0;
+    }
+}
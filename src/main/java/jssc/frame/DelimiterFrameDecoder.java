@@ -0,0 +1,72 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Splits a byte stream into frames ended by a delimiter byte, e.g. lines.
+ * The delimiter is not part of the frame.
+ *
+ * @since 2.11.0
+ */
+public class DelimiterFrameDecoder extends FrameDecoder {
+
+    private final byte delimiter;
+    //Count of pending bytes known not to be the delimiter
+    private int searched;
+
+    /**
+     * @param maxFrameLength length of the largest frame, without the delimiter.
+     * Longer frames are dropped.
+     * @param delimiter byte ending each frame
+     * @param handler handler of the frames
+     */
+    public DelimiterFrameDecoder(int maxFrameLength, byte delimiter, FrameHandler handler) {
+        super(checkLength(maxFrameLength) + 1, handler);
+        this.delimiter = delimiter;
+    }
+
+    static int checkLength(int maxFrameLength) {
+        if(maxFrameLength <= 0 || maxFrameLength > Integer.MAX_VALUE / 2 - 2){
+            throw new IllegalArgumentException("maxFrameLength: " + maxFrameLength);
+        }
+        return maxFrameLength;
+    }
+
+    @Override
+    int nextFrame(ByteBuffer buffer, int start, int end) {
+        for(int i = start + searched; i < end; i++){
+            if(buffer.get(i) == delimiter){
+                searched = 0;
+                if(!skipFrame()){
+                    deliver(start, i - start);
+                }
+                return i - start + 1;
+            }
+        }
+        searched = end - start;
+        return 0;
+    }
+
+    @Override
+    void resetFrame() {
+        searched = 0;
+    }
+}
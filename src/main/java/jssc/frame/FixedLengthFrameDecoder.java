@@ -0,0 +1,56 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Splits a byte stream into frames of the same length
+ *
+ * @since 2.11.0
+ */
+public class FixedLengthFrameDecoder extends FrameDecoder {
+
+    private final int frameLength;
+
+    /**
+     * @param frameLength length of each frame
+     * @param handler handler of the frames
+     */
+    public FixedLengthFrameDecoder(int frameLength, FrameHandler handler) {
+        super(checkLength(frameLength), handler);
+        this.frameLength = frameLength;
+    }
+
+    private static int checkLength(int frameLength) {
+        if(frameLength <= 0){
+            throw new IllegalArgumentException("frameLength: " + frameLength);
+        }
+        return frameLength;
+    }
+
+    @Override
+    int nextFrame(ByteBuffer buffer, int start, int end) {
+        if(end - start < frameLength){
+            return 0;
+        }
+        deliver(start, frameLength);
+        return frameLength;
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.frame;
+
+import java.nio.ByteBuffer;
+
+import jssc.SerialPort;
+import jssc.SerialPortException;
+import jssc.SerialPortReceiveRing;
+
+/**
+ * Splits a byte stream into frames and passes them to a {@link FrameHandler}.
+ * <p>
+ * Received bytes are collected in one direct buffer, allocated up front for
+ * the largest frame. Frames are handed over as views of that buffer, without
+ * copying, and a frame arriving in pieces is searched only once. Escaped
+ * formats are decoded in place.
+ * <p>
+ * Decoders are handlers themselves, so they can be chained, e.g. a
+ * {@link CobsFrameDecoder} passing its frames to a {@link LengthFieldFrameDecoder}.
+ * <p>
+ * Bytes which do not form a valid frame are dropped and counted by
+ * {@link #getDiscardedCount()}; decoding goes on with the next frame.
+ * A decoder is not thread-safe.
+ *
+ * @since 2.11.0
+ */
+public abstract class FrameDecoder implements FrameHandler {
+
+    private final FrameHandler handler;
+    //Pending bytes are between start and the position
+    private final ByteBuffer buffer;
+    private final ByteBuffer frame;
+    private int start;
+    //The rest of a frame too large for the buffer is being dropped
+    private boolean skipping;
+    private long discardedCount;
+
+    FrameDecoder(int bufferCapacity, FrameHandler handler) {
+        if(handler == null){
+            throw new NullPointerException("handler");
+        }
+        this.handler = handler;
+        buffer = ByteBuffer.allocateDirect(bufferCapacity);
+        frame = buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * Looks for a frame at the start of the pending bytes, passing it to
+     * {@link #deliver(int, int)} when complete
+     *
+     * @param buffer buffer of the decoder, to be accessed by absolute index
+     * @param start index of the first pending byte
+     * @param end index after the last pending byte
+     *
+     * @return count of bytes taken by the frame, or 0 if it is not complete yet
+     */
+    abstract int nextFrame(ByteBuffer buffer, int start, int end);
+
+    /**
+     * Clears the state kept by {@link #nextFrame(ByteBuffer, int, int)}
+     * about the pending bytes
+     */
+    void resetFrame() {
+    }
+
+    final void deliver(int offset, int length) {
+        frame.limit(offset + length);
+        frame.position(offset);
+        handler.onFrame(frame);
+    }
+
+    final void discard() {
+        discardedCount++;
+    }
+
+    /**
+     * To be called on the end of a delimited frame
+     *
+     * @return true if the frame is the rest of an oversized frame and must be dropped
+     */
+    final boolean skipFrame() {
+        boolean skip = skipping;
+        skipping = false;
+        return skip;
+    }
+
+    /**
+     * Decodes the remaining bytes of a buffer, calling the handler for every
+     * complete frame. The position of <code>input</code> is moved to its limit.
+     *
+     * @param input bytes received
+     */
+    public void decode(ByteBuffer input) {
+        while(input.hasRemaining()){
+            makeSpace();
+            int limit = input.limit();
+            input.limit(input.position() + Math.min(input.remaining(), buffer.remaining()));
+            buffer.put(input);
+            input.limit(limit);
+            decodePending();
+        }
+    }
+
+    /**
+     * Decodes bytes of an array, calling the handler for every complete frame
+     *
+     * @param bytes bytes received
+     * @param offset offset of the first byte
+     * @param length count of bytes
+     */
+    public void decode(byte[] bytes, int offset, int length) {
+        if(offset < 0 || length < 0 || length > bytes.length - offset){
+            throw new IndexOutOfBoundsException();
+        }
+        while(length > 0){
+            makeSpace();
+            int count = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, count);
+            offset += count;
+            length -= count;
+            decodePending();
+        }
+    }
+
+    /**
+     * Decodes a frame of another decoder
+     *
+     * @param frame frame to decode
+     */
+    @Override
+    public void onFrame(ByteBuffer frame) {
+        decode(frame);
+    }
+
+    /**
+     * Reads the bytes waiting in the input buffer of a port straight into the
+     * buffer of the decoder and decodes them. Never blocks. At most the free
+     * space of the buffer is read, so this is called again while it returns
+     * a positive count.
+     *
+     * @param port port to read
+     *
+     * @return count of bytes read
+     *
+     * @throws SerialPortException if exception occurred
+     */
+    public int read(SerialPort port) throws SerialPortException {
+        makeSpace();
+        int count = port.readAvailable(buffer);
+        if(count > 0){
+            decodePending();
+        }
+        return count;
+    }
+
+    /**
+     * Reads the bytes of a receive ring into the buffer of the decoder and
+     * decodes them. Never blocks. At most the free space of the buffer is
+     * read, so this is called again while it returns a positive count.
+     *
+     * @param ring ring to read
+     *
+     * @return count of bytes read, or <code>-1</code> if receiving has ended
+     * and the ring is empty
+     */
+    public int read(SerialPortReceiveRing ring) {
+        makeSpace();
+        int count = ring.read(buffer);
+        if(count > 0){
+            decodePending();
+        }
+        return count;
+    }
+
+    /**
+     * Drops the bytes of an incomplete frame
+     */
+    public void reset() {
+        buffer.clear();
+        start = 0;
+        skipping = false;
+        resetFrame();
+    }
+
+    /**
+     * Gets the count of frames dropped because they were malformed or too large
+     *
+     * @return count of frames
+     */
+    public long getDiscardedCount() {
+        return discardedCount;
+    }
+
+    /**
+     * Gets the count of bytes received but not part of a complete frame yet
+     *
+     * @return count of bytes
+     */
+    public int getPendingCount() {
+        return buffer.position() - start;
+    }
+
+    private void makeSpace() {
+        if(buffer.hasRemaining()){
+            return;
+        }
+        if(start > 0){
+            //Move the incomplete frame to the front
+            buffer.limit(buffer.position());
+            buffer.position(start);
+            buffer.compact();
+            start = 0;
+        }
+        else {
+            //No frame fits, drop the bytes up to its end
+            if(!skipping){
+                discardedCount++;
+            }
+            reset();
+            skipping = true;
+        }
+    }
+
+    private void decodePending() {
+        int end = buffer.position();
+        boolean done = false;
+        try {
+            while(start < end){
+                int count = nextFrame(buffer, start, end);
+                if(count == 0){
+                    break;
+                }
+                start += count;
+            }
+            done = true;
+        }
+        finally {
+            if(!done){
+                //The handler failed, rather drop the pending bytes than deliver the frame again
+                reset();
+            }
+        }
+        if(start == end){
+            buffer.clear();
+            start = 0;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the frames found by a {@link FrameDecoder}
+ *
+ * @since 2.11.0
+ */
+public interface FrameHandler {
+
+    /**
+     * Called for each complete frame. The frame is the content between the
+     * position and the limit of <code>frame</code>, a read-only view of the
+     * buffer of the decoder. The view is reused and its content overwritten
+     * after this call returns, so bytes to keep must be copied.
+     *
+     * @param frame view of the frame
+     */
+    void onFrame(ByteBuffer frame);
+}
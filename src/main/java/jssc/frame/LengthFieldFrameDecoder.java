@@ -0,0 +1,101 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.frame;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Splits a byte stream into frames whose header holds their length. The
+ * frames passed to the handler include the header.
+ * <p>
+ * The length of a frame is the value of the length field plus
+ * <code>lengthAdjustment</code>, plus the bytes up to the end of the length
+ * field. E.g. for a header of a 1-byte command, a 2-byte payload length, and
+ * a 2-byte checksum after the payload, use offset 1, field length 2 and
+ * adjustment 2.
+ * <p>
+ * A length out of range is taken for noise: the first byte is dropped, and
+ * the next byte is tried as the start of a frame.
+ *
+ * @since 2.11.0
+ */
+public class LengthFieldFrameDecoder extends FrameDecoder {
+
+    private final int maxFrameLength;
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final int lengthAdjustment;
+    private final boolean bigEndian;
+
+    /**
+     * @param maxFrameLength length of the largest frame
+     * @param lengthFieldOffset offset of the length field in the frame
+     * @param lengthFieldLength size of the length field: 1, 2, 3 or 4 bytes, unsigned
+     * @param lengthAdjustment added to the length field to get the count of bytes after the field
+     * @param order byte order of the length field
+     * @param handler handler of the frames
+     */
+    public LengthFieldFrameDecoder(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength,
+                                   int lengthAdjustment, ByteOrder order, FrameHandler handler) {
+        super(checkLength(maxFrameLength, lengthFieldOffset, lengthFieldLength), handler);
+        this.maxFrameLength = maxFrameLength;
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.lengthAdjustment = lengthAdjustment;
+        this.bigEndian = order == ByteOrder.BIG_ENDIAN;
+    }
+
+    private static int checkLength(int maxFrameLength, int lengthFieldOffset, int lengthFieldLength) {
+        if(lengthFieldLength < 1 || lengthFieldLength > 4){
+            throw new IllegalArgumentException("lengthFieldLength: " + lengthFieldLength);
+        }
+        if(lengthFieldOffset < 0 || maxFrameLength < lengthFieldOffset + lengthFieldLength){
+            throw new IllegalArgumentException("maxFrameLength: " + maxFrameLength + ", lengthFieldOffset: " + lengthFieldOffset);
+        }
+        return maxFrameLength;
+    }
+
+    @Override
+    int nextFrame(ByteBuffer buffer, int start, int end) {
+        int headerLength = lengthFieldOffset + lengthFieldLength;
+        if(end - start < headerLength){
+            return 0;
+        }
+        long frameLength = headerLength + getLengthField(buffer, start + lengthFieldOffset) + lengthAdjustment;
+        if(frameLength < headerLength || frameLength > maxFrameLength){
+            discard();
+            return 1;
+        }
+        if(end - start < frameLength){
+            return 0;
+        }
+        deliver(start, (int)frameLength);
+        return (int)frameLength;
+    }
+
+    private long getLengthField(ByteBuffer buffer, int index) {
+        long value = 0;
+        for(int i = 0; i < lengthFieldLength; i++){
+            int shift = (bigEndian ? lengthFieldLength - 1 - i : i) * 8;
+            value |= (long)(buffer.get(index + i) & 0xFF) << shift;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.frame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes SLIP frames (RFC 1055). Frames end with <code>0xC0</code>, which
+ * is escaped inside frames. Empty frames, as sent to flush line noise, are
+ * ignored.
+ *
+ * @since 2.11.0
+ */
+public class SlipFrameDecoder extends FrameDecoder {
+
+    static final byte END = (byte)0xC0;
+    static final byte ESC = (byte)0xDB;
+    static final byte ESC_END = (byte)0xDC;
+    static final byte ESC_ESC = (byte)0xDD;
+
+    private final int maxFrameLength;
+    //Count of pending bytes known not to be END
+    private int searched;
+
+    /**
+     * @param maxFrameLength length of the largest decoded frame. Longer frames are dropped.
+     * @param handler handler of the frames
+     */
+    public SlipFrameDecoder(int maxFrameLength, FrameHandler handler) {
+        //Every byte may be escaped
+        super(DelimiterFrameDecoder.checkLength(maxFrameLength) * 2 + 1, handler);
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    @Override
+    int nextFrame(ByteBuffer buffer, int start, int end) {
+        for(int i = start + searched; i < end; i++){
+            if(buffer.get(i) == END){
+                searched = 0;
+                if(!skipFrame()){
+                    unescape(buffer, start, i);
+                }
+                return i - start + 1;
+            }
+        }
+        searched = end - start;
+        return 0;
+    }
+
+    private void unescape(ByteBuffer buffer, int start, int end) {
+        int length = 0;
+        boolean escaped = false;
+        for(int i = start; i < end; i++){
+            byte value = buffer.get(i);
+            if(escaped){
+                if(value == ESC_END){
+                    value = END;
+                }
+                else if(value == ESC_ESC){
+                    value = ESC;
+                }
+                else {
+                    discard();
+                    return;
+                }
+                escaped = false;
+            }
+            else if(value == ESC){
+                escaped = true;
+                continue;
+            }
+            buffer.put(start + length++, value);
+        }
+        if(escaped || length > maxFrameLength){
+            discard();
+        }
+        else if(length > 0){
+            deliver(start, length);
+        }
+    }
+
+    @Override
+    void resetFrame() {
+        searched = 0;
+    }
+}
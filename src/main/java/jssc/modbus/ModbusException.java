@@ -0,0 +1,82 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.modbus;
+
+import java.io.IOException;
+
+/**
+ * A Modbus transaction failed: the slave answered with an exception
+ * response, or the response was corrupt
+ *
+ * @since 2.11.0
+ */
+public class ModbusException extends IOException {
+    final private static long serialVersionUID = 1L;
+
+    /** Exception code: function not supported by the slave **/
+    public static final int ILLEGAL_FUNCTION = 1;
+    /** Exception code: register address not supported by the slave **/
+    public static final int ILLEGAL_DATA_ADDRESS = 2;
+    /** Exception code: value not accepted by the slave **/
+    public static final int ILLEGAL_DATA_VALUE = 3;
+    /** Exception code: the slave failed to perform the request **/
+    public static final int SERVER_DEVICE_FAILURE = 4;
+    /** Exception code: the slave is busy, retry later **/
+    public static final int SERVER_DEVICE_BUSY = 6;
+
+    private final int slaveId;
+    private final int functionCode;
+    private final int exceptionCode;
+
+    /**
+     * Constructs a new <code>ModbusException</code>
+     *
+     * @param slaveId address of the slave
+     * @param functionCode function of the request
+     * @param exceptionCode exception code of the response, or 0 if the response was corrupt
+     * @param message description
+     */
+    public ModbusException(int slaveId, int functionCode, int exceptionCode, String message) {
+        super("Slave - " + slaveId + "; Function - " + functionCode + "; " + message);
+        this.slaveId = slaveId;
+        this.functionCode = functionCode;
+        this.exceptionCode = exceptionCode;
+    }
+
+    /**
+     * @return address of the slave
+     */
+    public int getSlaveId() {
+        return slaveId;
+    }
+
+    /**
+     * @return function code of the request
+     */
+    public int getFunctionCode() {
+        return functionCode;
+    }
+
+    /**
+     * @return exception code sent by the slave, or 0 if the response was corrupt
+     */
+    public int getExceptionCode() {
+        return exceptionCode;
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.modbus;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import jssc.SerialPort;
+import jssc.SerialPortException;
+import jssc.SerialPortTimeoutException;
+
+/**
+ * Modbus RTU master on a serial port
+ * <p>
+ * Frame timing follows the Modbus serial line specification: a request is
+ * sent only after the bus was silent for 3.5 character times, 1.75 ms above
+ * 19200 baud. The character time is taken from the baud rate of
+ * {@link SerialPort#setParams(int, int, int, int)}, with 11 bits per character.
+ * <p>
+ * A response ends as soon as the length announced by its header has
+ * arrived, so complete responses are not delayed by the silence. A response
+ * whose rest does not arrive within its transmission time plus
+ * {@link #setSilenceTimeout(int)} is incomplete. After a corrupt or
+ * incomplete response, the input buffer is purged before the next request.
+ * <p>
+ * Requests and responses use buffers of the master, so transactions do not
+ * allocate. To poll many registers of many slaves, see {@link ModbusPoll}.
+ * Methods of a master are synchronized, as the bus carries one transaction
+ * at a time. Buses work independently, with one master and thread each.
+ *
+ * @since 2.11.0
+ */
+public class ModbusMaster {
+
+    /** Function code: read coils **/
+    public static final int READ_COILS = 1;
+    /** Function code: read discrete inputs **/
+    public static final int READ_DISCRETE_INPUTS = 2;
+    /** Function code: read holding registers **/
+    public static final int READ_HOLDING_REGISTERS = 3;
+    /** Function code: read input registers **/
+    public static final int READ_INPUT_REGISTERS = 4;
+    /** Function code: write single register **/
+    public static final int WRITE_SINGLE_REGISTER = 6;
+    /** Function code: write multiple registers **/
+    public static final int WRITE_MULTIPLE_REGISTERS = 16;
+
+    /** Largest count of registers read by one request **/
+    public static final int MAX_READ_REGISTERS = 125;
+    /** Largest count of registers written by one request **/
+    public static final int MAX_WRITE_REGISTERS = 123;
+
+    //Largest RTU frame
+    private static final int MAX_FRAME_LENGTH = 256;
+    //Slave address, function code and CRC
+    private static final int EXCEPTION_LENGTH = 5;
+
+    private final SerialPort port;
+    private final byte[] request = new byte[MAX_FRAME_LENGTH];
+    private final byte[] response = new byte[MAX_FRAME_LENGTH];
+    private final long charNanos;
+    private final long frameGapNanos;
+    private int responseTimeout = 1000;
+    private int silenceTimeout;
+    private long lastFrameEnd;
+    private boolean resync;
+    private long transactionCount;
+
+    /**
+     * Constructs a master on an open port, whose parameters are set
+     *
+     * @param port port of the bus
+     *
+     * @throws IllegalArgumentException if the baud rate of the port is not set
+     */
+    public ModbusMaster(SerialPort port) {
+        this(port, port.getBaudRate());
+    }
+
+    /**
+     * Constructs a master on an open port, timing frames for a given baud
+     * rate, e.g. when the driver rejected part of the port parameters
+     *
+     * @param port port of the bus
+     * @param baudRate baud rate of the bus
+     *
+     * @throws IllegalArgumentException if the baud rate is not positive
+     */
+    public ModbusMaster(SerialPort port, int baudRate) {
+        if(baudRate <= 0){
+            throw new IllegalArgumentException("Baud rate of " + port.getPortName() + " not set");
+        }
+        this.port = port;
+        charNanos = TimeUnit.SECONDS.toNanos(11) / baudRate;
+        frameGapNanos = baudRate > 19200 ? TimeUnit.MICROSECONDS.toNanos(1750) : charNanos * 7 / 2;
+        silenceTimeout = (int)TimeUnit.NANOSECONDS.toMillis(frameGapNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1);
+        lastFrameEnd = System.nanoTime() - frameGapNanos;
+    }
+
+    /**
+     * Gets the port of the bus
+     *
+     * @return port
+     */
+    public SerialPort getPort() {
+        return port;
+    }
+
+    /**
+     * Sets how long to wait for the start of a response, 1000 ms by default
+     *
+     * @param responseTimeout timeout in milliseconds
+     */
+    public synchronized void setResponseTimeout(int responseTimeout) {
+        if(responseTimeout <= 0){
+            throw new IllegalArgumentException("responseTimeout: " + responseTimeout);
+        }
+        this.responseTimeout = responseTimeout;
+    }
+
+    /**
+     * Sets the silence ending an incomplete response. By default it is 3.5
+     * character times, rounded up to milliseconds. USB adapters which deliver
+     * received bytes in batches need more, e.g. their latency timer.
+     *
+     * @param silenceTimeout timeout in milliseconds
+     */
+    public synchronized void setSilenceTimeout(int silenceTimeout) {
+        if(silenceTimeout <= 0){
+            throw new IllegalArgumentException("silenceTimeout: " + silenceTimeout);
+        }
+        this.silenceTimeout = silenceTimeout;
+    }
+
+    /**
+     * Gets the count of transactions completed, failed or not
+     *
+     * @return count of transactions
+     */
+    public synchronized long getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Reads holding registers
+     *
+     * @param slaveId address of the slave, 1 to 247
+     * @param address address of the first register
+     * @param count count of registers, at most {@link #MAX_READ_REGISTERS}
+     * @param values receives the unsigned register values
+     * @param offset index in <code>values</code> of the first register
+     *
+     * @throws ModbusException if the slave answered with an exception, or the response was corrupt
+     * @throws SerialPortTimeoutException if the slave did not answer
+     * @throws SerialPortException if exception occurred
+     */
+    public void readHoldingRegisters(int slaveId, int address, int count, int[] values, int offset) throws SerialPortException, SerialPortTimeoutException, ModbusException {
+        readRegisters(slaveId, READ_HOLDING_REGISTERS, address, count, values, offset);
+    }
+
+    /**
+     * Reads input registers
+     *
+     * @param slaveId address of the slave, 1 to 247
+     * @param address address of the first register
+     * @param count count of registers, at most {@link #MAX_READ_REGISTERS}
+     * @param values receives the unsigned register values
+     * @param offset index in <code>values</code> of the first register
+     *
+     * @throws ModbusException if the slave answered with an exception, or the response was corrupt
+     * @throws SerialPortTimeoutException if the slave did not answer
+     * @throws SerialPortException if exception occurred
+     */
+    public void readInputRegisters(int slaveId, int address, int count, int[] values, int offset) throws SerialPortException, SerialPortTimeoutException, ModbusException {
+        readRegisters(slaveId, READ_INPUT_REGISTERS, address, count, values, offset);
+    }
+
+    /**
+     * Writes one holding register
+     *
+     * @param slaveId address of the slave, 1 to 247
+     * @param address address of the register
+     * @param value value, 0 to 65535
+     *
+     * @throws ModbusException if the slave answered with an exception, or the response was corrupt
+     * @throws SerialPortTimeoutException if the slave did not answer
+     * @throws SerialPortException if exception occurred
+     */
+    public synchronized void writeSingleRegister(int slaveId, int address, int value) throws SerialPortException, SerialPortTimeoutException, ModbusException {
+        int length = encodeRequest(request, slaveId, WRITE_SINGLE_REGISTER, address, value);
+        transact(request, length);
+    }
+
+    /**
+     * Writes consecutive holding registers
+     *
+     * @param slaveId address of the slave, 1 to 247
+     * @param address address of the first register
+     * @param values register values, 0 to 65535
+     * @param offset index in <code>values</code> of the first register
+     * @param count count of registers, at most {@link #MAX_WRITE_REGISTERS}
+     *
+     * @throws ModbusException if the slave answered with an exception, or the response was corrupt
+     * @throws SerialPortTimeoutException if the slave did not answer
+     * @throws SerialPortException if exception occurred
+     */
+    public synchronized void writeMultipleRegisters(int slaveId, int address, int[] values, int offset, int count) throws SerialPortException, SerialPortTimeoutException, ModbusException {
+        if(count < 1 || count > MAX_WRITE_REGISTERS){
+            throw new IllegalArgumentException("count: " + count);
+        }
+        if(offset < 0 || count > values.length - offset){
+            throw new IndexOutOfBoundsException();
+        }
+        checkHeader(slaveId, address);
+        request[0] = (byte)slaveId;
+        request[1] = (byte)WRITE_MULTIPLE_REGISTERS;
+        request[2] = (byte)(address >>> 8);
+        request[3] = (byte)address;
+        request[4] = 0;
+        request[5] = (byte)count;
+        request[6] = (byte)(count * 2);
+        for(int i = 0; i < count; i++){
+            request[7 + i * 2] = (byte)(values[offset + i] >>> 8);
+            request[8 + i * 2] = (byte)values[offset + i];
+        }
+        transact(request, ModbusCrc.append(request, 7 + count * 2));
+    }
+
+    /**
+     * Polls the requests of a poll, in the order of slave addresses. A failure
+     * of one request is recorded in the poll and does not stop the others.
+     *
+     * @param poll registers to read
+     *
+     * @return count of failed requests
+     *
+     * @throws SerialPortException if the port failed, which stops the poll
+     */
+    public synchronized int poll(ModbusPoll poll) throws SerialPortException {
+        ModbusPoll.Request[] requests = poll.prepare();
+        int failures = 0;
+        for(ModbusPoll.Request next : requests){
+            try {
+                transact(next.frame, next.frame.length);
+                decodeRegisters(next.slaveId, next.function, next.count, next.values, 0);
+                next.failure = null;
+            }
+            catch(SerialPortException ex) {
+                throw ex;
+            }
+            catch(IOException ex) {
+                next.failure = ex;
+                failures++;
+            }
+        }
+        return failures;
+    }
+
+    private synchronized void readRegisters(int slaveId, int function, int address, int count, int[] values, int offset) throws SerialPortException, SerialPortTimeoutException, ModbusException {
+        if(offset < 0 || count > values.length - offset){
+            throw new IndexOutOfBoundsException();
+        }
+        int length = encodeRequest(request, slaveId, function, address, count);
+        transact(request, length);
+        decodeRegisters(slaveId, function, count, values, offset);
+    }
+
+    private void decodeRegisters(int slaveId, int function, int count, int[] values, int offset) throws ModbusException {
+        if((response[2] & 0xFF) != count * 2){
+            throw new ModbusException(slaveId, function, 0, "Unexpected byte count " + (response[2] & 0xFF));
+        }
+        for(int i = 0; i < count; i++){
+            values[offset + i] = (response[3 + i * 2] & 0xFF) << 8 | response[4 + i * 2] & 0xFF;
+        }
+    }
+
+    /**
+     * Encodes a request of 8 bytes: slave, function, two 16-bit fields, CRC
+     *
+     * @return length of the request
+     */
+    static int encodeRequest(byte[] frame, int slaveId, int function, int address, int value) {
+        checkHeader(slaveId, address);
+        if(function <= READ_INPUT_REGISTERS && (value < 1 || value > MAX_READ_REGISTERS)){
+            throw new IllegalArgumentException("count: " + value);
+        }
+        if(value < 0 || value > 0xFFFF){
+            throw new IllegalArgumentException("value: " + value);
+        }
+        frame[0] = (byte)slaveId;
+        frame[1] = (byte)function;
+        frame[2] = (byte)(address >>> 8);
+        frame[3] = (byte)address;
+        frame[4] = (byte)(value >>> 8);
+        frame[5] = (byte)value;
+        return ModbusCrc.append(frame, 6);
+    }
+
+    private static void checkHeader(int slaveId, int address) {
+        if(slaveId < 1 || slaveId > 247){
+            throw new IllegalArgumentException("slaveId: " + slaveId);
+        }
+        if(address < 0 || address > 0xFFFF){
+            throw new IllegalArgumentException("address: " + address);
+        }
+    }
+
+    /**
+     * Sends a request and receives its response into <code>response</code>
+     */
+    private void transact(byte[] frame, int length) throws SerialPortException, SerialPortTimeoutException, ModbusException {
+        transactionCount++;
+        if(resync){
+            port.purgePort(SerialPort.PURGE_RXCLEAR);
+            resync = false;
+        }
+        long silence = System.nanoTime() - lastFrameEnd;
+        if(silence < frameGapNanos){
+            LockSupport.parkNanos(frameGapNanos - silence);
+        }
+        port.writeFully(frame, 0, length, responseTimeout);
+        try {
+            receive(frame);
+        }
+        catch(SerialPortTimeoutException ex) {
+            resync = true;
+            throw ex;
+        }
+        catch(ModbusException ex) {
+            //Slave exceptions are proper frames
+            resync = ex.getExceptionCode() == 0;
+            throw ex;
+        }
+        finally {
+            lastFrameEnd = System.nanoTime();
+        }
+    }
+
+    private void receive(byte[] frame) throws SerialPortException, SerialPortTimeoutException, ModbusException {
+        int slaveId = frame[0] & 0xFF;
+        int function = frame[1] & 0xFF;
+        //Slave address, function code, and byte count or exception code or high address byte
+        port.readBytes(response, 0, 3, responseTimeout);
+        int responseFunction = response[1] & 0xFF;
+        int length;
+        if(responseFunction == (function | 0x80)){
+            length = EXCEPTION_LENGTH;
+        }
+        else if(responseFunction != function){
+            throw new ModbusException(slaveId, function, 0, "Unexpected function code " + responseFunction);
+        }
+        else if(function <= READ_INPUT_REGISTERS){
+            //A corrupt byte count would have us wait for bytes which never come
+            int byteCount = response[2] & 0xFF;
+            int count = (frame[4] & 0xFF) << 8 | frame[5] & 0xFF;
+            if(byteCount != count * 2){
+                throw new ModbusException(slaveId, function, 0, "Unexpected byte count " + byteCount);
+            }
+            length = 5 + byteCount;
+        }
+        else {
+            //Echo of address and count or value
+            length = 8;
+        }
+        int rest = length - 3;
+        long restNanos = rest * charNanos + TimeUnit.MILLISECONDS.toNanos(silenceTimeout);
+        port.readBytes(response, 3, rest, (int)TimeUnit.NANOSECONDS.toMillis(restNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1));
+        if(ModbusCrc.crc16(response, 0, length) != 0){
+            throw new ModbusException(slaveId, function, 0, "CRC error");
+        }
+        if((response[0] & 0xFF) != slaveId){
+            throw new ModbusException(slaveId, function, 0, "Response from slave " + (response[0] & 0xFF));
+        }
+        if(length == EXCEPTION_LENGTH && responseFunction != function){
+            throw new ModbusException(slaveId, function, response[2] & 0xFF, "Exception code " + (response[2] & 0xFF));
+        }
+    }
+}
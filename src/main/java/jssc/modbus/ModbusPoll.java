@@ -0,0 +1,220 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.modbus;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Registers of many slaves, read in one go by {@link ModbusMaster#poll(ModbusPoll)}
+ * <p>
+ * Ranges added to a poll are merged into as few requests as possible:
+ * adjacent or overlapping ranges of the same slave and table become one
+ * request of up to {@link ModbusMaster#MAX_READ_REGISTERS} registers.
+ * Requests are encoded once, when the poll is first run after a change,
+ * and are sent back-to-back, sorted by slave.
+ * <p>
+ * A poll is used by one thread at a time.
+ *
+ * @since 2.11.0
+ */
+public class ModbusPoll {
+
+    static final class Request {
+        final int slaveId;
+        final int function;
+        final int address;
+        final int count;
+        final int[] values;
+        final byte[] frame = new byte[8];
+        IOException failure;
+
+        Request(int slaveId, int function, int address, int count) {
+            this.slaveId = slaveId;
+            this.function = function;
+            this.address = address;
+            this.count = count;
+            values = new int[count];
+            ModbusMaster.encodeRequest(frame, slaveId, function, address, count);
+        }
+    }
+
+    private static final class Range {
+        final int slaveId;
+        final int function;
+        final int address;
+        final int count;
+        Request request;
+
+        Range(int slaveId, int function, int address, int count) {
+            this.slaveId = slaveId;
+            this.function = function;
+            this.address = address;
+            this.count = count;
+        }
+    }
+
+    private static final Comparator<Range> ORDER = new Comparator<Range>() {
+        @Override
+        public int compare(Range a, Range b) {
+            if(a.slaveId != b.slaveId){
+                return a.slaveId < b.slaveId ? -1 : 1;
+            }
+            if(a.function != b.function){
+                return a.function < b.function ? -1 : 1;
+            }
+            return a.address < b.address ? -1 : a.address == b.address ? 0 : 1;
+        }
+    };
+
+    private final List<Range> ranges = new ArrayList<Range>();
+    private Request[] requests;
+    private int maxGap;
+
+    /**
+     * Adds holding registers to read
+     *
+     * @param slaveId address of the slave, 1 to 247
+     * @param address address of the first register
+     * @param count count of registers, at most {@link ModbusMaster#MAX_READ_REGISTERS}
+     *
+     * @return index of the range, for {@link #getRegister(int, int)}
+     */
+    public int addHoldingRegisters(int slaveId, int address, int count) {
+        return add(slaveId, ModbusMaster.READ_HOLDING_REGISTERS, address, count);
+    }
+
+    /**
+     * Adds input registers to read
+     *
+     * @param slaveId address of the slave, 1 to 247
+     * @param address address of the first register
+     * @param count count of registers, at most {@link ModbusMaster#MAX_READ_REGISTERS}
+     *
+     * @return index of the range, for {@link #getRegister(int, int)}
+     */
+    public int addInputRegisters(int slaveId, int address, int count) {
+        return add(slaveId, ModbusMaster.READ_INPUT_REGISTERS, address, count);
+    }
+
+    private int add(int slaveId, int function, int address, int count) {
+        //Validates the arguments
+        ModbusMaster.encodeRequest(new byte[8], slaveId, function, address, count);
+        if(address + count > 0x10000){
+            throw new IllegalArgumentException("address: " + address + ", count: " + count);
+        }
+        ranges.add(new Range(slaveId, function, address, count));
+        requests = null;
+        return ranges.size() - 1;
+    }
+
+    /**
+     * Lets ranges separated by at most <code>maxGap</code> registers share a
+     * request. The registers in between are read and ignored, so they must
+     * exist on the slave. 0 by default.
+     *
+     * @param maxGap count of registers
+     */
+    public void setMaxGap(int maxGap) {
+        if(maxGap < 0){
+            throw new IllegalArgumentException("maxGap: " + maxGap);
+        }
+        this.maxGap = maxGap;
+        requests = null;
+    }
+
+    /**
+     * Gets the count of requests sent per poll
+     *
+     * @return count of requests
+     */
+    public int getRequestCount() {
+        return prepare().length;
+    }
+
+    /**
+     * Gets a register value of the last poll
+     *
+     * @param range index of the range, as returned when it was added
+     * @param index index of the register in the range
+     *
+     * @return unsigned value
+     *
+     * @throws IOException the failure of the request reading the range in the last poll
+     */
+    public int getRegister(int range, int index) throws IOException {
+        Range added = ranges.get(range);
+        if(index < 0 || index >= added.count){
+            throw new IndexOutOfBoundsException("index: " + index);
+        }
+        prepare();
+        if(added.request.failure != null){
+            throw added.request.failure;
+        }
+        return added.request.values[added.address - added.request.address + index];
+    }
+
+    /**
+     * Gets the failure of the request reading a range in the last poll
+     *
+     * @param range index of the range, as returned when it was added
+     *
+     * @return failure, or null if the range was read
+     */
+    public IOException getFailure(int range) {
+        prepare();
+        return ranges.get(range).request.failure;
+    }
+
+    Request[] prepare() {
+        if(requests != null){
+            return requests;
+        }
+        Range[] sorted = ranges.toArray(new Range[ranges.size()]);
+        Arrays.sort(sorted, ORDER);
+        List<Request> merged = new ArrayList<Request>();
+        int first = 0;
+        while(first < sorted.length){
+            Range start = sorted[first];
+            int end = start.address + start.count;
+            int last = first + 1;
+            while(last < sorted.length){
+                Range next = sorted[last];
+                int nextEnd = Math.max(end, next.address + next.count);
+                if(next.slaveId != start.slaveId || next.function != start.function
+                        || next.address > end + maxGap || nextEnd - start.address > ModbusMaster.MAX_READ_REGISTERS){
+                    break;
+                }
+                end = nextEnd;
+                last++;
+            }
+            Request request = new Request(start.slaveId, start.function, start.address, end - start.address);
+            for(int i = first; i < last; i++){
+                sorted[i].request = request;
+            }
+            merged.add(request);
+            first = last;
+        }
+        requests = merged.toArray(new Request[merged.size()]);
+        return requests;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Flow;
+
+/**
+ * Adapters of {@link SerialPortPublisher#asFlowPublisher()} on Java 9 and later
+ *
+ * @since 2.11.0
+ */
+final class FlowPublishers {
+
+    private FlowPublishers() {
+    }
+
+    static Object adapt(SerialPortPublisher publisher) {
+        return new FlowPublisher(publisher);
+    }
+
+    /**
+     * {@link SerialPortPublisher} as a <code>Flow.Publisher</code>
+     */
+    private static final class FlowPublisher implements Flow.Publisher<ByteBuffer> {
+
+        private final SerialPortPublisher publisher;
+
+        FlowPublisher(SerialPortPublisher publisher) {
+            this.publisher = publisher;
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+            if(subscriber == null){
+                throw new NullPointerException("subscriber");
+            }
+            publisher.subscribe(new SerialPortPublisher.Subscriber() {
+                @Override
+                public void onSubscribe(final SerialPortPublisher.Subscription subscription) {
+                    subscriber.onSubscribe(new Flow.Subscription() {
+                        @Override
+                        public void request(long count) {
+                            subscription.request(count);
+                        }
+
+                        @Override
+                        public void cancel() {
+                            subscription.cancel();
+                        }
+                    });
+                }
+
+                @Override
+                public void onNext(ByteBuffer buffer) {
+                    subscriber.onNext(buffer);
+                }
+
+                @Override
+                public void onError(Throwable failure) {
+                    subscriber.onError(failure);
+                }
+
+                @Override
+                public void onComplete() {
+                    subscriber.onComplete();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+/**
+ * Futures of {@link SerialPort#writeAsync(java.nio.ByteBuffer)} on Java 9 and later
+ *
+ * @since 2.11.0
+ */
+final class WriteFutures {
+
+    private WriteFutures() {
+    }
+
+    static Future<Integer> newFuture() {
+        return new CompletableFuture<Integer>();
+    }
+
+    static void complete(Future<Integer> future, int written) {
+        ((CompletableFuture<Integer>)future).complete(written);
+    }
+
+    static void fail(Future<Integer> future, Throwable failure) {
+        ((CompletableFuture<Integer>)future).completeExceptionally(failure);
+    }
+}
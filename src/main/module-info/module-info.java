@@ -2,4 +2,6 @@
 open module jssc {
     requires transitive org.scijava.nativelib;
     exports jssc;
+    exports jssc.frame;
+    exports jssc.modbus;
 }
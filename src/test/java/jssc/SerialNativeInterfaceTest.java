@@ -6,6 +6,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.slf4j.Logger;
 
+import java.nio.ByteBuffer;
+
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -111,6 +113,27 @@ public class SerialNativeInterfaceTest extends DisplayMethodNameRule {
         }
     }
 
+    @Test(expected = java.lang.IndexOutOfBoundsException.class)
+    public void throwsIfArrayRegionOutOfBounds() throws Exception {
+        new SerialNativeInterface().readArray(1, new byte[8], 6, 3);
+    }
+
+    @Test(expected = java.lang.IllegalArgumentException.class)
+    public void throwsIfBufferIsNotDirect() throws Exception {
+        new SerialNativeInterface().writeBuffer(1, ByteBuffer.allocate(8), 0, 8);
+    }
+
+    @Test(expected = java.lang.IndexOutOfBoundsException.class)
+    public void throwsIfBufferRegionOutOfBounds() throws Exception {
+        new SerialNativeInterface().readBuffer(1, ByteBuffer.allocateDirect(8), 4, 5);
+    }
+
+    @Test(expected = java.lang.IllegalArgumentException.class)
+    public void throwsIfEventsSnapshotTooShort() throws Exception {
+        Assume.assumeFalse(SerialNativeInterface.getOsType() == SerialNativeInterface.OS_WINDOWS);
+        new SerialNativeInterface().waitEventsArray(1, -1, new int[SerialNativeInterface.SNAPSHOT_SIZE - 1]);
+    }
+
     /**
      * I think this case should just throw an exception, as trying to read zero
      * bytes doesn't make much sense to me. But it seems we need to accept a
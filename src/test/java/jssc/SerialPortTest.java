@@ -4,6 +4,12 @@ import jssc.junit.rules.DisplayMethodNameRule;
 import org.junit.Test;
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -75,4 +81,48 @@ public class SerialPortTest extends DisplayMethodNameRule {
     }
 
 
+    /**
+     * RXCHAR fires on every wait while bytes are left, so a slow listener
+     * must not make the dispatcher queue it again and again, which would
+     * block the event thread once the queue is full.
+     */
+    @Test
+    public void dispatcherMergesRepeatedRxchar() throws InterruptedException {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final List<Integer> values = new ArrayList<Integer>();
+        final ExecutorEventDispatcher dispatcher = new ExecutorEventDispatcher(new SerialPortBatchEventListener() {
+            @Override
+            public void serialEvents(SerialPort port, SerialPortEventBatch batch) {
+                values.add(batch.getEventValue(SerialPort.MASK_RXCHAR));
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        });
+        final SerialPort serial = new SerialPort("ttyS0");
+        Thread eventThread = new Thread() {
+            @Override
+            public void run() {
+                SerialPortEventBatch batch = new SerialPortEventBatch();
+                for(int available = 1; available <= ExecutorEventDispatcher.QUEUE_CAPACITY * 2; available++){
+                    batch.clear();
+                    batch.add(SerialPort.MASK_RXCHAR, available);
+                    dispatcher.serialEvents(serial, batch);
+                }
+            }
+        };
+        eventThread.setDaemon(true);
+        eventThread.start();
+        eventThread.join(5000);
+        assertThat(eventThread.isAlive(), is(false));
+
+        tasks.get(0).run();
+        assertThat(tasks.size(), is(1));
+        assertThat(values.size(), is(2));
+        assertThat(values.get(0), is(1));
+        assertThat(values.get(1), is(ExecutorEventDispatcher.QUEUE_CAPACITY * 2));
+    }
+
 }
@@ -21,9 +21,31 @@ package jssc;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jssc.junit.rules.DisplayMethodNameRule;
 import jssc.junit.rules.VirtualPortRule;
@@ -68,4 +90,1124 @@ public class VirtualPortTest extends DisplayMethodNameRule {
     assertThat(readString, is(HELLO_WORLD));
   }
 
+  @Test
+  public void eventSnapshotsMatchWaitEvents() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialNativeInterface serial = new SerialNativeInterface();
+    final long handle = serial.openPort(this.virtualPort.getVirtualCom1().getAbsolutePath(), false);
+    final long handle2 = serial.openPort(this.virtualPort.getVirtualCom2().getAbsolutePath(), false);
+    try {
+      // when bytes arrive before each wait, as Windows reports fired events only
+      sendAndAwait(serial, handle, handle2, this.bytes.length);
+      final int[][] events = serial.waitEvents(handle2, 100);
+      sendAndAwait(serial, handle, handle2, 2 * this.bytes.length);
+      final int[] snapshot = new int[SerialNativeInterface.SNAPSHOT_SIZE];
+      assertThat(serial.waitEventsArray(handle2, 100, snapshot), is(true));
+      sendAndAwait(serial, handle, handle2, 3 * this.bytes.length);
+      final ByteBuffer buffer = ByteBuffer.allocateDirect(SerialNativeInterface.SNAPSHOT_SIZE * 4).order(ByteOrder.nativeOrder());
+      assertThat(serial.waitEventsBuffer(handle2, 100, buffer.asIntBuffer()), is(true));
+
+      // expect the snapshots to hold what waitEvents() reports
+      assertThat(snapshot[SerialNativeInterface.SNAPSHOT_INPUT], is(2 * this.bytes.length));
+      assertThat(buffer.getInt(SerialNativeInterface.SNAPSHOT_INPUT * 4), is(3 * this.bytes.length));
+      final int fired = snapshot[SerialNativeInterface.SNAPSHOT_EVENTS];
+      for (int[] event : events) {
+        int index;
+        switch (event[0]) {
+          case SerialPort.MASK_RXCHAR: index = -1; assertThat(event[1], is(this.bytes.length)); break;
+          case SerialPort.MASK_CTS: index = SerialNativeInterface.SNAPSHOT_CTS; break;
+          case SerialPort.MASK_DSR: index = SerialNativeInterface.SNAPSHOT_DSR; break;
+          case SerialPort.MASK_RING: index = SerialNativeInterface.SNAPSHOT_RING; break;
+          case SerialPort.MASK_RLSD: index = SerialNativeInterface.SNAPSHOT_RLSD; break;
+          case SerialPort.MASK_ERR: index = SerialNativeInterface.SNAPSHOT_ERRORS; break;
+          // interrupt counters of Linux
+          case 512: index = SerialNativeInterface.SNAPSHOT_BREAK; break;
+          case 1024: index = SerialNativeInterface.SNAPSHOT_TX; break;
+          case 2048: index = SerialNativeInterface.SNAPSHOT_FRAME; break;
+          case 4096: index = SerialNativeInterface.SNAPSHOT_OVERRUN; break;
+          case 8192: index = SerialNativeInterface.SNAPSHOT_PARITY; break;
+          default: index = -1;
+        }
+        if (index >= 0) {
+          assertThat(snapshot[index], is(event[1]));
+        }
+      }
+      // fired events (Windows) are those of waitEvents(), none elsewhere
+      if (fired != 0) {
+        assertThat(fired & SerialPort.MASK_RXCHAR, is(SerialPort.MASK_RXCHAR));
+        assertThat(fired & (SerialPort.MASK_BREAK | SerialPort.MASK_ERR), is(0));
+      }
+      assertThat(snapshot[SerialNativeInterface.SNAPSHOT_ERRORS], is(0));
+      for (int i = SerialNativeInterface.SNAPSHOT_CTS; i < SerialNativeInterface.SNAPSHOT_TIMESTAMP_HIGH; i++) {
+        assertThat(buffer.getInt(i * 4), is(snapshot[i]));
+      }
+    } finally {
+      serial.closePort(handle);
+      serial.closePort(handle2);
+    }
+  }
+
+  private void sendAndAwait(SerialNativeInterface serial, long from, long to, int expected) throws Exception {
+    serial.writeBytes(from, this.bytes);
+    final long deadline = System.currentTimeMillis() + 2000;
+    while (serial.getBuffersBytesCount(to)[0] < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void transfersDirectBuffers() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    try {
+      // when a direct buffer is written to port 1
+      final ByteBuffer out = ByteBuffer.allocateDirect(32);
+      out.put(this.bytes).flip();
+      while (out.hasRemaining()) {
+        port1.write(out);
+      }
+
+      // expect the same content in a direct buffer read from port 2.
+      final ByteBuffer in = ByteBuffer.allocateDirect(this.bytes.length);
+      assertThat(port2.read(in), is(this.bytes.length));
+      assertThat(in.position(), is(this.bytes.length));
+      in.flip();
+      final byte[] readBytes = new byte[in.remaining()];
+      in.get(readBytes);
+      assertThat(new String(readBytes, "UTF-8"), is(HELLO_WORLD));
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void readsIntoArrayRegion() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    try {
+      port1.writeBytes(this.bytes);
+
+      // expect the bytes in the requested region only.
+      final byte[] buffer = new byte[this.bytes.length + 4];
+      assertThat(port2.readBytes(buffer, 2, this.bytes.length), is(this.bytes.length));
+      assertThat(buffer[0], is((byte) 0));
+      assertThat(buffer[buffer.length - 1], is((byte) 0));
+      assertThat(new String(buffer, 2, this.bytes.length, "UTF-8"), is(HELLO_WORLD));
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void writesArrayRegion() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    try {
+      // when only the middle of a larger buffer is written
+      final byte[] frame = new byte[this.bytes.length + 6];
+      System.arraycopy(this.bytes, 0, frame, 3, this.bytes.length);
+      assertThat(port1.write(frame, 3, this.bytes.length), is(this.bytes.length));
+      port1.writeByte((byte) '!');
+
+      // expect exactly that region followed by the single byte.
+      assertThat(port2.readString(this.bytes.length + 1), is(HELLO_WORLD + "!"));
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void writesFullyOrReportsTransferredBytes() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    try {
+      port1.writeFully(this.bytes, 1000);
+      assertThat(port2.readString(this.bytes.length), is(HELLO_WORLD));
+
+      // when nobody drains port 2, the pty buffers fill up eventually
+      final byte[] large = new byte[1024 * 1024];
+      try {
+        port1.writeFully(large, 200);
+        fail("Expected a timeout");
+      } catch (SerialPortTimeoutException ex) {
+        // expect the count of bytes which went out.
+        assertThat(ex.getBytesTransferred() > 0, is(true));
+        assertThat(ex.getBytesTransferred() < large.length, is(true));
+      }
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void writeFullyLeavesPortBlockingForOtherThreads() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final CountDownLatch writing = new CountDownLatch(1);
+    final AtomicInteger failures = new AtomicInteger();
+    port1.openPort();
+    port2.openPort();
+    try {
+      assertThat(port2.setReadMode(SerialPort.READ_MODE_BLOCKING, 0, 0), is(true));
+      // when another thread keeps writing the same port fully
+      Thread writer = new Thread() {
+        @Override
+        public void run() {
+          writing.countDown();
+          try {
+            // nobody drains port 1, so this waits for the driver until the deadline
+            port2.writeFully(new byte[1024 * 1024], 1000);
+          } catch (SerialPortTimeoutException ex) {
+            // expected
+          } catch (Exception ex) {
+            failures.incrementAndGet();
+          }
+        }
+      };
+      writer.start();
+      assertThat(writing.await(2, TimeUnit.SECONDS), is(true));
+      final Thread blockedWriter = writer;
+      Thread sender = new Thread() {
+        @Override
+        public void run() {
+          try {
+            Thread.sleep(300);
+            port1.writeBytes(bytes);
+            // the pty link relays nothing while one direction is full
+            byte[] drain = new byte[4096];
+            while (blockedWriter.isAlive()) {
+              if (port1.readAvailable(drain, 0, drain.length) == 0) {
+                Thread.sleep(1);
+              }
+            }
+          } catch (Exception ex) {
+            failures.incrementAndGet();
+          }
+        }
+      };
+      sender.start();
+
+      // expect a blocking read to wait for data instead of returning empty
+      assertThat(port2.readByMode(new byte[64], 0, 64) > 0, is(true));
+      writer.join();
+      sender.join();
+      assertThat(failures.get(), is(0));
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void timedReadHandsOverPartialData() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    try {
+      port1.writeBytes(this.bytes);
+      assertThat(port2.readString(this.bytes.length, 1000), is(HELLO_WORLD));
+
+      // when less bytes arrive than requested
+      port1.writeBytes(this.bytes);
+      try {
+        port2.readBytes(this.bytes.length + 1, 200);
+        fail("Expected a timeout");
+      } catch (SerialPortTimeoutException ex) {
+        // expect the received bytes to be handed over.
+        assertThat(ex.getBytesTransferred(), is(this.bytes.length));
+        assertThat(new String(ex.getReceivedBytes(), "UTF-8"), is(HELLO_WORLD));
+      }
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void readsAvailableBytesWithoutBlocking() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    try {
+      // expect nothing while nothing was sent
+      assertThat(port2.readAvailable(64).length, is(0));
+      assertThat(port2.readBytes() == null, is(true));
+
+      port1.writeBytes(this.bytes);
+      Thread.sleep(100);
+
+      // expect at most the requested count, the rest remains for the next read.
+      final byte[] head = port2.readAvailable(5);
+      assertThat(new String(head, "UTF-8"), is(HELLO_WORLD.substring(0, 5)));
+      assertThat(port2.readString(), is(HELLO_WORLD.substring(5)));
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void transfersThroughStreams() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    try {
+      final DataOutputStream out = new DataOutputStream(port1.getOutputStream(16, 1000));
+      out.writeUTF(HELLO_WORLD);
+      out.writeInt(0x12345678);
+      out.flush();
+
+      final DataInputStream in = new DataInputStream(port2.getInputStream(8, 1000));
+      assertThat(in.readUTF(), is(HELLO_WORLD));
+      assertThat(in.readInt(), is(0x12345678));
+
+      // expect a timeout instead of blocking forever.
+      try {
+        in.read();
+        fail("Expected a timeout");
+      } catch (SerialPortTimeoutException ex) {
+        assertThat(ex.getTimeoutValue(), is(1000));
+      }
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void outputStreamKeepsBytesAfterTimeout() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    try {
+      final byte[] large = new byte[256 * 1024];
+      for (int i = 0; i < large.length; i++) {
+        large[i] = (byte) (i * 31 + (i >> 8));
+      }
+      final OutputStream out = port1.getOutputStream(large.length + 1, 200);
+      out.write(large);
+
+      // when nobody drains port 2, the flush times out part way
+      try {
+        out.flush();
+        fail("Expected a timeout");
+      } catch (SerialPortTimeoutException ex) {
+        assertThat(ex.getBytesTransferred() < large.length, is(true));
+      }
+
+      // expect the next flushes to send the rest, in order and without gaps.
+      final ByteArrayOutputStream received = new ByteArrayOutputStream();
+      final Thread reader = new Thread() {
+        @Override
+        public void run() {
+          try {
+            while (received.size() < large.length) {
+              received.write(port2.readBytes(Math.min(4096, large.length - received.size()), 5000));
+            }
+          } catch (Exception ignored) {
+            // the assertion below reports the missing bytes
+          }
+        }
+      };
+      reader.start();
+      for (int attempt = 0; ; attempt++) {
+        try {
+          out.flush();
+          break;
+        } catch (SerialPortTimeoutException ex) {
+          assertThat(attempt < 100, is(true));
+        }
+      }
+      reader.join(10000);
+      assertThat(received.size(), is(large.length));
+      assertThat(Arrays.equals(received.toByteArray(), large), is(true));
+    } finally {
+      port1.closePort();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void channelReadIsInterruptible() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    final SerialPortChannel channel1 = port1.openChannel();
+    final SerialPortChannel channel2 = port2.openChannel();
+    try {
+      // when bytes are written through one channel, expect them from the other
+      channel1.write(ByteBuffer.wrap(this.bytes));
+      final ByteBuffer in = ByteBuffer.allocateDirect(64);
+      while (in.position() < this.bytes.length) {
+        channel2.read(in);
+      }
+      in.flip();
+      final byte[] readBytes = new byte[in.remaining()];
+      in.get(readBytes);
+      assertThat(new String(readBytes, "UTF-8"), is(HELLO_WORLD));
+
+      // when a thread waiting for more bytes gets interrupted
+      final Thread reader = Thread.currentThread();
+      final Thread interrupter = new Thread() {
+        @Override
+        public void run() {
+          try {
+            Thread.sleep(200);
+          } catch (InterruptedException ignored) {
+            // fall through
+          }
+          reader.interrupt();
+        }
+      };
+      interrupter.start();
+      try {
+        channel2.read(ByteBuffer.allocate(1));
+        fail("Expected the read to be interrupted");
+      } catch (ClosedByInterruptException ex) {
+        // expect the channel and its port to be closed.
+        assertThat(Thread.interrupted(), is(true));
+        assertThat(channel2.isOpen(), is(false));
+        assertThat(port2.isOpened(), is(false));
+      }
+    } finally {
+      channel1.close();
+      channel2.close();
+    }
+  }
+
+  @Test
+  public void channelReadEndsWhenPortHangsUp() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    final SerialPortChannel channel2 = port2.openChannel();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // when socat goes away after one side was closed while a read waits
+      final Future<Integer> read = executor.submit(new Callable<Integer>() {
+        @Override
+        public Integer call() throws IOException {
+          return channel2.read(ByteBuffer.allocateDirect(64));
+        }
+      });
+      Thread.sleep(200);
+      port1.closePort();
+
+      // expect the end of the stream instead of a spinning read
+      assertThat(read.get(5, TimeUnit.SECONDS), is(-1));
+    } finally {
+      executor.shutdownNow();
+      channel2.close();
+    }
+  }
+
+  @Test
+  public void readWithTimeoutFailsWhenPortHangsUp() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    port1.openPort();
+    port2.openPort();
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      // when socat goes away after one side was closed while a read waits
+      final Future<byte[]> read = executor.submit(new Callable<byte[]>() {
+        @Override
+        public byte[] call() throws Exception {
+          return port2.readBytes(16, 10000);
+        }
+      });
+      Thread.sleep(200);
+      port1.closePort();
+
+      // expect an error long before the timeout, not a timeout
+      try {
+        read.get(5, TimeUnit.SECONDS);
+        fail("Expected the read to fail");
+      } catch (ExecutionException ex) {
+        assertThat(ex.getCause() instanceof SerialPortException, is(true));
+      }
+    } finally {
+      executor.shutdownNow();
+      port2.closePort();
+    }
+  }
+
+  @Test
+  public void selectorReportsReadablePorts() throws Exception {
+    // given virtualcom port is available on a platform with selectors
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+    Assume.assumeTrue(SerialNativeInterface.getOsType() == SerialNativeInterface.OS_LINUX);
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final SerialPortSelector selector = new SerialPortSelector();
+    try {
+      port1.openPort();
+      port2.openPort();
+      final SerialPortSelector.Key key = port2.register(selector, SerialPortSelector.OP_READ, "port2");
+
+      // when nothing was written, expect no ready port
+      assertThat(selector.selectNow(), is(0));
+
+      // when bytes are written, expect the other port to be readable
+      port1.writeBytes(this.bytes);
+      assertThat(selector.select(2000), is(1));
+      assertThat(selector.selectedKeys().contains(key), is(true));
+      assertThat(key.isReadable(), is(true));
+      assertThat(key.attachment(), is((Object) "port2"));
+
+      // when woken up from another thread, expect select to return
+      port2.readBytes(this.bytes.length);
+      new Thread() {
+        @Override
+        public void run() {
+          try {
+            Thread.sleep(200);
+          } catch (InterruptedException ignored) {
+            // fall through
+          }
+          selector.wakeup();
+        }
+      }.start();
+      assertThat(selector.select(-1), is(0));
+
+      // when the port is closed, expect its key to be cancelled
+      port2.closePort();
+      assertThat(key.isValid(), is(false));
+      assertThat(selector.keys().isEmpty(), is(true));
+      assertThat(selector.selectNow(), is(0));
+    } finally {
+      selector.close();
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void reactorDispatchesEventsOfManyPorts() throws Exception {
+    // given virtualcom port is available on a platform with selectors
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+    Assume.assumeTrue(SerialNativeInterface.getOsType() == SerialNativeInterface.OS_LINUX);
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final SerialPortEventReactor reactor = new SerialPortEventReactor(1);
+    final CountDownLatch received1 = new CountDownLatch(1);
+    final CountDownLatch received2 = new CountDownLatch(1);
+    final SerialPortEventListener listener = new SerialPortEventListener() {
+      @Override
+      public void serialEvent(SerialPortEvent event) {
+        try {
+          if (event.isRXCHAR() && event.getPort().readBytes() != null) {
+            (event.getPort() == port1 ? received1 : received2).countDown();
+          }
+        } catch (SerialPortException ex) {
+          throw new IllegalStateException(ex);
+        }
+      }
+    };
+    try {
+      port1.openPort();
+      port2.openPort();
+      // when both ports listen through a single reactor thread
+      port1.addEventListener(listener, SerialPort.MASK_RXCHAR, reactor);
+      port2.addEventListener(listener, SerialPort.MASK_RXCHAR, reactor);
+      port1.writeBytes(this.bytes);
+      port2.writeBytes(this.bytes);
+
+      // expect the bytes of both ports to be reported
+      assertThat(received1.await(5, TimeUnit.SECONDS), is(true));
+      assertThat(received2.await(5, TimeUnit.SECONDS), is(true));
+    } finally {
+      reactor.close();
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void eventThreadIdlesWithoutBurningCpu() throws Exception {
+    // given virtualcom port is available and thread cpu time can be measured
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threads.isThreadCpuTimeSupported());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final CountDownLatch received = new CountDownLatch(1);
+    try {
+      port1.openPort();
+      port2.openPort();
+      port2.addEventListener(new SerialPortEventListener() {
+        @Override
+        public void serialEvent(SerialPortEvent event) {
+          try {
+            if (event.isRXCHAR() && event.getPort().readBytes() != null) {
+              received.countDown();
+            }
+          } catch (SerialPortException ex) {
+            throw new IllegalStateException(ex);
+          }
+        }
+      });
+      long eventThreadId = -1;
+      for (Thread thread : Thread.getAllStackTraces().keySet()) {
+        if (thread.getName().equals("EventThread " + port2.getPortName())) {
+          eventThreadId = thread.getId();
+        }
+      }
+      assertThat(eventThreadId != -1, is(true));
+
+      // when the port is idle for a second
+      final long cpuBefore = threads.getThreadCpuTime(eventThreadId);
+      Thread.sleep(1000);
+      final long idleCpuMillis = (threads.getThreadCpuTime(eventThreadId) - cpuBefore) / 1000000;
+
+      // expect the event thread to sleep, and to still report input promptly
+      assertThat("idle cpu " + idleCpuMillis + "ms", idleCpuMillis < 50, is(true));
+      final long start = System.nanoTime();
+      port1.writeBytes(this.bytes);
+      assertThat(received.await(2, TimeUnit.SECONDS), is(true));
+      final long latencyMillis = (System.nanoTime() - start) / 1000000;
+      assertThat("latency " + latencyMillis + "ms", latencyMillis < 500, is(true));
+
+      // when the other side hangs up, which leaves the port readable for good
+      port1.closePort();
+      Thread.sleep(1000);
+      final long cpuHungUp = threads.getThreadCpuTime(eventThreadId);
+      Thread.sleep(1000);
+      final long hungUpCpuMillis = (threads.getThreadCpuTime(eventThreadId) - cpuHungUp) / 1000000;
+
+      // expect the event thread to keep sleeping instead of spinning
+      assertThat("hung up cpu " + hungUpCpuMillis + "ms", hungUpCpuMillis < 100, is(true));
+    } finally {
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void batchListenerReceivesInputInOneCall() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final CountDownLatch received = new CountDownLatch(1);
+    final int[] eventTypes = new int[1];
+    final int[] inputBytes = new int[1];
+    try {
+      port1.openPort();
+      port2.openPort();
+      port2.addEventListener(new SerialPortBatchEventListener() {
+        @Override
+        public void serialEvents(SerialPort port, SerialPortEventBatch batch) {
+          if (batch.contains(SerialPort.MASK_RXCHAR) && received.getCount() > 0) {
+            eventTypes[0] = batch.getEventTypes();
+            inputBytes[0] = batch.getEventValue(SerialPort.MASK_RXCHAR);
+            received.countDown();
+          }
+        }
+      }, SerialPort.MASK_RXCHAR);
+
+      // when data is written to the other end
+      port1.writeBytes(this.bytes);
+
+      // expect one batch reporting the input
+      assertThat(received.await(2, TimeUnit.SECONDS), is(true));
+      assertThat(eventTypes[0], is(SerialPort.MASK_RXCHAR));
+      assertThat(inputBytes[0] > 0, is(true));
+    } finally {
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void executorCallsListenerOutsideEventThread() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final ExecutorService executor = SerialPortExecutors.newEventExecutor();
+    final CountDownLatch received = new CountDownLatch(1);
+    final String[] threadName = new String[1];
+    try {
+      port1.openPort();
+      port2.openPort();
+      port2.addEventListener(new SerialPortEventListener() {
+        @Override
+        public void serialEvent(SerialPortEvent event) {
+          if (event.isRXCHAR() && received.getCount() > 0) {
+            threadName[0] = Thread.currentThread().getName();
+            received.countDown();
+          }
+        }
+      }, SerialPort.MASK_RXCHAR, executor);
+
+      // when data is written to the other end
+      port1.writeBytes(this.bytes);
+
+      // expect the executor to deliver the event
+      assertThat(received.await(2, TimeUnit.SECONDS), is(true));
+      assertThat(threadName[0].equals("EventThread " + port2.getPortName()), is(false));
+    } finally {
+      executor.shutdown();
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void continuousReceiveWrapsAroundSmallRing() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final byte[] sent = new byte[1000];
+    for (int i = 0; i < sent.length; i++) {
+      sent[i] = (byte) i;
+    }
+    try {
+      port1.openPort();
+      port2.openPort();
+      final SerialPortReceiveRing ring = port2.startContinuousReceive(50);
+      assertThat(ring.capacity(), is(64));
+
+      // when more than the ring holds is sent
+      port1.writeBytes(sent);
+      final byte[] received = new byte[sent.length];
+      int count = 0;
+      while (count < received.length && ring.awaitData(2000)) {
+        count += ring.read(received, count, Math.min(10, received.length - count));
+      }
+
+      // expect everything in order, the ring having run full
+      assertThat(count, is(sent.length));
+      assertThat(Arrays.equals(received, sent), is(true));
+      assertThat(ring.getHighWaterMark(), is(64));
+      assertThat(port2.stopContinuousReceive(), is(true));
+      assertThat(ring.isReceiving(), is(false));
+      assertThat(ring.read(received, 0, 1), is(-1));
+    } finally {
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void eventCharRaisesRxFlagUpToDelimiter() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final CountDownLatch received = new CountDownLatch(1);
+    final int[] framed = new int[1];
+    try {
+      port1.openPort();
+      port2.openPort();
+      final SerialPortReceiveRing ring = port2.startContinuousReceive(256);
+      assertThat(port2.setEventChar((byte) '\n'), is(true));
+      port2.addEventListener(new SerialPortEventListener() {
+        @Override
+        public void serialEvent(SerialPortEvent event) {
+          if (event.isRXFLAG() && received.getCount() > 0) {
+            framed[0] = event.getEventValue();
+            received.countDown();
+          }
+        }
+      }, SerialPort.MASK_RXFLAG);
+
+      // when a line and the start of the next one are sent
+      port1.writeBytes("abc\nde".getBytes("US-ASCII"));
+
+      // expect the event to count the bytes up to the delimiter
+      assertThat(received.await(2, TimeUnit.SECONDS), is(true));
+      assertThat(framed[0], is(4));
+      assertThat(ring.availableToEventChar(), is(4));
+    } finally {
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void eventsAndReadsCarryArrivalTime() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final CountDownLatch received = new CountDownLatch(1);
+    final long[] eventTime = new long[1];
+    try {
+      port1.openPort();
+      port2.openPort();
+      port2.addEventListener(new SerialPortEventListener() {
+        @Override
+        public void serialEvent(SerialPortEvent event) {
+          if (event.isRXCHAR() && received.getCount() > 0) {
+            eventTime[0] = event.getTimestampNanos();
+            received.countDown();
+          }
+        }
+      }, SerialPort.MASK_RXCHAR);
+
+      // when data is written
+      long sent = System.nanoTime();
+      port1.writeBytes(this.bytes);
+
+      // expect timestamps of the same clock as System.nanoTime(), between sending and returning
+      assertThat(received.await(2, TimeUnit.SECONDS), is(true));
+      assertThat(eventTime[0] >= sent && eventTime[0] <= System.nanoTime(), is(true));
+      SerialPortReadResult result = port2.readTimestamped(ByteBuffer.allocateDirect(64), 2000);
+      long returned = System.nanoTime();
+      assertThat(result.getByteCount() > 0, is(true));
+      assertThat(result.getTimestampNanos() >= sent && result.getTimestampNanos() <= returned, is(true));
+    } finally {
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void readModeWaitsForCountOrIdleLine() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final byte[] buffer = new byte[16];
+    try {
+      port1.openPort();
+      port2.openPort();
+
+      // expect the non-blocking mode to return at once
+      assertThat(port2.setReadMode(SerialPort.READ_MODE_NON_BLOCKING, 0, 0), is(true));
+      assertThat(port2.readByMode(buffer, 0, buffer.length), is(0));
+
+      // when a frame of four bytes arrives in two parts
+      assertThat(port2.setReadMode(SerialPort.READ_MODE_MIN_COUNT, 4, 0), is(true));
+      port1.writeBytes(new byte[]{1, 2});
+      Thread writer = new Thread() {
+        @Override
+        public void run() {
+          try {
+            Thread.sleep(100);
+            port1.writeBytes(new byte[]{3, 4});
+          } catch (Exception ex) {
+            throw new RuntimeException(ex);
+          }
+        }
+      };
+      writer.start();
+
+      // expect a single read to return the whole frame
+      assertThat(port2.readByMode(buffer, 0, buffer.length), is(4));
+      assertThat(buffer[3], is((byte) 4));
+      writer.join();
+
+      // expect a short frame to be returned once the line went idle
+      assertThat(port2.setReadMode(SerialPort.READ_MODE_IDLE, 10, 1), is(true));
+      assertThat(port2.getReadMode(), is(SerialPort.READ_MODE_IDLE));
+      port1.writeBytes(new byte[]{5, 6, 7});
+      ByteBuffer frame = ByteBuffer.allocateDirect(16);
+      assertThat(port2.readByMode(frame), is(3));
+      assertThat(frame.get(2), is((byte) 7));
+    } finally {
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void setsArbitraryBaudRateExactly() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    try {
+      port.openPort();
+
+      // when a rate without constant in termios.h is set (a pty accepts the speed, but has no modem lines)
+      port.setParams(3125000, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+
+      // expect the driver to report it exactly
+      assertThat(port.getActualBaudRate(), is(3125000));
+
+      // expect a standard rate to replace it again
+      port.setParams(SerialPort.BAUDRATE_921600, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+      assertThat(port.getActualBaudRate(), is(SerialPort.BAUDRATE_921600));
+    } finally {
+      if (port.isOpened()) {
+        port.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void reportsRateOfCustomDivisor() throws Exception {
+    // given a UART, which has a custom divisor unlike pseudo terminals
+    final File uart = new File("/dev/ttyS0");
+    Assume.assumeTrue(uart.exists() && uart.canRead() && uart.canWrite());
+
+    final SerialPort port = new SerialPort(uart.getAbsolutePath());
+    System.setProperty(SerialNativeInterface.PROPERTY_JSSC_CUSTOM_DIVISOR, "true");
+    try {
+      port.openPort();
+
+      // when a rate without constant in termios.h is set through the divisor fallback
+      Assume.assumeTrue(port.setParams(14400, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE));
+
+      // expect the rate of the divisor, not the B38400 standing in for it
+      assertThat(port.getActualBaudRate(), is(14400));
+    } finally {
+      System.clearProperty(SerialNativeInterface.PROPERTY_JSSC_CUSTOM_DIVISOR);
+      if (port.isOpened()) {
+        port.setParams(SerialPort.BAUDRATE_9600, SerialPort.DATABITS_8, SerialPort.STOPBITS_1, SerialPort.PARITY_NONE);
+        port.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void lowLatencyReportsNothingForPseudoTerminal() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    try {
+      port.openPort();
+
+      // expect neither a serial driver nor a USB adapter behind a pty
+      assertThat(port.setLowLatency(true), is(0));
+      assertThat(port.setLowLatency(false), is(0));
+    } finally {
+      if (port.isOpened()) {
+        port.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void writeAsyncCompletesQueuedFramesInOrder() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    try {
+      port1.openPort();
+      port2.openPort();
+
+      // when several frames are queued without waiting
+      final List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+      for (int i = 0; i < 3; i++) {
+        futures.add(port1.writeAsync(ByteBuffer.wrap(this.bytes)));
+      }
+      futures.add(port1.writeAsync(ByteBuffer.wrap(this.bytes), true));
+
+      // expect each future to report its frame, and the frames to arrive in order
+      for (Future<Integer> future : futures) {
+        assertThat(future.get(2, TimeUnit.SECONDS), is(this.bytes.length));
+      }
+      final byte[] received = port2.readBytes(this.bytes.length * futures.size(), 2000);
+      assertThat(new String(received, "UTF-8"), is(HELLO_WORLD + HELLO_WORLD + HELLO_WORLD + HELLO_WORLD));
+    } finally {
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void publisherReadsOnlyWhatWasRequested() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort port2 = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    final ByteArrayOutputStream received = new ByteArrayOutputStream();
+    final AtomicInteger buffers = new AtomicInteger();
+    final CountDownLatch completed = new CountDownLatch(1);
+    final SerialPortPublisher.Subscription[] subscription = new SerialPortPublisher.Subscription[1];
+    try {
+      port1.openPort();
+      port2.openPort();
+      port2.openPublisher(4).subscribe(new SerialPortPublisher.Subscriber() {
+        @Override
+        public void onSubscribe(SerialPortPublisher.Subscription s) {
+          subscription[0] = s;
+          s.request(1);
+        }
+
+        @Override
+        public void onNext(ByteBuffer buffer) {
+          synchronized (received) {
+            received.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+          }
+          buffers.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+        }
+
+        @Override
+        public void onComplete() {
+          completed.countDown();
+        }
+      });
+
+      // when more is sent than one buffer holds
+      port1.writeBytes(this.bytes);
+      Thread.sleep(200);
+
+      // expect a single buffer until more is requested
+      assertThat(buffers.get(), is(1));
+      subscription[0].request(Long.MAX_VALUE);
+      final long deadline = System.currentTimeMillis() + 2000;
+      while (received.size() < this.bytes.length && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      synchronized (received) {
+        assertThat(new String(received.toByteArray(), "UTF-8"), is(HELLO_WORLD));
+      }
+      port2.closePort();
+      assertThat(completed.await(2, TimeUnit.SECONDS), is(true));
+    } finally {
+      if (port1.isOpened()) {
+        port1.closePort();
+      }
+      if (port2.isOpened()) {
+        port2.closePort();
+      }
+    }
+  }
+
+  @Test
+  public void modemLineWaitTimesOutWithoutChange() throws Exception {
+    // given virtualcom port is available on a platform with modem line waits
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+    Assume.assumeTrue(SerialNativeInterface.getOsType() != SerialNativeInterface.OS_WINDOWS);
+
+    final SerialPort port1 = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    try {
+      port1.openPort();
+
+      // when no line changes within the timeout, expect no change
+      final long start = System.currentTimeMillis();
+      assertThat(port1.awaitModemLineChange(SerialPort.MASK_CTS | SerialPort.MASK_RLSD, 200) == null, is(true));
+      assertThat(System.currentTimeMillis() - start >= 200, is(true));
+
+      // when the mask has no modem line, expect the call to be refused
+      try {
+        port1.awaitModemLineChange(SerialPort.MASK_RXCHAR, 200);
+        fail("Expected IllegalArgumentException");
+      } catch (IllegalArgumentException expected) {
+        // expected
+      }
+    } finally {
+      port1.closePort();
+    }
+  }
+
 }
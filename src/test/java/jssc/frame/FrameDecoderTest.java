@@ -0,0 +1,142 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.frame;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import jssc.junit.rules.DisplayMethodNameRule;
+import org.junit.Test;
+
+public class FrameDecoderTest extends DisplayMethodNameRule {
+
+  private final List<String> frames = new ArrayList<String>();
+
+  private final FrameHandler collector = new FrameHandler() {
+    @Override
+    public void onFrame(ByteBuffer frame) {
+      StringBuilder text = new StringBuilder();
+      while (frame.hasRemaining()) {
+        int value = frame.get() & 0xFF;
+        text.append(value >= 0x20 && value < 0x7F ? String.valueOf((char) value) : "<" + Integer.toHexString(value) + ">");
+      }
+      frames.add(text.toString());
+    }
+  };
+
+  private static void feed(FrameDecoder decoder, byte... bytes) {
+    decoder.decode(ByteBuffer.wrap(bytes));
+  }
+
+  private static void feed(FrameDecoder decoder, String text) {
+    for (char c : text.toCharArray()) {
+      // one byte at a time, as from a slow line
+      feed(decoder, (byte) c);
+    }
+  }
+
+  @Test
+  public void delimiterFramesArriveInPieces() {
+    FrameDecoder decoder = new DelimiterFrameDecoder(8, (byte) '\n', collector);
+
+    feed(decoder, "ab");
+    decoder.decode("c\nde\n\nf".getBytes(), 0, 7);
+
+    assertThat(frames.toString(), is("[abc, de, ]"));
+    assertThat(decoder.getPendingCount(), is(1));
+  }
+
+  @Test
+  public void delimiterDropsOversizedFrame() {
+    FrameDecoder decoder = new DelimiterFrameDecoder(4, (byte) '\n', collector);
+
+    feed(decoder, "0123456789\nok\n");
+
+    assertThat(frames.toString(), is("[ok]"));
+    assertThat(decoder.getDiscardedCount(), is(1L));
+  }
+
+  @Test
+  public void lengthFieldFramesIncludeHeader() {
+    // 1-byte address, 2-byte little endian length, 1-byte checksum
+    FrameDecoder decoder = new LengthFieldFrameDecoder(16, 1, 2, 1, ByteOrder.LITTLE_ENDIAN, collector);
+
+    feed(decoder, (byte) 'A', (byte) 2, (byte) 0, (byte) 'x', (byte) 'y', (byte) 'z', (byte) 'B', (byte) 0);
+    feed(decoder, (byte) 0, (byte) 'c');
+
+    assertThat(frames.toString(), is("[A<2><0>xyz, B<0><0>c]"));
+  }
+
+  @Test
+  public void lengthFieldSkipsNoise() {
+    FrameDecoder decoder = new LengthFieldFrameDecoder(4, 0, 1, 0, ByteOrder.BIG_ENDIAN, collector);
+
+    feed(decoder, (byte) 0x7F, (byte) 2, (byte) 'o', (byte) 'k');
+
+    assertThat(frames.toString(), is("[<2>ok]"));
+    assertThat(decoder.getDiscardedCount(), is(1L));
+  }
+
+  @Test
+  public void fixedLengthFramesReuseBuffer() {
+    FrameDecoder decoder = new FixedLengthFrameDecoder(3, collector);
+
+    feed(decoder, "abcdefgh");
+
+    assertThat(frames.toString(), is("[abc, def]"));
+    assertThat(decoder.getPendingCount(), is(2));
+  }
+
+  @Test
+  public void slipFramesAreUnescaped() {
+    FrameDecoder decoder = new SlipFrameDecoder(8, collector);
+
+    feed(decoder, (byte) 0xC0, (byte) 'a', (byte) 0xDB, (byte) 0xDC, (byte) 'b', (byte) 0xDB, (byte) 0xDD, (byte) 0xC0);
+    feed(decoder, (byte) 'c', (byte) 0xDB, (byte) 'd', (byte) 0xC0);
+
+    assertThat(frames.toString(), is("[a<c0>b<db>]"));
+    assertThat(decoder.getDiscardedCount(), is(1L));
+  }
+
+  @Test
+  public void cobsFramesRestoreZeros() {
+    FrameDecoder decoder = new CobsFrameDecoder(8, collector);
+
+    feed(decoder, (byte) 3, (byte) 'a', (byte) 'b', (byte) 2, (byte) 'c', (byte) 1, (byte) 0);
+    feed(decoder, (byte) 1, (byte) 1, (byte) 0);
+
+    assertThat(frames.toString(), is("[ab<0>c<0>, <0>]"));
+  }
+
+  @Test
+  public void decodersChain() {
+    // COBS frames, each carrying length-prefixed records
+    FrameDecoder decoder = new CobsFrameDecoder(16,
+        new LengthFieldFrameDecoder(8, 0, 1, 0, ByteOrder.BIG_ENDIAN, collector));
+
+    feed(decoder, (byte) 4, (byte) 2, (byte) 'h', (byte) 'i', (byte) 0);
+
+    assertThat(frames.toString(), is("[<2>hi]"));
+  }
+}
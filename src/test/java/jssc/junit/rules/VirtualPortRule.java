@@ -45,7 +45,7 @@ public class VirtualPortRule implements TestRule {
 
   private static final Logger LOG = LogManager.getLogger(VirtualPortRule.class);
 
-  private static final ExecutorService executor = Executors.newCachedThreadPool();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
 
   private final List<Future<?>> processes = new ArrayList<Future<?>>();
 
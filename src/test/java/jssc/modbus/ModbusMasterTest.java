@@ -0,0 +1,204 @@
+/*
+ * GNU Lesser General Public License v3.0
+ * Copyright (C) 2026
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package jssc.modbus;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import jssc.SerialPort;
+import jssc.SerialPortException;
+import jssc.SerialPortTimeoutException;
+import jssc.junit.rules.DisplayMethodNameRule;
+import jssc.junit.rules.VirtualPortRule;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+
+public class ModbusMasterTest extends DisplayMethodNameRule {
+
+  private static final Logger log = getLogger(ModbusMasterTest.class);
+
+  @Rule
+  public VirtualPortRule virtualPort = new VirtualPortRule();
+
+  /**
+   * Slave answering register reads with the register address plus its own
+   * address times 1000, and rejecting registers from 100 on
+   */
+  private static final class Slave extends Thread {
+    private final SerialPort port;
+    private volatile boolean stopped;
+    //Answers with two bytes more than requested, like a corrupt byte count
+    private volatile boolean corrupt;
+
+    Slave(SerialPort port) {
+      super("Modbus slave");
+      this.port = port;
+    }
+
+    @Override
+    public void run() {
+      byte[] request = new byte[8];
+      byte[] response = new byte[256];
+      while (!stopped) {
+        try {
+          port.readBytes(request, 0, request.length, 100);
+        } catch (SerialPortTimeoutException ex) {
+          continue;
+        } catch (SerialPortException ex) {
+          return;
+        }
+        int slaveId = request[0] & 0xFF;
+        int function = request[1] & 0xFF;
+        int address = (request[2] & 0xFF) << 8 | request[3] & 0xFF;
+        int count = (request[4] & 0xFF) << 8 | request[5] & 0xFF;
+        int length;
+        response[0] = (byte) slaveId;
+        if (address + count > 100) {
+          response[1] = (byte) (function | 0x80);
+          response[2] = (byte) ModbusException.ILLEGAL_DATA_ADDRESS;
+          length = 3;
+        } else {
+          if (corrupt) {
+            count++;
+          }
+          response[1] = (byte) function;
+          response[2] = (byte) (count * 2);
+          for (int i = 0; i < count; i++) {
+            int value = slaveId * 1000 + address + i;
+            response[3 + i * 2] = (byte) (value >>> 8);
+            response[4 + i * 2] = (byte) value;
+          }
+          length = 3 + count * 2;
+        }
+        try {
+          port.writeFully(response, 0, ModbusCrc.append(response, length), 1000);
+        } catch (Exception ex) {
+          return;
+        }
+      }
+    }
+  }
+
+  @Test
+  public void crcMatchesReferenceFrame() {
+    // read holding registers of slave 1, address 0, count 10
+    byte[] frame = {1, 3, 0, 0, 0, 10, 0, 0};
+
+    assertThat(ModbusCrc.append(frame, 6), is(8));
+
+    assertThat(frame[6] & 0xFF, is(0xC5));
+    assertThat(frame[7] & 0xFF, is(0xCD));
+    assertThat(ModbusCrc.crc16(frame, 0, 8), is(0));
+  }
+
+  @Test
+  public void pollCoalescesAdjacentRanges() {
+    ModbusPoll poll = new ModbusPoll();
+    poll.addHoldingRegisters(2, 10, 5);
+    poll.addHoldingRegisters(1, 0, 10);
+    poll.addHoldingRegisters(1, 10, 10);
+    poll.addInputRegisters(1, 20, 1);
+    poll.addHoldingRegisters(1, 22, 1);
+
+    assertThat(poll.getRequestCount(), is(4));
+
+    poll.setMaxGap(2);
+    assertThat(poll.getRequestCount(), is(3));
+  }
+
+  @Test
+  public void pollReadsManySlaves() throws Exception {
+    // given virtualcom port is available
+    Assume.assumeTrue(this.virtualPort.isAvailable());
+
+    final SerialPort masterPort = new SerialPort(this.virtualPort.getVirtualCom1().getAbsolutePath());
+    final SerialPort slavePort = new SerialPort(this.virtualPort.getVirtualCom2().getAbsolutePath());
+    Slave slave = null;
+    try {
+      masterPort.openPort();
+      slavePort.openPort();
+      // pseudo terminals have no modem lines, so setParams() reports failure
+      masterPort.setParams(SerialPort.BAUDRATE_115200, 8, 1, SerialPort.PARITY_NONE);
+      slave = new Slave(slavePort);
+      slave.start();
+
+      ModbusMaster master = new ModbusMaster(masterPort, SerialPort.BAUDRATE_115200);
+      ModbusPoll poll = new ModbusPoll();
+      int[] ranges = new int[10];
+      for (int slaveId = 1; slaveId <= ranges.length; slaveId++) {
+        ranges[slaveId - 1] = poll.addHoldingRegisters(slaveId, 0, 4);
+        poll.addHoldingRegisters(slaveId, 4, 4);
+      }
+      int rejected = poll.addHoldingRegisters(5, 98, 4);
+
+      // when polled repeatedly
+      int cycles = 20;
+      long start = System.nanoTime();
+      for (int i = 0; i < cycles; i++) {
+        // expect only the range beyond the registers of the slave to fail
+        assertThat(master.poll(poll), is(1));
+      }
+      long nanos = System.nanoTime() - start;
+      log.info("{} transactions/s", master.getTransactionCount() * 1000000000L / nanos);
+
+      assertThat(poll.getRequestCount(), is(11));
+      assertThat(poll.getRegister(ranges[6], 3), is(7003));
+      assertThat(poll.getFailure(rejected), notNullValue());
+      try {
+        poll.getRegister(rejected, 0);
+        fail();
+      } catch (ModbusException ex) {
+        assertThat(ex.getExceptionCode(), is(ModbusException.ILLEGAL_DATA_ADDRESS));
+      }
+
+      int[] values = new int[2];
+      master.readHoldingRegisters(3, 50, 2, values, 0);
+      assertThat(values[1], is(3051));
+
+      // when the byte count doesn't match the request, expect a corrupt response
+      slave.corrupt = true;
+      try {
+        master.readHoldingRegisters(3, 50, 2, values, 0);
+        fail();
+      } catch (ModbusException ex) {
+        assertThat(ex.getExceptionCode(), is(0));
+      }
+      // and the next transaction to start over cleanly
+      slave.corrupt = false;
+      master.readHoldingRegisters(4, 60, 2, values, 0);
+      assertThat(values[1], is(4061));
+    } finally {
+      if (slave != null) {
+        slave.stopped = true;
+        slave.join();
+      }
+      if (masterPort.isOpened()) {
+        masterPort.closePort();
+      }
+      if (slavePort.isOpened()) {
+        slavePort.closePort();
+      }
+    }
+  }
+}